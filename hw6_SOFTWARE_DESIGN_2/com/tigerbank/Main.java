@@ -1,16 +1,24 @@
 package com.tigerbank;
 
+import com.tigerbank.command.CommandExecutor;
+import com.tigerbank.command.CommandHistory;
+import com.tigerbank.command.CommandMetrics;
 import com.tigerbank.di.DIContainer;
 import com.tigerbank.domain.factory.DomainFactory;
 import com.tigerbank.domain.factory.DomainFactoryImpl;
+import com.tigerbank.event.DomainEventBus;
 import com.tigerbank.exporter.CsvExporter;
 import com.tigerbank.exporter.JsonExporter;
+import com.tigerbank.exporter.SnapshotExporter;
 import com.tigerbank.facade.AnalyticsFacade;
 import com.tigerbank.gui.MainFrame;
 import com.tigerbank.repository.*;
 import com.tigerbank.service.*;
+import com.tigerbank.storage.JournaledStorage;
 
 import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 public class Main {
     public static void main(String[] args) {
@@ -33,47 +41,83 @@ public class Main {
 
         container.registerSingleton(DomainFactory.class, DomainFactoryImpl::new);
 
-        OperationRepository operationRepo = new OperationRepository(null, null);
-        BankAccountRepository accountRepo = new BankAccountRepository(operationRepo);
-        CategoryRepository categoryRepo = new CategoryRepository(operationRepo);
-
-        operationRepo = new OperationRepository(accountRepo, categoryRepo);
+        // Команды пишут в потоке исполнителя, а интерфейс, фоновые загрузки
+        // и аналитика читают из своих потоков
+        BankAccountRepository accountRepo = new ConcurrentBankAccountRepository(null);
+        CategoryRepository categoryRepo = new ConcurrentCategoryRepository(null);
+        OperationRepository operationRepo = new ConcurrentOperationRepository(accountRepo, categoryRepo);
+        accountRepo.setOperationRepository(operationRepo);
+        categoryRepo.setOperationRepository(operationRepo);
 
         container.registerInstance(BankAccountRepository.class, accountRepo);
         container.registerInstance(CategoryRepository.class, categoryRepo);
         container.registerInstance(OperationRepository.class, operationRepo);
 
-        container.register(AccountService.class, () -> new AccountService(
-                container.resolve(BankAccountRepository.class),
-                container.resolve(OperationRepository.class)
+        JournaledStorage storage = new JournaledStorage(Paths.get("tigerbank-data"),
+                accountRepo, categoryRepo, operationRepo);
+        storage.open();
+        Runtime.getRuntime().addShutdownHook(new Thread(storage::close));
+        container.registerInstance(JournaledStorage.class, storage);
 
-        ));
+        ChangeLog changeLog = new ChangeLog();
+        changeLog.attach(accountRepo, categoryRepo, operationRepo);
+        container.registerInstance(ChangeLog.class, changeLog);
 
-        container.register(CategoryService.class, () -> new CategoryService(
-                container.resolve(CategoryRepository.class)
+        DomainEventBus eventBus = new DomainEventBus();
+        eventBus.attach(accountRepo, categoryRepo, operationRepo);
+        container.registerInstance(DomainEventBus.class, eventBus);
 
-        ));
+        CommandHistory history = new CommandHistory(CommandExecutor.DEFAULT_MAX_ENTRIES,
+                CommandExecutor.DEFAULT_MAX_BYTES, Paths.get("tigerbank-data", "command-history.log"));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                history.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }));
+        CommandMetrics metrics = new CommandMetrics();
+        container.registerInstance(CommandMetrics.class, metrics);
+        container.registerInstance(CommandExecutor.class, new CommandExecutor(history, metrics));
 
-        container.register(OperationService.class, () -> new OperationService(
+        container.registerSingleton(AccountService.class, () -> new AccountService(
+                container.resolve(BankAccountRepository.class),
                 container.resolve(OperationRepository.class),
-                container.resolve(AccountService.class),
-                container.resolve(CategoryService.class)
+                container.resolve(DomainFactory.class)));
 
-        ));
+        container.registerSingleton(CategoryService.class, () -> new CategoryService(
+                container.resolve(CategoryRepository.class),
+                container.resolve(DomainFactory.class)));
 
-        container.register(AnalyticsService.class, () -> new AnalyticsService(
+        container.registerSingleton(OperationService.class, () -> new OperationService(
+                container.resolve(OperationRepository.class),
+                container.resolve(AccountService.class),
+                container.resolve(CategoryService.class),
+                container.resolve(DomainFactory.class)));
+
+        container.registerSingleton(AnalyticsService.class, () -> new AnalyticsService(
                 container.resolve(OperationService.class),
                 container.resolve(CategoryService.class),
                 container.resolve(AccountService.class)));
 
-        container.register(AnalyticsFacade.class, () -> new AnalyticsFacade(
+        container.registerSingleton(AnalyticsFacade.class, () -> new AnalyticsFacade(
                 container.resolve(AnalyticsService.class),
                 container.resolve(OperationService.class),
                 container.resolve(CategoryService.class),
                 container.resolve(AccountService.class)));
 
+        container.registerSingleton(AnalyticsJobService.class, () -> new AnalyticsJobService(
+                container.resolve(AccountService.class),
+                container.resolve(CategoryService.class),
+                container.resolve(OperationService.class)));
+
         container.registerSingleton(CsvExporter.class, CsvExporter::new);
         container.registerSingleton(JsonExporter.class, JsonExporter::new);
+        container.registerSingleton(SnapshotExporter.class, SnapshotExporter::new);
+
+        container.start();
+        System.out.printf("Контейнер запущен за %.2f мс, создано объектов: %d%n",
+                container.getStartupTimeNanos() / 1_000_000.0, container.getStartupOrder().size());
 
         return container;
     }
@@ -1,10 +1,30 @@
 package com.tigerbank.command;
 
 public abstract class AbstractCommand implements Command {
+    /**
+     * Заголовок объекта, поля и ссылки на сервисы.
+     */
+    protected static final long BASE_SIZE = 64;
+
     protected long executionTime;
 
     @Override
     public long getExecutionTime() {
         return executionTime;
     }
+
+    @Override
+    public void setExecutionTime(long executionTime) {
+        this.executionTime = executionTime;
+    }
+
+    @Override
+    public long estimatedSize() {
+        return BASE_SIZE;
+    }
+
+    @Override
+    public boolean cancels(Command previous) {
+        return false;
+    }
 }
\ No newline at end of file
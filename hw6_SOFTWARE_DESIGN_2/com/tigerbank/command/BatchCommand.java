@@ -0,0 +1,111 @@
+package com.tigerbank.command;
+
+import com.tigerbank.service.OperationService;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Составная команда: вложенные команды выполняются как одно целое
+ * и отменяются одной записью истории. Подряд идущие CreateOperationCommand
+ * выполняются через пакет OperationService, поэтому баланс каждого счета
+ * обновляется один раз на группу. Если вложенная команда падает,
+ * уже выполненные отменяются в обратном порядке.
+ */
+public class BatchCommand extends AbstractCommand {
+    private final String name;
+    private final List<Command> commands = new ArrayList<>();
+    private int executed;
+
+    public BatchCommand(String name) {
+        this.name = name;
+    }
+
+    public BatchCommand add(Command command) {
+        commands.add(command);
+        return this;
+    }
+
+    public int size() {
+        return commands.size();
+    }
+
+    @Override
+    public void execute() {
+        executed = 0;
+        BatchRun run = new BatchRun();
+        try {
+            for (Command command : commands) {
+                if (command instanceof CreateOperationCommand) {
+                    CreateOperationCommand create = (CreateOperationCommand) command;
+                    create.executeIn(run.batch(create.getOperationService()));
+                } else {
+                    run.commit();
+                    command.execute();
+                }
+                executed++;
+            }
+            run.commit();
+        } catch (RuntimeException e) {
+            run.commit();
+            undoExecuted();
+            throw e;
+        }
+    }
+
+    @Override
+    public void undo() {
+        undoExecuted();
+    }
+
+    @Override
+    public long estimatedSize() {
+        long size = BASE_SIZE + 8L * commands.size();
+        for (Command command : commands) {
+            size += command.estimatedSize();
+        }
+        return size;
+    }
+
+    @Override
+    public String getName() {
+        return String.format("%s (%d команд)", name, commands.size());
+    }
+
+    private void undoExecuted() {
+        BatchRun run = new BatchRun();
+        for (int i = executed - 1; i >= 0; i--) {
+            Command command = commands.get(i);
+            if (command instanceof CreateOperationCommand) {
+                CreateOperationCommand create = (CreateOperationCommand) command;
+                create.undoIn(run.batch(create.getOperationService()));
+            } else {
+                run.commit();
+                command.undo();
+            }
+        }
+        run.commit();
+        executed = 0;
+    }
+
+    private static class BatchRun {
+        private OperationService service;
+        private OperationService.Batch batch;
+
+        OperationService.Batch batch(OperationService operationService) {
+            if (batch == null || service != operationService) {
+                commit();
+                service = operationService;
+                batch = operationService.batch();
+            }
+            return batch;
+        }
+
+        void commit() {
+            if (batch != null) {
+                batch.commit();
+                batch = null;
+                service = null;
+            }
+        }
+    }
+}
\ No newline at end of file
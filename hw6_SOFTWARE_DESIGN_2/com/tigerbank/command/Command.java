@@ -8,4 +8,17 @@ public interface Command {
     String getName();
 
     long getExecutionTime();
+
+    void setExecutionTime(long executionTime);
+
+    /**
+     * Примерный объем памяти, который команда удерживает в истории, в байтах.
+     */
+    long estimatedSize();
+
+    /**
+     * true, если выполнение этой команды сразу после previous
+     * полностью отменяет ее результат.
+     */
+    boolean cancels(Command previous);
 }
\ No newline at end of file
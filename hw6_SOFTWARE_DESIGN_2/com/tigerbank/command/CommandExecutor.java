@@ -1,46 +1,249 @@
 package com.tigerbank.command;
 
 import com.tigerbank.di.Singleton;
-import java.util.Stack;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 
+/**
+ * Выполняет команды и ведет ограниченную историю отмены и повтора.
+ * По умолчанию хранится не больше DEFAULT_MAX_ENTRIES команд
+ * и DEFAULT_MAX_BYTES оценочного объема в каждом стеке.
+ * <p>
+ * Методы submit* ставят работу в очередь единственного потока-исполнителя
+ * и сразу возвращают CompletableFuture. Поток запускается при первой такой
+ * заявке; после этого синхронные методы тоже проходят через очередь,
+ * так что команды, отмены и повторы всегда выполняются по одной
+ * и в порядке поступления.
+ */
 @Singleton
 public class CommandExecutor {
-    private final Stack<Command> history = new Stack<>();
-    private final Stack<Command> redoStack = new Stack<>();
+    public static final int DEFAULT_MAX_ENTRIES = 500;
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    private final CommandHistory history;
+    private final CommandHistory redoStack;
+    private final CommandMetrics metrics;
+    private final Queue<Task<?>> queue = new ConcurrentLinkedQueue<>();
+    // Проверка остановки и постановка в очередь выполняются под ним атомарно
+    private final Object enqueueLock = new Object();
+    private volatile Thread writer;
+    private volatile boolean shutdown;
+
+    public CommandExecutor() {
+        this(new CommandHistory(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES));
+    }
+
+    public CommandExecutor(CommandHistory history) {
+        this(history, new CommandMetrics());
+    }
+
+    public CommandExecutor(CommandHistory history, CommandMetrics metrics) {
+        this.history = history;
+        this.redoStack = new CommandHistory(history.capacity(), history.getMaxBytes());
+        this.metrics = metrics;
+    }
 
     public void executeCommand(Command command) {
-        long startTime = System.nanoTime();
-        command.execute();
-        long endTime = System.nanoTime();
+        call(() -> doExecute(command));
+    }
 
-        try {
-            java.lang.reflect.Field field = command.getClass().getSuperclass()
-                    .getDeclaredField("executionTime");
-            field.setAccessible(true);
-            field.set(command, endTime - startTime);
-        } catch (Exception e) {
+    /**
+     * Выполняет команды одним пакетом: одна запись в истории,
+     * одна отмена для всех.
+     */
+    public BatchCommand executeBatch(String name, Collection<? extends Command> commands) {
+        BatchCommand batch = new BatchCommand(name);
+        commands.forEach(batch::add);
+        executeCommand(batch);
+        return batch;
+    }
+
+    public void undo() {
+        call(this::doUndo);
+    }
+
+    public void redo() {
+        call(this::doRedo);
+    }
+
+    public CompletableFuture<Command> submit(Command command) {
+        return enqueue(() -> doExecute(command));
+    }
+
+    public CompletableFuture<BatchCommand> submitBatch(String name, Collection<? extends Command> commands) {
+        BatchCommand batch = new BatchCommand(name);
+        commands.forEach(batch::add);
+        return enqueue(() -> {
+            doExecute(batch);
+            return batch;
+        });
+    }
+
+    /**
+     * Отменяет последнюю команду; результат - отмененная команда
+     * или null, если отменять нечего.
+     */
+    public CompletableFuture<Command> submitUndo() {
+        return enqueue(this::doUndo);
+    }
+
+    public CompletableFuture<Command> submitRedo() {
+        return enqueue(this::doRedo);
+    }
+
+    /**
+     * Произвольная работа с данными (например, импорт), которая не попадает
+     * в историю, но должна выполняться строго между командами.
+     */
+    public <T> CompletableFuture<T> submitTask(Supplier<T> task) {
+        return enqueue(task);
+    }
+
+    /**
+     * Останавливает поток-исполнитель после выполнения уже принятых заявок.
+     * Заявки, поданные после остановки, сразу завершаются ошибкой.
+     */
+    public void shutdown() {
+        synchronized (enqueueLock) {
+            shutdown = true;
+        }
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
         }
+    }
 
-        history.push(command);
+    public CommandHistory getHistory() {
+        return history;
+    }
+
+    public CommandHistory getRedoStack() {
+        return redoStack;
+    }
+
+    public CommandMetrics getMetrics() {
+        return metrics;
+    }
+
+    private Command doExecute(Command command) {
         redoStack.clear();
+        return run(command);
     }
 
-    public void undo() {
-        if (!history.isEmpty()) {
-            Command command = history.pop();
+    private Command doUndo() {
+        Command command = history.pop();
+        if (command != null) {
             command.undo();
             redoStack.push(command);
         }
+        return command;
     }
 
-    public void redo() {
-        if (!redoStack.isEmpty()) {
-            Command command = redoStack.pop();
-            executeCommand(command);
+    private Command doRedo() {
+        Command command = redoStack.pop();
+        return command != null ? run(command) : null;
+    }
+
+    private Command run(Command command) {
+        long startTime = System.nanoTime();
+        try {
+            command.execute();
+        } catch (RuntimeException e) {
+            metrics.record(command.getClass(), System.nanoTime() - startTime, true);
+            throw e;
         }
+        long elapsed = System.nanoTime() - startTime;
+        command.setExecutionTime(elapsed);
+        metrics.record(command.getClass(), elapsed, false);
+        history.push(command);
+        return command;
     }
 
-    public Stack<Command> getHistory() {
-        return history;
+    /**
+     * Синхронный вызов: напрямую, пока поток-исполнитель не запущен
+     * (или если мы уже в нем), иначе через очередь с ожиданием.
+     */
+    private <T> T call(Supplier<T> action) {
+        Thread thread = writer;
+        if (thread == null || thread == Thread.currentThread()) {
+            return action.get();
+        }
+        try {
+            return enqueue(action).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<T> enqueue(Supplier<T> action) {
+        Task<T> task = new Task<>(action);
+        synchronized (enqueueLock) {
+            if (shutdown) {
+                task.future.completeExceptionally(new IllegalStateException("Исполнитель команд остановлен"));
+                return task.future;
+            }
+            queue.offer(task);
+        }
+        LockSupport.unpark(startWriter());
+        return task.future;
+    }
+
+    private Thread startWriter() {
+        Thread thread = writer;
+        if (thread != null) {
+            return thread;
+        }
+        synchronized (this) {
+            if (writer == null) {
+                thread = new Thread(this::drain, "command-executor");
+                thread.setDaemon(true);
+                writer = thread;
+                thread.start();
+            }
+            return writer;
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Task<?> task = queue.poll();
+            if (task != null) {
+                task.run();
+            } else if (shutdown) {
+                // Заявки, принятые до остановки, могли встать в очередь
+                // уже после пустого poll(): выполняем и их
+                while ((task = queue.poll()) != null) {
+                    task.run();
+                }
+                return;
+            } else {
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    private static final class Task<T> {
+        final Supplier<T> action;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Task(Supplier<T> action) {
+            this.action = action;
+        }
+
+        void run() {
+            try {
+                future.complete(action.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
     }
 }
\ No newline at end of file
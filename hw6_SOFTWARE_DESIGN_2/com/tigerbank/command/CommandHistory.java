@@ -0,0 +1,198 @@
+package com.tigerbank.command;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+
+/**
+ * Ограниченная история команд на кольцевом буфере. Размер ограничен
+ * числом записей и суммарной оценкой занимаемой памяти: при переполнении
+ * вытесняются самые старые команды. Если задан журнал, вытесненные
+ * команды дописываются в него (время, длительность, название) и больше
+ * не отменяются.
+ * <p>
+ * Команда попадает в историю уже выполненной, поэтому ошибка записи
+ * журнала не выбрасывается: вытесненные записи остаются в памяти
+ * (не больше емкости истории) и дописываются при следующем вытеснении.
+ */
+public class CommandHistory implements Closeable {
+    private final Command[] entries;
+    private final long maxBytes;
+    private final Path spillLog;
+    private DataOutputStream spill;
+    private final ArrayDeque<Spilled> unwritten = new ArrayDeque<>();
+    private int head;
+    private int size;
+    private long bytes;
+    private long evicted;
+
+    public CommandHistory(int maxEntries, long maxBytes) {
+        this(maxEntries, maxBytes, null);
+    }
+
+    public CommandHistory(int maxEntries, long maxBytes, Path spillLog) {
+        if (maxEntries <= 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException("Размер истории должен быть положительным");
+        }
+        this.entries = new Command[maxEntries];
+        this.maxBytes = maxBytes;
+        this.spillLog = spillLog;
+    }
+
+    /**
+     * Добавляет команду. Если она отменяет предыдущую (например, удаление
+     * только что созданного счета), обе записи убираются из истории.
+     */
+    public void push(Command command) {
+        if (size > 0 && command.cancels(peek())) {
+            pop();
+            return;
+        }
+        if (size == entries.length) {
+            evictOldest();
+        }
+        entries[(head + size) % entries.length] = command;
+        size++;
+        bytes += command.estimatedSize();
+        while (bytes > maxBytes && size > 1) {
+            evictOldest();
+        }
+        writeSpill();
+    }
+
+    public Command pop() {
+        if (size == 0) {
+            return null;
+        }
+        int index = (head + size - 1) % entries.length;
+        Command command = entries[index];
+        entries[index] = null;
+        size--;
+        bytes -= command.estimatedSize();
+        return command;
+    }
+
+    public Command peek() {
+        return size == 0 ? null : entries[(head + size - 1) % entries.length];
+    }
+
+    /**
+     * Команда по номеру от самой новой (0) к самой старой.
+     */
+    public Command get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Индекс: " + index + ", размер: " + size);
+        }
+        return entries[(head + size - 1 - index) % entries.length];
+    }
+
+    public void clear() {
+        while (size > 0) {
+            pop();
+        }
+        head = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return entries.length;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getEstimatedBytes() {
+        return bytes;
+    }
+
+    public long getEvictedCount() {
+        return evicted;
+    }
+
+    /**
+     * Число вытесненных команд, которые еще не удалось записать в журнал.
+     */
+    public int getUnwrittenCount() {
+        return unwritten.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeSpill();
+        if (spill != null) {
+            spill.close();
+            spill = null;
+        }
+    }
+
+    private void evictOldest() {
+        Command command = entries[head];
+        entries[head] = null;
+        head = (head + 1) % entries.length;
+        size--;
+        bytes -= command.estimatedSize();
+        evicted++;
+        if (spillLog != null) {
+            if (unwritten.size() == entries.length) {
+                unwritten.poll();
+            }
+            unwritten.add(new Spilled(System.currentTimeMillis(), command));
+        }
+    }
+
+    private void writeSpill() {
+        if (unwritten.isEmpty()) {
+            return;
+        }
+        try {
+            if (spill == null) {
+                spill = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillLog,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE)));
+            }
+            for (Spilled entry : unwritten) {
+                spill.writeLong(entry.time);
+                spill.writeLong(entry.command.getExecutionTime());
+                spill.writeUTF(entry.command.getName());
+            }
+            spill.flush();
+            unwritten.clear();
+        } catch (IOException e) {
+            System.err.println("Не удалось записать журнал истории команд: " + e.getMessage());
+            closeSpillQuietly();
+        }
+    }
+
+    private void closeSpillQuietly() {
+        if (spill != null) {
+            try {
+                spill.close();
+            } catch (IOException ignored) {
+                // поток уже сломан, записи остаются в unwritten
+            }
+            spill = null;
+        }
+    }
+
+    private static final class Spilled {
+        final long time;
+        final Command command;
+
+        Spilled(long time, Command command) {
+            this.time = time;
+            this.command = command;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.tigerbank.command;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Метрики выполнения команд по их классам: число выполнений, ошибки
+ * и гистограмма длительности. Заполняется CommandExecutor, запись
+ * не берет блокировок.
+ */
+public class CommandMetrics {
+    private final Map<Class<?>, Entry> entries = new ConcurrentHashMap<>();
+
+    public void record(Class<? extends Command> type, long nanos, boolean failed) {
+        Entry entry = entries.get(type);
+        if (entry == null) {
+            entry = entries.computeIfAbsent(type, key -> new Entry());
+        }
+        entry.histogram.record(nanos);
+        if (failed) {
+            entry.errors.increment();
+        }
+    }
+
+    /**
+     * Текущие значения по всем классам команд, отсортированные по имени.
+     */
+    public List<CommandStats> snapshot() {
+        List<CommandStats> result = new ArrayList<>(entries.size());
+        entries.forEach((type, entry) -> result.add(new CommandStats(type.getSimpleName(),
+                entry.histogram.getCount(),
+                entry.errors.sum(),
+                entry.histogram.getMean(),
+                entry.histogram.getValueAtPercentile(50),
+                entry.histogram.getValueAtPercentile(99),
+                entry.histogram.getMax())));
+        result.sort(Comparator.comparing(CommandStats::getCommandType));
+        return result;
+    }
+
+    public void reset() {
+        entries.clear();
+    }
+
+    /**
+     * Текстовый отчет: одна строка на класс команд, время в миллисекундах.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-28s %10s %8s %10s %10s %10s%n",
+                "Команда", "Выполнено", "Ошибок", "p50, мс", "p99, мс", "max, мс"));
+        for (CommandStats stats : snapshot()) {
+            report.append(String.format("%-28s %10d %8d %10.3f %10.3f %10.3f%n",
+                    stats.getCommandType(), stats.getCount(), stats.getErrors(),
+                    stats.getP50() / 1_000_000.0, stats.getP99() / 1_000_000.0,
+                    stats.getMax() / 1_000_000.0));
+        }
+        return report.toString();
+    }
+
+    private static final class Entry {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+    }
+}
\ No newline at end of file
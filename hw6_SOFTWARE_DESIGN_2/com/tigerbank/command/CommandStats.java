@@ -0,0 +1,63 @@
+package com.tigerbank.command;
+
+/**
+ * Снимок метрик одного класса команд. Время в наносекундах.
+ */
+public class CommandStats {
+    private final String commandType;
+    private final long count;
+    private final long errors;
+    private final double mean;
+    private final long p50;
+    private final long p99;
+    private final long max;
+
+    public CommandStats(String commandType, long count, long errors,
+            double mean, long p50, long p99, long max) {
+        this.commandType = commandType;
+        this.count = count;
+        this.errors = errors;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    public String getCommandType() {
+        return commandType;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public double getErrorRate() {
+        return count == 0 ? 0 : (double) errors / count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d выполнений, %d ошибок, p50=%d нс, p99=%d нс, max=%d нс",
+                commandType, count, errors, p50, p99, max);
+    }
+}
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.tigerbank.command;
 
 import com.tigerbank.domain.BankAccount;
 import com.tigerbank.service.AccountService;
+import java.util.UUID;
 
 public class CreateAccountCommand extends AbstractCommand {
     private final AccountService accountService;
@@ -25,6 +26,15 @@ public class CreateAccountCommand extends AbstractCommand {
         }
     }
 
+    @Override
+    public long estimatedSize() {
+        return BASE_SIZE + 2L * accountName.length();
+    }
+
+    UUID getCreatedAccountId() {
+        return createdAccount != null ? createdAccount.getId() : null;
+    }
+
     @Override
     public String getName() {
         return String.format("Создание счета: %s", accountName);
@@ -40,6 +40,25 @@ public class CreateOperationCommand extends AbstractCommand {
         }
     }
 
+    @Override
+    public long estimatedSize() {
+        return BASE_SIZE + 2L * (description != null ? description.length() : 0);
+    }
+
+    OperationService getOperationService() {
+        return operationService;
+    }
+
+    void executeIn(OperationService.Batch batch) {
+        this.createdOperation = batch.createOperation(type, accountId, amount, categoryId, description);
+    }
+
+    void undoIn(OperationService.Batch batch) {
+        if (createdOperation != null) {
+            batch.deleteOperation(createdOperation.getId());
+        }
+    }
+
     @Override
     public String getName() {
         return String.format("Создание операции %s: %.2f",
@@ -4,15 +4,30 @@ import com.tigerbank.domain.BankAccount;
 import com.tigerbank.domain.Operation;
 import com.tigerbank.service.AccountService;
 import com.tigerbank.service.OperationService;
+import com.tigerbank.storage.EntityCodec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
 
+/**
+ * Удаление счета вместе с его операциями. Для отмены операции хранятся
+ * не объектами, а в сжатом двоичном виде (EntityCodec), чтобы команда
+ * в истории занимала минимум памяти.
+ */
 public class DeleteAccountCommand extends AbstractCommand {
     private final AccountService accountService;
     private final OperationService operationService;
     private final UUID accountId;
-    private BankAccount deletedAccount;
-    private List<Operation> deletedOperations;
+    private String deletedName;
+    private BigDecimal deletedBalance;
+    private byte[] deletedOperations;
+    private int deletedOperationCount;
 
     public DeleteAccountCommand(AccountService accountService,
             OperationService operationService,
@@ -24,26 +39,76 @@ public class DeleteAccountCommand extends AbstractCommand {
 
     @Override
     public void execute() {
-        deletedAccount = accountService.getAccount(accountId).orElse(null);
-        if (deletedAccount != null) {
-            deletedOperations = operationService.getOperationsByAccount(accountId);
-            for (Operation op : deletedOperations) {
-                operationService.deleteOperation(op.getId());
-            }
-            accountService.deleteAccount(accountId);
+        BankAccount account = accountService.getAccount(accountId).orElse(null);
+        deletedName = account != null ? account.getName() : null;
+        deletedOperations = null;
+        deletedOperationCount = 0;
+        if (account == null) {
+            return;
+        }
+        deletedBalance = account.getBalance();
+
+        List<Operation> operations = operationService.getOperationsByAccount(accountId);
+        deletedOperations = encode(operations);
+        deletedOperationCount = operations.size();
+
+        OperationService.Batch batch = operationService.batch();
+        for (Operation op : operations) {
+            batch.deleteOperation(op.getId());
         }
+        batch.commit();
+        accountService.deleteAccount(accountId);
     }
 
     @Override
     public void undo() {
-        if (deletedAccount != null) {
-            accountService.createAccount(deletedAccount.getName());
+        if (deletedName == null) {
+            return;
         }
+        accountService.createAccount(accountId, deletedName, deletedBalance);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(deletedOperations))) {
+            for (int i = 0; i < deletedOperationCount; i++) {
+                Operation op = EntityCodec.readOperation(in);
+                operationService.createOperation(op.getId(), op.getType(), op.getBankAccountId(),
+                        op.getAmount(), op.getDate(), op.getDescription(), op.getCategoryId());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public long estimatedSize() {
+        return BASE_SIZE + (deletedName != null ? 2L * deletedName.length() : 0)
+                + (deletedOperations != null ? deletedOperations.length : 0);
+    }
+
+    /**
+     * Удаление только что созданного пустого счета сводит обе команды на нет.
+     */
+    @Override
+    public boolean cancels(Command previous) {
+        return previous instanceof CreateAccountCommand
+                && accountId.equals(((CreateAccountCommand) previous).getCreatedAccountId())
+                && deletedName != null
+                && deletedOperationCount == 0;
     }
 
     @Override
     public String getName() {
         return String.format("Удаление счета: %s",
-                deletedAccount != null ? deletedAccount.getName() : "Unknown");
+                deletedName != null ? deletedName : "Unknown");
+    }
+
+    private static byte[] encode(List<Operation> operations) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(operations.size() * 96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (Operation op : operations) {
+                EntityCodec.writeOperation(out, op);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
     }
 }
\ No newline at end of file
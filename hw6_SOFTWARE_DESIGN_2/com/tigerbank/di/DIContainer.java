@@ -1,43 +1,160 @@
 package com.tigerbank.di;
 
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
+/**
+ * Контейнер зависимостей. Для каждого типа хранится одна привязка,
+ * в которой при регистрации запоминается область жизни (одиночка или
+ * новый объект на каждый запрос), поэтому resolve - это один поиск
+ * в хеш-таблице без рефлексии.
+ * <p>
+ * start() создает всех одиночек заранее. Зависимости одиночки
+ * создаются раньше нее (обход в глубину по вызовам resolve внутри
+ * фабрик), так что порядок создания топологический; граф зависимостей
+ * запоминается, а циклы обнаруживаются по стеку создаваемых типов.
+ */
 public class DIContainer {
-    private final Map<Class<?>, Supplier<?>> dependencies = new HashMap<>();
-    private final Map<Class<?>, Object> singletons = new HashMap<>();
+    private final Map<Class<?>, Binding> bindings = new ConcurrentHashMap<>();
+    private final List<Binding> registrationOrder = new ArrayList<>();
+    private final Map<Class<?>, Set<Class<?>>> graph = new ConcurrentHashMap<>();
+    private final List<Class<?>> startupOrder = Collections.synchronizedList(new ArrayList<>());
+    private final ThreadLocal<Deque<Class<?>>> constructionPath = ThreadLocal.withInitial(ArrayDeque::new);
+    private long startupTimeNanos;
 
+    /**
+     * Область жизни определяется аннотацией @Singleton на типе.
+     */
     public <T> void register(Class<T> type, Supplier<T> supplier) {
-        dependencies.put(type, supplier);
+        bind(new Binding(type, supplier, type.isAnnotationPresent(Singleton.class)));
     }
 
     public <T> void registerSingleton(Class<T> type, Supplier<T> supplier) {
-        singletons.put(type, supplier.get());
+        bind(new Binding(type, supplier, true));
+    }
+
+    public <T> void registerInstance(Class<T> type, T instance) {
+        Binding binding = new Binding(type, null, true);
+        binding.instance = instance;
+        bind(binding);
     }
 
     @SuppressWarnings("unchecked")
     public <T> T resolve(Class<T> type) {
+        Binding binding = bindings.get(type);
+        if (binding == null) {
+            throw new RuntimeException("Зависимость не найдена для типа: " + type.getName());
+        }
+        Object instance = binding.instance;
+        if (instance != null) {
+            return (T) instance;
+        }
+        return type.cast(create(binding));
+    }
 
-        if (singletons.containsKey(type)) {
-            return (T) singletons.get(type);
+    /**
+     * Создает всех зарегистрированных одиночек в порядке зависимостей.
+     */
+    public void start() {
+        long startTime = System.nanoTime();
+        List<Binding> snapshot;
+        synchronized (registrationOrder) {
+            snapshot = new ArrayList<>(registrationOrder);
         }
+        for (Binding binding : snapshot) {
+            if (binding.singleton && binding.instance == null) {
+                create(binding);
+            }
+        }
+        startupTimeNanos = System.nanoTime() - startTime;
+    }
 
-        Supplier<?> supplier = dependencies.get(type);
-        if (supplier == null) {
-            throw new RuntimeException("Зависимость не найдена для типа: " + type.getName());
+    public long getStartupTimeNanos() {
+        return startupTimeNanos;
+    }
+
+    /**
+     * Одиночки в том порядке, в котором они были созданы фабриками.
+     */
+    public List<Class<?>> getStartupOrder() {
+        synchronized (startupOrder) {
+            return new ArrayList<>(startupOrder);
+        }
+    }
+
+    /**
+     * Типы, которые фабрика данного типа запрашивала у контейнера.
+     */
+    public Set<Class<?>> getDependencies(Class<?> type) {
+        Set<Class<?>> dependencies = graph.get(type);
+        return dependencies != null ? Collections.unmodifiableSet(dependencies) : Collections.emptySet();
+    }
+
+    private void bind(Binding binding) {
+        bindings.put(binding.type, binding);
+        synchronized (registrationOrder) {
+            registrationOrder.removeIf(existing -> existing.type == binding.type);
+            registrationOrder.add(binding);
+        }
+    }
+
+    private Object create(Binding binding) {
+        Deque<Class<?>> path = constructionPath.get();
+        if (path.contains(binding.type)) {
+            throw new IllegalStateException("Циклическая зависимость: " + describeCycle(path, binding.type));
+        }
+        Class<?> dependent = path.peek();
+        if (dependent != null) {
+            graph.computeIfAbsent(dependent, key -> ConcurrentHashMap.newKeySet()).add(binding.type);
         }
 
-        T instance = type.cast(supplier.get());
+        path.push(binding.type);
+        Object instance;
+        try {
+            instance = binding.type.cast(binding.supplier.get());
+        } finally {
+            path.pop();
+        }
 
-        if (type.isAnnotationPresent(Singleton.class)) {
-            singletons.put(type, instance);
+        if (!binding.singleton) {
+            return instance;
+        }
+        synchronized (binding) {
+            if (binding.instance == null) {
+                binding.instance = instance;
+                startupOrder.add(binding.type);
+            }
+            return binding.instance;
         }
+    }
 
-        return instance;
+    private static String describeCycle(Deque<Class<?>> path, Class<?> repeated) {
+        List<Class<?>> chain = new ArrayList<>(path);
+        Collections.reverse(chain);
+        StringBuilder cycle = new StringBuilder();
+        for (Class<?> type : chain.subList(chain.indexOf(repeated), chain.size())) {
+            cycle.append(type.getSimpleName()).append(" -> ");
+        }
+        return cycle.append(repeated.getSimpleName()).toString();
     }
 
-    public <T> void registerInstance(Class<T> type, T instance) {
-        singletons.put(type, instance);
+    private static final class Binding {
+        final Class<?> type;
+        final Supplier<?> supplier;
+        final boolean singleton;
+        volatile Object instance;
+
+        Binding(Class<?> type, Supplier<?> supplier, boolean singleton) {
+            this.type = type;
+            this.supplier = supplier;
+            this.singleton = singleton;
+        }
     }
 }
\ No newline at end of file
@@ -4,16 +4,20 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 public class BankAccount {
     private UUID id;
     private String name;
-    private BigDecimal balance;
+    // Баланс читают интерфейс, снимки и экспорт без блокировок,
+    // поэтому значение неизменяемое и заменяется целиком
+    private volatile Balance balance;
     private List<Operation> operations = new ArrayList<>();
+    private Supplier<List<Operation>> operationsLoader;
 
     public BankAccount() {
         this.id = UUID.randomUUID();
-        this.balance = BigDecimal.ZERO;
+        setBalance(BigDecimal.ZERO);
     }
 
     public BankAccount(String name) {
@@ -24,7 +28,7 @@ public class BankAccount {
     public BankAccount(UUID id, String name, BigDecimal balance) {
         this.id = id;
         this.name = name;
-        this.balance = balance;
+        setBalance(balance);
     }
 
     public UUID getId() {
@@ -43,36 +47,80 @@ public class BankAccount {
         this.name = name;
     }
 
+    /**
+     * Баланс хранится в копейках; BigDecimal создается при первом
+     * чтении значения и кэшируется в нем.
+     */
     public BigDecimal getBalance() {
-        return balance;
+        return balance.toBigDecimal();
     }
 
     public void setBalance(BigDecimal balance) {
-        this.balance = balance;
+        this.balance = balance == null || !Money.isRepresentable(balance)
+                ? new Balance(balance)
+                : new Balance(Money.of(balance), balance);
+    }
+
+    /**
+     * Прибавляет сумму в копейках; при переполнении баланс
+     * переходит на BigDecimal.
+     */
+    public void addToBalance(Money amount) {
+        Balance current = balance;
+        if (current.scaled) {
+            long sum = current.minor + amount.getMinorUnits();
+            if (((current.minor ^ sum) & (amount.getMinorUnits() ^ sum)) >= 0) {
+                balance = new Balance(sum, Math.max(current.scale, amount.getScale()));
+                return;
+            }
+        }
+        setBalance(current.toBigDecimal().add(amount.toBigDecimal()));
+    }
+
+    public void subtractFromBalance(Money amount) {
+        Balance current = balance;
+        if (current.scaled) {
+            long difference = current.minor - amount.getMinorUnits();
+            if (((current.minor ^ amount.getMinorUnits()) & (current.minor ^ difference)) >= 0) {
+                balance = new Balance(difference, Math.max(current.scale, amount.getScale()));
+                return;
+            }
+        }
+        setBalance(current.toBigDecimal().subtract(amount.toBigDecimal()));
     }
 
     public List<Operation> getOperations() {
+        if (operationsLoader != null) {
+            List<Operation> loaded = operationsLoader.get();
+            operationsLoader = null;
+            operations.clear();
+            operations.addAll(loaded);
+        }
         return operations;
     }
 
+    public void setOperationsLoader(Supplier<List<Operation>> operationsLoader) {
+        this.operationsLoader = operationsLoader;
+    }
+
     public void addOperation(Operation operation) {
-        operations.add(operation);
+        getOperations().add(operation);
     }
 
     public void removeOperation(Operation operation) {
-        operations.remove(operation);
+        getOperations().remove(operation);
     }
 
     @Override
     public String toString() {
-        return String.format("%s (Баланс: %.2f)", name, balance);
+        return String.format("%s (Баланс: %.2f)", name, getBalance());
     }
 
     public String toCsv() {
         return String.join(",",
                 id.toString(),
                 name.replace(",", " "),
-                balance.toString());
+                getBalance().toString());
     }
 
     public String toJson() {
@@ -80,6 +128,47 @@ public class BankAccount {
                 "{\"id\":\"%s\",\"name\":\"%s\",\"balance\":%s}",
                 id.toString(),
                 name.replace("\"", "\\\""),
-                balance);
+                getBalance());
+    }
+
+    private static final class Balance {
+        final long minor;
+        final int scale;
+        // false, если баланс не помещается в копейки long (или null)
+        final boolean scaled;
+        final BigDecimal exact;
+        private BigDecimal view;
+
+        Balance(long minor, int scale) {
+            this.minor = minor;
+            this.scale = scale;
+            this.scaled = true;
+            this.exact = null;
+        }
+
+        Balance(Money money, BigDecimal view) {
+            this(money.getMinorUnits(), money.getScale());
+            this.view = view;
+        }
+
+        Balance(BigDecimal exact) {
+            this.minor = 0;
+            this.scale = 0;
+            this.scaled = false;
+            this.exact = exact;
+        }
+
+        BigDecimal toBigDecimal() {
+            if (!scaled) {
+                return exact;
+            }
+            BigDecimal result = view;
+            if (result == null) {
+                // Гонка безопасна: значение вычисляется из final-полей
+                result = Money.toBigDecimal(minor, scale);
+                view = result;
+            }
+            return result;
+        }
     }
 }
\ No newline at end of file
@@ -4,12 +4,14 @@ import com.tigerbank.enums.OperationType;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 public class Category {
     private UUID id;
     private OperationType type;
     private String name;
     private List<Operation> operations = new ArrayList<>();
+    private Supplier<List<Operation>> operationsLoader;
 
     public Category() {
         this.id = UUID.randomUUID();
@@ -52,15 +54,25 @@ public class Category {
     }
 
     public List<Operation> getOperations() {
+        if (operationsLoader != null) {
+            List<Operation> loaded = operationsLoader.get();
+            operationsLoader = null;
+            operations.clear();
+            operations.addAll(loaded);
+        }
         return operations;
     }
 
+    public void setOperationsLoader(Supplier<List<Operation>> operationsLoader) {
+        this.operationsLoader = operationsLoader;
+    }
+
     public void addOperation(Operation operation) {
-        operations.add(operation);
+        getOperations().add(operation);
     }
 
     public void removeOperation(Operation operation) {
-        operations.remove(operation);
+        getOperations().remove(operation);
     }
 
     @Override
@@ -0,0 +1,114 @@
+package com.tigerbank.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * Денежная сумма в копейках: long с фиксированным масштабом 2.
+ * Сложение и вычитание проверяют переполнение и бросают
+ * ArithmeticException. Запоминается и число знаков после запятой
+ * исходного значения (от 0 до 2), чтобы toBigDecimal() давал то же
+ * представление, что и арифметика BigDecimal; на равенство
+ * и сравнение оно не влияет.
+ */
+public final class Money implements Comparable<Money> {
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0, 0);
+
+    /**
+     * Целая часть не длиннее 16 цифр, чтобы сумма в копейках
+     * гарантированно помещалась в long.
+     */
+    private static final int MAX_INTEGER_DIGITS = 16;
+    private static final long[] FACTORS = {100, 10, 1};
+
+    private final long minor;
+    private final int scale;
+
+    private Money(long minor, int scale) {
+        this.minor = minor;
+        this.scale = scale;
+    }
+
+    public static Money ofMinor(long minor) {
+        return new Money(minor, SCALE);
+    }
+
+    /**
+     * Сумма в копейках с представлением из scale знаков после запятой;
+     * копейки должны делиться на соответствующую степень десяти.
+     */
+    public static Money ofMinor(long minor, int scale) {
+        if (scale < 0 || scale > SCALE || minor % FACTORS[scale] != 0) {
+            throw new IllegalArgumentException("Неверный масштаб суммы: " + minor + ", " + scale);
+        }
+        return new Money(minor, scale);
+    }
+
+    public static boolean isRepresentable(BigDecimal value) {
+        int scale = value.scale();
+        return scale >= 0 && scale <= SCALE && value.precision() - scale <= MAX_INTEGER_DIGITS;
+    }
+
+    public static Money of(BigDecimal value) {
+        if (!isRepresentable(value)) {
+            throw new ArithmeticException("Сумма не помещается в Money: " + value);
+        }
+        return new Money(value.movePointRight(SCALE).longValueExact(), value.scale());
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minor, other.minor), Math.max(scale, other.scale));
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minor, other.minor), Math.max(scale, other.scale));
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minor), scale);
+    }
+
+    public int signum() {
+        return Long.signum(minor);
+    }
+
+    public boolean isZero() {
+        return minor == 0;
+    }
+
+    public long getMinorUnits() {
+        return minor;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(minor, scale);
+    }
+
+    static BigDecimal toBigDecimal(long minor, int scale) {
+        return BigDecimal.valueOf(minor / FACTORS[scale], scale);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minor, other.minor);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Money && minor == ((Money) o).minor;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minor);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toString();
+    }
+}
\ No newline at end of file
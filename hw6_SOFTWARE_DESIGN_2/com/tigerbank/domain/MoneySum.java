@@ -0,0 +1,107 @@
+package com.tigerbank.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * Накопитель денежных сумм для агрегатов и отчетов. Копейки копятся
+ * в long без выделения памяти; при переполнении и для сумм, которые
+ * не помещаются в Money, остаток уходит в BigDecimal. Масштаб
+ * результата наибольший из сложенных, как у BigDecimal.add.
+ * Экземпляр не потокобезопасен.
+ */
+public final class MoneySum {
+    private long minor;
+    private int scale;
+    private BigDecimal overflow;
+
+    public void add(Money amount) {
+        add(amount.getMinorUnits(), amount.getScale());
+    }
+
+    public void subtract(Money amount) {
+        long value = amount.getMinorUnits();
+        if (value == Long.MIN_VALUE) {
+            spill(amount.toBigDecimal().negate());
+        } else {
+            add(-value, amount.getScale());
+        }
+    }
+
+    public void add(BigDecimal amount) {
+        if (Money.isRepresentable(amount)) {
+            add(Money.of(amount));
+        } else {
+            spill(amount);
+        }
+    }
+
+    public void subtract(BigDecimal amount) {
+        add(amount.negate());
+    }
+
+    /**
+     * Сумма операции: через Money, если она представима.
+     */
+    public void add(Operation operation) {
+        Money money = operation.getMoney();
+        if (money != null) {
+            add(money);
+        } else {
+            add(operation.getAmount());
+        }
+    }
+
+    public void subtract(Operation operation) {
+        Money money = operation.getMoney();
+        if (money != null) {
+            subtract(money);
+        } else {
+            subtract(operation.getAmount());
+        }
+    }
+
+    public void addAll(MoneySum other) {
+        add(other.minor, other.scale);
+        if (other.overflow != null) {
+            spill(other.overflow);
+        }
+    }
+
+    public int signum() {
+        return overflow == null ? Long.signum(minor) : toBigDecimal().signum();
+    }
+
+    /**
+     * Итог как Money или null, если он ушел в BigDecimal.
+     */
+    public Money toMoney() {
+        return overflow == null ? Money.ofMinor(minor, scale) : null;
+    }
+
+    public BigDecimal toBigDecimal() {
+        BigDecimal value = Money.toBigDecimal(minor, scale);
+        return overflow == null ? value : value.add(overflow);
+    }
+
+    public void clear() {
+        minor = 0;
+        scale = 0;
+        overflow = null;
+    }
+
+    private void add(long value, int valueScale) {
+        long sum = minor + value;
+        if (((minor ^ sum) & (value ^ sum)) < 0) {
+            spill(Money.toBigDecimal(value, valueScale));
+            return;
+        }
+        minor = sum;
+        if (valueScale > scale) {
+            scale = valueScale;
+        }
+    }
+
+    private void spill(BigDecimal amount) {
+        overflow = overflow == null ? amount : overflow.add(amount);
+    }
+}
\ No newline at end of file
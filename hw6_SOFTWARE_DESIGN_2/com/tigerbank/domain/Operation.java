@@ -7,11 +7,14 @@ import java.time.format.DateTimeFormatter;
 import java.util.UUID;
 
 public class Operation {
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private UUID id;
     private OperationType type;
     private UUID bankAccountId;
     private BankAccount bankAccount;
     private BigDecimal amount;
+    private Money money;
     private LocalDateTime date;
     private String description;
     private UUID categoryId;
@@ -42,6 +45,16 @@ public class Operation {
         this.categoryId = categoryId;
     }
 
+    /**
+     * Сумма в копейках, например при импорте: BigDecimal создается
+     * только при обращении к getAmount().
+     */
+    public Operation(UUID id, OperationType type, UUID bankAccountId,
+            Money money, LocalDateTime date, String description, UUID categoryId) {
+        this(id, type, bankAccountId, (BigDecimal) null, date, description, categoryId);
+        this.money = money;
+    }
+
     public UUID getId() {
         return id;
     }
@@ -76,11 +89,26 @@ public class Operation {
     }
 
     public BigDecimal getAmount() {
+        if (amount == null && money != null) {
+            amount = money.toBigDecimal();
+        }
         return amount;
     }
 
     public void setAmount(BigDecimal amount) {
         this.amount = amount;
+        this.money = null;
+    }
+
+    /**
+     * Сумма как Money или null, если ее нет или она не помещается
+     * в копейки long.
+     */
+    public Money getMoney() {
+        if (money == null && amount != null && Money.isRepresentable(amount)) {
+            money = Money.of(amount);
+        }
+        return money;
     }
 
     public LocalDateTime getDate() {
@@ -118,34 +146,50 @@ public class Operation {
 
     @Override
     public String toString() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
         return String.format("%s: %.2f - %s",
-                type.getDescription(), amount,
+                type.getDescription(), getAmount(),
                 description != null ? description : "без описания");
     }
 
     public String toCsv() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        return String.join(",",
-                id.toString(),
-                type.name(),
-                bankAccountId != null ? bankAccountId.toString() : "",
-                amount.toString(),
-                date.format(formatter),
-                description != null ? description.replace(",", " ") : "",
-                categoryId != null ? categoryId.toString() : "");
+        StringBuilder csv = new StringBuilder(160);
+        csv.append(id).append(',')
+                .append(type.name()).append(',');
+        if (bankAccountId != null) {
+            csv.append(bankAccountId);
+        }
+        csv.append(',').append(getAmount().toString()).append(',');
+        DATE_FORMATTER.formatTo(date, csv);
+        csv.append(',');
+        if (description != null) {
+            csv.append(description.replace(",", " "));
+        }
+        csv.append(',');
+        if (categoryId != null) {
+            csv.append(categoryId);
+        }
+        return csv.toString();
     }
 
     public String toJson() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        return String.format(
-                "{\"id\":\"%s\",\"type\":\"%s\",\"bankAccountId\":\"%s\",\"amount\":%s,\"date\":\"%s\",\"description\":\"%s\",\"categoryId\":\"%s\"}",
-                id.toString(),
-                type.name(),
-                bankAccountId != null ? bankAccountId.toString() : "",
-                amount,
-                date.format(formatter),
-                description != null ? description.replace("\"", "\\\"") : "",
-                categoryId != null ? categoryId.toString() : "");
+        StringBuilder json = new StringBuilder(224);
+        json.append("{\"id\":\"").append(id)
+                .append("\",\"type\":\"").append(type.name())
+                .append("\",\"bankAccountId\":\"");
+        if (bankAccountId != null) {
+            json.append(bankAccountId);
+        }
+        json.append("\",\"amount\":").append(getAmount().toString())
+                .append(",\"date\":\"");
+        DATE_FORMATTER.formatTo(date, json);
+        json.append("\",\"description\":\"");
+        if (description != null) {
+            json.append(description.replace("\"", "\\\""));
+        }
+        json.append("\",\"categoryId\":\"");
+        if (categoryId != null) {
+            json.append(categoryId);
+        }
+        return json.append("\"}").toString();
     }
 }
\ No newline at end of file
@@ -0,0 +1,138 @@
+package com.tigerbank.event;
+
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Operation;
+import com.tigerbank.repository.ChangeSet;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Изменение доменной сущности. Для создания и изменения событие
+ * несет сохраненную сущность, для удаления - только id, очистка
+ * раздела не несет ни того, ни другого.
+ */
+public final class DomainEvent {
+    public enum Change {
+        CREATED, UPDATED, DELETED, CLEARED
+    }
+
+    public enum Type {
+        ACCOUNT_CREATED(ChangeSet.Entity.ACCOUNT, Change.CREATED),
+        /** Изменено название счета (и, возможно, баланс). */
+        ACCOUNT_UPDATED(ChangeSet.Entity.ACCOUNT, Change.UPDATED),
+        /** Изменился только баланс счета. */
+        BALANCE_CHANGED(ChangeSet.Entity.ACCOUNT, Change.UPDATED),
+        ACCOUNT_DELETED(ChangeSet.Entity.ACCOUNT, Change.DELETED),
+        ACCOUNTS_CLEARED(ChangeSet.Entity.ACCOUNT, Change.CLEARED),
+        CATEGORY_CREATED(ChangeSet.Entity.CATEGORY, Change.CREATED),
+        CATEGORY_UPDATED(ChangeSet.Entity.CATEGORY, Change.UPDATED),
+        CATEGORY_DELETED(ChangeSet.Entity.CATEGORY, Change.DELETED),
+        CATEGORIES_CLEARED(ChangeSet.Entity.CATEGORY, Change.CLEARED),
+        OPERATION_CREATED(ChangeSet.Entity.OPERATION, Change.CREATED),
+        /** Операция удалена и снова сохранена с тем же id за один тик. */
+        OPERATION_UPDATED(ChangeSet.Entity.OPERATION, Change.UPDATED),
+        OPERATION_DELETED(ChangeSet.Entity.OPERATION, Change.DELETED),
+        OPERATIONS_CLEARED(ChangeSet.Entity.OPERATION, Change.CLEARED);
+
+        private final ChangeSet.Entity entity;
+        private final Change change;
+
+        Type(ChangeSet.Entity entity, Change change) {
+            this.entity = entity;
+            this.change = change;
+        }
+
+        public ChangeSet.Entity getEntity() {
+            return entity;
+        }
+
+        public Change getChange() {
+            return change;
+        }
+
+        static Type of(ChangeSet.Entity entity, Change change) {
+            for (Type type : values()) {
+                if (type.entity == entity && type.change == change && type != BALANCE_CHANGED) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException(entity + " " + change);
+        }
+    }
+
+    private final Type type;
+    private final UUID id;
+    private final Object entity;
+    private final BigDecimal previousBalance;
+
+    DomainEvent(Type type, UUID id, Object entity, BigDecimal previousBalance) {
+        this.type = type;
+        this.id = id;
+        this.entity = entity;
+        this.previousBalance = previousBalance;
+    }
+
+    /**
+     * Все типы событий указанных разделов - для подписки с фильтром.
+     */
+    public static Set<Type> typesOf(ChangeSet.Entity... entities) {
+        Set<Type> types = EnumSet.noneOf(Type.class);
+        for (Type type : Type.values()) {
+            for (ChangeSet.Entity entity : entities) {
+                if (type.entity == entity) {
+                    types.add(type);
+                }
+            }
+        }
+        return types;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public ChangeSet.Entity getEntityType() {
+        return type.entity;
+    }
+
+    public Change getChange() {
+        return type.change;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public Object getEntity() {
+        return entity;
+    }
+
+    public BankAccount getAccount() {
+        return (BankAccount) entity;
+    }
+
+    public Category getCategory() {
+        return (Category) entity;
+    }
+
+    public Operation getOperation() {
+        return (Operation) entity;
+    }
+
+    /**
+     * Баланс счета до первого изменения в этом тике; только для
+     * ACCOUNT_UPDATED и BALANCE_CHANGED.
+     */
+    public BigDecimal getPreviousBalance() {
+        return previousBalance;
+    }
+
+    @Override
+    public String toString() {
+        return id == null ? type.toString() : type + " " + id;
+    }
+}
\ No newline at end of file
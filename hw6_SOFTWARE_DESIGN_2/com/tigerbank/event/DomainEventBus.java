@@ -0,0 +1,339 @@
+package com.tigerbank.event;
+
+import com.tigerbank.di.Singleton;
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import com.tigerbank.repository.BankAccountRepository;
+import com.tigerbank.repository.CategoryRepository;
+import com.tigerbank.repository.ChangeSet;
+import com.tigerbank.repository.OperationRepository;
+import com.tigerbank.repository.RepositoryListener;
+
+import javax.swing.*;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Шина доменных событий внутри процесса. Репозитории публикуют
+ * изменения из любого потока, шина копит их и один раз за тик
+ * диспетчера (по умолчанию EDT) раздает подписчикам одной порцией.
+ * Внутри порции события по одной сущности сливаются: создание и
+ * удаление взаимно уничтожаются, несколько изменений дают одно,
+ * очистка раздела отменяет все предыдущие события этого раздела.
+ * <p>
+ * Создание отличается от изменения по тому, видела ли шина сущность
+ * раньше. Для счетов и категорий хранятся название и баланс, чтобы
+ * отличать переименование от смены баланса и не публиковать
+ * сохранения без изменений. Операций слишком много, чтобы хранить их
+ * здесь: новую операцию от повторного сохранения отличает репозиторий.
+ * Поэтому создание и удаление в одной порции взаимно уничтожаются
+ * только для операций, впервые сохраненных в этой порции.
+ */
+@Singleton
+public class DomainEventBus {
+    private static final Set<DomainEvent.Type> ALL_TYPES = EnumSet.allOf(DomainEvent.Type.class);
+
+    private final Executor dispatcher;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private final Object lock = new Object();
+    private Map<Key, DomainEvent> pending = new LinkedHashMap<>();
+    private boolean scheduled;
+    private final Map<UUID, AccountState> accounts = new HashMap<>();
+    private final Map<UUID, CategoryState> categories = new HashMap<>();
+
+    public DomainEventBus() {
+        this(SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Диспетчер должен выполнять задачи асинхронно: публикация
+     * ставит раздачу в очередь, не дожидаясь ее.
+     */
+    public DomainEventBus(Executor dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Подписывается на репозитории; уже сохраненные счета и категории
+     * запоминаются без событий.
+     */
+    public void attach(BankAccountRepository accountRepository,
+            CategoryRepository categoryRepository,
+            OperationRepository operationRepository) {
+        synchronized (lock) {
+            accountRepository.findAll().forEach(account ->
+                    accounts.put(account.getId(), new AccountState(account)));
+            categoryRepository.findAll().forEach(category ->
+                    categories.put(category.getId(), new CategoryState(category)));
+        }
+        accountRepository.addListener(new AccountListener());
+        categoryRepository.addListener(new CategoryListener());
+        operationRepository.addListener(new OperationListener());
+    }
+
+    public void subscribe(DomainEventListener listener) {
+        subscribe(ALL_TYPES, listener);
+    }
+
+    /**
+     * Подписка только на указанные типы; порции без них
+     * подписчику не передаются.
+     */
+    public void subscribe(Set<DomainEvent.Type> types, DomainEventListener listener) {
+        subscriptions.add(new Subscription(EnumSet.copyOf(types), listener));
+    }
+
+    public void unsubscribe(DomainEventListener listener) {
+        subscriptions.removeIf(subscription -> subscription.listener == listener);
+    }
+
+    /**
+     * Раздает накопленные события немедленно в текущем потоке.
+     */
+    public void flush() {
+        Map<Key, DomainEvent> events;
+        synchronized (lock) {
+            events = pending;
+            pending = new LinkedHashMap<>();
+            scheduled = false;
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+
+        List<DomainEvent> batch = Collections.unmodifiableList(new ArrayList<>(events.values()));
+        for (Subscription subscription : subscriptions) {
+            if (subscription.types.size() == ALL_TYPES.size()) {
+                subscription.listener.onEvents(batch);
+                continue;
+            }
+            List<DomainEvent> filtered = new ArrayList<>();
+            for (DomainEvent event : batch) {
+                if (subscription.types.contains(event.getType())) {
+                    filtered.add(event);
+                }
+            }
+            if (!filtered.isEmpty()) {
+                subscription.listener.onEvents(Collections.unmodifiableList(filtered));
+            }
+        }
+    }
+
+    void publish(DomainEvent event) {
+        synchronized (lock) {
+            if (event.getChange() == DomainEvent.Change.CLEARED) {
+                pending.keySet().removeIf(key -> key.entity == event.getEntityType());
+                pending.put(new Key(event.getEntityType(), null), event);
+            } else {
+                Key key = new Key(event.getEntityType(), event.getId());
+                DomainEvent merged = merge(pending.get(key), event);
+                if (merged == null) {
+                    pending.remove(key);
+                } else {
+                    pending.put(key, merged);
+                }
+            }
+            if (!scheduled) {
+                scheduled = true;
+                dispatcher.execute(this::flush);
+            }
+        }
+    }
+
+    private static DomainEvent merge(DomainEvent previous, DomainEvent next) {
+        if (previous == null) {
+            return next;
+        }
+        switch (next.getChange()) {
+            case DELETED:
+                return previous.getChange() == DomainEvent.Change.CREATED ? null : next;
+            case CREATED:
+                if (previous.getChange() == DomainEvent.Change.DELETED) {
+                    return new DomainEvent(DomainEvent.Type.of(next.getEntityType(), DomainEvent.Change.UPDATED),
+                            next.getId(), next.getEntity(), null);
+                }
+                return new DomainEvent(previous.getType(), next.getId(), next.getEntity(),
+                        previous.getPreviousBalance());
+            default:
+                if (previous.getChange() == DomainEvent.Change.DELETED) {
+                    return next;
+                }
+                if (previous.getChange() == DomainEvent.Change.CREATED) {
+                    return new DomainEvent(previous.getType(), next.getId(), next.getEntity(), null);
+                }
+                DomainEvent.Type type = previous.getType() == DomainEvent.Type.BALANCE_CHANGED
+                        ? next.getType()
+                        : previous.getType();
+                BigDecimal previousBalance = previous.getPreviousBalance() != null
+                        ? previous.getPreviousBalance()
+                        : next.getPreviousBalance();
+                return new DomainEvent(type, next.getId(), next.getEntity(), previousBalance);
+        }
+    }
+
+    private final class AccountListener implements RepositoryListener<BankAccount> {
+        @Override
+        public void onSaved(BankAccount account) {
+            synchronized (lock) {
+                AccountState state = accounts.put(account.getId(), new AccountState(account));
+                DomainEvent.Type type;
+                if (state == null) {
+                    type = DomainEvent.Type.ACCOUNT_CREATED;
+                } else if (!Objects.equals(state.name, account.getName())) {
+                    type = DomainEvent.Type.ACCOUNT_UPDATED;
+                } else if (!sameAmount(state.balance, account.getBalance())) {
+                    type = DomainEvent.Type.BALANCE_CHANGED;
+                } else {
+                    return;
+                }
+                publish(new DomainEvent(type, account.getId(), account,
+                        state == null ? null : state.balance));
+            }
+        }
+
+        @Override
+        public void onDeleted(UUID id) {
+            synchronized (lock) {
+                accounts.remove(id);
+                publish(new DomainEvent(DomainEvent.Type.ACCOUNT_DELETED, id, null, null));
+            }
+        }
+
+        @Override
+        public void onCleared() {
+            synchronized (lock) {
+                accounts.clear();
+                publish(new DomainEvent(DomainEvent.Type.ACCOUNTS_CLEARED, null, null, null));
+            }
+        }
+    }
+
+    private final class CategoryListener implements RepositoryListener<Category> {
+        @Override
+        public void onSaved(Category category) {
+            synchronized (lock) {
+                CategoryState state = categories.put(category.getId(), new CategoryState(category));
+                if (state != null && state.type == category.getType()
+                        && Objects.equals(state.name, category.getName())) {
+                    return;
+                }
+                publish(new DomainEvent(state == null
+                        ? DomainEvent.Type.CATEGORY_CREATED
+                        : DomainEvent.Type.CATEGORY_UPDATED, category.getId(), category, null));
+            }
+        }
+
+        @Override
+        public void onDeleted(UUID id) {
+            synchronized (lock) {
+                categories.remove(id);
+                publish(new DomainEvent(DomainEvent.Type.CATEGORY_DELETED, id, null, null));
+            }
+        }
+
+        @Override
+        public void onCleared() {
+            synchronized (lock) {
+                categories.clear();
+                publish(new DomainEvent(DomainEvent.Type.CATEGORIES_CLEARED, null, null, null));
+            }
+        }
+    }
+
+    private final class OperationListener implements RepositoryListener<Operation> {
+        @Override
+        public void onSaved(Operation operation) {
+            publish(new DomainEvent(DomainEvent.Type.OPERATION_CREATED, operation.getId(), operation, null));
+        }
+
+        @Override
+        public void onUpdated(Operation operation) {
+            publish(new DomainEvent(DomainEvent.Type.OPERATION_UPDATED, operation.getId(), operation, null));
+        }
+
+        @Override
+        public void onDeleted(UUID id) {
+            publish(new DomainEvent(DomainEvent.Type.OPERATION_DELETED, id, null, null));
+        }
+
+        @Override
+        public void onCleared() {
+            publish(new DomainEvent(DomainEvent.Type.OPERATIONS_CLEARED, null, null, null));
+        }
+    }
+
+    private static boolean sameAmount(BigDecimal left, BigDecimal right) {
+        return left == null ? right == null : right != null && left.compareTo(right) == 0;
+    }
+
+    private static final class AccountState {
+        final String name;
+        final BigDecimal balance;
+
+        AccountState(BankAccount account) {
+            this.name = account.getName();
+            this.balance = account.getBalance();
+        }
+    }
+
+    private static final class CategoryState {
+        final String name;
+        final OperationType type;
+
+        CategoryState(Category category) {
+            this.name = category.getName();
+            this.type = category.getType();
+        }
+    }
+
+    private static final class Subscription {
+        final Set<DomainEvent.Type> types;
+        final DomainEventListener listener;
+
+        Subscription(Set<DomainEvent.Type> types, DomainEventListener listener) {
+            this.types = types;
+            this.listener = listener;
+        }
+    }
+
+    private static final class Key {
+        final ChangeSet.Entity entity;
+        final UUID id;
+
+        Key(ChangeSet.Entity entity, UUID id) {
+            this.entity = entity;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return entity == other.entity && Objects.equals(id, other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * entity.hashCode() + Objects.hashCode(id);
+        }
+    }
+}
\ No newline at end of file
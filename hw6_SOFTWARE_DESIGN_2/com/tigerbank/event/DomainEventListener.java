@@ -0,0 +1,11 @@
+package com.tigerbank.event;
+
+import java.util.List;
+
+public interface DomainEventListener {
+    /**
+     * Порция событий, накопленных за один тик диспетчера (EDT).
+     * Для каждой сущности в порции не больше одного события.
+     */
+    void onEvents(List<DomainEvent> events);
+}
\ No newline at end of file
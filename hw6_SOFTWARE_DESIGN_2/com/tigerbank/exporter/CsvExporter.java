@@ -2,75 +2,68 @@ package com.tigerbank.exporter;
 
 import com.tigerbank.domain.BankAccount;
 import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Money;
 import com.tigerbank.domain.Operation;
 import com.tigerbank.di.Singleton;
+import com.tigerbank.repository.ChangeSet;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.time.format.DateTimeFormatter;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
 import java.util.List;
 
 @Singleton
 public class CsvExporter implements DataExporter {
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
     @Override
     public void exportAccounts(List<BankAccount> accounts, String filePath) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
-            writer.println("# ACCOUNTS");
-            writer.println("id,name,balance");
-
-            for (BankAccount account : accounts) {
-                writer.printf("%s,%s,%s%n",
-                        account.getId(),
-                        account.getName().replace(",", " "),
-                        account.getBalance());
-            }
+        try (RecordWriter writer = RecordWriter.open(Paths.get(filePath), Charset.defaultCharset())) {
+            writeAccounts(accounts, writer);
         } catch (IOException e) {
             throw new RuntimeException("Ошибка экспорта счетов: " + e.getMessage(), e);
         }
     }
 
+    @Override
+    public void exportAccounts(List<BankAccount> accounts, WritableByteChannel channel) throws IOException {
+        try (RecordWriter writer = new RecordWriter(channel, Charset.defaultCharset())) {
+            writeAccounts(accounts, writer);
+        }
+    }
+
     @Override
     public void exportCategories(List<Category> categories, String filePath) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
-            writer.println("# CATEGORIES");
-            writer.println("id,type,name");
-
-            for (Category category : categories) {
-                writer.printf("%s,%s,%s%n",
-                        category.getId(),
-                        category.getType().name(),
-                        category.getName().replace(",", " "));
-            }
+        try (RecordWriter writer = RecordWriter.open(Paths.get(filePath), Charset.defaultCharset())) {
+            writeCategories(categories, writer);
         } catch (IOException e) {
             throw new RuntimeException("Ошибка экспорта категорий: " + e.getMessage(), e);
         }
     }
 
+    @Override
+    public void exportCategories(List<Category> categories, WritableByteChannel channel) throws IOException {
+        try (RecordWriter writer = new RecordWriter(channel, Charset.defaultCharset())) {
+            writeCategories(categories, writer);
+        }
+    }
+
     @Override
     public void exportOperations(List<Operation> operations, String filePath) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
-            writer.println("# OPERATIONS");
-            writer.println("id,type,bankAccountId,amount,date,description,categoryId");
-
-            for (Operation op : operations) {
-                writer.printf("%s,%s,%s,%s,%s,%s,%s%n",
-                        op.getId(),
-                        op.getType().name(),
-                        op.getBankAccountId() != null ? op.getBankAccountId() : "",
-                        op.getAmount(),
-                        op.getDate().format(DATE_FORMATTER),
-                        op.getDescription() != null ? op.getDescription().replace(",", " ") : "",
-                        op.getCategoryId() != null ? op.getCategoryId() : "");
-            }
+        try (RecordWriter writer = RecordWriter.open(Paths.get(filePath), Charset.defaultCharset())) {
+            writeOperations(operations, writer);
         } catch (IOException e) {
             throw new RuntimeException("Ошибка экспорта операций: " + e.getMessage(), e);
         }
     }
 
+    @Override
+    public void exportOperations(List<Operation> operations, WritableByteChannel channel) throws IOException {
+        try (RecordWriter writer = new RecordWriter(channel, Charset.defaultCharset())) {
+            writeOperations(operations, writer);
+        }
+    }
+
     @Override
     public void exportAll(List<BankAccount> accounts,
             List<Category> categories,
@@ -80,4 +73,87 @@ public class CsvExporter implements DataExporter {
         exportCategories(categories, baseFileName + "_categories.csv");
         exportOperations(operations, baseFileName + "_operations.csv");
     }
+
+    /**
+     * Один файл: контрольная точка, удаления (id "*" - очистка раздела),
+     * затем сохраненные сущности в обычных разделах.
+     */
+    @Override
+    public void exportChanges(ChangeSet changes, String filePath) {
+        try (RecordWriter writer = RecordWriter.open(Paths.get(filePath), Charset.defaultCharset())) {
+            writer.append("# CHECKPOINT").appendLine();
+            writer.append("from,to").appendLine();
+            writer.appendLong(changes.getFrom()).append(',').appendLong(changes.getTo()).appendLine();
+
+            writer.append("# DELETED").appendLine();
+            writer.append("entity,id,sequence").appendLine();
+            for (ChangeSet.Tombstone tombstone : changes.getDeleted()) {
+                writer.append(tombstone.getEntity().name()).append(',');
+                if (tombstone.isClear()) {
+                    writer.append('*');
+                } else {
+                    writer.appendUuid(tombstone.getId());
+                }
+                writer.append(',').appendLong(tombstone.getSequence()).appendLine();
+            }
+
+            writeAccounts(changes.getAccounts(), writer);
+            writeCategories(changes.getCategories(), writer);
+            writeOperations(changes.getOperations(), writer);
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка экспорта изменений: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeAccounts(List<BankAccount> accounts, RecordWriter writer) throws IOException {
+        writer.append("# ACCOUNTS").appendLine();
+        writer.append("id,name,balance").appendLine();
+
+        for (BankAccount account : accounts) {
+            writer.appendUuid(account.getId()).append(',')
+                    .append(account.getName(), ',', ' ').append(',')
+                    .appendDecimal(account.getBalance())
+                    .appendLine();
+        }
+    }
+
+    private static void writeCategories(List<Category> categories, RecordWriter writer) throws IOException {
+        writer.append("# CATEGORIES").appendLine();
+        writer.append("id,type,name").appendLine();
+
+        for (Category category : categories) {
+            writer.appendUuid(category.getId()).append(',')
+                    .append(category.getType().name()).append(',')
+                    .append(category.getName(), ',', ' ')
+                    .appendLine();
+        }
+    }
+
+    private static void writeOperations(List<Operation> operations, RecordWriter writer) throws IOException {
+        writer.append("# OPERATIONS").appendLine();
+        writer.append("id,type,bankAccountId,amount,date,description,categoryId").appendLine();
+
+        for (Operation op : operations) {
+            writer.appendUuid(op.getId()).append(',')
+                    .append(op.getType().name()).append(',');
+            if (op.getBankAccountId() != null) {
+                writer.appendUuid(op.getBankAccountId());
+            }
+            appendAmount(writer.append(','), op).append(',')
+                    .appendDateTime(op.getDate()).append(',');
+            if (op.getDescription() != null) {
+                writer.append(op.getDescription(), ',', ' ');
+            }
+            writer.append(',');
+            if (op.getCategoryId() != null) {
+                writer.appendUuid(op.getCategoryId());
+            }
+            writer.appendLine();
+        }
+    }
+
+    private static RecordWriter appendAmount(RecordWriter writer, Operation op) throws IOException {
+        Money money = op.getMoney();
+        return money != null ? writer.appendMoney(money) : writer.appendDecimal(op.getAmount());
+    }
 }
\ No newline at end of file
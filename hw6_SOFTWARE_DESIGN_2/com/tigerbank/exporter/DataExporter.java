@@ -3,6 +3,11 @@ package com.tigerbank.exporter;
 import com.tigerbank.domain.BankAccount;
 import com.tigerbank.domain.Category;
 import com.tigerbank.domain.Operation;
+import com.tigerbank.repository.ChangeLog;
+import com.tigerbank.repository.ChangeSet;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
 
 public interface DataExporter {
@@ -16,4 +21,26 @@ public interface DataExporter {
             List<Category> categories,
             List<Operation> operations,
             String baseFileName);
+
+    /**
+     * Запись в произвольный канал (файл, сокет, pipe). Канал закрывается
+     * по окончании записи.
+     */
+    void exportAccounts(List<BankAccount> accounts, WritableByteChannel channel) throws IOException;
+
+    void exportCategories(List<Category> categories, WritableByteChannel channel) throws IOException;
+
+    void exportOperations(List<Operation> operations, WritableByteChannel channel) throws IOException;
+
+    /**
+     * Выгружает только изменения после контрольной точки sequence:
+     * сохраненные сущности и удаления. Возвращает новую контрольную точку.
+     */
+    default long exportSince(ChangeLog changeLog, long sequence, String filePath) {
+        ChangeSet changes = changeLog.since(sequence);
+        exportChanges(changes, filePath);
+        return changes.getTo();
+    }
+
+    void exportChanges(ChangeSet changes, String filePath);
 }
\ No newline at end of file
@@ -2,69 +2,72 @@ package com.tigerbank.exporter;
 
 import com.tigerbank.domain.BankAccount;
 import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Money;
 import com.tigerbank.domain.Operation;
 import com.tigerbank.di.Singleton;
+import com.tigerbank.repository.ChangeSet;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
-
-import java.io.FileWriter;
-import java.io.PrintWriter;
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
 import java.util.List;
 
 @Singleton
 public class JsonExporter implements DataExporter {
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
     @Override
     public void exportAccounts(List<BankAccount> accounts, String filePath) {
-        JSONArray jsonArray = new JSONArray();
-
-        for (BankAccount account : accounts) {
-            JSONObject json = new JSONObject();
-            json.put("id", account.getId().toString());
-            json.put("name", account.getName());
-            json.put("balance", account.getBalance().toString());
-            jsonArray.put(json);
+        try (RecordWriter writer = RecordWriter.open(Paths.get(filePath), Charset.defaultCharset())) {
+            writeAccounts(accounts, writer, "");
+            writer.appendLine();
+        } catch (Exception e) {
+            throw new RuntimeException("Ошибка записи в файл: " + e.getMessage(), e);
         }
+    }
 
-        writeToFile(jsonArray.toString(2), filePath);
+    @Override
+    public void exportAccounts(List<BankAccount> accounts, WritableByteChannel channel) throws IOException {
+        try (RecordWriter writer = new RecordWriter(channel, Charset.defaultCharset())) {
+            writeAccounts(accounts, writer, "");
+            writer.appendLine();
+        }
     }
 
     @Override
     public void exportCategories(List<Category> categories, String filePath) {
-        JSONArray jsonArray = new JSONArray();
-
-        for (Category category : categories) {
-            JSONObject json = new JSONObject();
-            json.put("id", category.getId().toString());
-            json.put("type", category.getType().name());
-            json.put("name", category.getName());
-            jsonArray.put(json);
+        try (RecordWriter writer = RecordWriter.open(Paths.get(filePath), Charset.defaultCharset())) {
+            writeCategories(categories, writer, "");
+            writer.appendLine();
+        } catch (Exception e) {
+            throw new RuntimeException("Ошибка записи в файл: " + e.getMessage(), e);
         }
+    }
 
-        writeToFile(jsonArray.toString(2), filePath);
+    @Override
+    public void exportCategories(List<Category> categories, WritableByteChannel channel) throws IOException {
+        try (RecordWriter writer = new RecordWriter(channel, Charset.defaultCharset())) {
+            writeCategories(categories, writer, "");
+            writer.appendLine();
+        }
     }
 
     @Override
     public void exportOperations(List<Operation> operations, String filePath) {
-        JSONArray jsonArray = new JSONArray();
-
-        for (Operation op : operations) {
-            JSONObject json = new JSONObject();
-            json.put("id", op.getId().toString());
-            json.put("type", op.getType().name());
-            json.put("bankAccountId", op.getBankAccountId() != null ? op.getBankAccountId().toString() : "");
-            json.put("amount", op.getAmount().toString());
-            json.put("date", op.getDate().format(DATE_FORMATTER));
-            json.put("description", op.getDescription() != null ? op.getDescription() : "");
-            json.put("categoryId", op.getCategoryId() != null ? op.getCategoryId().toString() : "");
-            jsonArray.put(json);
+        try (RecordWriter writer = RecordWriter.open(Paths.get(filePath), Charset.defaultCharset())) {
+            writeOperations(operations, writer, "");
+            writer.appendLine();
+        } catch (Exception e) {
+            throw new RuntimeException("Ошибка записи в файл: " + e.getMessage(), e);
         }
+    }
 
-        writeToFile(jsonArray.toString(2), filePath);
+    @Override
+    public void exportOperations(List<Operation> operations, WritableByteChannel channel) throws IOException {
+        try (RecordWriter writer = new RecordWriter(channel, Charset.defaultCharset())) {
+            writeOperations(operations, writer, "");
+            writer.appendLine();
+        }
     }
 
     @Override
@@ -72,50 +75,156 @@ public class JsonExporter implements DataExporter {
             List<Category> categories,
             List<Operation> operations,
             String baseFileName) {
-        JSONObject root = new JSONObject();
-
-        JSONArray accountsArray = new JSONArray();
-        for (BankAccount acc : accounts) {
-            JSONObject json = new JSONObject();
-            json.put("id", acc.getId().toString());
-            json.put("name", acc.getName());
-            json.put("balance", acc.getBalance().toString());
-            accountsArray.put(json);
+        try (RecordWriter writer = RecordWriter.open(Paths.get(baseFileName + "_all.json"), Charset.defaultCharset())) {
+            writer.append('{').appendLine();
+            writer.append("  \"accounts\": ");
+            writeAccounts(accounts, writer, "  ");
+            writer.append(',').appendLine();
+            writer.append("  \"categories\": ");
+            writeCategories(categories, writer, "  ");
+            writer.append(',').appendLine();
+            writer.append("  \"operations\": ");
+            writeOperations(operations, writer, "  ");
+            writer.appendLine().append('}').appendLine();
+        } catch (Exception e) {
+            throw new RuntimeException("Ошибка записи в файл: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Объект с полями checkpoint и deleted (id "*" - очистка раздела)
+     * и обычными массивами accounts/categories/operations.
+     */
+    @Override
+    public void exportChanges(ChangeSet changes, String filePath) {
+        try (RecordWriter writer = RecordWriter.open(Paths.get(filePath), Charset.defaultCharset())) {
+            writer.append('{').appendLine();
+            writer.append("  \"checkpoint\": {\"from\": ").appendLong(changes.getFrom())
+                    .append(", \"to\": ").appendLong(changes.getTo()).append("},").appendLine();
+
+            writer.append("  \"deleted\": [");
+            List<ChangeSet.Tombstone> deleted = changes.getDeleted();
+            for (int i = 0; i < deleted.size(); i++) {
+                ChangeSet.Tombstone tombstone = deleted.get(i);
+                if (i > 0) {
+                    writer.append(',');
+                }
+                writer.appendLine().append("    {\"entity\": \"").append(tombstone.getEntity().name())
+                        .append("\", \"id\": \"");
+                if (tombstone.isClear()) {
+                    writer.append('*');
+                } else {
+                    writer.appendUuid(tombstone.getId());
+                }
+                writer.append("\", \"sequence\": ").appendLong(tombstone.getSequence()).append('}');
+            }
+            if (!deleted.isEmpty()) {
+                writer.appendLine().append("  ");
+            }
+            writer.append("],").appendLine();
+
+            writer.append("  \"accounts\": ");
+            writeAccounts(changes.getAccounts(), writer, "  ");
+            writer.append(',').appendLine();
+            writer.append("  \"categories\": ");
+            writeCategories(changes.getCategories(), writer, "  ");
+            writer.append(',').appendLine();
+            writer.append("  \"operations\": ");
+            writeOperations(changes.getOperations(), writer, "  ");
+            writer.appendLine().append('}').appendLine();
+        } catch (Exception e) {
+            throw new RuntimeException("Ошибка записи в файл: " + e.getMessage(), e);
         }
-        root.put("accounts", accountsArray);
-
-        JSONArray categoriesArray = new JSONArray();
-        for (Category cat : categories) {
-            JSONObject json = new JSONObject();
-            json.put("id", cat.getId().toString());
-            json.put("type", cat.getType().name());
-            json.put("name", cat.getName());
-            categoriesArray.put(json);
+    }
+
+    private static void writeAccounts(List<BankAccount> accounts, RecordWriter writer, String indent)
+            throws IOException {
+        if (accounts.isEmpty()) {
+            writer.append("[]");
+            return;
         }
-        root.put("categories", categoriesArray);
-
-        JSONArray operationsArray = new JSONArray();
-        for (Operation op : operations) {
-            JSONObject json = new JSONObject();
-            json.put("id", op.getId().toString());
-            json.put("type", op.getType().name());
-            json.put("bankAccountId", op.getBankAccountId() != null ? op.getBankAccountId().toString() : "");
-            json.put("amount", op.getAmount().toString());
-            json.put("date", op.getDate().format(DATE_FORMATTER));
-            json.put("description", op.getDescription() != null ? op.getDescription() : "");
-            json.put("categoryId", op.getCategoryId() != null ? op.getCategoryId().toString() : "");
-            operationsArray.put(json);
+        writer.append('[');
+        for (int i = 0; i < accounts.size(); i++) {
+            BankAccount account = accounts.get(i);
+            startObject(writer, indent, i);
+            field(writer, indent, "id").append('"').appendUuid(account.getId()).append('"');
+            nextField(writer, indent, "name").appendJsonString(account.getName());
+            nextField(writer, indent, "balance").append('"').appendDecimal(account.getBalance()).append('"');
+            endObject(writer, indent);
         }
-        root.put("operations", operationsArray);
+        writer.appendLine().append(indent).append(']');
+    }
 
-        writeToFile(root.toString(2), baseFileName + "_all.json");
+    private static void writeCategories(List<Category> categories, RecordWriter writer, String indent)
+            throws IOException {
+        if (categories.isEmpty()) {
+            writer.append("[]");
+            return;
+        }
+        writer.append('[');
+        for (int i = 0; i < categories.size(); i++) {
+            Category category = categories.get(i);
+            startObject(writer, indent, i);
+            field(writer, indent, "id").append('"').appendUuid(category.getId()).append('"');
+            nextField(writer, indent, "type").append('"').append(category.getType().name()).append('"');
+            nextField(writer, indent, "name").appendJsonString(category.getName());
+            endObject(writer, indent);
+        }
+        writer.appendLine().append(indent).append(']');
     }
 
-    private void writeToFile(String content, String filePath) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
-            writer.println(content);
-        } catch (Exception e) {
-            throw new RuntimeException("Ошибка записи в файл: " + e.getMessage(), e);
+    private static void writeOperations(List<Operation> operations, RecordWriter writer, String indent)
+            throws IOException {
+        if (operations.isEmpty()) {
+            writer.append("[]");
+            return;
+        }
+        writer.append('[');
+        for (int i = 0; i < operations.size(); i++) {
+            Operation op = operations.get(i);
+            startObject(writer, indent, i);
+            field(writer, indent, "id").append('"').appendUuid(op.getId()).append('"');
+            nextField(writer, indent, "type").append('"').append(op.getType().name()).append('"');
+            nextField(writer, indent, "bankAccountId").append('"');
+            if (op.getBankAccountId() != null) {
+                writer.appendUuid(op.getBankAccountId());
+            }
+            writer.append('"');
+            appendAmount(nextField(writer, indent, "amount").append('"'), op).append('"');
+            nextField(writer, indent, "date").append('"').appendDateTime(op.getDate()).append('"');
+            nextField(writer, indent, "description")
+                    .appendJsonString(op.getDescription() != null ? op.getDescription() : "");
+            nextField(writer, indent, "categoryId").append('"');
+            if (op.getCategoryId() != null) {
+                writer.appendUuid(op.getCategoryId());
+            }
+            writer.append('"');
+            endObject(writer, indent);
         }
+        writer.appendLine().append(indent).append(']');
+    }
+
+    private static void startObject(RecordWriter writer, String indent, int index) throws IOException {
+        if (index > 0) {
+            writer.append(',');
+        }
+        writer.appendLine().append(indent).append("  {");
+    }
+
+    private static RecordWriter field(RecordWriter writer, String indent, String name) throws IOException {
+        return writer.appendLine().append(indent).append("    \"").append(name).append("\": ");
+    }
+
+    private static RecordWriter nextField(RecordWriter writer, String indent, String name) throws IOException {
+        return field(writer.append(','), indent, name);
+    }
+
+    private static void endObject(RecordWriter writer, String indent) throws IOException {
+        writer.appendLine().append(indent).append("  }");
+    }
+
+    private static RecordWriter appendAmount(RecordWriter writer, Operation op) throws IOException {
+        Money money = op.getMoney();
+        return money != null ? writer.appendMoney(money) : writer.appendDecimal(op.getAmount());
     }
 }
\ No newline at end of file
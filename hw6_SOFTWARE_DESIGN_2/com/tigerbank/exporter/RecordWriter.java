@@ -0,0 +1,341 @@
+package com.tigerbank.exporter;
+
+import com.tigerbank.domain.Money;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+/**
+ * Буферизованная запись текстовых записей в канал. Значения форматируются
+ * вручную прямо в символьный буфер, который кодируется в прямой байтовый
+ * буфер и пишется в канал большими блоками. Буферы берутся из кэша потока
+ * и переиспользуются следующими экспортами, поэтому экземпляр
+ * используется только в одном потоке.
+ */
+public final class RecordWriter implements Closeable {
+    private static final int CHAR_BUFFER_SIZE = 16 * 1024;
+    private static final int BYTE_BUFFER_SIZE = 256 * 1024;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private final Buffers buffers;
+    private final char[] chars;
+    private final CharBuffer charView;
+    private final ByteBuffer bytes;
+    private int count;
+    private boolean closed;
+
+    public RecordWriter(WritableByteChannel channel, Charset charset) {
+        this.channel = channel;
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        Buffers cached = BUFFERS.get();
+        if (cached.inUse) {
+            cached = new Buffers();
+        }
+        cached.inUse = true;
+        this.buffers = cached;
+        this.chars = cached.chars;
+        this.charView = cached.charView;
+        this.bytes = cached.bytes;
+        this.bytes.clear();
+    }
+
+    public static RecordWriter open(Path path, Charset charset) throws IOException {
+        return new RecordWriter(FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE),
+                charset);
+    }
+
+    public RecordWriter append(char c) throws IOException {
+        if (count == chars.length) {
+            encodeChars(false);
+        }
+        chars[count++] = c;
+        return this;
+    }
+
+    public RecordWriter append(CharSequence text) throws IOException {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            append(text.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * Текст с заменой одного символа, например запятой в полях CSV.
+     */
+    public RecordWriter append(CharSequence text, char target, char replacement) throws IOException {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            append(c == target ? replacement : c);
+        }
+        return this;
+    }
+
+    public RecordWriter appendLine() throws IOException {
+        return append(LINE_SEPARATOR);
+    }
+
+    public RecordWriter appendLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            return append(Long.toString(value));
+        }
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+        ensureChars(19);
+        int end = count + digitCount(value);
+        int position = end;
+        do {
+            chars[--position] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        count = end;
+        return this;
+    }
+
+    /**
+     * То же представление, что и BigDecimal.toString(). Значения, у которых
+     * toString() дает экспоненту или мантисса не помещается в long,
+     * печатаются через toString().
+     */
+    public RecordWriter appendDecimal(BigDecimal value) throws IOException {
+        int scale = value.scale();
+        BigInteger unscaled = value.unscaledValue();
+        if (scale < 0 || scale > 18 || unscaled.bitLength() > 62
+                || value.precision() - scale - 1 < -6) {
+            return append(value.toString());
+        }
+
+        return appendScaled(unscaled.longValue(), scale);
+    }
+
+    /**
+     * То же представление, что и Money.toBigDecimal().toString(),
+     * без создания BigDecimal.
+     */
+    public RecordWriter appendMoney(Money money) throws IOException {
+        long minor = money.getMinorUnits();
+        int scale = money.getScale();
+        if (minor == Long.MIN_VALUE) {
+            return append(money.toString());
+        }
+        return appendScaled(minor / POWERS_OF_TEN[Money.SCALE - scale], scale);
+    }
+
+    private RecordWriter appendScaled(long mantissa, int scale) throws IOException {
+        if (mantissa < 0) {
+            append('-');
+            mantissa = -mantissa;
+        }
+        if (scale == 0) {
+            return appendLong(mantissa);
+        }
+
+        long divisor = POWERS_OF_TEN[scale];
+        appendLong(mantissa / divisor);
+        append('.');
+        long fraction = mantissa % divisor;
+        ensureChars(scale);
+        for (int i = count + scale - 1; i >= count; i--) {
+            chars[i] = (char) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        count += scale;
+        return this;
+    }
+
+    public RecordWriter appendUuid(UUID id) throws IOException {
+        ensureChars(36);
+        long high = id.getMostSignificantBits();
+        long low = id.getLeastSignificantBits();
+        hex(high >>> 32, 8);
+        chars[count++] = '-';
+        hex(high >>> 16, 4);
+        chars[count++] = '-';
+        hex(high, 4);
+        chars[count++] = '-';
+        hex(low >>> 48, 4);
+        chars[count++] = '-';
+        hex(low, 12);
+        return this;
+    }
+
+    /**
+     * Формат yyyy-MM-dd HH:mm:ss.
+     */
+    public RecordWriter appendDateTime(LocalDateTime date) throws IOException {
+        int year = date.getYear();
+        if (year < 1 || year > 9999) {
+            return append(date.format(DATE_FORMATTER));
+        }
+        ensureChars(19);
+        padded(year, 4);
+        chars[count++] = '-';
+        padded(date.getMonthValue(), 2);
+        chars[count++] = '-';
+        padded(date.getDayOfMonth(), 2);
+        chars[count++] = ' ';
+        padded(date.getHour(), 2);
+        chars[count++] = ':';
+        padded(date.getMinute(), 2);
+        chars[count++] = ':';
+        padded(date.getSecond(), 2);
+        return this;
+    }
+
+    /**
+     * Строка JSON в кавычках с экранированием.
+     */
+    public RecordWriter appendJsonString(CharSequence text) throws IOException {
+        append('"');
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                case '\\':
+                    append('\\').append(c);
+                    break;
+                case '\n':
+                    append('\\').append('n');
+                    break;
+                case '\r':
+                    append('\\').append('r');
+                    break;
+                case '\t':
+                    append('\\').append('t');
+                    break;
+                case '\b':
+                    append('\\').append('b');
+                    break;
+                case '\f':
+                    append('\\').append('f');
+                    break;
+                default:
+                    if (c < 0x20) {
+                        append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        append(c);
+                    }
+            }
+        }
+        return append('"');
+    }
+
+    public void flush() throws IOException {
+        encodeChars(true);
+        encoder.flush(bytes);
+        writeBytes();
+        encoder.reset();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flush();
+        } finally {
+            buffers.inUse = false;
+            channel.close();
+        }
+    }
+
+    private void ensureChars(int needed) throws IOException {
+        if (chars.length - count < needed) {
+            encodeChars(false);
+        }
+    }
+
+    private void encodeChars(boolean endOfInput) throws IOException {
+        charView.clear().limit(count);
+        while (true) {
+            CoderResult result = encoder.encode(charView, bytes, endOfInput);
+            if (result.isOverflow()) {
+                writeBytes();
+            } else {
+                break;
+            }
+        }
+        int left = charView.remaining();
+        System.arraycopy(chars, charView.position(), chars, 0, left);
+        count = left;
+    }
+
+    private void writeBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    private void hex(long value, int digits) {
+        for (int i = count + digits - 1; i >= count; i--) {
+            chars[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+        count += digits;
+    }
+
+    private void padded(int value, int digits) {
+        for (int i = count + digits - 1; i >= count; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        count += digits;
+    }
+
+    private static int digitCount(long value) {
+        int digits = 1;
+        while (digits < 19 && value >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        return digits;
+    }
+
+    private static final class Buffers {
+        final char[] chars = new char[CHAR_BUFFER_SIZE];
+        final CharBuffer charView = CharBuffer.wrap(chars);
+        final ByteBuffer bytes = ByteBuffer.allocateDirect(BYTE_BUFFER_SIZE);
+        boolean inUse;
+    }
+}
\ No newline at end of file
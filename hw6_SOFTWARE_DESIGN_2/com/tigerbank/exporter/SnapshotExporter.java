@@ -0,0 +1,116 @@
+package com.tigerbank.exporter;
+
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Operation;
+import com.tigerbank.di.Singleton;
+import com.tigerbank.repository.ChangeSet;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Экспорт в компактный бинарный снимок (см. {@link SnapshotFormat}).
+ * Предназначен для полных резервных копий; exportAll пишет все разделы
+ * в один файл.
+ */
+@Singleton
+public class SnapshotExporter implements DataExporter {
+
+    @Override
+    public void exportAccounts(List<BankAccount> accounts, String filePath) {
+        exportToFile(accounts, Collections.emptyList(), Collections.emptyList(), filePath);
+    }
+
+    @Override
+    public void exportAccounts(List<BankAccount> accounts, WritableByteChannel channel) throws IOException {
+        export(accounts, Collections.emptyList(), Collections.emptyList(), channel);
+    }
+
+    @Override
+    public void exportCategories(List<Category> categories, String filePath) {
+        exportToFile(Collections.emptyList(), categories, Collections.emptyList(), filePath);
+    }
+
+    @Override
+    public void exportCategories(List<Category> categories, WritableByteChannel channel) throws IOException {
+        export(Collections.emptyList(), categories, Collections.emptyList(), channel);
+    }
+
+    @Override
+    public void exportOperations(List<Operation> operations, String filePath) {
+        exportToFile(Collections.emptyList(), Collections.emptyList(), operations, filePath);
+    }
+
+    @Override
+    public void exportOperations(List<Operation> operations, WritableByteChannel channel) throws IOException {
+        export(Collections.emptyList(), Collections.emptyList(), operations, channel);
+    }
+
+    @Override
+    public void exportAll(List<BankAccount> accounts,
+            List<Category> categories,
+            List<Operation> operations,
+            String baseFileName) {
+        exportToFile(accounts, categories, operations, baseFileName + SnapshotFormat.FILE_EXTENSION);
+    }
+
+    @Override
+    public void exportChanges(ChangeSet changes, String filePath) {
+        try (SnapshotWriter writer = new SnapshotWriter(openFile(filePath))) {
+            writer.writeCheckpoint(changes.getFrom(), changes.getTo());
+            for (ChangeSet.Tombstone tombstone : changes.getDeleted()) {
+                writer.writeTombstone(tombstone);
+            }
+            for (BankAccount account : changes.getAccounts()) {
+                writer.writeAccount(account);
+            }
+            for (Category category : changes.getCategories()) {
+                writer.writeCategory(category);
+            }
+            for (Operation operation : changes.getOperations()) {
+                writer.writeOperation(operation);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка экспорта изменений: " + e.getMessage(), e);
+        }
+    }
+
+    public void export(List<BankAccount> accounts,
+            List<Category> categories,
+            List<Operation> operations,
+            WritableByteChannel channel) throws IOException {
+        try (SnapshotWriter writer = new SnapshotWriter(channel)) {
+            for (BankAccount account : accounts) {
+                writer.writeAccount(account);
+            }
+            for (Category category : categories) {
+                writer.writeCategory(category);
+            }
+            for (Operation operation : operations) {
+                writer.writeOperation(operation);
+            }
+        }
+    }
+
+    private void exportToFile(List<BankAccount> accounts,
+            List<Category> categories,
+            List<Operation> operations,
+            String filePath) {
+        try {
+            export(accounts, categories, operations, openFile(filePath));
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка экспорта снимка: " + e.getMessage(), e);
+        }
+    }
+
+    private static FileChannel openFile(String filePath) throws IOException {
+        return FileChannel.open(Paths.get(filePath),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.tigerbank.exporter;
+
+/**
+ * Бинарный формат снимка данных.
+ *
+ * Файл: MAGIC, байт версии, затем блоки. Заголовок блока - раздел (1 байт),
+ * число записей, длина до сжатия, длина после сжатия и CRC32C несжатых
+ * данных (по 4 байта, big-endian); за ним данные, сжатые Deflate.
+ * Блок с разделом END завершает файл.
+ *
+ * Целые числа внутри блоков - varint (знаковые через zigzag). Id счетов
+ * и категорий хранятся в словаре, общем для всего файла: ссылка 0 - null,
+ * 1 - новый id (16 байт, добавляется в словарь), n + 2 - n-я запись словаря.
+ * Даты операций - разница секунд с предыдущей операцией, суммы - масштаб
+ * и немасштабированное значение.
+ *
+ * Выгрузка изменений добавляет блоки CHECKPOINT (from, to) и DELETED
+ * (раздел, флаг id, id, номер изменения; флаг 0 - очистка раздела).
+ */
+public final class SnapshotFormat {
+    public static final byte[] MAGIC = { 'T', 'G', 'B', 'S' };
+    public static final int VERSION = 1;
+    public static final String FILE_EXTENSION = ".tbs";
+
+    public static final int END = 0;
+    public static final int ACCOUNTS = 1;
+    public static final int CATEGORIES = 2;
+    public static final int OPERATIONS = 3;
+    public static final int DELETED = 4;
+    public static final int CHECKPOINT = 5;
+
+    public static final int BLOCK_HEADER_SIZE = 17;
+    public static final int BLOCK_SIZE = 1 << 20;
+
+    public static final int REF_NULL = 0;
+    public static final int REF_NEW = 1;
+    public static final int REF_FIRST_INDEX = 2;
+
+    private SnapshotFormat() {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,304 @@
+package com.tigerbank.exporter;
+
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import com.tigerbank.repository.ChangeSet;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+import java.util.zip.Deflater;
+
+/**
+ * Кодирует записи в блоки формата {@link SnapshotFormat} и пишет их в канал.
+ * Буферы блока и сжатия переиспользуются между блоками.
+ */
+class SnapshotWriter implements Closeable {
+    private final WritableByteChannel channel;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final CRC32C crc = new CRC32C();
+    private final Map<UUID, Integer> dictionary = new HashMap<>();
+    private final ByteBuffer header = ByteBuffer.allocate(SnapshotFormat.BLOCK_HEADER_SIZE);
+
+    private byte[] block = new byte[SnapshotFormat.BLOCK_SIZE + 4096];
+    private int length;
+    private byte[] compressed = new byte[SnapshotFormat.BLOCK_SIZE / 2];
+    private int section = SnapshotFormat.END;
+    private int records;
+    private long previousSeconds;
+    private boolean closed;
+
+    SnapshotWriter(WritableByteChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer start = ByteBuffer.allocate(SnapshotFormat.MAGIC.length + 1);
+        start.put(SnapshotFormat.MAGIC).put((byte) SnapshotFormat.VERSION).flip();
+        try {
+            write(start);
+        } catch (IOException e) {
+            deflater.end();
+            channel.close();
+            throw e;
+        }
+    }
+
+    void writeAccount(BankAccount account) throws IOException {
+        startRecord(SnapshotFormat.ACCOUNTS);
+        writeEntityId(account.getId());
+        writeString(account.getName());
+        writeDecimal(account.getBalance());
+        endRecord();
+    }
+
+    void writeCategory(Category category) throws IOException {
+        startRecord(SnapshotFormat.CATEGORIES);
+        writeEntityId(category.getId());
+        writeType(category.getType());
+        writeString(category.getName());
+        endRecord();
+    }
+
+    void writeOperation(Operation operation) throws IOException {
+        startRecord(SnapshotFormat.OPERATIONS);
+        writeUuid(operation.getId());
+        writeType(operation.getType());
+        writeReference(operation.getBankAccountId());
+        writeDecimal(operation.getAmount());
+        writeDate(operation.getDate());
+        writeString(operation.getDescription());
+        writeReference(operation.getCategoryId());
+        endRecord();
+    }
+
+    void writeCheckpoint(long from, long to) throws IOException {
+        startRecord(SnapshotFormat.CHECKPOINT);
+        writeVarint(from);
+        writeVarint(to);
+        endRecord();
+    }
+
+    void writeTombstone(ChangeSet.Tombstone tombstone) throws IOException {
+        startRecord(SnapshotFormat.DELETED);
+        ensure(2);
+        block[length++] = (byte) tombstone.getEntity().ordinal();
+        block[length++] = (byte) (tombstone.isClear() ? 0 : 1);
+        if (!tombstone.isClear()) {
+            writeUuid(tombstone.getId());
+        }
+        writeVarint(tombstone.getSequence());
+        endRecord();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flushBlock();
+            writeHeader(SnapshotFormat.END, 0, 0, 0, 0);
+        } finally {
+            deflater.end();
+            channel.close();
+        }
+    }
+
+    private void startRecord(int recordSection) throws IOException {
+        if (section != recordSection) {
+            flushBlock();
+            section = recordSection;
+        }
+    }
+
+    private void endRecord() throws IOException {
+        records++;
+        if (length >= SnapshotFormat.BLOCK_SIZE) {
+            flushBlock();
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (records == 0) {
+            return;
+        }
+        crc.reset();
+        crc.update(block, 0, length);
+
+        deflater.reset();
+        deflater.setInput(block, 0, length);
+        deflater.finish();
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+
+        writeHeader(section, records, length, compressedLength, (int) crc.getValue());
+        write(ByteBuffer.wrap(compressed, 0, compressedLength));
+        length = 0;
+        records = 0;
+    }
+
+    private void writeHeader(int blockSection, int count, int rawLength, int compressedLength, int checksum)
+            throws IOException {
+        header.clear();
+        header.put((byte) blockSection).putInt(count).putInt(rawLength).putInt(compressedLength).putInt(checksum);
+        header.flip();
+        write(header);
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void writeEntityId(UUID id) {
+        writeUuid(id);
+        dictionary.put(id, dictionary.size());
+    }
+
+    private void writeReference(UUID id) {
+        if (id == null) {
+            writeVarint(SnapshotFormat.REF_NULL);
+            return;
+        }
+        Integer index = dictionary.get(id);
+        if (index != null) {
+            writeVarint(index + SnapshotFormat.REF_FIRST_INDEX);
+        } else {
+            writeVarint(SnapshotFormat.REF_NEW);
+            writeEntityId(id);
+        }
+    }
+
+    private void writeUuid(UUID id) {
+        ensure(16);
+        putLong(id.getMostSignificantBits());
+        putLong(id.getLeastSignificantBits());
+    }
+
+    private void writeType(OperationType type) {
+        ensure(1);
+        block[length++] = (byte) (type == null ? 0 : type.ordinal() + 1);
+    }
+
+    private void writeDecimal(BigDecimal value) {
+        if (value == null) {
+            writeVarint(0);
+            return;
+        }
+        BigInteger unscaled = value.unscaledValue();
+        boolean big = unscaled.bitLength() > 63;
+        writeVarint(((zigzag(value.scale()) << 1) | (big ? 1 : 0)) + 1);
+        if (big) {
+            byte[] bytes = unscaled.toByteArray();
+            writeVarint(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, block, length, bytes.length);
+            length += bytes.length;
+        } else {
+            writeVarint(zigzag(unscaled.longValue()));
+        }
+    }
+
+    private void writeDate(LocalDateTime date) {
+        if (date == null) {
+            writeVarint(0);
+            return;
+        }
+        long seconds = date.toEpochSecond(ZoneOffset.UTC);
+        int nanos = date.getNano();
+        writeVarint(((zigzag(seconds - previousSeconds) << 1) | (nanos != 0 ? 1 : 0)) + 1);
+        if (nanos != 0) {
+            writeVarint(nanos);
+        }
+        previousSeconds = seconds;
+    }
+
+    private void writeString(String value) {
+        if (value == null) {
+            writeVarint(0);
+            return;
+        }
+        int bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        writeVarint(bytes + 1L);
+        ensure(bytes);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                block[length++] = (byte) c;
+            } else if (c < 0x800) {
+                block[length++] = (byte) (0xC0 | (c >> 6));
+                block[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int code = Character.toCodePoint(c, value.charAt(++i));
+                block[length++] = (byte) (0xF0 | (code >> 18));
+                block[length++] = (byte) (0x80 | ((code >> 12) & 0x3F));
+                block[length++] = (byte) (0x80 | ((code >> 6) & 0x3F));
+                block[length++] = (byte) (0x80 | (code & 0x3F));
+            } else {
+                if (Character.isSurrogate(c)) {
+                    c = '\uFFFD';
+                }
+                block[length++] = (byte) (0xE0 | (c >> 12));
+                block[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                block[length++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void writeVarint(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            block[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        block[length++] = (byte) value;
+    }
+
+    private void putLong(long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            block[length++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void ensure(int bytes) {
+        if (block.length - length < bytes) {
+            block = Arrays.copyOf(block, Math.max(block.length * 2, length + bytes));
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
\ No newline at end of file
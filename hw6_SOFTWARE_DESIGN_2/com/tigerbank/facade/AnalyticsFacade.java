@@ -2,9 +2,10 @@ package com.tigerbank.facade;
 
 import com.tigerbank.domain.BankAccount;
 import com.tigerbank.domain.Category;
-import com.tigerbank.domain.Operation;
 import com.tigerbank.enums.OperationType;
+import com.tigerbank.repository.OperationAggregates;
 import com.tigerbank.service.AccountService;
+import com.tigerbank.service.AnalyticsEngine;
 import com.tigerbank.service.AnalyticsService;
 import com.tigerbank.service.CategoryService;
 import com.tigerbank.service.OperationService;
@@ -13,7 +14,6 @@ import com.tigerbank.di.Singleton;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Singleton
 public class AnalyticsFacade {
@@ -47,15 +47,12 @@ public class AnalyticsFacade {
     private Map<String, BigDecimal> getGroupedByCategory(LocalDateTime start, LocalDateTime end, OperationType type) {
         Map<String, BigDecimal> result = new HashMap<>();
 
-        List<Operation> operations = operationService.getOperationsByDateRange(start, end).stream()
-                .filter(op -> op.getType() == type)
-                .collect(Collectors.toList());
+        OperationAggregates.Summary summary = operationService.getAggregates().summarize(start, end, 0);
 
-        for (Operation op : operations) {
-            categoryService.getCategory(op.getCategoryId())
-                    .map(Category::getName)
-                    .ifPresent(catName -> result.merge(catName, op.getAmount(), BigDecimal::add));
-        }
+        summary.getCategoryTotals(type).forEach((categoryId, total) ->
+                categoryService.getCategory(categoryId)
+                        .map(Category::getName)
+                        .ifPresent(catName -> result.merge(catName, total, BigDecimal::add)));
 
         return result;
     }
@@ -68,31 +65,34 @@ public class AnalyticsFacade {
         Map<String, Object> stats = new LinkedHashMap<>();
 
         BigDecimal totalBalance = accountService.calculateTotalBalance();
-        BigDecimal totalIncome = operationService.getTotalIncome(
-                LocalDateTime.now().minusMonths(1), LocalDateTime.now());
-        BigDecimal totalExpense = operationService.getTotalExpense(
-                LocalDateTime.now().minusMonths(1), LocalDateTime.now());
+        LocalDateTime now = LocalDateTime.now();
+        OperationAggregates aggregates = operationService.getAggregates();
+        BigDecimal totalIncome = aggregates.getTotal(OperationType.INCOME, now.minusMonths(1), now);
+        BigDecimal totalExpense = aggregates.getTotal(OperationType.EXPENSE, now.minusMonths(1), now);
 
         stats.put("totalBalance", totalBalance);
         stats.put("totalIncome", totalIncome);
         stats.put("totalExpense", totalExpense);
-        stats.put("accountsCount", accountService.getAllAccounts().size());
-        stats.put("operationsCount", operationService.getAllOperations().size());
+        stats.put("accountsCount", accountService.getAccountCount());
+        stats.put("operationsCount", operationService.getOperationCount());
 
         return stats;
     }
 
     public void recalculateAllBalances() {
+        applyBalances(calculateBalances());
+    }
+
+    /**
+     * Балансы счетов по операциям, без изменения данных.
+     */
+    public Map<UUID, BigDecimal> calculateBalances() {
+        return AnalyticsEngine.analyze(operationService.getAllOperations(), 0).getAccountBalances();
+    }
+
+    public void applyBalances(Map<UUID, BigDecimal> balances) {
         for (BankAccount account : accountService.getAllAccounts()) {
-            BigDecimal calculatedBalance = operationService
-                    .getOperationsByAccount(account.getId())
-                    .stream()
-                    .map(op -> op.getType() == OperationType.INCOME
-                            ? op.getAmount()
-                            : op.getAmount().negate())
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            account.setBalance(calculatedBalance);
+            account.setBalance(balances.getOrDefault(account.getId(), BigDecimal.ZERO));
             accountService.updateAccount(account);
         }
     }
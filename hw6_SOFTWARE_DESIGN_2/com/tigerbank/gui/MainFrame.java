@@ -2,13 +2,21 @@ package com.tigerbank.gui;
 
 import com.tigerbank.command.CommandExecutor;
 import com.tigerbank.di.DIContainer;
+import com.tigerbank.event.DomainEventBus;
 import com.tigerbank.exporter.CsvExporter;
+import com.tigerbank.exporter.DataExporter;
 import com.tigerbank.exporter.JsonExporter;
+import com.tigerbank.exporter.SnapshotExporter;
+import com.tigerbank.exporter.SnapshotFormat;
 import com.tigerbank.facade.AnalyticsFacade;
 import com.tigerbank.gui.components.*;
 import com.tigerbank.importer.CsvImporter;
+import com.tigerbank.importer.DataImporter;
 import com.tigerbank.importer.JsonImporter;
+import com.tigerbank.importer.SnapshotImporter;
+import com.tigerbank.repository.ChangeLog;
 import com.tigerbank.service.*;
+import com.tigerbank.storage.JournaledStorage;
 
 import javax.swing.*;
 import java.io.File;
@@ -21,6 +29,8 @@ public class MainFrame extends JFrame {
     private CategoriesPanel categoriesPanel;
     private OperationsPanel operationsPanel;
     private AnalyticsPanel analyticsPanel;
+    private PerformancePanel performancePanel;
+    private long exportCheckpoint;
 
     public MainFrame(DIContainer container) {
         this.container = container;
@@ -38,19 +48,31 @@ public class MainFrame extends JFrame {
         CategoryService categoryService = container.resolve(CategoryService.class);
         OperationService operationService = container.resolve(OperationService.class);
         AnalyticsFacade analyticsFacade = container.resolve(AnalyticsFacade.class);
-        CommandExecutor commandExecutor = new CommandExecutor();
+        CommandExecutor commandExecutor = container.resolve(CommandExecutor.class);
+        DomainEventBus eventBus = container.resolve(DomainEventBus.class);
 
         tabbedPane = new JTabbedPane();
 
-        accountsPanel = new AccountsPanel(accountService, operationService, commandExecutor);
-        categoriesPanel = new CategoriesPanel(categoryService, operationService, commandExecutor);
-        operationsPanel = new OperationsPanel(operationService, accountService, categoryService, commandExecutor);
-        analyticsPanel = new AnalyticsPanel(analyticsFacade, accountService);
+        accountsPanel = new AccountsPanel(accountService, operationService, commandExecutor, eventBus);
+        categoriesPanel = new CategoriesPanel(categoryService, operationService, commandExecutor, eventBus);
+        operationsPanel = new OperationsPanel(operationService, accountService, categoryService,
+                commandExecutor, eventBus);
+        analyticsPanel = new AnalyticsPanel(analyticsFacade, accountService,
+                container.resolve(AnalyticsJobService.class), commandExecutor, eventBus);
+        performancePanel = new PerformancePanel(commandExecutor.getMetrics());
 
         tabbedPane.addTab("Счета", accountsPanel);
         tabbedPane.addTab("Категории", categoriesPanel);
         tabbedPane.addTab("Операции", operationsPanel);
         tabbedPane.addTab("Аналитика", analyticsPanel);
+        tabbedPane.addTab("Производительность", performancePanel);
+        tabbedPane.addChangeListener(e -> {
+            if (tabbedPane.getSelectedComponent() == performancePanel) {
+                performancePanel.refreshTable();
+            } else if (tabbedPane.getSelectedComponent() == analyticsPanel) {
+                analyticsPanel.updateAnalytics();
+            }
+        });
 
         add(tabbedPane);
         createMenuBar();
@@ -72,6 +94,19 @@ public class MainFrame extends JFrame {
         exportJsonItem.addActionListener(e -> exportDataToJson());
         exportMenu.add(exportJsonItem);
 
+        JMenuItem exportSnapshotItem = new JMenuItem("Резервная копия (бинарный снимок)");
+        exportSnapshotItem.addActionListener(e -> exportDataToSnapshot());
+        exportMenu.add(exportSnapshotItem);
+
+        exportMenu.addSeparator();
+        JMenuItem exportChangesCsvItem = new JMenuItem("Изменения с последней выгрузки в CSV");
+        exportChangesCsvItem.addActionListener(e -> exportChanges(container.resolve(CsvExporter.class), ".csv"));
+        exportMenu.add(exportChangesCsvItem);
+
+        JMenuItem exportChangesJsonItem = new JMenuItem("Изменения с последней выгрузки в JSON");
+        exportChangesJsonItem.addActionListener(e -> exportChanges(container.resolve(JsonExporter.class), ".json"));
+        exportMenu.add(exportChangesJsonItem);
+
         fileMenu.add(exportMenu);
 
         // Импорт
@@ -84,6 +119,10 @@ public class MainFrame extends JFrame {
         importJsonItem.addActionListener(e -> importDataFromJson());
         importMenu.add(importJsonItem);
 
+        JMenuItem importSnapshotItem = new JMenuItem("Восстановить из снимка");
+        importSnapshotItem.addActionListener(e -> importDataFromSnapshot());
+        importMenu.add(importSnapshotItem);
+
         fileMenu.add(importMenu);
         fileMenu.addSeparator();
 
@@ -94,30 +133,17 @@ public class MainFrame extends JFrame {
         // Меню "Правка"
         JMenu editMenu = new JMenu("Правка");
         JMenuItem undoItem = new JMenuItem("Отменить (Ctrl+Z)");
-        undoItem.addActionListener(e -> {
-            CommandExecutor executor = new CommandExecutor();
-            executor.undo();
-            refreshAllPanels();
-        });
+        undoItem.addActionListener(e -> container.resolve(CommandExecutor.class).submitUndo());
         editMenu.add(undoItem);
 
         JMenuItem redoItem = new JMenuItem("Повторить (Ctrl+Y)");
-        redoItem.addActionListener(e -> {
-            CommandExecutor executor = new CommandExecutor();
-            executor.redo();
-            refreshAllPanels();
-        });
+        redoItem.addActionListener(e -> container.resolve(CommandExecutor.class).submitRedo());
         editMenu.add(redoItem);
 
         // Меню "Настройки"
         JMenu settingsMenu = new JMenu("Настройки");
         JMenuItem recalcBalancesItem = new JMenuItem("Пересчитать балансы");
-        recalcBalancesItem.addActionListener(e -> {
-            AnalyticsFacade facade = container.resolve(AnalyticsFacade.class);
-            facade.recalculateAllBalances();
-            refreshAllPanels();
-            JOptionPane.showMessageDialog(this, "Балансы пересчитаны успешно!");
-        });
+        recalcBalancesItem.addActionListener(e -> analyticsPanel.recalculateBalances());
         settingsMenu.add(recalcBalancesItem);
 
         settingsMenu.addSeparator();
@@ -143,22 +169,16 @@ public class MainFrame extends JFrame {
         CategoryService categoryService = container.resolve(CategoryService.class);
         AccountService accountService = container.resolve(AccountService.class);
 
-        categoryService.loadDefaultCategories();
-
-        if (accountService.getAllAccounts().isEmpty()) {
-            accountService.createAccount("Основной счет");
-            accountService.createAccount("Накопительный счет");
-            accountService.createAccount("Кредитная карта");
-        }
-
-        refreshAllPanels();
-    }
+        container.resolve(CommandExecutor.class).submitTask(() -> {
+            categoryService.loadDefaultCategories();
 
-    private void refreshAllPanels() {
-        accountsPanel.refreshTable();
-        categoriesPanel.refreshTable();
-        operationsPanel.refreshTable();
-        analyticsPanel.updateAnalytics();
+            if (accountService.getAllAccounts().isEmpty()) {
+                accountService.createAccount("Основной счет");
+                accountService.createAccount("Накопительный счет");
+                accountService.createAccount("Кредитная карта");
+            }
+            return null;
+        });
     }
 
     private void exportDataToCsv() {
@@ -219,6 +239,59 @@ public class MainFrame extends JFrame {
         }
     }
 
+    private void exportDataToSnapshot() {
+        String fileName = JOptionPane.showInputDialog(this,
+                "Введите базовое имя для файла (без расширения):",
+                "tigerbank_backup_" + System.currentTimeMillis());
+
+        if (fileName != null && !fileName.trim().isEmpty()) {
+            try {
+                SnapshotExporter exporter = container.resolve(SnapshotExporter.class);
+                AccountService accountService = container.resolve(AccountService.class);
+                CategoryService categoryService = container.resolve(CategoryService.class);
+                OperationService operationService = container.resolve(OperationService.class);
+
+                exporter.exportAll(
+                        accountService.getAllAccounts(),
+                        categoryService.getAllCategories(),
+                        operationService.getAllOperations(),
+                        fileName.trim());
+
+                JOptionPane.showMessageDialog(this,
+                        "Резервная копия сохранена в файл " + fileName.trim() + SnapshotFormat.FILE_EXTENSION,
+                        "Экспорт завершен", JOptionPane.INFORMATION_MESSAGE);
+            } catch (Exception e) {
+                JOptionPane.showMessageDialog(this,
+                        "Ошибка экспорта: " + e.getMessage(),
+                        "Ошибка", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+
+    private void exportChanges(DataExporter exporter, String extension) {
+        String checkpoint = JOptionPane.showInputDialog(this,
+                "Номер изменения, после которого выгружать (0 - все данные):",
+                String.valueOf(exportCheckpoint));
+        if (checkpoint == null) {
+            return;
+        }
+
+        try {
+            long since = Long.parseLong(checkpoint.trim());
+            String fileName = "tigerbank_changes_" + since + "_" + System.currentTimeMillis() + extension;
+            ChangeLog changeLog = container.resolve(ChangeLog.class);
+            exportCheckpoint = exporter.exportSince(changeLog, since, fileName);
+
+            JOptionPane.showMessageDialog(this,
+                    "Изменения выгружены в файл " + fileName + "\nКонтрольная точка: " + exportCheckpoint,
+                    "Экспорт завершен", JOptionPane.INFORMATION_MESSAGE);
+        } catch (Exception e) {
+            JOptionPane.showMessageDialog(this,
+                    "Ошибка экспорта: " + e.getMessage(),
+                    "Ошибка", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
     private void importDataFromCsv() {
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setDialogTitle("Выберите CSV файл для импорта");
@@ -232,12 +305,8 @@ public class MainFrame extends JFrame {
                 OperationService operationService = container.resolve(OperationService.class);
 
                 CsvImporter importer = new CsvImporter(accountService, categoryService, operationService);
-                importer.importData(file.getAbsolutePath());
-
-                refreshAllPanels();
-                JOptionPane.showMessageDialog(this,
-                        "Импорт из CSV выполнен успешно!",
-                        "Успех", JOptionPane.INFORMATION_MESSAGE);
+                importer.setWorkers(Runtime.getRuntime().availableProcessors());
+                runImport(importer, file, "Импорт из CSV выполнен успешно!");
             } catch (Exception e) {
                 JOptionPane.showMessageDialog(this,
                         "Ошибка импорта: " + e.getMessage(),
@@ -259,12 +328,30 @@ public class MainFrame extends JFrame {
                 OperationService operationService = container.resolve(OperationService.class);
 
                 JsonImporter importer = new JsonImporter(accountService, categoryService, operationService);
-                importer.importData(file.getAbsolutePath());
-
-                refreshAllPanels();
+                importer.setWorkers(Runtime.getRuntime().availableProcessors());
+                runImport(importer, file, "Импорт из JSON выполнен успешно!");
+            } catch (Exception e) {
                 JOptionPane.showMessageDialog(this,
-                        "Импорт из JSON выполнен успешно!",
-                        "Успех", JOptionPane.INFORMATION_MESSAGE);
+                        "Ошибка импорта: " + e.getMessage(),
+                        "Ошибка", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+
+    private void importDataFromSnapshot() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Выберите файл снимка для восстановления");
+
+        if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+            File file = fileChooser.getSelectedFile();
+
+            try {
+                AccountService accountService = container.resolve(AccountService.class);
+                CategoryService categoryService = container.resolve(CategoryService.class);
+                OperationService operationService = container.resolve(OperationService.class);
+
+                SnapshotImporter importer = new SnapshotImporter(accountService, categoryService, operationService);
+                runImport(importer, file, "Восстановление из снимка выполнено успешно!");
             } catch (Exception e) {
                 JOptionPane.showMessageDialog(this,
                         "Ошибка импорта: " + e.getMessage(),
@@ -273,6 +360,28 @@ public class MainFrame extends JFrame {
         }
     }
 
+    /**
+     * Импорт выполняется в потоке исполнителя команд, чтобы не блокировать
+     * интерфейс и не пересекаться с командами пользователя. Журнал
+     * сбрасывается на диск один раз в конце импорта, а не на каждую запись.
+     */
+    private void runImport(DataImporter importer, File file, String successMessage) {
+        JournaledStorage storage = container.resolve(JournaledStorage.class);
+        container.resolve(CommandExecutor.class).submitTask(() -> storage.deferSync(() -> {
+            importer.importData(file.getAbsolutePath());
+            return null;
+        })).whenComplete((done, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                JOptionPane.showMessageDialog(this,
+                        "Ошибка импорта: " + error.getMessage(),
+                        "Ошибка", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            JOptionPane.showMessageDialog(this, successMessage,
+                    "Успех", JOptionPane.INFORMATION_MESSAGE);
+        }));
+    }
+
     private void loadDefaultCategories() {
         int result = JOptionPane.showConfirmDialog(this,
                 "Загрузить стандартные категории?\n" +
@@ -282,11 +391,20 @@ public class MainFrame extends JFrame {
 
         if (result == JOptionPane.YES_OPTION) {
             CategoryService categoryService = container.resolve(CategoryService.class);
-            categoryService.loadDefaultCategories();
-            refreshAllPanels();
-            JOptionPane.showMessageDialog(this,
-                    "Стандартные категории загружены успешно!",
-                    "Успех", JOptionPane.INFORMATION_MESSAGE);
+            container.resolve(CommandExecutor.class).submitTask(() -> {
+                categoryService.loadDefaultCategories();
+                return null;
+            }).whenComplete((done, error) -> SwingUtilities.invokeLater(() -> {
+                if (error != null) {
+                    JOptionPane.showMessageDialog(this,
+                            "Не удалось загрузить категории: " + error.getMessage(),
+                            "Ошибка", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                JOptionPane.showMessageDialog(this,
+                        "Стандартные категории загружены успешно!",
+                        "Успех", JOptionPane.INFORMATION_MESSAGE);
+            }));
         }
     }
 
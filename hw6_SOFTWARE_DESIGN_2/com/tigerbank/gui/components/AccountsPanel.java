@@ -6,43 +6,75 @@ import com.tigerbank.command.DeleteAccountCommand;
 import com.tigerbank.domain.BankAccount;
 import com.tigerbank.domain.Operation;
 import com.tigerbank.enums.OperationType;
+import com.tigerbank.event.DomainEvent;
+import com.tigerbank.event.DomainEventBus;
 import com.tigerbank.gui.dialogs.AccountDialog;
+import com.tigerbank.repository.ChangeSet;
+import com.tigerbank.repository.OperationQuery;
 import com.tigerbank.service.AccountService;
 import com.tigerbank.service.OperationService;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.math.BigDecimal;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.UUID;
 
 public class AccountsPanel extends JPanel {
     private final AccountService accountService;
     private final OperationService operationService;
     private final CommandExecutor commandExecutor;
+    private final DomainEventBus eventBus;
 
     private JTable accountsTable;
-    private DefaultTableModel accountsModel;
+    private EntityTableModel<BankAccount> accountsModel;
 
     public AccountsPanel(AccountService accountService,
             OperationService operationService,
-            CommandExecutor commandExecutor) {
+            CommandExecutor commandExecutor,
+            DomainEventBus eventBus) {
         this.accountService = accountService;
         this.operationService = operationService;
         this.commandExecutor = commandExecutor;
+        this.eventBus = eventBus;
 
         setLayout(new BorderLayout());
         initializeUI();
     }
 
     private void initializeUI() {
-        String[] columns = { "ID", "Название", "Баланс", "Кол-во операций" };
-        accountsModel = new DefaultTableModel(columns, 0) {
+        accountsModel = new EntityTableModel<BankAccount>(ChangeSet.Entity.ACCOUNT,
+                "ID", "Название", "Баланс", "Кол-во операций") {
             @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
+            protected UUID idOf(BankAccount account) {
+                return account.getId();
+            }
+
+            @Override
+            protected Object[] format(BankAccount account) {
+                return new Object[] {
+                        account.getId().toString().substring(0, 8) + "...",
+                        account.getName(),
+                        String.format("%.2f", account.getBalance()),
+                        operationService.getOperationCountByAccount(account.getId())
+                };
+            }
+
+            /**
+             * Новая операция меняет число операций одного счета; у удаленной
+             * счет уже неизвестен, поэтому пересчитываются все строки.
+             */
+            @Override
+            protected void onRelatedEvent(DomainEvent event) {
+                if (event.getType() == DomainEvent.Type.OPERATION_CREATED) {
+                    invalidate(event.getOperation().getBankAccountId());
+                } else {
+                    invalidate();
+                }
             }
         };
+        eventBus.subscribe(DomainEvent.typesOf(ChangeSet.Entity.ACCOUNT, ChangeSet.Entity.OPERATION),
+                accountsModel);
         accountsTable = new JTable(accountsModel);
         accountsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         JScrollPane scrollPane = new JScrollPane(accountsTable);
@@ -69,24 +101,11 @@ public class AccountsPanel extends JPanel {
         add(scrollPane, BorderLayout.CENTER);
         add(buttonPanel, BorderLayout.SOUTH);
 
-        refreshTable();
-    }
-
-    public void refreshTable() {
-        accountsModel.setRowCount(0);
-        for (BankAccount account : accountService.getAllAccounts()) {
-            int operationCount = operationService.getOperationsByAccount(account.getId()).size();
-            accountsModel.addRow(new Object[] {
-                    account.getId().toString().substring(0, 8) + "...",
-                    account.getName(),
-                    String.format("%.2f", account.getBalance()),
-                    operationCount
-            });
-        }
+        accountsModel.setEntities(accountService.getAllAccounts());
     }
 
     private void showAddAccountDialog() {
-        AccountDialog.showAddDialog(this, accountService, commandExecutor, this::refreshTable);
+        AccountDialog.showAddDialog(this, accountService, commandExecutor);
     }
 
     private void showEditAccountDialog() {
@@ -97,11 +116,10 @@ public class AccountsPanel extends JPanel {
             return;
         }
 
-        String accountIdStr = (String) accountsModel.getValueAt(selectedRow, 0);
-        BankAccount account = findAccountByShortId(accountIdStr);
+        BankAccount account = accountsModel.getEntity(selectedRow);
 
         if (account != null) {
-            AccountDialog.showEditDialog(this, accountService, account, this::refreshTable);
+            AccountDialog.showEditDialog(this, accountService, account);
         }
     }
 
@@ -113,11 +131,13 @@ public class AccountsPanel extends JPanel {
             return;
         }
 
-        String accountIdStr = (String) accountsModel.getValueAt(selectedRow, 0);
-        BankAccount account = findAccountByShortId(accountIdStr);
+        BankAccount account = accountsModel.getEntity(selectedRow);
 
         if (account != null) {
-            List<Operation> operations = operationService.getOperationsByAccount(account.getId());
+            List<Operation> operations = operationService.findOperations(OperationQuery.builder()
+                    .account(account.getId())
+                    .orderBy(OperationQuery.Order.DATE_ASC)
+                    .build());
 
             StringBuilder sb = new StringBuilder();
             sb.append("Операции по счету: ").append(account.getName()).append("\n");
@@ -168,11 +188,10 @@ public class AccountsPanel extends JPanel {
             return;
         }
 
-        String accountIdStr = (String) accountsModel.getValueAt(selectedRow, 0);
-        BankAccount account = findAccountByShortId(accountIdStr);
+        BankAccount account = accountsModel.getEntity(selectedRow);
 
         if (account != null) {
-            int operationCount = operationService.getOperationsByAccount(account.getId()).size();
+            int operationCount = operationService.getOperationCountByAccount(account.getId());
 
             String message = operationCount > 0
                     ? "У счета есть " + operationCount + " операций. Удалить счет вместе с операциями?"
@@ -185,23 +204,19 @@ public class AccountsPanel extends JPanel {
                 DeleteAccountCommand command = new DeleteAccountCommand(
                         accountService, operationService, account.getId());
 
-                commandExecutor.executeCommand(command);
-                refreshTable();
-
-                JOptionPane.showMessageDialog(this,
-                        String.format("Счет удален! Время выполнения: %.2f мс",
-                                command.getExecutionTime() / 1_000_000.0),
-                        "Успех", JOptionPane.INFORMATION_MESSAGE);
-            }
-        }
-    }
+                commandExecutor.submit(command).whenComplete((done, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error != null) {
+                        JOptionPane.showMessageDialog(this, "Ошибка: " + error.getMessage(),
+                                "Ошибка", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
 
-    private BankAccount findAccountByShortId(String shortId) {
-        for (BankAccount account : accountService.getAllAccounts()) {
-            if (account.getId().toString().startsWith(shortId.replace("...", ""))) {
-                return account;
+                    JOptionPane.showMessageDialog(this,
+                            String.format("Счет удален! Время выполнения: %.2f мс",
+                                    command.getExecutionTime() / 1_000_000.0),
+                            "Успех", JOptionPane.INFORMATION_MESSAGE);
+                }));
             }
         }
-        return null;
     }
 }
\ No newline at end of file
@@ -1,17 +1,37 @@
 package com.tigerbank.gui.components;
 
+import com.tigerbank.command.CommandExecutor;
+import com.tigerbank.event.DomainEventBus;
 import com.tigerbank.facade.AnalyticsFacade;
 import com.tigerbank.service.AccountService;
+import com.tigerbank.service.AnalyticsJob;
+import com.tigerbank.service.AnalyticsJobService;
 import javax.swing.*;
 import java.awt.*;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
-
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Панель аналитики. Все вычисления идут через AnalyticsJobService
+ * в фоновом пуле: пока задача выполняется, показывается прогресс
+ * и доступна отмена, а повторный запрос без новых данных берется из кэша.
+ * Периоды округляются до целых дней, чтобы ключ кэша не менялся
+ * от щелчка к щелчку. Сводка обновляется по событиям шины, пока
+ * панель видна.
+ */
 public class AnalyticsPanel extends JPanel {
     private final AnalyticsFacade analyticsFacade;
     private final AccountService accountService;
+    private final AnalyticsJobService jobService;
+    private final CommandExecutor commandExecutor;
 
     private JLabel totalBalanceLabel;
     private JLabel totalIncomeLabel;
@@ -20,12 +40,27 @@ public class AnalyticsPanel extends JPanel {
     private JLabel operationsCountLabel;
     private JTextArea analyticsArea;
 
-    public AnalyticsPanel(AnalyticsFacade analyticsFacade, AccountService accountService) {
+    private JProgressBar progressBar;
+    private JLabel statusLabel;
+    private JButton cancelButton;
+    private Timer progressTimer;
+    private AnalyticsJob<?> currentJob;
+
+    public AnalyticsPanel(AnalyticsFacade analyticsFacade, AccountService accountService,
+            AnalyticsJobService jobService, CommandExecutor commandExecutor, DomainEventBus eventBus) {
         this.analyticsFacade = analyticsFacade;
         this.accountService = accountService;
+        this.jobService = jobService;
+        this.commandExecutor = commandExecutor;
 
         setLayout(new BorderLayout());
         initializeUI();
+
+        eventBus.subscribe(events -> {
+            if (isShowing()) {
+                updateAnalytics();
+            }
+        });
     }
 
     private void initializeUI() {
@@ -78,15 +113,58 @@ public class AnalyticsPanel extends JPanel {
         buttonPanel.add(categoryStatsButton);
         buttonPanel.add(recalcButton);
 
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setVisible(false);
+        statusLabel = new JLabel(" ");
+        cancelButton = new JButton("Отмена");
+        cancelButton.setVisible(false);
+        cancelButton.addActionListener(e -> {
+            if (currentJob != null) {
+                currentJob.cancel();
+            }
+        });
+        progressTimer = new Timer(100, e -> {
+            if (currentJob != null) {
+                progressBar.setValue(currentJob.getProgress());
+            }
+        });
+
+        JPanel statusPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        statusPanel.add(progressBar);
+        statusPanel.add(cancelButton);
+        statusPanel.add(statusLabel);
+
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(statusPanel, BorderLayout.NORTH);
+        southPanel.add(buttonPanel, BorderLayout.SOUTH);
+
         add(statsPanel, BorderLayout.NORTH);
         add(analyticsScroll, BorderLayout.CENTER);
-        add(buttonPanel, BorderLayout.SOUTH);
+        add(southPanel, BorderLayout.SOUTH);
 
         updateAnalytics();
     }
 
     public void updateAnalytics() {
-        Map<String, Object> stats = analyticsFacade.getDashboardStats();
+        LocalDateTime start = LocalDate.now().minusMonths(1).atStartOfDay();
+        LocalDateTime end = LocalDate.now().atTime(LocalTime.MAX);
+
+        runJob(jobService.submit("dashboard", start, end, job -> {
+            Dashboard dashboard = new Dashboard();
+            dashboard.stats = analyticsFacade.getDashboardStats();
+            job.setProgress(40);
+            job.checkCancelled();
+            dashboard.income = analyticsFacade.getIncomeGroupedByCategory(start, end);
+            job.setProgress(70);
+            job.checkCancelled();
+            dashboard.expense = analyticsFacade.getExpenseGroupedByCategory(start, end);
+            return dashboard;
+        }), this::showDashboard);
+    }
+
+    private void showDashboard(Dashboard dashboard) {
+        Map<String, Object> stats = dashboard.stats;
 
         totalBalanceLabel.setText(String.format("%.2f", stats.get("totalBalance")));
         totalIncomeLabel.setText(String.format("%.2f", stats.get("totalIncome")));
@@ -97,23 +175,18 @@ public class AnalyticsPanel extends JPanel {
         StringBuilder sb = new StringBuilder();
         sb.append("=== СТАТИСТИКА ПО КАТЕГОРИЯМ (последний месяц) ===\n\n");
 
-        LocalDateTime start = LocalDateTime.now().minusMonths(1);
-        LocalDateTime end = LocalDateTime.now();
-
         sb.append("ДОХОДЫ ПО КАТЕГОРИЯМ:\n");
-        Map<String, BigDecimal> incomeByCat = analyticsFacade.getIncomeGroupedByCategory(start, end);
-        if (incomeByCat.isEmpty()) {
+        if (dashboard.income.isEmpty()) {
             sb.append("  Нет данных\n");
         } else {
-            incomeByCat.forEach((cat, amt) -> sb.append(String.format("  %s: %.2f\n", cat, amt)));
+            dashboard.income.forEach((cat, amt) -> sb.append(String.format("  %s: %.2f\n", cat, amt)));
         }
 
         sb.append("\nРАСХОДЫ ПО КАТЕГОРИЯМ:\n");
-        Map<String, BigDecimal> expenseByCat = analyticsFacade.getExpenseGroupedByCategory(start, end);
-        if (expenseByCat.isEmpty()) {
+        if (dashboard.expense.isEmpty()) {
             sb.append("  Нет данных\n");
         } else {
-            expenseByCat.forEach((cat, amt) -> sb.append(String.format("  %s: %.2f\n", cat, amt)));
+            dashboard.expense.forEach((cat, amt) -> sb.append(String.format("  %s: %.2f\n", cat, amt)));
         }
 
         analyticsArea.setText(sb.toString());
@@ -138,27 +211,29 @@ public class AnalyticsPanel extends JPanel {
                 LocalDateTime start = LocalDateTime.parse(startField.getText() + " 00:00:00", formatter);
                 LocalDateTime end = LocalDateTime.parse(endField.getText() + " 23:59:59", formatter);
 
-                BigDecimal diff = analyticsFacade.getBalanceDifference(start, end);
-                Map<String, BigDecimal> income = analyticsFacade.getIncomeGroupedByCategory(start, end);
-                Map<String, BigDecimal> expense = analyticsFacade.getExpenseGroupedByCategory(start, end);
-
-                StringBuilder sb = new StringBuilder();
-                sb.append("=== АНАЛИЗ ЗА ПЕРИОД ===\n");
-                sb.append(String.format("С %s по %s\n\n", startField.getText(), endField.getText()));
-                sb.append(String.format("Разница доходов и расходов: %.2f\n\n", diff));
-
-                sb.append("Доходы по категориям:\n");
-                income.forEach((cat, amt) -> sb.append(String.format("  %s: %.2f\n", cat, amt)));
-
-                sb.append("\nРасходы по категориям:\n");
-                expense.forEach((cat, amt) -> sb.append(String.format("  %s: %.2f\n", cat, amt)));
-
-                JTextArea textArea = new JTextArea(sb.toString(), 15, 40);
-                textArea.setEditable(false);
-                JScrollPane scrollPane = new JScrollPane(textArea);
-
-                JOptionPane.showMessageDialog(this, scrollPane,
-                        "Результаты анализа", JOptionPane.INFORMATION_MESSAGE);
+                String period = String.format("С %s по %s\n\n", startField.getText(), endField.getText());
+                AnalyticsJob<String> periodJob = jobService.submit("period", start, end, job -> {
+                    BigDecimal diff = analyticsFacade.getBalanceDifference(start, end);
+                    job.setProgress(30);
+                    job.checkCancelled();
+                    Map<String, BigDecimal> income = analyticsFacade.getIncomeGroupedByCategory(start, end);
+                    job.setProgress(60);
+                    job.checkCancelled();
+                    Map<String, BigDecimal> expense = analyticsFacade.getExpenseGroupedByCategory(start, end);
+
+                    StringBuilder sb = new StringBuilder();
+                    sb.append("=== АНАЛИЗ ЗА ПЕРИОД ===\n");
+                    sb.append(period);
+                    sb.append(String.format("Разница доходов и расходов: %.2f\n\n", diff));
+
+                    sb.append("Доходы по категориям:\n");
+                    income.forEach((cat, amt) -> sb.append(String.format("  %s: %.2f\n", cat, amt)));
+
+                    sb.append("\nРасходы по категориям:\n");
+                    expense.forEach((cat, amt) -> sb.append(String.format("  %s: %.2f\n", cat, amt)));
+                    return sb.toString();
+                });
+                runJob(periodJob, text -> showText(text, 15, 40, "Результаты анализа", false));
 
             } catch (Exception e) {
                 JOptionPane.showMessageDialog(this,
@@ -169,18 +244,14 @@ public class AnalyticsPanel extends JPanel {
     }
 
     private void showFullAnalyticsReport() {
-        LocalDateTime start = LocalDateTime.now().minusMonths(6);
-        LocalDateTime end = LocalDateTime.now();
-
-        String report = analyticsFacade.getFullAnalyticsReport(start, end);
-
-        JTextArea textArea = new JTextArea(report, 25, 60);
-        textArea.setEditable(false);
-        textArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
-        JScrollPane scrollPane = new JScrollPane(textArea);
-
-        JOptionPane.showMessageDialog(this, scrollPane,
-                "Полный финансовый отчет", JOptionPane.INFORMATION_MESSAGE);
+        LocalDateTime start = LocalDate.now().minusMonths(6).atStartOfDay();
+        LocalDateTime end = LocalDate.now().atTime(LocalTime.MAX);
+
+        AnalyticsJob<String> reportJob = jobService.submit("full-report", start, end, job -> {
+            job.setProgress(10);
+            return analyticsFacade.getFullAnalyticsReport(start, end);
+        });
+        runJob(reportJob, report -> showText(report, 25, 60, "Полный финансовый отчет", true));
     }
 
     private void showCategoryStatisticsDialog() {
@@ -193,48 +264,126 @@ public class AnalyticsPanel extends JPanel {
                 null, options, options[0]);
 
         if (choice == 0 || choice == 1) {
-            LocalDateTime start = LocalDateTime.now().minusMonths(1);
-            LocalDateTime end = LocalDateTime.now();
-
-            Map<String, BigDecimal> stats = choice == 0
-                    ? analyticsFacade.getIncomeGroupedByCategory(start, end)
-                    : analyticsFacade.getExpenseGroupedByCategory(start, end);
-
-            StringBuilder sb = new StringBuilder();
-            sb.append(choice == 0 ? "ДОХОДЫ" : "РАСХОДЫ");
-            sb.append(" ПО КАТЕГОРИЯМ (последний месяц):\n\n");
-
-            if (stats.isEmpty()) {
-                sb.append("Нет данных");
-            } else {
-                stats.forEach((cat, amt) -> sb.append(String.format("%s: %.2f\n", cat, amt)));
-            }
-
-            JTextArea textArea = new JTextArea(sb.toString(), 15, 30);
-            textArea.setEditable(false);
-            JScrollPane scrollPane = new JScrollPane(textArea);
-
-            JOptionPane.showMessageDialog(this, scrollPane,
-                    "Статистика по категориям", JOptionPane.INFORMATION_MESSAGE);
+            LocalDateTime start = LocalDate.now().minusMonths(1).atStartOfDay();
+            LocalDateTime end = LocalDate.now().atTime(LocalTime.MAX);
+
+            AnalyticsJob<Map<String, BigDecimal>> statsJob = jobService.submit(
+                    choice == 0 ? "income-by-category" : "expense-by-category", start, end,
+                    job -> choice == 0
+                            ? analyticsFacade.getIncomeGroupedByCategory(start, end)
+                            : analyticsFacade.getExpenseGroupedByCategory(start, end));
+            runJob(statsJob, stats -> {
+                StringBuilder sb = new StringBuilder();
+                sb.append(choice == 0 ? "ДОХОДЫ" : "РАСХОДЫ");
+                sb.append(" ПО КАТЕГОРИЯМ (последний месяц):\n\n");
+
+                if (stats.isEmpty()) {
+                    sb.append("Нет данных");
+                } else {
+                    stats.forEach((cat, amt) -> sb.append(String.format("%s: %.2f\n", cat, amt)));
+                }
+                showText(sb.toString(), 15, 30, "Статистика по категориям", false);
+            });
         }
     }
 
-    private void recalculateBalances() {
+    /**
+     * Балансы считаются в пуле аналитики, а записываются через
+     * исполнитель команд, чтобы не пересекаться с другими изменениями.
+     */
+    public void recalculateBalances() {
         int confirm = JOptionPane.showConfirmDialog(this,
                 "Пересчитать балансы всех счетов на основе операций?",
                 "Подтверждение", JOptionPane.YES_NO_OPTION);
 
         if (confirm == JOptionPane.YES_OPTION) {
             long startTime = System.nanoTime();
-            analyticsFacade.recalculateAllBalances();
-            long endTime = System.nanoTime();
+            AnalyticsJob<Map<UUID, BigDecimal>> balancesJob =
+                    jobService.run("recalculate-balances", job -> analyticsFacade.calculateBalances());
+            runJob(balancesJob, balances -> commandExecutor.submitTask(() -> {
+                analyticsFacade.applyBalances(balances);
+                return null;
+            }).whenComplete((done, error) -> SwingUtilities.invokeLater(() -> {
+                if (error != null) {
+                    showError(error);
+                    return;
+                }
+                updateAnalytics();
+                JOptionPane.showMessageDialog(this,
+                        String.format("Балансы пересчитаны успешно!\nВремя выполнения: %.2f мс",
+                                (System.nanoTime() - startTime) / 1_000_000.0),
+                        "Успех", JOptionPane.INFORMATION_MESSAGE);
+            })));
+        }
+    }
+
+    private <T> void runJob(AnalyticsJob<T> job, Consumer<T> onSuccess) {
+        long startTime = System.nanoTime();
+        if (job.getResult().isDone()) {
+            finish(job, onSuccess, startTime);
+            return;
+        }
+        if (currentJob != null && currentJob != job) {
+            currentJob.cancel();
+        }
+        currentJob = job;
+        progressBar.setValue(job.getProgress());
+        progressBar.setVisible(true);
+        cancelButton.setVisible(true);
+        statusLabel.setText("Выполняется: " + job.getName());
+        progressTimer.start();
+
+        job.getResult().whenComplete((value, error) ->
+                SwingUtilities.invokeLater(() -> finish(job, onSuccess, startTime)));
+    }
 
-            updateAnalytics();
+    private <T> void finish(AnalyticsJob<T> job, Consumer<T> onSuccess, long startTime) {
+        if (job == currentJob) {
+            currentJob = null;
+            progressTimer.stop();
+            progressBar.setVisible(false);
+            cancelButton.setVisible(false);
+        }
+        if (job.isCancelled()) {
+            statusLabel.setText("Отменено: " + job.getName());
+            return;
+        }
+        T value;
+        try {
+            value = job.getResult().join();
+        } catch (CancellationException e) {
+            statusLabel.setText("Отменено: " + job.getName());
+            return;
+        } catch (CompletionException e) {
+            statusLabel.setText("Ошибка: " + job.getName());
+            showError(e.getCause());
+            return;
+        }
+        statusLabel.setText(String.format("%s: %s", job.getName(), job.isCached()
+                ? "из кэша"
+                : String.format("%.2f мс", (System.nanoTime() - startTime) / 1_000_000.0)));
+        onSuccess.accept(value);
+    }
 
-            JOptionPane.showMessageDialog(this,
-                    String.format("Балансы пересчитаны успешно!\nВремя выполнения: %.2f мс",
-                            (endTime - startTime) / 1_000_000.0),
-                    "Успех", JOptionPane.INFORMATION_MESSAGE);
+    private void showText(String text, int rows, int columns, String title, boolean monospaced) {
+        JTextArea textArea = new JTextArea(text, rows, columns);
+        textArea.setEditable(false);
+        if (monospaced) {
+            textArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
         }
+        JScrollPane scrollPane = new JScrollPane(textArea);
+
+        JOptionPane.showMessageDialog(this, scrollPane, title, JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private void showError(Throwable error) {
+        JOptionPane.showMessageDialog(this, "Ошибка: " + error.getMessage(),
+                "Ошибка", JOptionPane.ERROR_MESSAGE);
+    }
+
+    private static class Dashboard {
+        Map<String, Object> stats;
+        Map<String, BigDecimal> income;
+        Map<String, BigDecimal> expense;
     }
 }
\ No newline at end of file
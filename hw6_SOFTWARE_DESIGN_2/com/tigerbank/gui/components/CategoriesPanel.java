@@ -4,43 +4,74 @@ import com.tigerbank.command.CommandExecutor;
 import com.tigerbank.domain.Category;
 import com.tigerbank.domain.Operation;
 import com.tigerbank.enums.OperationType;
+import com.tigerbank.event.DomainEvent;
+import com.tigerbank.event.DomainEventBus;
 import com.tigerbank.gui.dialogs.CategoryDialog;
+import com.tigerbank.repository.ChangeSet;
+import com.tigerbank.repository.OperationQuery;
 import com.tigerbank.service.CategoryService;
 import com.tigerbank.service.OperationService;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.math.BigDecimal;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.UUID;
 
 public class CategoriesPanel extends JPanel {
     private final CategoryService categoryService;
     private final OperationService operationService;
     private final CommandExecutor commandExecutor;
+    private final DomainEventBus eventBus;
 
     private JTable categoriesTable;
-    private DefaultTableModel categoriesModel;
+    private EntityTableModel<Category> categoriesModel;
 
     public CategoriesPanel(CategoryService categoryService,
             OperationService operationService,
-            CommandExecutor commandExecutor) {
+            CommandExecutor commandExecutor,
+            DomainEventBus eventBus) {
         this.categoryService = categoryService;
         this.operationService = operationService;
         this.commandExecutor = commandExecutor;
+        this.eventBus = eventBus;
 
         setLayout(new BorderLayout());
         initializeUI();
     }
 
     private void initializeUI() {
-        String[] columns = { "ID", "Тип", "Название", "Кол-во операций" };
-        categoriesModel = new DefaultTableModel(columns, 0) {
+        categoriesModel = new EntityTableModel<Category>(ChangeSet.Entity.CATEGORY,
+                "ID", "Тип", "Название", "Кол-во операций") {
             @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
+            protected UUID idOf(Category category) {
+                return category.getId();
+            }
+
+            @Override
+            protected Object[] format(Category category) {
+                return new Object[] {
+                        category.getId().toString().substring(0, 8) + "...",
+                        category.getType().getDescription(),
+                        category.getName(),
+                        operationService.getOperationCountByCategory(category.getId())
+                };
+            }
+
+            @Override
+            protected void onRelatedEvent(DomainEvent event) {
+                if (event.getType() == DomainEvent.Type.OPERATION_CREATED) {
+                    UUID categoryId = event.getOperation().getCategoryId();
+                    if (categoryId != null) {
+                        invalidate(categoryId);
+                    }
+                } else {
+                    invalidate();
+                }
             }
         };
+        eventBus.subscribe(DomainEvent.typesOf(ChangeSet.Entity.CATEGORY, ChangeSet.Entity.OPERATION),
+                categoriesModel);
         categoriesTable = new JTable(categoriesModel);
         categoriesTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         JScrollPane scrollPane = new JScrollPane(categoriesTable);
@@ -63,24 +94,11 @@ public class CategoriesPanel extends JPanel {
         add(scrollPane, BorderLayout.CENTER);
         add(buttonPanel, BorderLayout.SOUTH);
 
-        refreshTable();
-    }
-
-    public void refreshTable() {
-        categoriesModel.setRowCount(0);
-        for (Category category : categoryService.getAllCategories()) {
-            int operationCount = operationService.getOperationsByCategory(category.getId()).size();
-            categoriesModel.addRow(new Object[] {
-                    category.getId().toString().substring(0, 8) + "...",
-                    category.getType().getDescription(),
-                    category.getName(),
-                    operationCount
-            });
-        }
+        categoriesModel.setEntities(categoryService.getAllCategories());
     }
 
     private void showAddCategoryDialog() {
-        CategoryDialog.showAddDialog(this, categoryService, this::refreshTable);
+        CategoryDialog.showAddDialog(this, categoryService);
     }
 
     private void showCategoryOperationsDialog() {
@@ -91,11 +109,13 @@ public class CategoriesPanel extends JPanel {
             return;
         }
 
-        String categoryIdStr = (String) categoriesModel.getValueAt(selectedRow, 0);
-        Category category = findCategoryByShortId(categoryIdStr);
+        Category category = categoriesModel.getEntity(selectedRow);
 
         if (category != null) {
-            List<Operation> operations = operationService.getOperationsByCategory(category.getId());
+            List<Operation> operations = operationService.findOperations(OperationQuery.builder()
+                    .category(category.getId())
+                    .orderBy(OperationQuery.Order.DATE_ASC)
+                    .build());
 
             StringBuilder sb = new StringBuilder();
             sb.append("Операции по категории: ").append(category.getName()).append("\n");
@@ -135,11 +155,10 @@ public class CategoriesPanel extends JPanel {
             return;
         }
 
-        String categoryIdStr = (String) categoriesModel.getValueAt(selectedRow, 0);
-        Category category = findCategoryByShortId(categoryIdStr);
+        Category category = categoriesModel.getEntity(selectedRow);
 
         if (category != null) {
-            int operationCount = operationService.getOperationsByCategory(category.getId()).size();
+            int operationCount = operationService.getOperationCountByCategory(category.getId());
 
             if (operationCount > 0) {
                 int confirm = JOptionPane.showConfirmDialog(this,
@@ -149,7 +168,6 @@ public class CategoriesPanel extends JPanel {
 
                 if (confirm == JOptionPane.YES_OPTION) {
                     categoryService.deleteCategory(category.getId());
-                    refreshTable();
                     JOptionPane.showMessageDialog(this, "Категория удалена!");
                 }
             } else {
@@ -159,19 +177,9 @@ public class CategoriesPanel extends JPanel {
 
                 if (confirm == JOptionPane.YES_OPTION) {
                     categoryService.deleteCategory(category.getId());
-                    refreshTable();
                     JOptionPane.showMessageDialog(this, "Категория удалена!");
                 }
             }
         }
     }
-
-    private Category findCategoryByShortId(String shortId) {
-        for (Category category : categoryService.getAllCategories()) {
-            if (category.getId().toString().startsWith(shortId.replace("...", ""))) {
-                return category;
-            }
-        }
-        return null;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,152 @@
+package com.tigerbank.gui.components;
+
+import com.tigerbank.event.DomainEvent;
+import com.tigerbank.event.DomainEventListener;
+import com.tigerbank.repository.ChangeSet;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Модель таблицы для небольших справочников (счета, категории).
+ * Строки обновляются по событиям шины точечно: создание добавляет
+ * строку, изменение заменяет одну, удаление убирает одну.
+ * Отформатированные значения строки кэшируются до ее изменения.
+ * События других разделов передаются в onRelatedEvent - например,
+ * чтобы пересчитать число операций в строке.
+ */
+public abstract class EntityTableModel<T> extends AbstractTableModel implements DomainEventListener {
+    private final ChangeSet.Entity entity;
+    private final String[] columns;
+    private final List<T> entities = new ArrayList<>();
+    private final List<Object[]> cells = new ArrayList<>();
+
+    protected EntityTableModel(ChangeSet.Entity entity, String... columns) {
+        this.entity = entity;
+        this.columns = columns;
+    }
+
+    protected abstract UUID idOf(T entity);
+
+    protected abstract Object[] format(T entity);
+
+    public void setEntities(List<T> loaded) {
+        entities.clear();
+        cells.clear();
+        for (T entity : loaded) {
+            entities.add(entity);
+            cells.add(null);
+        }
+        fireTableDataChanged();
+    }
+
+    /**
+     * Сбрасывает кэш значений, не меняя набор строк.
+     */
+    public void invalidate() {
+        for (int i = 0; i < cells.size(); i++) {
+            cells.set(i, null);
+        }
+        if (!entities.isEmpty()) {
+            fireTableRowsUpdated(0, entities.size() - 1);
+        }
+    }
+
+    public T getEntity(int row) {
+        return entities.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return entities.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Object[] values = cells.get(row);
+        if (values == null) {
+            values = format(entities.get(row));
+            cells.set(row, values);
+        }
+        return values[column];
+    }
+
+    /**
+     * Сбрасывает кэш значений одной строки.
+     */
+    public void invalidate(UUID id) {
+        int row = indexOf(id);
+        if (row >= 0) {
+            cells.set(row, null);
+            fireTableRowsUpdated(row, row);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (event.getEntityType() != entity) {
+                onRelatedEvent(event);
+                continue;
+            }
+            switch (event.getChange()) {
+                case CREATED:
+                case UPDATED:
+                    saved((T) event.getEntity());
+                    break;
+                case DELETED:
+                    deleted(event.getId());
+                    break;
+                default:
+                    setEntities(new ArrayList<>());
+                    break;
+            }
+        }
+    }
+
+    protected void onRelatedEvent(DomainEvent event) {
+    }
+
+    private void saved(T saved) {
+        int row = indexOf(idOf(saved));
+        if (row >= 0) {
+            entities.set(row, saved);
+            cells.set(row, null);
+            fireTableRowsUpdated(row, row);
+        } else {
+            entities.add(saved);
+            cells.add(null);
+            fireTableRowsInserted(entities.size() - 1, entities.size() - 1);
+        }
+    }
+
+    private void deleted(UUID id) {
+        int row = indexOf(id);
+        if (row >= 0) {
+            entities.remove(row);
+            cells.remove(row);
+            fireTableRowsDeleted(row, row);
+        }
+    }
+
+    private int indexOf(UUID id) {
+        for (int i = 0; i < entities.size(); i++) {
+            if (idOf(entities.get(i)).equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
\ No newline at end of file
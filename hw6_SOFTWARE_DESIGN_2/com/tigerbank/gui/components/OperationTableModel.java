@@ -0,0 +1,438 @@
+package com.tigerbank.gui.components;
+
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Operation;
+import com.tigerbank.event.DomainEvent;
+import com.tigerbank.event.DomainEventBus;
+import com.tigerbank.repository.ChangeSet;
+import com.tigerbank.repository.DescriptionIndex;
+import com.tigerbank.service.AccountService;
+import com.tigerbank.service.CategoryService;
+import com.tigerbank.service.OperationService;
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
+
+/**
+ * Модель таблицы операций без копии всех строк. Хранится только
+ * отсортированный по дате индекс (id и ключ даты), сами операции
+ * читаются страницами по PAGE_SIZE строк, когда таблица запрашивает
+ * видимые ячейки, а отформатированные строки держатся в LRU-кэше.
+ * <p>
+ * Изменения приходят порциями с шины событий на EDT: отдельные
+ * вставки и удаления дают точечные события строк, массовые (импорт) -
+ * одну пересортировку. Переименование счета или категории сбрасывает
+ * кэш строк, только если имя было закэшировано; смена баланса модель
+ * не касается. Дата сохраненной операции считается неизменной.
+ * <p>
+ * В режиме поиска индекс строится из результата полнотекстового
+ * поиска, а новые операции добавляются, только если их описание
+ * подходит под запрос.
+ */
+public class OperationTableModel extends AbstractTableModel {
+    static final int PAGE_SIZE = 128;
+    private static final int CACHE_ROWS = 4096;
+    private static final int BULK_THRESHOLD = 256;
+    private static final int SINGLE_DELETE_LIMIT = 16;
+    private static final String[] COLUMNS = { "ID", "Тип", "Счет", "Категория", "Сумма", "Дата", "Описание" };
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+    private static final Object[] MISSING = new Object[COLUMNS.length];
+    private static final Set<DomainEvent.Type> EVENT_TYPES = EnumSet.of(
+            DomainEvent.Type.OPERATION_CREATED, DomainEvent.Type.OPERATION_UPDATED,
+            DomainEvent.Type.OPERATION_DELETED, DomainEvent.Type.OPERATIONS_CLEARED,
+            DomainEvent.Type.ACCOUNT_UPDATED, DomainEvent.Type.ACCOUNT_DELETED,
+            DomainEvent.Type.ACCOUNTS_CLEARED, DomainEvent.Type.CATEGORY_UPDATED,
+            DomainEvent.Type.CATEGORY_DELETED, DomainEvent.Type.CATEGORIES_CLEARED);
+
+    private final OperationService operationService;
+    private final AccountService accountService;
+    private final CategoryService categoryService;
+
+    private Row[] rows = new Row[0];
+    private int size;
+    private boolean loading;
+    private boolean descending = true;
+    private Comparator<Row> order = order(true);
+    private int generation;
+    private String searchText;
+    private Predicate<Operation> filter;
+    private long searchMillis;
+
+    private final Map<UUID, Object[]> cells = new LinkedHashMap<UUID, Object[]>(CACHE_ROWS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, Object[]> eldest) {
+            return size() > CACHE_ROWS;
+        }
+    };
+    private final Map<UUID, String> accountNames = new ConcurrentHashMap<>();
+    private final Map<UUID, String> categoryNames = new ConcurrentHashMap<>();
+
+    private final List<List<DomainEvent>> deferred = new ArrayList<>();
+
+    public OperationTableModel(OperationService operationService,
+            AccountService accountService,
+            CategoryService categoryService,
+            DomainEventBus eventBus) {
+        this.operationService = operationService;
+        this.accountService = accountService;
+        this.categoryService = categoryService;
+
+        eventBus.subscribe(EVENT_TYPES, this::onEvents);
+    }
+
+    /**
+     * Полностью перестраивает индекс. Нужна при первом показе; сбор
+     * и сортировка идут в фоновом потоке, изменения, пришедшие за это
+     * время, применяются после установки нового индекса.
+     */
+    public void reload() {
+        loading = true;
+        int current = ++generation;
+        Comparator<Row> sortOrder = order;
+        String text = searchText;
+        new SwingWorker<Row[], Void>() {
+            private long elapsedMillis;
+
+            @Override
+            protected Row[] doInBackground() {
+                List<Row> loaded = new ArrayList<>();
+                if (text == null) {
+                    operationService.forEachOperation(operation -> loaded.add(new Row(operation)));
+                } else {
+                    long started = System.nanoTime();
+                    List<Operation> found = operationService.searchOperations(text, Integer.MAX_VALUE);
+                    elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+                    found.forEach(operation -> loaded.add(new Row(operation)));
+                }
+                Row[] sorted = loaded.toArray(new Row[0]);
+                Arrays.sort(sorted, sortOrder);
+                return sorted;
+            }
+
+            @Override
+            protected void done() {
+                if (current != generation) {
+                    return;
+                }
+                try {
+                    searchMillis = elapsedMillis;
+                    install(get(), sortOrder);
+                } catch (InterruptedException | ExecutionException e) {
+                    loading = false;
+                    throw new IllegalStateException("Не удалось загрузить операции", e);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Показывает только операции, найденные по описанию; пустой
+     * запрос возвращает все операции. Результат предыдущего
+     * незавершенного поиска отбрасывается.
+     */
+    public void setSearch(String text) {
+        DescriptionIndex.Query query = DescriptionIndex.Query.parse(text);
+        if (query.isEmpty()) {
+            searchText = null;
+            filter = null;
+        } else {
+            searchText = text;
+            filter = operation -> query.matches(operation.getDescription());
+        }
+        reload();
+    }
+
+    public boolean isSearching() {
+        return searchText != null;
+    }
+
+    /**
+     * Время последнего поиска по индексу без загрузки строк таблицы.
+     */
+    public long getSearchMillis() {
+        return searchMillis;
+    }
+
+    /**
+     * Сбрасывает кэш отформатированных строк и имен без перестройки индекса.
+     */
+    public void invalidate() {
+        cells.clear();
+        accountNames.clear();
+        categoryNames.clear();
+        if (size > 0) {
+            fireTableRowsUpdated(0, size - 1);
+        }
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    public void toggleSortOrder() {
+        descending = !descending;
+        order = order(descending);
+        Arrays.sort(rows, 0, size, order);
+        fireTableDataChanged();
+    }
+
+    public UUID getOperationId(int row) {
+        return rows[row].id;
+    }
+
+    @Override
+    public int getRowCount() {
+        return size;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        UUID id = rows[row].id;
+        Object[] values = cells.get(id);
+        if (values == null) {
+            loadPage(row);
+            values = cells.get(id);
+        }
+        return values[column];
+    }
+
+    private void loadPage(int row) {
+        int start = row - row % PAGE_SIZE;
+        int end = Math.min(size, start + PAGE_SIZE);
+        for (int i = start; i < end; i++) {
+            UUID id = rows[i].id;
+            if (!cells.containsKey(id)) {
+                cells.put(id, operationService.getOperation(id).map(this::format).orElse(MISSING));
+            }
+        }
+    }
+
+    private Object[] format(Operation operation) {
+        return new Object[] {
+                operation.getId().toString().substring(0, 8) + "...",
+                operation.getType().getDescription(),
+                accountName(operation.getBankAccountId()),
+                categoryName(operation.getCategoryId()),
+                String.format("%.2f", operation.getAmount()),
+                operation.getDate().format(DATE_FORMATTER),
+                operation.getDescription()
+        };
+    }
+
+    private String accountName(UUID id) {
+        if (id == null) {
+            return "Неизвестный счет";
+        }
+        return accountNames.computeIfAbsent(id, key -> accountService.getAccount(key)
+                .map(BankAccount::getName)
+                .orElse("Неизвестный счет"));
+    }
+
+    private String categoryName(UUID id) {
+        if (id == null) {
+            return "Неизвестная категория";
+        }
+        return categoryNames.computeIfAbsent(id, key -> categoryService.getCategory(key)
+                .map(Category::getName)
+                .orElse("Неизвестная категория"));
+    }
+
+    private void install(Row[] loaded, Comparator<Row> sortOrder) {
+        rows = loaded;
+        size = loaded.length;
+        if (sortOrder != order) {
+            Arrays.sort(rows, 0, size, order);
+        }
+        cells.clear();
+        loading = false;
+        fireTableDataChanged();
+        for (List<DomainEvent> events : deferred) {
+            apply(events);
+        }
+        deferred.clear();
+    }
+
+    private void onEvents(List<DomainEvent> events) {
+        if (loading) {
+            deferred.add(events);
+        } else {
+            apply(events);
+        }
+    }
+
+    private void apply(List<DomainEvent> events) {
+        Map<UUID, Operation> saved = new LinkedHashMap<>();
+        Set<UUID> deleted = new HashSet<>();
+        boolean names = false;
+        for (DomainEvent event : events) {
+            switch (event.getType()) {
+                case OPERATIONS_CLEARED:
+                    size = 0;
+                    rows = new Row[0];
+                    cells.clear();
+                    fireTableDataChanged();
+                    break;
+                case OPERATION_CREATED:
+                    saved.put(event.getId(), event.getOperation());
+                    break;
+                case OPERATION_UPDATED:
+                    // Дата не меняется, строка находится двоичным поиском
+                    // в applySaved; удалять ее нужно, только если она
+                    // перестала подходить под поиск
+                    if (filter != null && !filter.test(event.getOperation())) {
+                        saved.remove(event.getId());
+                        deleted.add(event.getId());
+                    } else {
+                        saved.put(event.getId(), event.getOperation());
+                    }
+                    break;
+                case OPERATION_DELETED:
+                    deleted.add(event.getId());
+                    break;
+                default:
+                    names |= event.getId() == null || namesOf(event.getEntityType()).containsKey(event.getId());
+                    break;
+            }
+        }
+
+        if (names) {
+            invalidate();
+        }
+        if (!deleted.isEmpty()) {
+            applyDeleted(deleted);
+        }
+        if (!saved.isEmpty()) {
+            applySaved(saved.values());
+        }
+    }
+
+    private Map<UUID, String> namesOf(ChangeSet.Entity entity) {
+        return entity == ChangeSet.Entity.ACCOUNT ? accountNames : categoryNames;
+    }
+
+    /**
+     * Удаление приходит без даты, поэтому строку не найти двоичным
+     * поиском: вся порция удаляется за один проход по индексу,
+     * который заканчивается на последней найденной строке.
+     */
+    private void applyDeleted(Set<UUID> deleted) {
+        deleted.forEach(cells::remove);
+        int[] removed = new int[Math.min(deleted.size(), SINGLE_DELETE_LIMIT)];
+        int count = 0;
+        int kept = 0;
+        int i = 0;
+        for (; i < size && count < deleted.size(); i++) {
+            if (deleted.contains(rows[i].id)) {
+                if (count < removed.length) {
+                    removed[count] = i;
+                }
+                count++;
+            } else {
+                rows[kept++] = rows[i];
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        System.arraycopy(rows, i, rows, kept, size - i);
+        Arrays.fill(rows, size - count, size, null);
+        size -= count;
+        if (count > SINGLE_DELETE_LIMIT) {
+            fireTableDataChanged();
+            return;
+        }
+        // С конца, чтобы номера еще не сообщенных строк не сдвигались
+        for (int j = count - 1; j >= 0; j--) {
+            fireTableRowsDeleted(removed[j], removed[j]);
+        }
+    }
+
+    private void applySaved(Collection<Operation> saved) {
+        List<Row> inserted = new ArrayList<>();
+        for (Operation operation : saved) {
+            if (filter != null && !filter.test(operation)) {
+                continue;
+            }
+            Row row = new Row(operation);
+            int position = Arrays.binarySearch(rows, 0, size, row, order);
+            if (position >= 0) {
+                cells.remove(row.id);
+                fireTableRowsUpdated(position, position);
+            } else {
+                inserted.add(row);
+            }
+        }
+        if (inserted.isEmpty()) {
+            return;
+        }
+
+        ensureCapacity(size + inserted.size());
+        if (inserted.size() > BULK_THRESHOLD) {
+            for (Row row : inserted) {
+                rows[size++] = row;
+            }
+            Arrays.sort(rows, 0, size, order);
+            fireTableDataChanged();
+            return;
+        }
+        for (Row row : inserted) {
+            int position = -Arrays.binarySearch(rows, 0, size, row, order) - 1;
+            System.arraycopy(rows, position, rows, position + 1, size - position);
+            rows[position] = row;
+            size++;
+            fireTableRowsInserted(position, position);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (rows.length < capacity) {
+            rows = Arrays.copyOf(rows, Math.max(capacity, rows.length + (rows.length >> 1) + 16));
+        }
+    }
+
+    private static Comparator<Row> order(boolean descending) {
+        return (left, right) -> {
+            int byDate = Long.compare(left.date, right.date);
+            if (byDate != 0) {
+                return descending ? -byDate : byDate;
+            }
+            return left.id.compareTo(right.id);
+        };
+    }
+
+    private static final class Row {
+        final UUID id;
+        final long date;
+
+        Row(Operation operation) {
+            this.id = operation.getId();
+            this.date = operation.getDate().toEpochSecond(ZoneOffset.UTC);
+        }
+    }
+}
\ No newline at end of file
@@ -2,59 +2,96 @@ package com.tigerbank.gui.components;
 
 import com.tigerbank.command.CommandExecutor;
 import com.tigerbank.command.CreateOperationCommand;
-import com.tigerbank.domain.BankAccount;
-import com.tigerbank.domain.Category;
 import com.tigerbank.domain.Operation;
-import com.tigerbank.enums.OperationType;
+import com.tigerbank.event.DomainEventBus;
 import com.tigerbank.gui.dialogs.OperationDialog;
 import com.tigerbank.service.AccountService;
 import com.tigerbank.service.CategoryService;
 import com.tigerbank.service.OperationService;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableRowSorter;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.UUID;
 
 public class OperationsPanel extends JPanel {
+    private static final int DATE_COLUMN = 5;
+    private static final int SEARCH_DELAY_MILLIS = 250;
+
     private final OperationService operationService;
     private final AccountService accountService;
     private final CategoryService categoryService;
     private final CommandExecutor commandExecutor;
+    private final DomainEventBus eventBus;
 
     private JTable operationsTable;
-    private DefaultTableModel operationsModel;
+    private OperationTableModel operationsModel;
+    private JTextField searchField;
+    private JLabel searchStatus;
+    private Timer searchTimer;
 
     public OperationsPanel(OperationService operationService,
             AccountService accountService,
             CategoryService categoryService,
-            CommandExecutor commandExecutor) {
+            CommandExecutor commandExecutor,
+            DomainEventBus eventBus) {
         this.operationService = operationService;
         this.accountService = accountService;
         this.categoryService = categoryService;
         this.commandExecutor = commandExecutor;
+        this.eventBus = eventBus;
 
         setLayout(new BorderLayout());
         initializeUI();
     }
 
     private void initializeUI() {
-        String[] columns = { "ID", "Тип", "Счет", "Категория", "Сумма", "Дата", "Описание" };
-        operationsModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        operationsModel = new OperationTableModel(operationService, accountService, categoryService, eventBus);
         operationsTable = new JTable(operationsModel);
         operationsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-
-        TableRowSorter<DefaultTableModel> sorter = new TableRowSorter<>(operationsModel);
-        operationsTable.setRowSorter(sorter);
+        operationsTable.getTableHeader().setToolTipText("Щелчок по столбцу \"Дата\" меняет порядок сортировки");
+        operationsTable.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = operationsTable.columnAtPoint(e.getPoint());
+                if (column >= 0 && operationsTable.convertColumnIndexToModel(column) == DATE_COLUMN) {
+                    operationsModel.toggleSortOrder();
+                }
+            }
+        });
 
         JScrollPane scrollPane = new JScrollPane(operationsTable);
 
+        JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        searchField = new JTextField(30);
+        searchField.setToolTipText("Слова через пробел - все сразу, OR или | - любое из вариантов, "
+                + "* на конце - начало слова");
+        searchStatus = new JLabel();
+        searchTimer = new Timer(SEARCH_DELAY_MILLIS, e -> operationsModel.setSearch(searchField.getText()));
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+        });
+        operationsModel.addTableModelListener(e -> updateSearchStatus());
+        searchPanel.add(new JLabel("Поиск по описанию:"));
+        searchPanel.add(searchField);
+        searchPanel.add(searchStatus);
+
         JPanel buttonPanel = new JPanel(new FlowLayout());
 
         JButton addButton = new JButton("Добавить операцию");
@@ -70,40 +107,32 @@ public class OperationsPanel extends JPanel {
         buttonPanel.add(deleteButton);
         buttonPanel.add(filterButton);
 
+        add(searchPanel, BorderLayout.NORTH);
         add(scrollPane, BorderLayout.CENTER);
         add(buttonPanel, BorderLayout.SOUTH);
 
-        refreshTable();
+        operationsModel.reload();
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                operationService.prepareSearch();
+                return null;
+            }
+        }.execute();
     }
 
-    public void refreshTable() {
-        operationsModel.setRowCount(0);
-        for (Operation operation : operationService.getAllOperations()) {
-            String accountName = accountService.getAccount(operation.getBankAccountId())
-                    .map(BankAccount::getName)
-                    .orElse("Неизвестный счет");
-
-            String categoryName = categoryService.getCategory(operation.getCategoryId())
-                    .map(Category::getName)
-                    .orElse("Неизвестная категория");
-
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
-
-            operationsModel.addRow(new Object[] {
-                    operation.getId().toString().substring(0, 8) + "...",
-                    operation.getType().getDescription(),
-                    accountName,
-                    categoryName,
-                    String.format("%.2f", operation.getAmount()),
-                    operation.getDate().format(formatter),
-                    operation.getDescription()
-            });
+    private void updateSearchStatus() {
+        if (operationsModel.isSearching() && !operationsModel.isLoading()) {
+            searchStatus.setText(String.format("Найдено: %d (%d мс)",
+                    operationsModel.getRowCount(), operationsModel.getSearchMillis()));
+        } else {
+            searchStatus.setText("");
         }
     }
 
     private void showAddOperationDialog() {
         OperationDialog.showAddDialog(this, operationService, accountService,
-                categoryService, commandExecutor, this::refreshTable);
+                categoryService, commandExecutor);
     }
 
     private void showFilterDialog() {
@@ -120,8 +149,8 @@ public class OperationsPanel extends JPanel {
             return;
         }
 
-        String operationIdStr = (String) operationsModel.getValueAt(selectedRow, 0);
-        Operation operation = findOperationByShortId(operationIdStr);
+        Operation operation = operationService.getOperation(operationsModel.getOperationId(selectedRow))
+                .orElse(null);
 
         if (operation != null) {
             int confirm = JOptionPane.showConfirmDialog(this,
@@ -132,23 +161,17 @@ public class OperationsPanel extends JPanel {
                     "Подтверждение удаления", JOptionPane.YES_NO_OPTION);
 
             if (confirm == JOptionPane.YES_OPTION) {
-                if (operationService.deleteOperation(operation.getId())) {
-                    refreshTable();
-                    JOptionPane.showMessageDialog(this, "Операция удалена!");
-                } else {
-                    JOptionPane.showMessageDialog(this, "Не удалось удалить операцию",
-                            "Ошибка", JOptionPane.ERROR_MESSAGE);
-                }
-            }
-        }
-    }
-
-    private Operation findOperationByShortId(String shortId) {
-        for (Operation operation : operationService.getAllOperations()) {
-            if (operation.getId().toString().startsWith(shortId.replace("...", ""))) {
-                return operation;
+                UUID operationId = operation.getId();
+                commandExecutor.submitTask(() -> operationService.deleteOperation(operationId))
+                        .whenComplete((deleted, error) -> SwingUtilities.invokeLater(() -> {
+                            if (error == null && deleted) {
+                                JOptionPane.showMessageDialog(this, "Операция удалена!");
+                            } else {
+                                JOptionPane.showMessageDialog(this, "Не удалось удалить операцию",
+                                        "Ошибка", JOptionPane.ERROR_MESSAGE);
+                            }
+                        }));
             }
         }
-        return null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.tigerbank.gui.components;
+
+import com.tigerbank.command.CommandMetrics;
+import com.tigerbank.command.CommandStats;
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+
+public class PerformancePanel extends JPanel {
+    private final CommandMetrics metrics;
+
+    private DefaultTableModel metricsModel;
+
+    public PerformancePanel(CommandMetrics metrics) {
+        this.metrics = metrics;
+
+        setLayout(new BorderLayout());
+        initializeUI();
+    }
+
+    private void initializeUI() {
+        String[] columns = { "Команда", "Выполнений", "Ошибок", "Доля ошибок",
+                "Среднее (мс)", "p50 (мс)", "p99 (мс)", "max (мс)" };
+        metricsModel = new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable metricsTable = new JTable(metricsModel);
+        JScrollPane scrollPane = new JScrollPane(metricsTable);
+
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+
+        JButton refreshButton = new JButton("Обновить");
+        refreshButton.addActionListener(e -> refreshTable());
+
+        JButton reportButton = new JButton("Отчет");
+        reportButton.addActionListener(e -> showReport());
+
+        JButton resetButton = new JButton("Сбросить");
+        resetButton.addActionListener(e -> {
+            metrics.reset();
+            refreshTable();
+        });
+
+        buttonPanel.add(refreshButton);
+        buttonPanel.add(reportButton);
+        buttonPanel.add(resetButton);
+
+        add(scrollPane, BorderLayout.CENTER);
+        add(buttonPanel, BorderLayout.SOUTH);
+
+        refreshTable();
+    }
+
+    public void refreshTable() {
+        metricsModel.setRowCount(0);
+        for (CommandStats stats : metrics.snapshot()) {
+            metricsModel.addRow(new Object[] {
+                    stats.getCommandType(),
+                    stats.getCount(),
+                    stats.getErrors(),
+                    String.format("%.1f%%", stats.getErrorRate() * 100),
+                    millis(stats.getMean()),
+                    millis(stats.getP50()),
+                    millis(stats.getP99()),
+                    millis(stats.getMax())
+            });
+        }
+    }
+
+    private void showReport() {
+        JTextArea area = new JTextArea(metrics.report(), 15, 90);
+        area.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        area.setEditable(false);
+        JOptionPane.showMessageDialog(this, new JScrollPane(area),
+                "Производительность команд", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private static String millis(double nanos) {
+        return String.format("%.3f", nanos / 1_000_000.0);
+    }
+}
\ No newline at end of file
@@ -11,8 +11,7 @@ public class AccountDialog {
 
     public static void showAddDialog(JComponent parent,
             AccountService accountService,
-            CommandExecutor commandExecutor,
-            Runnable refreshCallback) {
+            CommandExecutor commandExecutor) {
         JTextField nameField = new JTextField(20);
 
         JPanel panel = new JPanel(new GridLayout(2, 2, 10, 10));
@@ -27,15 +26,17 @@ public class AccountDialog {
             if (!name.isEmpty()) {
                 CreateAccountCommand command = new CreateAccountCommand(accountService, name);
 
-                long startTime = System.nanoTime();
-                commandExecutor.executeCommand(command);
-                long endTime = System.nanoTime();
+                commandExecutor.submit(command).whenComplete((done, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error != null) {
+                        JOptionPane.showMessageDialog(parent, "Ошибка: " + error.getMessage(),
+                                "Ошибка", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
 
-                refreshCallback.run();
-
-                JOptionPane.showMessageDialog(parent,
-                        String.format("Счет добавлен успешно!\nВремя выполнения: %.2f мс",
-                                (endTime - startTime) / 1_000_000.0));
+                    JOptionPane.showMessageDialog(parent,
+                            String.format("Счет добавлен успешно!\nВремя выполнения: %.2f мс",
+                                    command.getExecutionTime() / 1_000_000.0));
+                }));
             } else {
                 JOptionPane.showMessageDialog(parent, "Введите название счета",
                         "Ошибка", JOptionPane.ERROR_MESSAGE);
@@ -45,8 +46,7 @@ public class AccountDialog {
 
     public static void showEditDialog(JComponent parent,
             AccountService accountService,
-            BankAccount account,
-            Runnable refreshCallback) {
+            BankAccount account) {
         JTextField nameField = new JTextField(account.getName(), 20);
 
         JPanel panel = new JPanel(new GridLayout(3, 2, 10, 10));
@@ -64,7 +64,7 @@ public class AccountDialog {
             String newName = nameField.getText().trim();
             if (!newName.isEmpty()) {
                 account.setName(newName);
-                refreshCallback.run();
+                accountService.updateAccount(account);
                 JOptionPane.showMessageDialog(parent, "Счет обновлен успешно!");
             }
         }
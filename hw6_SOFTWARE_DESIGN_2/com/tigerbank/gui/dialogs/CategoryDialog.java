@@ -8,8 +8,7 @@ import java.awt.*;
 public class CategoryDialog {
 
     public static void showAddDialog(JComponent parent,
-            CategoryService categoryService,
-            Runnable refreshCallback) {
+            CategoryService categoryService) {
         JComboBox<OperationType> typeCombo = new JComboBox<>(OperationType.values());
         JTextField nameField = new JTextField(20);
 
@@ -35,7 +34,6 @@ public class CategoryDialog {
                             "Ошибка", JOptionPane.ERROR_MESSAGE);
                 } else {
                     categoryService.createCategory(type, name);
-                    refreshCallback.run();
                     JOptionPane.showMessageDialog(parent, "Категория добавлена успешно!");
                 }
             } else {
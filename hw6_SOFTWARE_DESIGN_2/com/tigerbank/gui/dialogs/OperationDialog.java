@@ -19,8 +19,7 @@ public class OperationDialog {
             OperationService operationService,
             AccountService accountService,
             CategoryService categoryService,
-            CommandExecutor commandExecutor,
-            Runnable refreshCallback) {
+            CommandExecutor commandExecutor) {
         List<BankAccount> accounts = accountService.getAllAccounts();
         List<Category> incomeCategories = categoryService.getCategoriesByType(OperationType.INCOME);
         List<Category> expenseCategories = categoryService.getCategoriesByType(OperationType.EXPENSE);
@@ -133,16 +132,18 @@ public class OperationDialog {
                         selectedCategory.getId(),
                         description);
 
-                long startTime = System.nanoTime();
-                commandExecutor.executeCommand(command);
-                long endTime = System.nanoTime();
-
-                refreshCallback.run();
-
-                JOptionPane.showMessageDialog(parent,
-                        String.format("Операция добавлена успешно!\nВремя выполнения: %.2f мс",
-                                (endTime - startTime) / 1_000_000.0),
-                        "Успех", JOptionPane.INFORMATION_MESSAGE);
+                commandExecutor.submit(command).whenComplete((done, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error != null) {
+                        JOptionPane.showMessageDialog(parent, "Ошибка: " + error.getMessage(),
+                                "Ошибка", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+
+                    JOptionPane.showMessageDialog(parent,
+                            String.format("Операция добавлена успешно!\nВремя выполнения: %.2f мс",
+                                    command.getExecutionTime() / 1_000_000.0),
+                            "Успех", JOptionPane.INFORMATION_MESSAGE);
+                }));
 
             } catch (NumberFormatException e) {
                 JOptionPane.showMessageDialog(parent, "Введите корректную сумму",
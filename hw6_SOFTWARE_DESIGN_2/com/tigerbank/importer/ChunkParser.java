@@ -0,0 +1,18 @@
+package com.tigerbank.importer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+interface ChunkParser {
+    Result parse(ImportChunk chunk);
+
+    class Result {
+        final long sequence;
+        final List<Object> entities = new ArrayList<>();
+        int skipped;
+
+        Result(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+}
\ No newline at end of file
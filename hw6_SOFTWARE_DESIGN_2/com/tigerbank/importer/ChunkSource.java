@@ -0,0 +1,8 @@
+package com.tigerbank.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+interface ChunkSource extends Closeable {
+    ImportChunk next() throws IOException;
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.tigerbank.importer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Режет CSV на куски по границам строк и запоминает раздел (# ACCOUNTS
+ * и т.п.), действующий в начале каждого куска.
+ */
+class CsvChunkSource implements ChunkSource {
+    private final FileChannel channel;
+    private final Charset charset;
+    private final int chunkSize;
+
+    private byte[] carry = new byte[0];
+    private int carryLength;
+    private String section = "";
+    private long sequence;
+    private boolean endOfInput;
+
+    CsvChunkSource(Path path, Charset charset, int chunkSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.charset = charset;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public ImportChunk next() throws IOException {
+        while (true) {
+            if (endOfInput && carryLength == 0) {
+                return null;
+            }
+
+            byte[] data = new byte[carryLength + chunkSize];
+            System.arraycopy(carry, 0, data, 0, carryLength);
+            int length = carryLength;
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            buffer.position(length);
+            while (buffer.hasRemaining() && !endOfInput) {
+                if (channel.read(buffer) < 0) {
+                    endOfInput = true;
+                }
+            }
+            length = buffer.position();
+
+            int end = endOfInput ? length : lastLineEnd(data, length);
+            if (end == 0) {
+                carry = data;
+                carryLength = length;
+                continue;
+            }
+
+            carryLength = length - end;
+            carry = new byte[carryLength];
+            System.arraycopy(data, end, carry, 0, carryLength);
+
+            String startSection = section;
+            section = lastSection(data, end, section);
+            return new ImportChunk(sequence++, startSection, data, end);
+        }
+    }
+
+    private static int lastLineEnd(byte[] data, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (data[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private String lastSection(byte[] data, int length, String current) {
+        String result = current;
+        int lineStart = 0;
+        while (lineStart < length) {
+            int i = lineStart;
+            while (i < length && (data[i] == ' ' || data[i] == '\t')) {
+                i++;
+            }
+            int lineEnd = i;
+            while (lineEnd < length && data[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            if (i < lineEnd && data[i] == '#') {
+                result = new String(data, i + 1, lineEnd - i - 1, charset).trim();
+            }
+            lineStart = lineEnd + 1;
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
\ No newline at end of file
@@ -2,84 +2,185 @@ package com.tigerbank.importer;
 
 import com.tigerbank.domain.BankAccount;
 import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Money;
 import com.tigerbank.domain.Operation;
-import com.tigerbank.enums.OperationType;
 import com.tigerbank.service.AccountService;
 import com.tigerbank.service.CategoryService;
 import com.tigerbank.service.OperationService;
 
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.time.DateTimeException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 public class CsvImporter extends DataImporter {
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
     public CsvImporter(AccountService accountService,
             CategoryService categoryService,
             OperationService operationService) {
         super(accountService, categoryService, operationService);
     }
 
+    @Override
+    protected ImportStats importFrom(Path path) throws IOException {
+        ImportSink sink = newSink();
+        CsvRecord record = new CsvRecord();
+        String currentSection = "";
+
+        try (CsvLineReader reader = new CsvLineReader(path, Charset.defaultCharset())) {
+            while (reader.readLine()) {
+                CharSequence line = reader.line();
+                String section = sectionName(line);
+                if (section != null) {
+                    currentSection = section;
+                    continue;
+                }
+
+                Object entity;
+                try {
+                    record.parse(line);
+                    entity = parseRecord(currentSection, record);
+                } catch (IllegalArgumentException | DateTimeException e) {
+                    sink.skip();
+                    continue;
+                }
+
+                if (entity instanceof Operation) {
+                    sink.operation((Operation) entity);
+                } else if (entity instanceof BankAccount) {
+                    sink.account((BankAccount) entity);
+                } else if (entity instanceof Category) {
+                    sink.category((Category) entity);
+                }
+            }
+        }
+        return sink.finish();
+    }
+
     @Override
     protected ParsedData parseData(String rawData) {
         List<BankAccount> accounts = new ArrayList<>();
         List<Category> categories = new ArrayList<>();
         List<Operation> operations = new ArrayList<>();
 
-        String[] lines = rawData.split("\n");
+        CsvRecord record = new CsvRecord();
         String currentSection = "";
 
-        for (String line : lines) {
-            line = line.trim();
-            if (line.isEmpty())
+        for (String line : rawData.split("\n")) {
+            String section = sectionName(line);
+            if (section != null) {
+                currentSection = section;
                 continue;
+            }
 
-            if (line.startsWith("#")) {
-                currentSection = line.substring(1).trim();
-                continue;
+            record.parse(line);
+            Object entity = parseRecord(currentSection, record);
+            if (entity instanceof Operation) {
+                operations.add((Operation) entity);
+            } else if (entity instanceof BankAccount) {
+                accounts.add((BankAccount) entity);
+            } else if (entity instanceof Category) {
+                categories.add((Category) entity);
             }
+        }
 
-            String[] values = line.split(",");
+        return new ParsedData(accounts, categories, operations);
+    }
 
-            switch (currentSection) {
-                case "ACCOUNTS":
-                    if (values.length >= 3) {
-                        accounts.add(new BankAccount(
-                                UUID.fromString(values[0]),
-                                values[1],
-                                new BigDecimal(values[2])));
-                    }
-                    break;
-
-                case "CATEGORIES":
-                    if (values.length >= 3) {
-                        categories.add(new Category(
-                                UUID.fromString(values[0]),
-                                OperationType.valueOf(values[1]),
-                                values[2]));
-                    }
-                    break;
-
-                case "OPERATIONS":
-                    if (values.length >= 7) {
-                        operations.add(new Operation(
-                                UUID.fromString(values[0]),
-                                OperationType.valueOf(values[1]),
-                                values[2].isEmpty() ? null : UUID.fromString(values[2]),
-                                new BigDecimal(values[3]),
-                                LocalDateTime.parse(values[4], DATE_FORMATTER),
-                                values[5],
-                                values[6].isEmpty() ? null : UUID.fromString(values[6])));
+    @Override
+    ChunkSource openChunks(Path path) throws IOException {
+        return new CsvChunkSource(path, Charset.defaultCharset(), chunkSize);
+    }
+
+    @Override
+    ChunkParser chunkParser() {
+        return chunk -> {
+            ChunkParser.Result result = new ChunkParser.Result(chunk.sequence);
+            String text = new String(chunk.data, 0, chunk.length, Charset.defaultCharset());
+            CsvRecord record = new CsvRecord();
+            String currentSection = chunk.section;
+
+            int lineStart = 0;
+            while (lineStart < text.length()) {
+                int lineEnd = text.indexOf('\n', lineStart);
+                if (lineEnd < 0) {
+                    lineEnd = text.length();
+                }
+                String section = sectionName(text, lineStart, lineEnd);
+                if (section != null) {
+                    currentSection = section;
+                } else {
+                    try {
+                        record.parse(text, lineStart, lineEnd);
+                        Object entity = parseRecord(currentSection, record);
+                        if (entity != null) {
+                            result.entities.add(entity);
+                        }
+                    } catch (IllegalArgumentException | DateTimeException e) {
+                        result.skipped++;
                     }
-                    break;
+                }
+                lineStart = lineEnd + 1;
+            }
+            return result;
+        };
+    }
+
+    private static String sectionName(CharSequence line) {
+        return sectionName(line, 0, line.length());
+    }
+
+    private static String sectionName(CharSequence text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c == '#') {
+                return text.subSequence(i + 1, to).toString().trim();
+            }
+            if (!Character.isWhitespace(c)) {
+                return null;
             }
         }
+        return null;
+    }
 
-        return new ParsedData(accounts, categories, operations);
+    private static Object parseRecord(String section, CsvRecord record) {
+        if (record.size() == 0 || record.fieldEquals(0, "id")) {
+            return null;
+        }
+
+        switch (section) {
+            case "ACCOUNTS":
+                if (record.size() >= 3) {
+                    return new BankAccount(record.uuid(0), record.string(1), record.decimal(2));
+                }
+                break;
+
+            case "CATEGORIES":
+                if (record.size() >= 3) {
+                    return new Category(record.uuid(0), record.type(1), record.string(2));
+                }
+                break;
+
+            case "OPERATIONS":
+                if (record.size() >= 7) {
+                    Money amount = record.money(3);
+                    Operation operation = new Operation(
+                            record.uuid(0),
+                            record.type(1),
+                            record.uuid(2),
+                            amount,
+                            record.dateTime(4),
+                            record.string(5),
+                            record.uuid(6));
+                    if (amount == null) {
+                        operation.setAmount(record.decimal(3));
+                    }
+                    return operation;
+                }
+                break;
+        }
+        return null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.tigerbank.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Построчное чтение файла через FileChannel с фиксированными буферами.
+ * Строка собирается в один переиспользуемый StringBuilder,
+ * поэтому память не зависит от размера файла.
+ */
+class CsvLineReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private final CharsetDecoder decoder;
+    private final StringBuilder line = new StringBuilder(256);
+    private boolean endOfInput;
+
+    CsvLineReader(Path path, Charset charset) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        chars.flip();
+    }
+
+    boolean readLine() throws IOException {
+        line.setLength(0);
+        while (true) {
+            while (chars.hasRemaining()) {
+                char c = chars.get();
+                if (c == '\n') {
+                    return true;
+                }
+                line.append(c);
+            }
+            if (!fill()) {
+                return line.length() > 0;
+            }
+        }
+    }
+
+    CharSequence line() {
+        return line;
+    }
+
+    private boolean fill() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+        chars.clear();
+        if (channel.read(bytes) < 0) {
+            endOfInput = true;
+            bytes.flip();
+            decoder.decode(bytes, chars, true);
+            decoder.flush(chars);
+        } else {
+            bytes.flip();
+            decoder.decode(bytes, chars, false);
+            bytes.compact();
+        }
+        chars.flip();
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.tigerbank.importer;
+
+import com.tigerbank.domain.Money;
+import com.tigerbank.enums.OperationType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Разбор строки CSV без split и регулярных выражений: запоминаются
+ * только границы полей, значения разбираются прямо из символов строки.
+ */
+class CsvRecord {
+    private static final int MAX_FIELDS = 16;
+
+    private final int[] starts = new int[MAX_FIELDS];
+    private final int[] ends = new int[MAX_FIELDS];
+    private final FieldParser fields = new FieldParser();
+    private CharSequence line;
+    private int count;
+
+    void parse(CharSequence line) {
+        parse(line, 0, line.length());
+    }
+
+    void parse(CharSequence text, int from, int to) {
+        this.line = text;
+        int start = from;
+        int end = to;
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+
+        count = 0;
+        if (start == end) {
+            return;
+        }
+        int fieldStart = start;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == ',') {
+                addField(fieldStart, i);
+                fieldStart = i + 1;
+            }
+        }
+        addField(fieldStart, end);
+    }
+
+    int size() {
+        return count;
+    }
+
+    boolean fieldEquals(int field, String value) {
+        return FieldParser.contentEquals(line, starts[field], ends[field], value);
+    }
+
+    String string(int field) {
+        return line.subSequence(starts[field], ends[field]).toString();
+    }
+
+    UUID uuid(int field) {
+        return fields.uuid(line, starts[field], ends[field]);
+    }
+
+    BigDecimal decimal(int field) {
+        return fields.decimal(line, starts[field], ends[field]);
+    }
+
+    /**
+     * Сумма в копейках или null, если запись нужно разбирать через decimal().
+     */
+    Money money(int field) {
+        return fields.money(line, starts[field], ends[field]);
+    }
+
+    OperationType type(int field) {
+        return fields.type(line, starts[field], ends[field]);
+    }
+
+    LocalDateTime dateTime(int field) {
+        return fields.dateTime(line, starts[field], ends[field]);
+    }
+
+    private void addField(int start, int end) {
+        if (count < MAX_FIELDS) {
+            starts[count] = start;
+            ends[count] = end;
+            count++;
+        }
+    }
+}
\ No newline at end of file
@@ -9,13 +9,20 @@ import com.tigerbank.service.OperationService;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.List;
 
 public abstract class DataImporter {
+    private static final int PIPELINE_QUEUE_CAPACITY = 8;
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
     protected final AccountService accountService;
     protected final CategoryService categoryService;
     protected final OperationService operationService;
+    private int workers = 1;
+    int chunkSize = DEFAULT_CHUNK_SIZE;
 
     public DataImporter(AccountService accountService,
             CategoryService categoryService,
@@ -25,19 +32,27 @@ public abstract class DataImporter {
         this.operationService = operationService;
     }
 
+    public void setWorkers(int workers) {
+        this.workers = Math.max(1, workers);
+    }
+
     public final void importData(String filePath) {
         System.out.println("Начало импорта из файла: " + filePath);
 
         try {
-            String rawData = readFile(filePath);
-            ParsedData parsedData = parseData(rawData);
-            saveToDomain(parsedData);
+            ImportStats stats = workers > 1
+                    ? importPipelined(Paths.get(filePath))
+                    : importFrom(Paths.get(filePath));
 
             System.out.println("Импорт завершен успешно.");
-            System.out.printf("Импортировано: %d счетов, %d категорий, %d операций%n",
-                    parsedData.accounts.size(),
-                    parsedData.categories.size(),
-                    parsedData.operations.size());
+            System.out.printf("Импортировано: %d счетов, %d категорий, %d операций, пропущено записей: %d%n",
+                    stats.getAccounts(),
+                    stats.getCategories(),
+                    stats.getOperations(),
+                    stats.getSkipped());
+            for (StageStats stage : stats.getStages()) {
+                System.out.println("  " + stage);
+            }
 
         } catch (Exception e) {
             System.err.println("Ошибка импорта: " + e.getMessage());
@@ -45,29 +60,59 @@ public abstract class DataImporter {
         }
     }
 
+    /**
+     * Шаблон по умолчанию: прочитать файл целиком, разобрать его
+     * в parseData и сохранить в saveToDomain. Импортеры, которые
+     * читают файл сами, переопределяют этот метод вместо хуков.
+     */
+    protected ImportStats importFrom(Path path) throws IOException {
+        String rawData = readFile(path.toString());
+        ParsedData parsedData = parseData(rawData);
+        return saveToDomain(parsedData);
+    }
+
+    ImportStats importPipelined(Path path) throws IOException, InterruptedException {
+        ChunkSource source = openChunks(path);
+        if (source == null) {
+            return importFrom(path);
+        }
+        return new ImportPipeline(workers, PIPELINE_QUEUE_CAPACITY).run(source, chunkParser(), newSink());
+    }
+
+    ChunkSource openChunks(Path path) throws IOException {
+        return null;
+    }
+
+    ChunkParser chunkParser() {
+        return null;
+    }
+
     protected String readFile(String filePath) throws IOException {
         return new String(Files.readAllBytes(Paths.get(filePath)));
     }
 
-    protected abstract ParsedData parseData(String rawData);
+    protected ParsedData parseData(String rawData) {
+        return new ParsedData(Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+    }
+
+    ImportSink newSink() {
+        return new ImportSink(accountService, categoryService, operationService, ImportSink.DEFAULT_BATCH_SIZE);
+    }
 
-    private void saveToDomain(ParsedData data) {
+    protected ImportStats saveToDomain(ParsedData data) {
+        ImportSink sink = newSink();
         for (BankAccount account : data.accounts) {
-            accountService.createAccount(account.getName());
+            sink.account(account);
         }
 
         for (Category category : data.categories) {
-            categoryService.createCategory(category.getType(), category.getName());
+            sink.category(category);
         }
 
         for (Operation op : data.operations) {
-            operationService.createOperation(
-                    op.getType(),
-                    op.getBankAccountId(),
-                    op.getAmount(),
-                    op.getCategoryId(),
-                    op.getDescription());
+            sink.operation(op);
         }
+        return sink.finish();
     }
 
     protected static class ParsedData {
@@ -0,0 +1,151 @@
+package com.tigerbank.importer;
+
+import com.tigerbank.domain.Money;
+import com.tigerbank.enums.OperationType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Разбор значений полей прямо из участка текста, без промежуточных
+ * строк. Буфер для чисел переиспользуется, поэтому экземпляр
+ * не потокобезопасен.
+ */
+class FieldParser {
+    private static final OperationType[] TYPES = OperationType.values();
+    private static final int MAX_INTEGER_DIGITS = 16;
+
+    private char[] scratch = new char[64];
+
+    UUID uuid(CharSequence text, int start, int end) {
+        if (start == end) {
+            return null;
+        }
+        if (end - start != 36) {
+            return UUID.fromString(text.subSequence(start, end).toString());
+        }
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i < 36; i++) {
+            char c = text.charAt(start + i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return UUID.fromString(text.subSequence(start, end).toString());
+                }
+                continue;
+            }
+            int digit = Character.digit(c, 16);
+            if (digit < 0) {
+                return UUID.fromString(text.subSequence(start, end).toString());
+            }
+            if (i < 18) {
+                high = (high << 4) | digit;
+            } else {
+                low = (low << 4) | digit;
+            }
+        }
+        return new UUID(high, low);
+    }
+
+    BigDecimal decimal(CharSequence text, int start, int end) {
+        int length = end - start;
+        if (scratch.length < length) {
+            scratch = new char[length];
+        }
+        for (int i = 0; i < length; i++) {
+            scratch[i] = text.charAt(start + i);
+        }
+        return new BigDecimal(scratch, 0, length);
+    }
+
+    /**
+     * Сумма вида [-]цифры[.одна-две цифры] сразу в копейки; для любой
+     * другой записи возвращает null, и ее разбирает decimal().
+     */
+    Money money(CharSequence text, int start, int end) {
+        int i = start;
+        boolean negative = i < end && text.charAt(i) == '-';
+        if (negative) {
+            i++;
+        }
+        long minor = 0;
+        int integerDigits = 0;
+        while (i < end && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+            if (++integerDigits > MAX_INTEGER_DIGITS) {
+                return null;
+            }
+            minor = minor * 10 + (text.charAt(i++) - '0');
+        }
+        if (integerDigits == 0) {
+            return null;
+        }
+        int scale = 0;
+        if (i < end && text.charAt(i) == '.') {
+            i++;
+            while (i < end && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+                if (++scale > Money.SCALE) {
+                    return null;
+                }
+                minor = minor * 10 + (text.charAt(i++) - '0');
+            }
+            if (scale == 0) {
+                return null;
+            }
+        }
+        if (i != end) {
+            return null;
+        }
+        for (int s = scale; s < Money.SCALE; s++) {
+            minor *= 10;
+        }
+        return Money.ofMinor(negative ? -minor : minor, scale);
+    }
+
+    OperationType type(CharSequence text, int start, int end) {
+        for (OperationType type : TYPES) {
+            if (contentEquals(text, start, end, type.name())) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестный тип операции: " + text.subSequence(start, end));
+    }
+
+    /**
+     * Формат yyyy-MM-dd HH:mm:ss.
+     */
+    LocalDateTime dateTime(CharSequence text, int start, int end) {
+        if (end - start != 19 || text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-'
+                || text.charAt(start + 10) != ' ' || text.charAt(start + 13) != ':'
+                || text.charAt(start + 16) != ':') {
+            throw new IllegalArgumentException("Неверный формат даты: " + text.subSequence(start, end));
+        }
+        return LocalDateTime.of(
+                digits(text, start, 4), digits(text, start + 5, 2), digits(text, start + 8, 2),
+                digits(text, start + 11, 2), digits(text, start + 14, 2), digits(text, start + 17, 2));
+    }
+
+    static boolean contentEquals(CharSequence text, int start, int end, String value) {
+        if (end - start != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (text.charAt(start + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int digits(CharSequence text, int from, int length) {
+        int value = 0;
+        for (int i = from; i < from + length; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Неверный формат даты: " + text.subSequence(from, from + length));
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
\ No newline at end of file
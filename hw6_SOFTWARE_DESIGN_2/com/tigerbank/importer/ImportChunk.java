@@ -0,0 +1,20 @@
+package com.tigerbank.importer;
+
+/**
+ * Часть файла, выровненная по границе записей. Раздел (ACCOUNTS,
+ * CATEGORIES, OPERATIONS), действующий в начале куска, определяет
+ * читатель, поэтому куски разбираются независимо.
+ */
+class ImportChunk {
+    final long sequence;
+    final String section;
+    final byte[] data;
+    final int length;
+
+    ImportChunk(long sequence, String section, byte[] data, int length) {
+        this.sequence = sequence;
+        this.section = section;
+        this.data = data;
+        this.length = length;
+    }
+}
\ No newline at end of file
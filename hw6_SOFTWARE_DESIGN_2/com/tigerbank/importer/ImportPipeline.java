@@ -0,0 +1,178 @@
+package com.tigerbank.importer;
+
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Operation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Конвейер импорта: поток-читатель режет файл на куски, N обработчиков
+ * разбирают куски в доменные объекты, а вызывающий поток применяет их
+ * к репозиториям строго в порядке файла. Очереди между стадиями
+ * ограничены, а число кусков в работе ограничено семафором,
+ * поэтому медленная стадия притормаживает чтение.
+ */
+class ImportPipeline {
+    private static final ImportChunk END_OF_INPUT = new ImportChunk(-1, null, new byte[0], 0);
+    private static final ChunkParser.Result WORKER_DONE = new ChunkParser.Result(-1);
+
+    private final int workers;
+    private final int queueCapacity;
+
+    private final StageStats readerStats = new StageStats("Чтение", "кусков");
+    private final StageStats parserStats = new StageStats("Разбор", "записей");
+    private final StageStats writerStats = new StageStats("Запись", "записей");
+
+    ImportPipeline(int workers, int queueCapacity) {
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+    }
+
+    ImportStats run(ChunkSource source, ChunkParser parser, ImportSink sink) throws InterruptedException {
+        BlockingQueue<ImportChunk> chunks = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<ChunkParser.Result> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        Semaphore inFlight = new Semaphore(queueCapacity * 2 + workers);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+
+        threads.add(new Thread(() -> {
+            try (ChunkSource input = source) {
+                while (true) {
+                    long started = System.nanoTime();
+                    ImportChunk chunk = input.next();
+                    if (chunk == null) {
+                        break;
+                    }
+                    readerStats.record(1, chunk.length, System.nanoTime() - started);
+                    inFlight.acquire();
+                    readerStats.sampleQueue(chunks.size());
+                    chunks.put(chunk);
+                }
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                for (int i = 0; i < workers; i++) {
+                    signal(chunks, END_OF_INPUT, failure);
+                }
+            }
+        }, "import-reader"));
+
+        for (int i = 0; i < workers; i++) {
+            threads.add(new Thread(() -> {
+                try {
+                    while (failure.get() == null) {
+                        ImportChunk chunk = chunks.take();
+                        if (chunk == END_OF_INPUT) {
+                            break;
+                        }
+                        long started = System.nanoTime();
+                        ChunkParser.Result result = parser.parse(chunk);
+                        parserStats.record(result.entities.size() + result.skipped, chunk.length,
+                                System.nanoTime() - started);
+                        parserStats.sampleQueue(parsed.size());
+                        parsed.put(result);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    signal(parsed, WORKER_DONE, failure);
+                }
+            }, "import-parser-" + i));
+        }
+
+        for (Thread thread : threads) {
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        try {
+            applyInOrder(parsed, inFlight, failure, sink);
+        } finally {
+            if (failure.get() != null) {
+                threads.forEach(Thread::interrupt);
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+
+        Throwable error = failure.get();
+        if (error != null) {
+            throw new RuntimeException("Ошибка конвейера импорта: " + error.getMessage(), error);
+        }
+
+        ImportStats stats = sink.finish();
+        stats.addStage(readerStats);
+        stats.addStage(parserStats);
+        stats.addStage(writerStats);
+        return stats;
+    }
+
+    private void applyInOrder(BlockingQueue<ChunkParser.Result> parsed, Semaphore inFlight,
+            AtomicReference<Throwable> failure, ImportSink sink) throws InterruptedException {
+        Map<Long, ChunkParser.Result> pending = new HashMap<>();
+        long nextSequence = 0;
+        int finishedWorkers = 0;
+
+        while (finishedWorkers < workers && failure.get() == null) {
+            writerStats.sampleQueue(parsed.size());
+            ChunkParser.Result result = parsed.poll(100, TimeUnit.MILLISECONDS);
+            if (result == null) {
+                continue;
+            }
+            if (result == WORKER_DONE) {
+                finishedWorkers++;
+                continue;
+            }
+
+            pending.put(result.sequence, result);
+            for (ChunkParser.Result next = pending.remove(nextSequence); next != null;
+                    next = pending.remove(nextSequence)) {
+                long started = System.nanoTime();
+                try {
+                    apply(next, sink);
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                    return;
+                }
+                writerStats.record(next.entities.size() + next.skipped, 0, System.nanoTime() - started);
+                inFlight.release();
+                nextSequence++;
+            }
+        }
+    }
+
+    private static <T> void signal(BlockingQueue<T> queue, T marker, AtomicReference<Throwable> failure) {
+        try {
+            while (failure.get() == null) {
+                if (queue.offer(marker, 100, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void apply(ChunkParser.Result result, ImportSink sink) {
+        for (Object entity : result.entities) {
+            if (entity instanceof Operation) {
+                sink.operation((Operation) entity);
+            } else if (entity instanceof BankAccount) {
+                sink.account((BankAccount) entity);
+            } else if (entity instanceof Category) {
+                sink.category((Category) entity);
+            }
+        }
+        sink.skip(result.skipped);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.tigerbank.importer;
+
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Operation;
+import com.tigerbank.service.AccountService;
+import com.tigerbank.service.CategoryService;
+import com.tigerbank.service.OperationService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Приёмник импортируемых записей. Счета и категории сохраняются сразу
+ * с исходными id, операции копятся пачками и передаются
+ * в OperationService.importOperations, который проверяет пачку
+ * и применяет изменения балансов один раз на счет. Операции, чей счет
+ * или категория встречаются в файле позже (в порядке разделов файл
+ * не ограничен), откладываются до конца импорта.
+ */
+class ImportSink {
+    static final int DEFAULT_BATCH_SIZE = 4096;
+
+    private final AccountService accountService;
+    private final CategoryService categoryService;
+    private final OperationService operationService;
+    private final int batchSize;
+    private final List<Operation> batch;
+    private final List<Operation> unresolved = new ArrayList<>();
+    private final ImportStats stats = new ImportStats();
+
+    ImportSink(AccountService accountService,
+            CategoryService categoryService,
+            OperationService operationService,
+            int batchSize) {
+        this.accountService = accountService;
+        this.categoryService = categoryService;
+        this.operationService = operationService;
+        this.batchSize = batchSize;
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    void account(BankAccount account) {
+        if (accountService.getAccount(account.getId()).isPresent()) {
+            stats.addSkipped(1);
+            return;
+        }
+        accountService.createAccount(account.getId(), account.getName(), BigDecimal.ZERO);
+        stats.addAccounts(1);
+    }
+
+    void category(Category category) {
+        if (categoryService.getCategory(category.getId()).isPresent()) {
+            stats.addSkipped(1);
+            return;
+        }
+        categoryService.createCategory(category.getId(), category.getType(), category.getName());
+        stats.addCategories(1);
+    }
+
+    void operation(Operation operation) {
+        batch.add(operation);
+        if (batch.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    void skip() {
+        skip(1);
+    }
+
+    void skip(int count) {
+        stats.addSkipped(count);
+    }
+
+    void flush() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int before = unresolved.size();
+        int imported = operationService.importOperations(batch, unresolved);
+        stats.addOperations(imported);
+        stats.addSkipped(batch.size() - imported - (unresolved.size() - before));
+        batch.clear();
+    }
+
+    ImportStats finish() {
+        flush();
+        for (int from = 0; from < unresolved.size(); from += batchSize) {
+            List<Operation> retry = unresolved.subList(from, Math.min(unresolved.size(), from + batchSize));
+            int imported = operationService.importOperations(retry);
+            stats.addOperations(imported);
+            stats.addSkipped(retry.size() - imported);
+        }
+        unresolved.clear();
+        return stats;
+    }
+}
\ No newline at end of file
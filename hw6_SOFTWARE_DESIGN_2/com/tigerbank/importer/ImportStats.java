@@ -0,0 +1,53 @@
+package com.tigerbank.importer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ImportStats {
+    private final List<StageStats> stages = new ArrayList<>();
+    private long accounts;
+    private long categories;
+    private long operations;
+    private long skipped;
+
+    void addAccounts(long count) {
+        accounts += count;
+    }
+
+    void addCategories(long count) {
+        categories += count;
+    }
+
+    void addOperations(long count) {
+        operations += count;
+    }
+
+    void addSkipped(long count) {
+        skipped += count;
+    }
+
+    void addStage(StageStats stage) {
+        stages.add(stage);
+    }
+
+    public long getAccounts() {
+        return accounts;
+    }
+
+    public long getCategories() {
+        return categories;
+    }
+
+    public long getOperations() {
+        return operations;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public List<StageStats> getStages() {
+        return Collections.unmodifiableList(stages);
+    }
+}
\ No newline at end of file
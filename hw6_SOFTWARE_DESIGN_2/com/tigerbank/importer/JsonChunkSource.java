@@ -0,0 +1,212 @@
+package com.tigerbank.importer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Режет JSON на куски по границам элементов массивов. Поддерживаются
+ * корневой объект с массивами accounts/categories/operations и корневой
+ * массив; каждый кусок - это JSON-массив целых элементов одного раздела.
+ * Структура отслеживается по байтам: глубина вложенности, строки
+ * и экранирование, сами значения здесь не разбираются.
+ */
+class JsonChunkSource implements ChunkSource {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final Charset charset;
+    private final int chunkSize;
+    private final ByteBuffer input = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+    private byte[] chunk;
+    private int chunkLength;
+    private int chunkElements;
+    private byte[] key = new byte[32];
+    private int keyLength;
+    private boolean capturingKey;
+
+    private int depth;
+    private boolean rootIsObject;
+    private int elementDepth = -1;
+    private String section = "";
+    private boolean inElement;
+    private boolean inString;
+    private boolean escaped;
+    private boolean endOfInput;
+    private long sequence;
+    private ImportChunk ready;
+
+    JsonChunkSource(Path path, Charset charset, int chunkSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.charset = charset;
+        this.chunkSize = chunkSize;
+        this.chunk = new byte[chunkSize + 1024];
+        input.flip();
+    }
+
+    @Override
+    public ImportChunk next() throws IOException {
+        while (ready == null) {
+            if (!input.hasRemaining()) {
+                if (endOfInput) {
+                    emit();
+                    break;
+                }
+                input.clear();
+                if (channel.read(input) < 0) {
+                    endOfInput = true;
+                }
+                input.flip();
+                continue;
+            }
+            accept(input.get());
+        }
+        ImportChunk result = ready;
+        ready = null;
+        return result;
+    }
+
+    private void accept(byte b) {
+        if (inString) {
+            if (inElement) {
+                append(b);
+            } else if (capturingKey) {
+                appendKey(b);
+            }
+            if (escaped) {
+                escaped = false;
+            } else if (b == '\\') {
+                escaped = true;
+            } else if (b == '"') {
+                inString = false;
+                if (capturingKey) {
+                    capturingKey = false;
+                    keyLength--;
+                }
+            }
+            return;
+        }
+
+        if (inElement) {
+            if (depth == elementDepth && (b == ',' || b == ']')) {
+                inElement = false;
+                chunkElements++;
+                if (chunkLength >= chunkSize) {
+                    emit();
+                }
+            } else {
+                append(b);
+                trackStructure(b);
+                return;
+            }
+        }
+
+        if (elementDepth > 0 && depth == elementDepth && !isWhitespace(b) && b != ',' && b != ']') {
+            inElement = true;
+            if (chunkElements > 0) {
+                append((byte) ',');
+            }
+            append(b);
+            trackStructure(b);
+            return;
+        }
+
+        switch (b) {
+            case '{':
+                depth++;
+                if (depth == 1) {
+                    rootIsObject = true;
+                }
+                break;
+            case '[':
+                depth++;
+                if (depth == 1) {
+                    startSection(1, "");
+                } else if (depth == 2 && rootIsObject) {
+                    startSection(2, new String(key, 0, keyLength, charset));
+                }
+                break;
+            case ']':
+                if (depth == elementDepth) {
+                    emit();
+                    elementDepth = -1;
+                }
+                depth--;
+                break;
+            case '}':
+                depth--;
+                break;
+            case '"':
+                inString = true;
+                if (depth == 1 && rootIsObject) {
+                    capturingKey = true;
+                    keyLength = 0;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void trackStructure(byte b) {
+        if (b == '{' || b == '[') {
+            depth++;
+        } else if (b == '}' || b == ']') {
+            depth--;
+        } else if (b == '"') {
+            inString = true;
+        }
+    }
+
+    private void startSection(int depth, String name) {
+        elementDepth = depth;
+        section = name;
+        chunkLength = 0;
+        chunkElements = 0;
+        append((byte) '[');
+    }
+
+    private void emit() {
+        if (chunkElements == 0) {
+            chunkLength = 0;
+            if (elementDepth > 0) {
+                append((byte) '[');
+            }
+            return;
+        }
+        append((byte) ']');
+        ready = new ImportChunk(sequence++, section, chunk, chunkLength);
+        chunk = new byte[chunkSize + 1024];
+        chunkLength = 0;
+        chunkElements = 0;
+        append((byte) '[');
+    }
+
+    private void append(byte b) {
+        if (chunkLength == chunk.length) {
+            chunk = Arrays.copyOf(chunk, chunk.length * 2);
+        }
+        chunk[chunkLength++] = b;
+    }
+
+    private void appendKey(byte b) {
+        if (keyLength == key.length) {
+            key = Arrays.copyOf(key, key.length * 2);
+        }
+        key[keyLength++] = b;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
\ No newline at end of file
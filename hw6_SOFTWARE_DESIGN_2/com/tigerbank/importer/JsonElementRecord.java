@@ -0,0 +1,142 @@
+package com.tigerbank.importer;
+
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Money;
+import com.tigerbank.domain.Operation;
+
+import java.io.IOException;
+
+/**
+ * Один элемент массива accounts/categories/operations. Значения известных
+ * полей складываются в общий переиспользуемый буфер, неизвестные поля
+ * пропускаются, затем из буфера собирается доменный объект.
+ */
+class JsonElementRecord {
+    private static final String[] FIELD_NAMES = {
+            "id", "type", "name", "balance", "bankAccountId", "amount", "date", "description", "categoryId"
+    };
+    private static final int ID = 0;
+    private static final int TYPE = 1;
+    private static final int NAME = 2;
+    private static final int BALANCE = 3;
+    private static final int ACCOUNT = 4;
+    private static final int AMOUNT = 5;
+    private static final int DATE = 6;
+    private static final int DESCRIPTION = 7;
+    private static final int CATEGORY = 8;
+
+    private final StringBuilder values = new StringBuilder(256);
+    private final StringBuilder name = new StringBuilder(32);
+    private final int[] starts = new int[FIELD_NAMES.length];
+    private final int[] ends = new int[FIELD_NAMES.length];
+    private final boolean[] present = new boolean[FIELD_NAMES.length];
+    private final FieldParser fields = new FieldParser();
+
+    void read(JsonStreamReader reader) throws IOException {
+        values.setLength(0);
+        java.util.Arrays.fill(present, false);
+
+        reader.expect('{');
+        if (reader.consumeIf('}')) {
+            return;
+        }
+        do {
+            name.setLength(0);
+            reader.readString(name);
+            reader.expect(':');
+            int field = fieldIndex(name);
+            if (field < 0) {
+                reader.skipValue();
+                continue;
+            }
+
+            int start = values.length();
+            int c = reader.peek();
+            if (c == '"') {
+                reader.readString(values);
+            } else if (c == '{' || c == '[') {
+                reader.skipValue();
+                continue;
+            } else {
+                reader.readScalar(values);
+                if (FieldParser.contentEquals(values, start, values.length(), "null")) {
+                    values.setLength(start);
+                    continue;
+                }
+            }
+            starts[field] = start;
+            ends[field] = values.length();
+            present[field] = true;
+        } while (reader.nextElement('}'));
+    }
+
+    Object toEntity(String section) {
+        switch (section) {
+            case "accounts":
+                return toAccount();
+            case "categories":
+                return toCategory();
+            case "operations":
+                return toOperation();
+            default:
+                if (present[AMOUNT]) {
+                    return toOperation();
+                }
+                if (present[BALANCE]) {
+                    return toAccount();
+                }
+                return present[TYPE] ? toCategory() : null;
+        }
+    }
+
+    private BankAccount toAccount() {
+        return new BankAccount(
+                fields.uuid(values, start(ID), ends[ID]),
+                string(NAME),
+                fields.decimal(values, start(BALANCE), ends[BALANCE]));
+    }
+
+    private Category toCategory() {
+        return new Category(
+                fields.uuid(values, start(ID), ends[ID]),
+                fields.type(values, start(TYPE), ends[TYPE]),
+                string(NAME));
+    }
+
+    private Operation toOperation() {
+        Money amount = fields.money(values, start(AMOUNT), ends[AMOUNT]);
+        Operation operation = new Operation(
+                fields.uuid(values, start(ID), ends[ID]),
+                fields.type(values, start(TYPE), ends[TYPE]),
+                present[ACCOUNT] ? fields.uuid(values, starts[ACCOUNT], ends[ACCOUNT]) : null,
+                amount,
+                fields.dateTime(values, start(DATE), ends[DATE]),
+                present[DESCRIPTION] ? string(DESCRIPTION) : "",
+                present[CATEGORY] ? fields.uuid(values, starts[CATEGORY], ends[CATEGORY]) : null);
+        if (amount == null) {
+            operation.setAmount(fields.decimal(values, starts[AMOUNT], ends[AMOUNT]));
+        }
+        return operation;
+    }
+
+    private int start(int field) {
+        if (!present[field]) {
+            throw new IllegalArgumentException("Отсутствует поле " + FIELD_NAMES[field]);
+        }
+        return starts[field];
+    }
+
+    private String string(int field) {
+        return values.substring(start(field), ends[field]);
+    }
+
+    private static int fieldIndex(CharSequence name) {
+        for (int i = 0; i < FIELD_NAMES.length; i++) {
+            if (FieldParser.contentEquals(name, 0, name.length(), FIELD_NAMES[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
\ No newline at end of file
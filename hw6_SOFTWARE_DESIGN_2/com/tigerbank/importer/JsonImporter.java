@@ -11,16 +11,28 @@ import com.tigerbank.service.OperationService;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public class JsonImporter extends DataImporter {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Set<String> SECTIONS = Set.of("accounts", "categories", "operations");
 
     public JsonImporter(AccountService accountService,
             CategoryService categoryService,
@@ -39,40 +51,142 @@ public class JsonImporter extends DataImporter {
         if (root.has("accounts")) {
             JSONArray accountsArray = root.getJSONArray("accounts");
             for (int i = 0; i < accountsArray.length(); i++) {
-                JSONObject acc = accountsArray.getJSONObject(i);
-                accounts.add(new BankAccount(
-                        UUID.fromString(acc.getString("id")),
-                        acc.getString("name"),
-                        new BigDecimal(acc.getString("balance"))));
+                accounts.add(toAccount(accountsArray.getJSONObject(i)));
             }
         }
 
         if (root.has("categories")) {
             JSONArray categoriesArray = root.getJSONArray("categories");
             for (int i = 0; i < categoriesArray.length(); i++) {
-                JSONObject cat = categoriesArray.getJSONObject(i);
-                categories.add(new Category(
-                        UUID.fromString(cat.getString("id")),
-                        OperationType.valueOf(cat.getString("type")),
-                        cat.getString("name")));
+                categories.add(toCategory(categoriesArray.getJSONObject(i)));
             }
         }
 
         if (root.has("operations")) {
             JSONArray operationsArray = root.getJSONArray("operations");
             for (int i = 0; i < operationsArray.length(); i++) {
-                JSONObject op = operationsArray.getJSONObject(i);
-                operations.add(new Operation(
-                        UUID.fromString(op.getString("id")),
-                        OperationType.valueOf(op.getString("type")),
-                        op.has("bankAccountId") ? UUID.fromString(op.getString("bankAccountId")) : null,
-                        new BigDecimal(op.getString("amount")),
-                        LocalDateTime.parse(op.getString("date"), DATE_FORMATTER),
-                        op.optString("description", ""),
-                        op.has("categoryId") ? UUID.fromString(op.getString("categoryId")) : null));
+                operations.add(toOperation(operationsArray.getJSONObject(i)));
             }
         }
 
         return new ParsedData(accounts, categories, operations);
     }
+
+    @Override
+    ChunkSource openChunks(Path path) throws IOException {
+        return new JsonChunkSource(path, Charset.defaultCharset(), chunkSize);
+    }
+
+    @Override
+    ChunkParser chunkParser() {
+        return chunk -> {
+            ChunkParser.Result result = new ChunkParser.Result(chunk.sequence);
+            Reader text = new InputStreamReader(
+                    new ByteArrayInputStream(chunk.data, 0, chunk.length), Charset.defaultCharset());
+            try {
+                readArray(new JsonStreamReader(text), new JsonElementRecord(), chunk.section,
+                        result.entities::add, () -> result.skipped++);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return result;
+        };
+    }
+
+    @Override
+    protected ImportStats importFrom(Path path) throws IOException {
+        ImportSink sink = newSink();
+        JsonElementRecord record = new JsonElementRecord();
+        Consumer<Object> target = entity -> {
+            if (entity instanceof Operation) {
+                sink.operation((Operation) entity);
+            } else if (entity instanceof BankAccount) {
+                sink.account((BankAccount) entity);
+            } else if (entity instanceof Category) {
+                sink.category((Category) entity);
+            }
+        };
+
+        try (JsonStreamReader reader = new JsonStreamReader(
+                Files.newBufferedReader(path, Charset.defaultCharset()))) {
+            if (reader.peek() == '[') {
+                readArray(reader, record, "", target, sink::skip);
+            } else {
+                StringBuilder key = new StringBuilder();
+                reader.expect('{');
+                if (!reader.consumeIf('}')) {
+                    do {
+                        key.setLength(0);
+                        reader.readString(key);
+                        reader.expect(':');
+                        String section = key.toString();
+                        if (reader.peek() == '[' && SECTIONS.contains(section)) {
+                            readArray(reader, record, section, target, sink::skip);
+                        } else {
+                            reader.skipValue();
+                        }
+                    } while (reader.nextElement('}'));
+                }
+            }
+            if (reader.peek() >= 0) {
+                throw reader.error("лишние данные после документа");
+            }
+        }
+        return sink.finish();
+    }
+
+    /**
+     * Читает массив элементов одного раздела. Ошибка в значениях поля
+     * пропускает только этот элемент, синтаксическая ошибка прерывает импорт.
+     */
+    private static void readArray(JsonStreamReader reader, JsonElementRecord record, String section,
+            Consumer<Object> target, Runnable skip) throws IOException {
+        reader.expect('[');
+        if (reader.consumeIf(']')) {
+            return;
+        }
+        do {
+            record.read(reader);
+            Object entity;
+            try {
+                entity = record.toEntity(section);
+            } catch (IllegalArgumentException | DateTimeException | ArithmeticException e) {
+                skip.run();
+                continue;
+            }
+            if (entity != null) {
+                target.accept(entity);
+            }
+        } while (reader.nextElement(']'));
+    }
+
+    private static BankAccount toAccount(JSONObject acc) {
+        return new BankAccount(
+                UUID.fromString(acc.getString("id")),
+                acc.getString("name"),
+                new BigDecimal(acc.getString("balance")));
+    }
+
+    private static Category toCategory(JSONObject cat) {
+        return new Category(
+                UUID.fromString(cat.getString("id")),
+                OperationType.valueOf(cat.getString("type")),
+                cat.getString("name"));
+    }
+
+    private static Operation toOperation(JSONObject op) {
+        return new Operation(
+                UUID.fromString(op.getString("id")),
+                OperationType.valueOf(op.getString("type")),
+                optionalUuid(op, "bankAccountId"),
+                new BigDecimal(op.getString("amount")),
+                LocalDateTime.parse(op.getString("date"), DATE_FORMATTER),
+                op.optString("description", ""),
+                optionalUuid(op, "categoryId"));
+    }
+
+    private static UUID optionalUuid(JSONObject json, String key) {
+        String value = json.optString(key, "");
+        return value.isEmpty() ? null : UUID.fromString(value);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,212 @@
+package com.tigerbank.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Потоковый разбор JSON на уровне лексем. Документ не строится:
+ * вызывающий код сам ходит по структуре через peek/expect,
+ * а строки и скаляры дописываются в переданный буфер.
+ */
+class JsonStreamReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long offset;
+
+    JsonStreamReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Следующий значащий символ без его поглощения, -1 в конце документа.
+     */
+    int peek() throws IOException {
+        while (true) {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            char c = buffer[position];
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                position++;
+            } else {
+                return c;
+            }
+        }
+    }
+
+    void expect(char expected) throws IOException {
+        int c = peek();
+        if (c != expected) {
+            throw error("ожидался символ '" + expected + "'");
+        }
+        position++;
+    }
+
+    /**
+     * Поглощает ',' и возвращает true, либо поглощает закрывающую скобку
+     * и возвращает false.
+     */
+    boolean nextElement(char closing) throws IOException {
+        int c = peek();
+        if (c == ',') {
+            position++;
+            return true;
+        }
+        if (c == closing) {
+            position++;
+            return false;
+        }
+        throw error("ожидался символ ',' или '" + closing + "'");
+    }
+
+    boolean consumeIf(char expected) throws IOException {
+        if (peek() == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    void readString(StringBuilder out) throws IOException {
+        expect('"');
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return;
+            }
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            char escaped = next();
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    out.append(escaped);
+                    break;
+                case 'b':
+                    out.append('\b');
+                    break;
+                case 'f':
+                    out.append('\f');
+                    break;
+                case 'n':
+                    out.append('\n');
+                    break;
+                case 'r':
+                    out.append('\r');
+                    break;
+                case 't':
+                    out.append('\t');
+                    break;
+                case 'u':
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(next(), 16);
+                        if (digit < 0) {
+                            throw error("неверная escape-последовательность");
+                        }
+                        code = (code << 4) | digit;
+                    }
+                    out.append((char) code);
+                    break;
+                default:
+                    throw error("неверная escape-последовательность");
+            }
+        }
+    }
+
+    /**
+     * Число или литерал true/false/null как есть.
+     */
+    void readScalar(StringBuilder out) throws IOException {
+        int start = out.length();
+        peek();
+        while (position < limit || fill()) {
+            char c = buffer[position];
+            if (c == ',' || c == '}' || c == ']' || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                break;
+            }
+            out.append(c);
+            position++;
+        }
+        if (out.length() == start) {
+            throw error("ожидалось значение");
+        }
+    }
+
+    void skipValue() throws IOException {
+        int c = peek();
+        if (c == '"') {
+            skipString();
+        } else if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                c = peek();
+                if (c == '"') {
+                    skipString();
+                    continue;
+                }
+                if (c < 0) {
+                    throw error("неожиданный конец документа");
+                }
+                position++;
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+            } while (depth > 0);
+        } else {
+            while ((position < limit || fill()) && ",}] \n\r\t".indexOf(buffer[position]) < 0) {
+                position++;
+            }
+        }
+    }
+
+    IOException error(String message) {
+        return new IOException("Некорректный JSON в позиции " + (offset + position) + ": " + message);
+    }
+
+    private void skipString() throws IOException {
+        expect('"');
+        while (true) {
+            char c = next();
+            if (c == '\\') {
+                next();
+            } else if (c == '"') {
+                return;
+            }
+        }
+    }
+
+    private char next() throws IOException {
+        if (position == limit && !fill()) {
+            throw error("неожиданный конец документа");
+        }
+        return buffer[position++];
+    }
+
+    private boolean fill() throws IOException {
+        offset += limit;
+        position = 0;
+        limit = 0;
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        limit = read;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.tigerbank.importer;
+
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Operation;
+import com.tigerbank.exporter.SnapshotFormat;
+import com.tigerbank.service.AccountService;
+import com.tigerbank.service.CategoryService;
+import com.tigerbank.service.OperationService;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Импорт бинарного снимка, записанного SnapshotExporter. Блоки читаются
+ * по одному и сразу передаются в пакетный приемник; поврежденный блок
+ * прерывает импорт.
+ */
+public class SnapshotImporter extends DataImporter {
+
+    public SnapshotImporter(AccountService accountService,
+            CategoryService categoryService,
+            OperationService operationService) {
+        super(accountService, categoryService, operationService);
+    }
+
+    @Override
+    protected ImportStats importFrom(Path path) throws IOException {
+        ImportSink sink = newSink();
+        try (SnapshotReader reader = new SnapshotReader(FileChannel.open(path, StandardOpenOption.READ))) {
+            int records;
+            while ((records = reader.nextBlock()) >= 0) {
+                if (reader.section() == SnapshotFormat.DELETED || reader.section() == SnapshotFormat.CHECKPOINT) {
+                    // выгрузка изменений: удаления предназначены получателю, при восстановлении не применяются
+                    reader.skipBlock();
+                    continue;
+                }
+                for (int i = 0; i < records; i++) {
+                    switch (reader.section()) {
+                        case SnapshotFormat.ACCOUNTS:
+                            sink.account(reader.readAccount());
+                            break;
+                        case SnapshotFormat.CATEGORIES:
+                            sink.category(reader.readCategory());
+                            break;
+                        default:
+                            sink.operation(reader.readOperation());
+                            break;
+                    }
+                }
+                if (reader.hasMoreData()) {
+                    throw reader.corrupted("лишние данные в блоке");
+                }
+            }
+        }
+        return sink.finish();
+    }
+}
\ No newline at end of file
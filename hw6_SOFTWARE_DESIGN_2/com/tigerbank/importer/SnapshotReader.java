@@ -0,0 +1,290 @@
+package com.tigerbank.importer;
+
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import com.tigerbank.exporter.SnapshotFormat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Читает блоки формата {@link SnapshotFormat}: проверяет контрольную сумму
+ * каждого блока и разбирает записи. Буферы блока переиспользуются.
+ */
+class SnapshotReader implements Closeable {
+    private static final OperationType[] TYPES = OperationType.values();
+
+    private final ReadableByteChannel channel;
+    private final Inflater inflater = new Inflater();
+    private final CRC32C crc = new CRC32C();
+    private final List<UUID> dictionary = new ArrayList<>();
+    private final ByteBuffer header = ByteBuffer.allocate(SnapshotFormat.BLOCK_HEADER_SIZE);
+
+    private byte[] compressed = new byte[SnapshotFormat.BLOCK_SIZE / 2];
+    private byte[] block = new byte[SnapshotFormat.BLOCK_SIZE + 4096];
+    private int section;
+    private int length;
+    private int position;
+    private long blockNumber;
+    private long previousSeconds;
+
+    SnapshotReader(ReadableByteChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer start = ByteBuffer.allocate(SnapshotFormat.MAGIC.length + 1);
+        try {
+            readFully(start);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        byte[] magic = new byte[SnapshotFormat.MAGIC.length];
+        start.get(magic);
+        if (!Arrays.equals(magic, SnapshotFormat.MAGIC)) {
+            close();
+            throw new IOException("Файл не является снимком ТигрБанка");
+        }
+        int version = start.get();
+        if (version != SnapshotFormat.VERSION) {
+            close();
+            throw new IOException("Неподдерживаемая версия снимка: " + version);
+        }
+    }
+
+    /**
+     * Читает следующий блок и возвращает число записей в нем,
+     * -1 после завершающего блока.
+     */
+    int nextBlock() throws IOException {
+        header.clear();
+        readFully(header);
+        int section = header.get();
+        int records = header.getInt();
+        int rawLength = header.getInt();
+        int compressedLength = header.getInt();
+        int checksum = header.getInt();
+        blockNumber++;
+        if (section == SnapshotFormat.END) {
+            return -1;
+        }
+        if (section < SnapshotFormat.ACCOUNTS || section > SnapshotFormat.CHECKPOINT
+                || records < 0 || rawLength < 0 || compressedLength < 0) {
+            throw corrupted("неверный заголовок блока");
+        }
+
+        if (compressed.length < compressedLength) {
+            compressed = new byte[compressedLength];
+        }
+        readFully(ByteBuffer.wrap(compressed, 0, compressedLength));
+        if (block.length < rawLength) {
+            block = new byte[rawLength];
+        }
+
+        inflater.reset();
+        inflater.setInput(compressed, 0, compressedLength);
+        try {
+            int inflated = 0;
+            while (inflated < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(block, inflated, rawLength - inflated);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += n;
+            }
+            if (inflated != rawLength) {
+                throw corrupted("неверная длина данных");
+            }
+        } catch (DataFormatException e) {
+            throw corrupted(e.getMessage());
+        }
+
+        crc.reset();
+        crc.update(block, 0, rawLength);
+        if ((int) crc.getValue() != checksum) {
+            throw corrupted("контрольная сумма не совпадает");
+        }
+
+        length = rawLength;
+        position = 0;
+        this.section = section;
+        return records;
+    }
+
+    int section() {
+        return section;
+    }
+
+    void skipBlock() {
+        position = length;
+    }
+
+    boolean hasMoreData() {
+        return position < length;
+    }
+
+    BankAccount readAccount() throws IOException {
+        UUID id = readEntityId();
+        String name = readString();
+        BigDecimal balance = readDecimal();
+        return new BankAccount(id, name, balance);
+    }
+
+    Category readCategory() throws IOException {
+        UUID id = readEntityId();
+        OperationType type = readType();
+        String name = readString();
+        return new Category(id, type, name);
+    }
+
+    Operation readOperation() throws IOException {
+        UUID id = readUuid();
+        OperationType type = readType();
+        UUID accountId = readReference();
+        BigDecimal amount = readDecimal();
+        LocalDateTime date = readDate();
+        String description = readString();
+        UUID categoryId = readReference();
+        return new Operation(id, type, accountId, amount, date, description, categoryId);
+    }
+
+    IOException corrupted(String message) {
+        return new IOException("Поврежденный снимок, блок " + blockNumber + ": " + message);
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        channel.close();
+    }
+
+    private UUID readEntityId() throws IOException {
+        UUID id = readUuid();
+        dictionary.add(id);
+        return id;
+    }
+
+    private UUID readReference() throws IOException {
+        long reference = readVarint();
+        if (reference == SnapshotFormat.REF_NULL) {
+            return null;
+        }
+        if (reference == SnapshotFormat.REF_NEW) {
+            return readEntityId();
+        }
+        long index = reference - SnapshotFormat.REF_FIRST_INDEX;
+        if (index >= dictionary.size()) {
+            throw corrupted("неизвестная ссылка " + index);
+        }
+        return dictionary.get((int) index);
+    }
+
+    private UUID readUuid() throws IOException {
+        require(16);
+        return new UUID(getLong(), getLong());
+    }
+
+    private OperationType readType() throws IOException {
+        require(1);
+        int code = block[position++] & 0xFF;
+        if (code > TYPES.length) {
+            throw corrupted("неизвестный тип операции " + code);
+        }
+        return code == 0 ? null : TYPES[code - 1];
+    }
+
+    private BigDecimal readDecimal() throws IOException {
+        long header = readVarint();
+        if (header == 0) {
+            return null;
+        }
+        header--;
+        int scale = (int) unzigzag(header >>> 1);
+        if ((header & 1) != 0) {
+            int size = (int) readVarint();
+            require(size);
+            BigInteger unscaled = new BigInteger(block, position, size);
+            position += size;
+            return new BigDecimal(unscaled, scale);
+        }
+        return BigDecimal.valueOf(unzigzag(readVarint()), scale);
+    }
+
+    private LocalDateTime readDate() throws IOException {
+        long header = readVarint();
+        if (header == 0) {
+            return null;
+        }
+        header--;
+        long seconds = previousSeconds + unzigzag(header >>> 1);
+        int nanos = (header & 1) != 0 ? (int) readVarint() : 0;
+        previousSeconds = seconds;
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    private String readString() throws IOException {
+        long size = readVarint();
+        if (size == 0) {
+            return null;
+        }
+        int bytes = (int) (size - 1);
+        require(bytes);
+        String value = new String(block, position, bytes, StandardCharsets.UTF_8);
+        position += bytes;
+        return value;
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            require(1);
+            byte b = block[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw corrupted("слишком длинное число");
+    }
+
+    private long getLong() {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (block[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    private void require(int bytes) throws IOException {
+        if (bytes < 0 || length - position < bytes) {
+            throw corrupted("запись выходит за границу блока");
+        }
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Неожиданный конец снимка");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.tigerbank.importer;
+
+public class StageStats {
+    private final String name;
+    private final String unit;
+    private long items;
+    private long bytes;
+    private long busyNanos;
+    private int maxQueueDepth;
+    private long queueDepthSum;
+    private long queueSamples;
+
+    StageStats(String name, String unit) {
+        this.name = name;
+        this.unit = unit;
+    }
+
+    synchronized void record(long items, long bytes, long busyNanos) {
+        this.items += items;
+        this.bytes += bytes;
+        this.busyNanos += busyNanos;
+    }
+
+    synchronized void sampleQueue(int depth) {
+        maxQueueDepth = Math.max(maxQueueDepth, depth);
+        queueDepthSum += depth;
+        queueSamples++;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized long getItems() {
+        return items;
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized long getBusyNanos() {
+        return busyNanos;
+    }
+
+    public synchronized int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    public synchronized double getAverageQueueDepth() {
+        return queueSamples == 0 ? 0 : (double) queueDepthSum / queueSamples;
+    }
+
+    public synchronized double getItemsPerSecond() {
+        return busyNanos == 0 ? 0 : items * 1_000_000_000.0 / busyNanos;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s: %d %s, %.1f МБ, %.0f %s/с, очередь макс. %d, средн. %.1f",
+                name, items, unit, bytes / (1024.0 * 1024.0), getItemsPerSecond(), unit,
+                maxQueueDepth, getAverageQueueDepth());
+    }
+}
\ No newline at end of file
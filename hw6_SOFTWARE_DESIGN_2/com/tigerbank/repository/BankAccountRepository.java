@@ -1,20 +1,46 @@
 package com.tigerbank.repository;
 
 import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Money;
 import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import java.math.BigDecimal;
 import java.util.*;
+import java.util.function.UnaryOperator;
 
 public class BankAccountRepository implements Repository<BankAccount> {
-    private final Map<UUID, BankAccount> accounts = new HashMap<>();
-    private final OperationRepository operationRepository;
+    private final Map<UUID, BankAccount> accounts;
+    private OperationRepository operationRepository;
+    private final boolean lazyLoading;
+    private final RepositoryListeners<BankAccount> listeners = new RepositoryListeners<>();
 
     public BankAccountRepository(OperationRepository operationRepository) {
+        this(operationRepository, true);
+    }
+
+    public BankAccountRepository(OperationRepository operationRepository, boolean lazyLoading) {
+        this(operationRepository, lazyLoading, new HashMap<>());
+    }
+
+    protected BankAccountRepository(OperationRepository operationRepository, boolean lazyLoading,
+            Map<UUID, BankAccount> storage) {
+        this.operationRepository = operationRepository;
+        this.lazyLoading = lazyLoading;
+        this.accounts = storage;
+    }
+
+    /**
+     * Репозиторий операций создается после репозитория счетов,
+     * поэтому его можно подключить вторым шагом сборки.
+     */
+    public void setOperationRepository(OperationRepository operationRepository) {
         this.operationRepository = operationRepository;
     }
 
     @Override
     public BankAccount save(BankAccount account) {
         accounts.put(account.getId(), account);
+        listeners.fireSaved(account);
         return account;
     }
 
@@ -22,9 +48,7 @@ public class BankAccountRepository implements Repository<BankAccount> {
     public Optional<BankAccount> findById(UUID id) {
         BankAccount account = accounts.get(id);
         if (account != null) {
-            List<Operation> accountOperations = operationRepository.findByBankAccountId(id);
-            account.getOperations().clear();
-            account.getOperations().addAll(accountOperations);
+            attachOperations(account);
         }
         return Optional.ofNullable(account);
     }
@@ -33,9 +57,7 @@ public class BankAccountRepository implements Repository<BankAccount> {
     public List<BankAccount> findAll() {
         List<BankAccount> allAccounts = new ArrayList<>(accounts.values());
         for (BankAccount account : allAccounts) {
-            List<Operation> accountOperations = operationRepository.findByBankAccountId(account.getId());
-            account.getOperations().clear();
-            account.getOperations().addAll(accountOperations);
+            attachOperations(account);
         }
         return allAccounts;
     }
@@ -48,11 +70,61 @@ public class BankAccountRepository implements Repository<BankAccount> {
                 operationRepository.delete(op.getId());
             }
         }
-        return accounts.remove(id) != null;
+        boolean removed = accounts.remove(id) != null;
+        if (removed) {
+            listeners.fireDeleted(id);
+        }
+        return removed;
+    }
+
+    public Optional<BankAccount> updateBalance(UUID id, UnaryOperator<BigDecimal> update) {
+        BankAccount account = accounts.get(id);
+        if (account != null) {
+            account.setBalance(update.apply(account.getBalance()));
+            save(account);
+        }
+        return Optional.ofNullable(account);
+    }
+
+    /**
+     * Проводит сумму операции по балансу в копейках, без BigDecimal.
+     */
+    public Optional<BankAccount> updateBalance(UUID id, Money amount, OperationType type) {
+        BankAccount account = accounts.get(id);
+        if (account != null) {
+            if (type == OperationType.INCOME) {
+                account.addToBalance(amount);
+            } else {
+                account.subtractFromBalance(amount);
+            }
+            save(account);
+        }
+        return Optional.ofNullable(account);
+    }
+
+    public int count() {
+        return accounts.size();
     }
 
     @Override
     public void clear() {
         accounts.clear();
+        listeners.fireCleared();
+    }
+
+    public void addListener(RepositoryListener<BankAccount> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(RepositoryListener<BankAccount> listener) {
+        listeners.remove(listener);
+    }
+
+    private void attachOperations(BankAccount account) {
+        UUID accountId = account.getId();
+        account.setOperationsLoader(() -> operationRepository.findByBankAccountId(accountId));
+        if (!lazyLoading) {
+            account.getOperations();
+        }
     }
 }
\ No newline at end of file
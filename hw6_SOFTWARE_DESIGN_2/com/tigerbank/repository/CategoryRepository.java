@@ -7,16 +7,38 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 public class CategoryRepository implements Repository<Category> {
-    private final Map<UUID, Category> categories = new HashMap<>();
-    private final OperationRepository operationRepository;
+    private final Map<UUID, Category> categories;
+    private OperationRepository operationRepository;
+    private final boolean lazyLoading;
+    private final RepositoryListeners<Category> listeners = new RepositoryListeners<>();
 
     public CategoryRepository(OperationRepository operationRepository) {
+        this(operationRepository, true);
+    }
+
+    public CategoryRepository(OperationRepository operationRepository, boolean lazyLoading) {
+        this(operationRepository, lazyLoading, new HashMap<>());
+    }
+
+    protected CategoryRepository(OperationRepository operationRepository, boolean lazyLoading,
+            Map<UUID, Category> storage) {
+        this.operationRepository = operationRepository;
+        this.lazyLoading = lazyLoading;
+        this.categories = storage;
+    }
+
+    /**
+     * Репозиторий операций создается после репозитория категорий,
+     * поэтому его можно подключить вторым шагом сборки.
+     */
+    public void setOperationRepository(OperationRepository operationRepository) {
         this.operationRepository = operationRepository;
     }
 
     @Override
     public Category save(Category category) {
         categories.put(category.getId(), category);
+        listeners.fireSaved(category);
         return category;
     }
 
@@ -24,9 +46,7 @@ public class CategoryRepository implements Repository<Category> {
     public Optional<Category> findById(UUID id) {
         Category category = categories.get(id);
         if (category != null) {
-            List<Operation> categoryOperations = operationRepository.findByCategoryId(id);
-            category.getOperations().clear();
-            category.getOperations().addAll(categoryOperations);
+            attachOperations(category);
         }
         return Optional.ofNullable(category);
     }
@@ -35,9 +55,7 @@ public class CategoryRepository implements Repository<Category> {
     public List<Category> findAll() {
         List<Category> allCategories = new ArrayList<>(categories.values());
         for (Category category : allCategories) {
-            List<Operation> categoryOperations = operationRepository.findByCategoryId(category.getId());
-            category.getOperations().clear();
-            category.getOperations().addAll(categoryOperations);
+            attachOperations(category);
         }
         return allCategories;
     }
@@ -50,7 +68,11 @@ public class CategoryRepository implements Repository<Category> {
             op.setCategory(null);
             operationRepository.save(op);
         }
-        return categories.remove(id) != null;
+        boolean removed = categories.remove(id) != null;
+        if (removed) {
+            listeners.fireDeleted(id);
+        }
+        return removed;
     }
 
     public List<Category> findByType(OperationType type) {
@@ -62,5 +84,22 @@ public class CategoryRepository implements Repository<Category> {
     @Override
     public void clear() {
         categories.clear();
+        listeners.fireCleared();
+    }
+
+    public void addListener(RepositoryListener<Category> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(RepositoryListener<Category> listener) {
+        listeners.remove(listener);
+    }
+
+    private void attachOperations(Category category) {
+        UUID categoryId = category.getId();
+        category.setOperationsLoader(() -> operationRepository.findByCategoryId(categoryId));
+        if (!lazyLoading) {
+            category.getOperations();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,155 @@
+package com.tigerbank.repository;
+
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Operation;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Журнал изменений репозиториев для инкрементальной выгрузки. Каждое
+ * сохранение, удаление и очистка получают следующий номер из общей
+ * возрастающей последовательности. Для сущности хранится только
+ * последнее изменение, поэтому выборка since(n) стоит пропорционально
+ * числу изменений после n, а не объему данных.
+ */
+public class ChangeLog {
+    private final NavigableMap<Long, Change> bySequence = new TreeMap<>();
+    private final Map<ChangeSet.Entity, Map<UUID, Change>> latest = new EnumMap<>(ChangeSet.Entity.class);
+    private long sequence;
+
+    public ChangeLog() {
+        for (ChangeSet.Entity entity : ChangeSet.Entity.values()) {
+            latest.put(entity, new HashMap<>());
+        }
+    }
+
+    /**
+     * Подписывается на репозитории; уже сохраненные сущности получают
+     * номера изменений, так что since(0) дает полную выгрузку.
+     */
+    public void attach(BankAccountRepository accountRepository,
+            CategoryRepository categoryRepository,
+            OperationRepository operationRepository) {
+        RepositoryListener<BankAccount> accounts = listener(ChangeSet.Entity.ACCOUNT, BankAccount::getId);
+        RepositoryListener<Category> categories = listener(ChangeSet.Entity.CATEGORY, Category::getId);
+        RepositoryListener<Operation> operations = listener(ChangeSet.Entity.OPERATION, Operation::getId);
+
+        synchronized (this) {
+            accountRepository.findAll().forEach(accounts::onSaved);
+            categoryRepository.findAll().forEach(categories::onSaved);
+            operationRepository.findAll().forEach(operations::onSaved);
+        }
+        accountRepository.addListener(accounts);
+        categoryRepository.addListener(categories);
+        operationRepository.addListener(operations);
+    }
+
+    public synchronized long currentSequence() {
+        return sequence;
+    }
+
+    public synchronized ChangeSet since(long from) {
+        ChangeSet changes = new ChangeSet(from, Math.max(from, sequence));
+        for (Change change : bySequence.tailMap(from, false).values()) {
+            if (change.entity == null) {
+                changes.deleted.add(new ChangeSet.Tombstone(change.kind, change.id, change.sequence));
+                continue;
+            }
+            switch (change.kind) {
+                case ACCOUNT:
+                    changes.accounts.add((BankAccount) change.entity);
+                    break;
+                case CATEGORY:
+                    changes.categories.add((Category) change.entity);
+                    break;
+                default:
+                    changes.operations.add((Operation) change.entity);
+                    break;
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Забывает удаления с номером не больше upTo - после того,
+     * как получатель подтвердил эту контрольную точку.
+     */
+    public synchronized void compact(long upTo) {
+        Iterator<Change> it = bySequence.headMap(upTo, true).values().iterator();
+        while (it.hasNext()) {
+            Change change = it.next();
+            if (change.entity == null) {
+                it.remove();
+                if (change.id != null) {
+                    latest.get(change.kind).remove(change.id);
+                }
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return bySequence.size();
+    }
+
+    private synchronized void record(ChangeSet.Entity kind, UUID id, Object entity) {
+        Change change = new Change(++sequence, kind, id, entity);
+        Change previous = latest.get(kind).put(id, change);
+        if (previous != null) {
+            bySequence.remove(previous.sequence);
+        }
+        bySequence.put(change.sequence, change);
+    }
+
+    private synchronized void recordClear(ChangeSet.Entity kind) {
+        Map<UUID, Change> changes = latest.get(kind);
+        for (Change change : changes.values()) {
+            bySequence.remove(change.sequence);
+        }
+        changes.clear();
+        bySequence.values().removeIf(change -> change.kind == kind && change.id == null);
+
+        Change clear = new Change(++sequence, kind, null, null);
+        bySequence.put(clear.sequence, clear);
+    }
+
+    private <T> RepositoryListener<T> listener(ChangeSet.Entity kind, Function<T, UUID> id) {
+        return new RepositoryListener<T>() {
+            @Override
+            public void onSaved(T entity) {
+                record(kind, id.apply(entity), entity);
+            }
+
+            @Override
+            public void onDeleted(UUID deletedId) {
+                record(kind, deletedId, null);
+            }
+
+            @Override
+            public void onCleared() {
+                recordClear(kind);
+            }
+        };
+    }
+
+    private static class Change {
+        final long sequence;
+        final ChangeSet.Entity kind;
+        final UUID id;
+        final Object entity;
+
+        Change(long sequence, ChangeSet.Entity kind, UUID id, Object entity) {
+            this.sequence = sequence;
+            this.kind = kind;
+            this.id = id;
+            this.entity = entity;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.tigerbank.repository;
+
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Operation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Изменения с номерами в полуинтервале (from, to]: текущее состояние
+ * сохраненных сущностей и удаления. Для каждой сущности остается
+ * только последнее изменение, поэтому удаления применяются раньше
+ * сохранений. Удаление с id == null означает очистку всего раздела.
+ */
+public class ChangeSet {
+    public enum Entity {
+        ACCOUNT, CATEGORY, OPERATION
+    }
+
+    public static class Tombstone {
+        private final Entity entity;
+        private final UUID id;
+        private final long sequence;
+
+        Tombstone(Entity entity, UUID id, long sequence) {
+            this.entity = entity;
+            this.id = id;
+            this.sequence = sequence;
+        }
+
+        public Entity getEntity() {
+            return entity;
+        }
+
+        public UUID getId() {
+            return id;
+        }
+
+        public boolean isClear() {
+            return id == null;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+    }
+
+    private final long from;
+    private final long to;
+    final List<BankAccount> accounts = new ArrayList<>();
+    final List<Category> categories = new ArrayList<>();
+    final List<Operation> operations = new ArrayList<>();
+    final List<Tombstone> deleted = new ArrayList<>();
+
+    ChangeSet(long from, long to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public long getFrom() {
+        return from;
+    }
+
+    /**
+     * Номер последнего вошедшего изменения - контрольная точка
+     * для следующей выгрузки.
+     */
+    public long getTo() {
+        return to;
+    }
+
+    public List<BankAccount> getAccounts() {
+        return Collections.unmodifiableList(accounts);
+    }
+
+    public List<Category> getCategories() {
+        return Collections.unmodifiableList(categories);
+    }
+
+    public List<Operation> getOperations() {
+        return Collections.unmodifiableList(operations);
+    }
+
+    public List<Tombstone> getDeleted() {
+        return Collections.unmodifiableList(deleted);
+    }
+
+    public boolean isEmpty() {
+        return accounts.isEmpty() && categories.isEmpty() && operations.isEmpty() && deleted.isEmpty();
+    }
+}
\ No newline at end of file
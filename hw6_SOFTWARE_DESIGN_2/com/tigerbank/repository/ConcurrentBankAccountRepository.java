@@ -0,0 +1,51 @@
+package com.tigerbank.repository;
+
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Money;
+import com.tigerbank.enums.OperationType;
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+public class ConcurrentBankAccountRepository extends BankAccountRepository {
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final StripedLock balanceLocks;
+
+    public ConcurrentBankAccountRepository(OperationRepository operationRepository) {
+        this(operationRepository, DEFAULT_STRIPES);
+    }
+
+    public ConcurrentBankAccountRepository(OperationRepository operationRepository, int stripes) {
+        super(operationRepository, true, new ConcurrentHashMap<>());
+        this.balanceLocks = new StripedLock(stripes);
+    }
+
+    @Override
+    public Optional<BankAccount> findById(UUID id) {
+        return id == null ? Optional.empty() : super.findById(id);
+    }
+
+    @Override
+    public Optional<BankAccount> updateBalance(UUID id, UnaryOperator<BigDecimal> update) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return balanceLocks.withLock(id, () -> super.updateBalance(id, update));
+    }
+
+    @Override
+    public Optional<BankAccount> updateBalance(UUID id, Money amount, OperationType type) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return balanceLocks.withLock(id, () -> super.updateBalance(id, amount, type));
+    }
+
+    @Override
+    public boolean delete(UUID id) {
+        return id != null && super.delete(id);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.tigerbank.repository;
+
+import com.tigerbank.domain.Category;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ConcurrentCategoryRepository extends CategoryRepository {
+
+    public ConcurrentCategoryRepository(OperationRepository operationRepository) {
+        super(operationRepository, true, new ConcurrentHashMap<>());
+    }
+
+    @Override
+    public Optional<Category> findById(UUID id) {
+        return id == null ? Optional.empty() : super.findById(id);
+    }
+
+    @Override
+    public boolean delete(UUID id) {
+        return id != null && super.delete(id);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,153 @@
+package com.tigerbank.repository;
+
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Основная таблица и вторичные индексы меняются вместе,
+ * поэтому операции защищены одной read/write блокировкой.
+ */
+public class ConcurrentOperationRepository extends OperationRepository {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ConcurrentOperationRepository(BankAccountRepository accountRepository,
+            CategoryRepository categoryRepository) {
+        super(accountRepository, categoryRepository);
+    }
+
+    @Override
+    public Operation save(Operation operation) {
+        return write(() -> super.save(operation));
+    }
+
+    @Override
+    public Optional<Operation> findById(UUID id) {
+        return read(() -> super.findById(id));
+    }
+
+    @Override
+    public boolean existsById(UUID id) {
+        return read(() -> super.existsById(id));
+    }
+
+    @Override
+    public List<Operation> findAll() {
+        return read(super::findAll);
+    }
+
+    /**
+     * Действие выполняется под блокировкой чтения и не должно
+     * изменять операции.
+     */
+    @Override
+    public void forEach(Consumer<Operation> action) {
+        read(() -> {
+            super.forEach(action);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean delete(UUID id) {
+        return write(() -> super.delete(id));
+    }
+
+    @Override
+    public List<Operation> findByBankAccountId(UUID accountId) {
+        return read(() -> super.findByBankAccountId(accountId));
+    }
+
+    @Override
+    public List<Operation> findByCategoryId(UUID categoryId) {
+        return read(() -> super.findByCategoryId(categoryId));
+    }
+
+    @Override
+    public List<Operation> findByDateBetween(LocalDateTime start, LocalDateTime end) {
+        return read(() -> super.findByDateBetween(start, end));
+    }
+
+    @Override
+    public List<Operation> findByType(OperationType type) {
+        return read(() -> super.findByType(type));
+    }
+
+    /**
+     * Хранилище читается под блокировкой, поэтому результат
+     * собирается целиком до ее снятия.
+     */
+    @Override
+    public List<Operation> find(OperationQuery query) {
+        return read(() -> super.find(query));
+    }
+
+    @Override
+    public QueryPlan explain(OperationQuery query) {
+        return read(() -> super.explain(query));
+    }
+
+    @Override
+    public int countByBankAccountId(UUID accountId) {
+        return read(() -> super.countByBankAccountId(accountId));
+    }
+
+    @Override
+    public int countByCategoryId(UUID categoryId) {
+        return read(() -> super.countByCategoryId(categoryId));
+    }
+
+    @Override
+    public int count() {
+        return read(super::count);
+    }
+
+    @Override
+    public void clear() {
+        write(() -> {
+            super.clear();
+            return null;
+        });
+    }
+
+    @Override
+    public OperationAggregates getAggregates() {
+        return write(super::getAggregates);
+    }
+
+    @Override
+    public DescriptionIndex getDescriptionIndex() {
+        return write(super::getDescriptionIndex);
+    }
+
+    @Override
+    public List<Operation> findAllById(Collection<UUID> ids) {
+        return read(() -> super.findAllById(ids));
+    }
+
+    private <R> R read(Supplier<R> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <R> R write(Supplier<R> action) {
+        lock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
\ No newline at end of file
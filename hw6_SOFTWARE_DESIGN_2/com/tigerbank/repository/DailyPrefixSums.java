@@ -0,0 +1,185 @@
+package com.tigerbank.repository;
+
+import com.tigerbank.domain.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Дерево Фенвика по дням: добавление в день и сумма за диапазон
+ * дней выполняются за O(log D). Диапазон дней расширяется
+ * в обе стороны по мере появления новых дат. Суммы хранятся
+ * в копейках long; суммы, которые не помещаются в копейки
+ * или переполнили бы дерево, копятся по дням в BigDecimal.
+ */
+class DailyPrefixSums {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private long[] values;
+    private long[] tree;
+    private long baseDay;
+    private boolean empty = true;
+    private int scale;
+    private final NavigableMap<Long, BigDecimal> exact = new TreeMap<>();
+
+    void add(LocalDate day, Money delta) {
+        add(day, delta.getMinorUnits(), delta.getScale());
+    }
+
+    void subtract(LocalDate day, Money delta) {
+        long minor = delta.getMinorUnits();
+        if (minor == Long.MIN_VALUE) {
+            add(day, delta.toBigDecimal().negate());
+        } else {
+            add(day, -minor, delta.getScale());
+        }
+    }
+
+    void add(LocalDate day, BigDecimal delta) {
+        exact.merge(day.toEpochDay(), delta, BigDecimal::add);
+    }
+
+    BigDecimal sum(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal total = fixedSum(from.toEpochDay(), to.toEpochDay());
+        for (BigDecimal amount : exact.subMap(from.toEpochDay(), true, to.toEpochDay(), true).values()) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    void clear() {
+        values = null;
+        tree = null;
+        empty = true;
+        scale = 0;
+        exact.clear();
+    }
+
+    private void add(LocalDate day, long delta, int deltaScale) {
+        long epochDay = day.toEpochDay();
+        ensureCovers(epochDay);
+        int index = (int) (epochDay - baseDay);
+        if (overflows(values[index], delta)) {
+            add(day, BigDecimal.valueOf(delta, Money.SCALE).setScale(deltaScale));
+            return;
+        }
+        for (int i = index + 1; i <= tree.length - 1; i += i & -i) {
+            if (overflows(tree[i], delta)) {
+                add(day, BigDecimal.valueOf(delta, Money.SCALE).setScale(deltaScale));
+                return;
+            }
+        }
+
+        values[index] += delta;
+        for (int i = index + 1; i <= tree.length - 1; i += i & -i) {
+            tree[i] += delta;
+        }
+        if (deltaScale > scale) {
+            scale = deltaScale;
+        }
+    }
+
+    private static boolean overflows(long value, long delta) {
+        long sum = value + delta;
+        return ((value ^ sum) & (delta ^ sum)) < 0;
+    }
+
+    private BigDecimal fixedSum(long from, long to) {
+        if (empty) {
+            return BigDecimal.ZERO;
+        }
+        long first = Math.max(from, baseDay);
+        long last = Math.min(to, baseDay + values.length - 1);
+        if (first > last) {
+            return BigDecimal.ZERO;
+        }
+        int end = (int) (last - baseDay) + 1;
+        int start = (int) (first - baseDay);
+        long total;
+        try {
+            total = Math.subtractExact(prefix(end), prefix(start));
+        } catch (ArithmeticException e) {
+            return exactPrefix(end).subtract(exactPrefix(start)).setScale(scale);
+        }
+        return BigDecimal.valueOf(total, Money.SCALE).setScale(scale);
+    }
+
+    private long prefix(int count) {
+        long sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum = Math.addExact(sum, tree[i]);
+        }
+        return sum;
+    }
+
+    private BigDecimal exactPrefix(int count) {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum = sum.add(BigDecimal.valueOf(tree[i], Money.SCALE));
+        }
+        return sum;
+    }
+
+    private void ensureCovers(long epochDay) {
+        if (empty) {
+            baseDay = epochDay - INITIAL_CAPACITY / 2;
+            values = new long[INITIAL_CAPACITY];
+            rebuild();
+            empty = false;
+            return;
+        }
+        long last = baseDay + values.length - 1;
+        if (epochDay >= baseDay && epochDay <= last) {
+            return;
+        }
+
+        int capacity = values.length;
+        long newBase = baseDay;
+        while (epochDay < newBase || epochDay > newBase + capacity - 1) {
+            if (epochDay < newBase) {
+                newBase -= capacity;
+            }
+            capacity *= 2;
+        }
+        long[] resized = new long[capacity];
+        System.arraycopy(values, 0, resized, (int) (baseDay - newBase), values.length);
+        values = resized;
+        baseDay = newBase;
+        rebuild();
+    }
+
+    private void rebuild() {
+        tree = new long[values.length + 1];
+        System.arraycopy(values, 0, tree, 1, values.length);
+        for (int i = 1; i < tree.length; i++) {
+            int parent = i + (i & -i);
+            if (parent >= tree.length) {
+                continue;
+            }
+            if (overflows(tree[parent], tree[i])) {
+                spillAll();
+                return;
+            }
+            tree[parent] += tree[i];
+        }
+    }
+
+    /**
+     * Переносит все дни в BigDecimal, если узлы дерева после
+     * расширения не помещаются в long.
+     */
+    private void spillAll() {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != 0) {
+                add(LocalDate.ofEpochDay(baseDay + i), BigDecimal.valueOf(values[i], Money.SCALE));
+                values[i] = 0;
+            }
+        }
+        tree = new long[values.length + 1];
+    }
+}
\ No newline at end of file
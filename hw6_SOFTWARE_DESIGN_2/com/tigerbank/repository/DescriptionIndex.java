@@ -0,0 +1,486 @@
+package com.tigerbank.repository;
+
+import com.tigerbank.domain.Operation;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Инвертированный индекс слов из описаний операций. Каждая операция
+ * при добавлении получает компактный номер строки, а для каждого
+ * слова хранится возрастающий массив номеров строк. Словом считается
+ * серия букв и цифр; регистр приводится к нижнему, ё заменяется на е.
+ * <p>
+ * Запрос: слова через пробел должны встретиться все, группы слов
+ * разделяются OR, ИЛИ или |, слово со * на конце ищется как начало
+ * слова. Пересечение начинается с самого короткого списка, следующие
+ * списки проходятся галопирующим поиском, а префиксы проверяются по
+ * битовой маске объединения их списков. Группы сливаются слиянием
+ * отсортированных списков, которое останавливается на лимите.
+ * <p>
+ * Удаление только помечает строку. Когда помеченных строк становится
+ * больше живых, номера перенумеровываются во всех списках.
+ */
+public class DescriptionIndex implements RepositoryListener<Operation> {
+    private static final int MAX_TERM_LENGTH = 64;
+    private static final int COMPACT_THRESHOLD = 1024;
+    private static final int INITIAL_ROWS = 1024;
+    private static final int INITIAL_SLOTS = 2048;
+    private static final int TOMBSTONE = -1;
+
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private long[] idHigh = new long[INITIAL_ROWS];
+    private long[] idLow = new long[INITIAL_ROWS];
+    private final BitSet dead = new BitSet();
+    private int rowCount;
+    private int deadCount;
+    // Открытая адресация id -> номер строки + 1; 0 - пустой слот
+    private int[] slots = new int[INITIAL_SLOTS];
+    private int slotsUsed;
+
+    public synchronized void load(Collection<Operation> operations) {
+        clearAll();
+        for (Operation operation : operations) {
+            add(operation);
+        }
+    }
+
+    @Override
+    public synchronized void onSaved(Operation operation) {
+        remove(operation.getId());
+        add(operation);
+        compactIfSparse();
+    }
+
+    @Override
+    public synchronized void onDeleted(UUID id) {
+        remove(id);
+        compactIfSparse();
+    }
+
+    @Override
+    public synchronized void onCleared() {
+        clearAll();
+    }
+
+    /**
+     * Id найденных операций в порядке добавления, не больше limit.
+     */
+    public synchronized List<UUID> search(String text, int limit) {
+        Query query = Query.parse(text);
+        List<UUID> found = new ArrayList<>();
+        if (query.isEmpty() || limit <= 0) {
+            return found;
+        }
+        List<Postings> groups = new ArrayList<>(query.clauses.size());
+        for (List<Term> clause : query.clauses) {
+            Postings rows = intersect(clause);
+            if (rows.size > 0) {
+                groups.add(rows);
+            }
+        }
+
+        int[] positions = new int[groups.size()];
+        while (found.size() < limit) {
+            int row = Integer.MAX_VALUE;
+            for (int i = 0; i < positions.length; i++) {
+                Postings rows = groups.get(i);
+                if (positions[i] < rows.size && rows.rows[positions[i]] < row) {
+                    row = rows.rows[positions[i]];
+                }
+            }
+            if (row == Integer.MAX_VALUE) {
+                break;
+            }
+            for (int i = 0; i < positions.length; i++) {
+                Postings rows = groups.get(i);
+                if (positions[i] < rows.size && rows.rows[positions[i]] == row) {
+                    positions[i]++;
+                }
+            }
+            if (!dead.get(row)) {
+                found.add(new UUID(idHigh[row], idLow[row]));
+            }
+        }
+        return found;
+    }
+
+    public synchronized int size() {
+        return rowCount - deadCount;
+    }
+
+    public synchronized int termCount() {
+        return terms.size();
+    }
+
+    private Postings intersect(List<Term> clause) {
+        List<Postings> lists = new ArrayList<>(clause.size());
+        List<BitSet> unions = new ArrayList<>();
+        for (Term term : clause) {
+            Collection<Postings> matching = term.prefix
+                    ? terms.subMap(term.text, true, term.text + Character.MAX_VALUE, false).values()
+                    : Collections.singleton(terms.getOrDefault(term.text, Postings.EMPTY));
+            Iterator<Postings> iterator = matching.iterator();
+            if (!iterator.hasNext()) {
+                return Postings.EMPTY;
+            }
+            Postings first = iterator.next();
+            if (!iterator.hasNext()) {
+                if (first.size == 0) {
+                    return Postings.EMPTY;
+                }
+                lists.add(first);
+                continue;
+            }
+            long total = 0;
+            for (Postings postings : matching) {
+                total += postings.size;
+            }
+            if (total < rowCount >>> 6) {
+                // Маска на все строки дороже сортировки немногих номеров
+                lists.add(Postings.union(matching, (int) total));
+                continue;
+            }
+            BitSet union = new BitSet(rowCount);
+            matching.forEach(postings -> postings.addTo(union));
+            unions.add(union);
+        }
+
+        if (lists.isEmpty()) {
+            lists.add(Postings.of(unions.remove(unions.size() - 1)));
+        }
+        lists.sort(Comparator.comparingInt(postings -> postings.size));
+        Postings result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.size > 0; i++) {
+            result = result.intersect(lists.get(i));
+        }
+        for (BitSet union : unions) {
+            result = result.retain(union);
+        }
+        return result;
+    }
+
+    private void add(Operation operation) {
+        if ((slotsUsed + 1) * 4L > slots.length * 3L) {
+            rebuildSlots();
+        }
+        if (rowCount == idHigh.length) {
+            idHigh = Arrays.copyOf(idHigh, rowCount * 2);
+            idLow = Arrays.copyOf(idLow, rowCount * 2);
+        }
+        int row = rowCount++;
+        idHigh[row] = operation.getId().getMostSignificantBits();
+        idLow[row] = operation.getId().getLeastSignificantBits();
+        putSlot(row);
+
+        String description = operation.getDescription();
+        if (description != null) {
+            tokenize(description, term -> terms.computeIfAbsent(term, key -> new Postings()).add(row));
+        }
+    }
+
+    private void remove(UUID id) {
+        int slot = findSlot(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (slot < 0) {
+            return;
+        }
+        dead.set(slots[slot] - 1);
+        deadCount++;
+        slots[slot] = TOMBSTONE;
+    }
+
+    private void compactIfSparse() {
+        if (deadCount < COMPACT_THRESHOLD || deadCount <= rowCount - deadCount) {
+            return;
+        }
+        int[] renumbered = new int[rowCount];
+        int live = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (dead.get(row)) {
+                renumbered[row] = -1;
+            } else {
+                renumbered[row] = live;
+                idHigh[live] = idHigh[row];
+                idLow[live] = idLow[row];
+                live++;
+            }
+        }
+        terms.values().removeIf(postings -> postings.renumber(renumbered) == 0);
+        rowCount = live;
+        deadCount = 0;
+        dead.clear();
+        rebuildSlots();
+    }
+
+    private void clearAll() {
+        terms.clear();
+        idHigh = new long[INITIAL_ROWS];
+        idLow = new long[INITIAL_ROWS];
+        dead.clear();
+        rowCount = 0;
+        deadCount = 0;
+        slots = new int[INITIAL_SLOTS];
+        slotsUsed = 0;
+    }
+
+    private int findSlot(long high, long low) {
+        int mask = slots.length - 1;
+        for (int slot = hash(high, low) & mask; ; slot = (slot + 1) & mask) {
+            int value = slots[slot];
+            if (value == 0) {
+                return -1;
+            }
+            if (value != TOMBSTONE && idHigh[value - 1] == high && idLow[value - 1] == low) {
+                return slot;
+            }
+        }
+    }
+
+    private void putSlot(int row) {
+        int mask = slots.length - 1;
+        int slot = hash(idHigh[row], idLow[row]) & mask;
+        while (slots[slot] > 0) {
+            slot = (slot + 1) & mask;
+        }
+        if (slots[slot] == 0) {
+            slotsUsed++;
+        }
+        slots[slot] = row + 1;
+    }
+
+    private void rebuildSlots() {
+        int live = rowCount - deadCount;
+        int capacity = INITIAL_SLOTS;
+        while (capacity < (live + 1) * 2L) {
+            capacity <<= 1;
+        }
+        slots = new int[capacity];
+        slotsUsed = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (!dead.get(row)) {
+                putSlot(row);
+            }
+        }
+    }
+
+    private static int hash(long high, long low) {
+        long h = (high ^ low) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    static void tokenize(CharSequence text, Consumer<String> target) {
+        StringBuilder term = new StringBuilder();
+        int length = text.length();
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (term.length() < MAX_TERM_LENGTH) {
+                    term.append(normalize(c));
+                }
+            } else if (term.length() > 0) {
+                target.accept(term.toString());
+                term.setLength(0);
+            }
+        }
+    }
+
+    private static char normalize(char c) {
+        char lower = Character.toLowerCase(c);
+        return lower == 'ё' ? 'е' : lower;
+    }
+
+    /**
+     * Разобранный поисковый запрос. Проверка одного описания
+     * без индекса нужна для операций, сохраненных после поиска.
+     */
+    public static final class Query {
+        private final List<List<Term>> clauses;
+
+        private Query(List<List<Term>> clauses) {
+            this.clauses = clauses;
+        }
+
+        public static Query parse(String text) {
+            List<List<Term>> clauses = new ArrayList<>();
+            List<Term> clause = new ArrayList<>();
+            String normalized = text == null ? "" : text.replace("|", " | ").trim();
+            for (String word : normalized.split("\\s+")) {
+                if (word.equals("|") || word.equals("OR") || word.equals("ИЛИ")) {
+                    if (!clause.isEmpty()) {
+                        clauses.add(clause);
+                        clause = new ArrayList<>();
+                    }
+                    continue;
+                }
+                List<String> parts = new ArrayList<>();
+                tokenize(word, parts::add);
+                boolean prefix = word.endsWith("*");
+                for (int i = 0; i < parts.size(); i++) {
+                    clause.add(new Term(parts.get(i), prefix && i == parts.size() - 1));
+                }
+            }
+            if (!clause.isEmpty()) {
+                clauses.add(clause);
+            }
+            return new Query(clauses);
+        }
+
+        public boolean isEmpty() {
+            return clauses.isEmpty();
+        }
+
+        public boolean matches(String description) {
+            if (clauses.isEmpty() || description == null) {
+                return false;
+            }
+            Set<String> words = new HashSet<>();
+            tokenize(description, words::add);
+            for (List<Term> clause : clauses) {
+                boolean all = true;
+                for (Term term : clause) {
+                    all &= term.matches(words);
+                }
+                if (all) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Term {
+        final String text;
+        final boolean prefix;
+
+        Term(String text, boolean prefix) {
+            this.text = text;
+            this.prefix = prefix;
+        }
+
+        boolean matches(Set<String> words) {
+            if (!prefix) {
+                return words.contains(text);
+            }
+            for (String word : words) {
+                if (word.startsWith(text)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Возрастающий список номеров строк.
+     */
+    private static final class Postings {
+        static final Postings EMPTY = new Postings(new int[0], 0);
+
+        int[] rows;
+        int size;
+
+        Postings() {
+            this(new int[4], 0);
+        }
+
+        Postings(int[] rows, int size) {
+            this.rows = rows;
+            this.size = size;
+        }
+
+        static Postings of(BitSet bits) {
+            int[] rows = new int[bits.cardinality()];
+            int count = 0;
+            for (int row = bits.nextSetBit(0); row >= 0; row = bits.nextSetBit(row + 1)) {
+                rows[count++] = row;
+            }
+            return new Postings(rows, count);
+        }
+
+        static Postings union(Collection<Postings> lists, int total) {
+            int[] rows = new int[total];
+            int count = 0;
+            for (Postings postings : lists) {
+                System.arraycopy(postings.rows, 0, rows, count, postings.size);
+                count += postings.size;
+            }
+            Arrays.sort(rows);
+            int unique = 0;
+            for (int i = 0; i < count; i++) {
+                if (unique == 0 || rows[unique - 1] != rows[i]) {
+                    rows[unique++] = rows[i];
+                }
+            }
+            return new Postings(rows, unique);
+        }
+
+        void add(int row) {
+            if (size > 0 && rows[size - 1] == row) {
+                return;
+            }
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size + (size >> 1) + 1);
+            }
+            rows[size++] = row;
+        }
+
+        void addTo(BitSet bits) {
+            for (int i = 0; i < size; i++) {
+                bits.set(rows[i]);
+            }
+        }
+
+        /**
+         * Пересечение с не более коротким списком: для каждого своего
+         * номера позиция в другом ищется галопом от предыдущей.
+         */
+        Postings intersect(Postings other) {
+            int[] found = new int[size];
+            int count = 0;
+            int from = 0;
+            for (int i = 0; i < size && from < other.size; i++) {
+                int position = gallop(other.rows, from, other.size, rows[i]);
+                if (position >= 0) {
+                    found[count++] = rows[i];
+                    from = position + 1;
+                } else {
+                    from = -position - 1;
+                }
+            }
+            return new Postings(found, count);
+        }
+
+        Postings retain(BitSet bits) {
+            int[] found = new int[size];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (bits.get(rows[i])) {
+                    found[count++] = rows[i];
+                }
+            }
+            return new Postings(found, count);
+        }
+
+        int renumber(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int row = renumbered[rows[i]];
+                if (row >= 0) {
+                    rows[kept++] = row;
+                }
+            }
+            size = kept;
+            if (rows.length > 16 && kept < rows.length / 4) {
+                rows = Arrays.copyOf(rows, kept + (kept >> 1) + 1);
+            }
+            return kept;
+        }
+
+        private static int gallop(int[] rows, int from, int to, int key) {
+            int bound = 1;
+            while (from + bound < to && rows[from + bound] < key) {
+                bound <<= 1;
+            }
+            return Arrays.binarySearch(rows, from + (bound >> 1), Math.min(from + bound + 1, to), key);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.tigerbank.repository;
+
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+public class HeapOperationStore implements OperationStore {
+    private final Map<UUID, Operation> operations = new HashMap<>();
+    private final OperationIndex index = new OperationIndex();
+
+    @Override
+    public void put(Operation operation) {
+        operations.put(operation.getId(), operation);
+        index.add(operation);
+    }
+
+    @Override
+    public Operation get(UUID id) {
+        return operations.get(id);
+    }
+
+    @Override
+    public boolean contains(UUID id) {
+        return operations.containsKey(id);
+    }
+
+    @Override
+    public boolean remove(UUID id) {
+        index.remove(id);
+        return operations.remove(id) != null;
+    }
+
+    @Override
+    public List<Operation> findAll() {
+        return new ArrayList<>(operations.values());
+    }
+
+    @Override
+    public List<Operation> findByAccount(UUID accountId) {
+        return index.findByAccount(accountId);
+    }
+
+    @Override
+    public List<Operation> findByCategory(UUID categoryId) {
+        return index.findByCategory(categoryId);
+    }
+
+    @Override
+    public List<Operation> findByType(OperationType type) {
+        return index.findByType(type);
+    }
+
+    @Override
+    public List<Operation> findByDateBetween(LocalDateTime start, LocalDateTime end) {
+        return index.findByDateBetween(start, end);
+    }
+
+    /**
+     * Поток идет прямо по корзинам индекса без копии, поэтому лимит
+     * запроса прекращает обход досрочно. Хранилище нельзя менять,
+     * пока поток не дочитан.
+     */
+    @Override
+    public Stream<Operation> candidates(QueryPlan.Access access, OperationQuery query) {
+        switch (access) {
+            case ACCOUNT:
+                return index.streamByAccount(query.getAccountId());
+            case CATEGORY:
+                return index.streamByCategory(query.getCategoryId());
+            case TYPE:
+                return index.streamByType(query.getType());
+            case DATE:
+                return index.streamByDateBetween(query.getStart(), query.getEnd());
+            default:
+                return operations.values().stream();
+        }
+    }
+
+    @Override
+    public int countByAccount(UUID accountId) {
+        return index.countByAccount(accountId);
+    }
+
+    @Override
+    public int countByCategory(UUID categoryId) {
+        return index.countByCategory(categoryId);
+    }
+
+    @Override
+    public int countByType(OperationType type) {
+        return index.countByType(type);
+    }
+
+    @Override
+    public int countByDateBetween(LocalDateTime start, LocalDateTime end, int limit) {
+        return index.countByDateBetween(start, end, limit);
+    }
+
+    @Override
+    public int size() {
+        return operations.size();
+    }
+
+    @Override
+    public void clear() {
+        operations.clear();
+        index.clear();
+    }
+}
\ No newline at end of file
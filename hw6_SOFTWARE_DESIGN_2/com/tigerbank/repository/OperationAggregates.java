@@ -0,0 +1,435 @@
+package com.tigerbank.repository;
+
+import com.tigerbank.domain.Money;
+import com.tigerbank.domain.MoneySum;
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Агрегаты операций, которые поддерживаются при каждом сохранении
+ * и удалении: итоги по (счет, тип), (категория, тип) и (день, тип),
+ * а также операции каждого дня, упорядоченные по убыванию суммы.
+ * Запросы за период проходят только по дневным корзинам периода;
+ * операции перебираются лишь в неполных крайних днях. Сумма по типу
+ * за период берётся из префиксных сумм по дням за O(log D).
+ */
+public class OperationAggregates implements RepositoryListener<Operation> {
+    private static final Comparator<Entry> LARGEST_FIRST = ((Comparator<Entry>) Entry::compareAmount).reversed()
+            .thenComparing(e -> e.id);
+
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final Map<UUID, Totals> byAccount = new HashMap<>();
+    private final Map<UUID, Totals> byCategory = new HashMap<>();
+    private final NavigableMap<LocalDate, DayBucket> byDay = new TreeMap<>();
+    private final Map<OperationType, DailyPrefixSums> prefixByType = new EnumMap<>(OperationType.class);
+
+    public OperationAggregates() {
+        for (OperationType type : OperationType.values()) {
+            prefixByType.put(type, new DailyPrefixSums());
+        }
+    }
+
+    public synchronized void load(Collection<Operation> operations) {
+        clearAll();
+        for (Operation operation : operations) {
+            add(new Entry(operation));
+        }
+    }
+
+    @Override
+    public synchronized void onSaved(Operation operation) {
+        Entry previous = entries.get(operation.getId());
+        if (previous != null) {
+            subtract(previous);
+        }
+        add(new Entry(operation));
+    }
+
+    @Override
+    public synchronized void onDeleted(UUID id) {
+        Entry previous = entries.get(id);
+        if (previous != null) {
+            subtract(previous);
+        }
+    }
+
+    @Override
+    public synchronized void onCleared() {
+        clearAll();
+    }
+
+    public synchronized BigDecimal getAccountTotal(UUID accountId, OperationType type) {
+        Totals totals = byAccount.get(accountId);
+        return totals == null ? BigDecimal.ZERO : totals.get(type);
+    }
+
+    public synchronized BigDecimal getCategoryTotal(UUID categoryId, OperationType type) {
+        Totals totals = byCategory.get(categoryId);
+        return totals == null ? BigDecimal.ZERO : totals.get(type);
+    }
+
+    public synchronized Map<UUID, BigDecimal> getCategoryTotals(OperationType type) {
+        Map<UUID, BigDecimal> result = new HashMap<>();
+        byCategory.forEach((categoryId, totals) -> {
+            if (totals.count(type) > 0) {
+                result.put(categoryId, totals.get(type));
+            }
+        });
+        return result;
+    }
+
+    public synchronized BigDecimal getTotal(OperationType type, LocalDateTime start, LocalDateTime end) {
+        if (type == null || start.isAfter(end)) {
+            return BigDecimal.ZERO;
+        }
+        LocalDate startDay = start.toLocalDate();
+        LocalDate endDay = end.toLocalDate();
+        if (startDay.equals(endDay)) {
+            return partialDayTotal(startDay, type, start, end);
+        }
+        boolean startPartial = start.isAfter(startDay.atStartOfDay());
+        boolean endPartial = end.isBefore(endDay.atTime(LocalTime.MAX));
+
+        BigDecimal total = prefixByType.get(type).sum(
+                startPartial ? startDay.plusDays(1) : startDay,
+                endPartial ? endDay.minusDays(1) : endDay);
+        if (startPartial) {
+            total = total.add(partialDayTotal(startDay, type, start, end));
+        }
+        if (endPartial) {
+            total = total.add(partialDayTotal(endDay, type, start, end));
+        }
+        return total;
+    }
+
+    private BigDecimal partialDayTotal(LocalDate day, OperationType type, LocalDateTime start, LocalDateTime end) {
+        MoneySum total = new MoneySum();
+        DayBucket bucket = byDay.get(day);
+        if (bucket != null) {
+            for (Entry entry : bucket.largest) {
+                if (entry.type == type && entry.isWithin(start, end)) {
+                    entry.addTo(total);
+                }
+            }
+        }
+        return total.toBigDecimal();
+    }
+
+    public synchronized Summary summarize(LocalDateTime start, LocalDateTime end, int topLimit) {
+        Summary summary = new Summary();
+        if (start.isAfter(end)) {
+            return summary;
+        }
+        PriorityQueue<Entry> top = new PriorityQueue<>(LARGEST_FIRST.reversed());
+        for (Map.Entry<LocalDate, DayBucket> day : byDay.subMap(
+                start.toLocalDate(), true, end.toLocalDate(), true).entrySet()) {
+            DayBucket bucket = day.getValue();
+            if (isFullDay(day.getKey(), start, end)) {
+                summary.totals.addAll(bucket.totals);
+                bucket.byAccount.forEach((id, totals) ->
+                        summary.byAccount.computeIfAbsent(id, k -> new Totals()).addAll(totals));
+                bucket.byCategory.forEach((id, totals) ->
+                        summary.byCategory.computeIfAbsent(id, k -> new Totals()).addAll(totals));
+                int taken = 0;
+                for (Entry entry : bucket.largest) {
+                    if (taken++ == topLimit) {
+                        break;
+                    }
+                    offer(top, entry, topLimit);
+                }
+            } else {
+                int taken = 0;
+                for (Entry entry : bucket.largest) {
+                    if (!entry.isWithin(start, end)) {
+                        continue;
+                    }
+                    summary.totals.add(entry);
+                    summary.byAccount.computeIfAbsent(entry.accountId, k -> new Totals()).add(entry);
+                    summary.byCategory.computeIfAbsent(entry.categoryId, k -> new Totals()).add(entry);
+                    if (taken++ < topLimit) {
+                        offer(top, entry, topLimit);
+                    }
+                }
+            }
+        }
+
+        List<Entry> largest = new ArrayList<>(top);
+        largest.sort(LARGEST_FIRST);
+        for (Entry entry : largest) {
+            summary.topOperationIds.add(entry.id);
+        }
+        return summary;
+    }
+
+    private static void offer(PriorityQueue<Entry> top, Entry entry, int limit) {
+        if (limit <= 0) {
+            return;
+        }
+        if (top.size() < limit) {
+            top.add(entry);
+        } else if (LARGEST_FIRST.compare(entry, top.peek()) < 0) {
+            top.poll();
+            top.add(entry);
+        }
+    }
+
+    private static boolean isFullDay(LocalDate day, LocalDateTime start, LocalDateTime end) {
+        return !day.atStartOfDay().isBefore(start) && !day.atTime(LocalTime.MAX).isAfter(end);
+    }
+
+    private void add(Entry entry) {
+        entries.put(entry.id, entry);
+        byAccount.computeIfAbsent(entry.accountId, k -> new Totals()).add(entry);
+        byCategory.computeIfAbsent(entry.categoryId, k -> new Totals()).add(entry);
+        if (entry.date != null) {
+            byDay.computeIfAbsent(entry.date.toLocalDate(), k -> new DayBucket()).add(entry);
+            if (entry.type != null) {
+                entry.addTo(prefixByType.get(entry.type), entry.date.toLocalDate());
+            }
+        }
+    }
+
+    private void subtract(Entry entry) {
+        entries.remove(entry.id);
+        subtract(byAccount, entry.accountId, entry);
+        subtract(byCategory, entry.categoryId, entry);
+        if (entry.date != null) {
+            LocalDate day = entry.date.toLocalDate();
+            DayBucket bucket = byDay.get(day);
+            if (bucket != null && bucket.remove(entry)) {
+                byDay.remove(day);
+            }
+            if (entry.type != null) {
+                entry.subtractFrom(prefixByType.get(entry.type), day);
+            }
+        }
+    }
+
+    private static void subtract(Map<UUID, Totals> index, UUID key, Entry entry) {
+        Totals totals = index.get(key);
+        if (totals != null && totals.subtract(entry)) {
+            index.remove(key);
+        }
+    }
+
+    private void clearAll() {
+        entries.clear();
+        byAccount.clear();
+        byCategory.clear();
+        byDay.clear();
+        prefixByType.values().forEach(DailyPrefixSums::clear);
+    }
+
+    public static class Summary {
+        private final Totals totals = new Totals();
+        private final Map<UUID, Totals> byAccount = new HashMap<>();
+        private final Map<UUID, Totals> byCategory = new HashMap<>();
+        private final List<UUID> topOperationIds = new ArrayList<>();
+
+        public BigDecimal getTotal(OperationType type) {
+            return totals.get(type);
+        }
+
+        public BigDecimal getAccountTotal(UUID accountId, OperationType type) {
+            Totals account = byAccount.get(accountId);
+            return account == null ? BigDecimal.ZERO : account.get(type);
+        }
+
+        public BigDecimal getCategoryTotal(UUID categoryId) {
+            Totals category = byCategory.get(categoryId);
+            return category == null ? BigDecimal.ZERO : category.sum();
+        }
+
+        public Map<UUID, BigDecimal> getCategoryTotals(OperationType type) {
+            Map<UUID, BigDecimal> result = new HashMap<>();
+            byCategory.forEach((categoryId, totals) -> {
+                if (totals.count(type) > 0) {
+                    result.put(categoryId, totals.get(type));
+                }
+            });
+            return result;
+        }
+
+        public List<UUID> getTopOperationIds() {
+            return Collections.unmodifiableList(topOperationIds);
+        }
+    }
+
+    private static class Totals {
+        private final MoneySum[] amounts = new MoneySum[OperationType.values().length];
+        private final int[] counts = new int[OperationType.values().length];
+
+        Totals() {
+            for (int i = 0; i < amounts.length; i++) {
+                amounts[i] = new MoneySum();
+            }
+        }
+
+        BigDecimal get(OperationType type) {
+            return type == null || counts[type.ordinal()] == 0
+                    ? BigDecimal.ZERO
+                    : amounts[type.ordinal()].toBigDecimal();
+        }
+
+        int count(OperationType type) {
+            return type == null ? 0 : counts[type.ordinal()];
+        }
+
+        BigDecimal sum() {
+            MoneySum sum = new MoneySum();
+            for (int i = 0; i < amounts.length; i++) {
+                if (counts[i] > 0) {
+                    sum.addAll(amounts[i]);
+                }
+            }
+            return sum.toBigDecimal();
+        }
+
+        void add(Entry entry) {
+            if (entry.type == null) {
+                return;
+            }
+            int i = entry.type.ordinal();
+            entry.addTo(amounts[i]);
+            counts[i]++;
+        }
+
+        void addAll(Totals other) {
+            for (int i = 0; i < amounts.length; i++) {
+                if (other.counts[i] > 0) {
+                    amounts[i].addAll(other.amounts[i]);
+                    counts[i] += other.counts[i];
+                }
+            }
+        }
+
+        boolean subtract(Entry entry) {
+            if (entry.type != null) {
+                int i = entry.type.ordinal();
+                counts[i]--;
+                if (counts[i] == 0) {
+                    amounts[i].clear();
+                } else {
+                    entry.subtractFrom(amounts[i]);
+                }
+            }
+            return isEmpty();
+        }
+
+        boolean isEmpty() {
+            for (int count : counts) {
+                if (count != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class DayBucket {
+        final Totals totals = new Totals();
+        final Map<UUID, Totals> byAccount = new HashMap<>();
+        final Map<UUID, Totals> byCategory = new HashMap<>();
+        final NavigableSet<Entry> largest = new TreeSet<>(LARGEST_FIRST);
+
+        void add(Entry entry) {
+            totals.add(entry);
+            byAccount.computeIfAbsent(entry.accountId, k -> new Totals()).add(entry);
+            byCategory.computeIfAbsent(entry.categoryId, k -> new Totals()).add(entry);
+            largest.add(entry);
+        }
+
+        boolean remove(Entry entry) {
+            totals.subtract(entry);
+            OperationAggregates.subtract(byAccount, entry.accountId, entry);
+            OperationAggregates.subtract(byCategory, entry.categoryId, entry);
+            largest.remove(entry);
+            return largest.isEmpty();
+        }
+    }
+
+    /**
+     * Сумма хранится в копейках; exact задан только для сумм,
+     * которые в них не помещаются.
+     */
+    private static class Entry {
+        final UUID id;
+        final OperationType type;
+        final UUID accountId;
+        final UUID categoryId;
+        final Money money;
+        final BigDecimal exact;
+        final LocalDateTime date;
+
+        Entry(Operation operation) {
+            this.id = operation.getId();
+            this.type = operation.getType();
+            this.accountId = operation.getBankAccountId();
+            this.categoryId = operation.getCategoryId();
+            this.money = operation.getMoney();
+            this.exact = money == null ? operation.getAmount() : null;
+            this.date = operation.getDate();
+        }
+
+        boolean isWithin(LocalDateTime start, LocalDateTime end) {
+            return !date.isBefore(start) && !date.isAfter(end);
+        }
+
+        int compareAmount(Entry other) {
+            if (exact == null && other.exact == null) {
+                return compareMoney(money, other.money);
+            }
+            return amount().compareTo(other.amount());
+        }
+
+        BigDecimal amount() {
+            if (exact != null) {
+                return exact;
+            }
+            return money != null ? money.toBigDecimal() : BigDecimal.ZERO;
+        }
+
+        void addTo(MoneySum sum) {
+            if (money != null) {
+                sum.add(money);
+            } else if (exact != null) {
+                sum.add(exact);
+            }
+        }
+
+        void subtractFrom(MoneySum sum) {
+            if (money != null) {
+                sum.subtract(money);
+            } else if (exact != null) {
+                sum.subtract(exact);
+            }
+        }
+
+        void addTo(DailyPrefixSums sums, LocalDate day) {
+            if (money != null) {
+                sums.add(day, money);
+            } else if (exact != null) {
+                sums.add(day, exact);
+            }
+        }
+
+        void subtractFrom(DailyPrefixSums sums, LocalDate day) {
+            if (money != null) {
+                sums.subtract(day, money);
+            } else if (exact != null) {
+                sums.add(day, exact.negate());
+            }
+        }
+
+        private static int compareMoney(Money left, Money right) {
+            long l = left == null ? 0 : left.getMinorUnits();
+            long r = right == null ? 0 : right.getMinorUnits();
+            return Long.compare(l, r);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,166 @@
+package com.tigerbank.repository;
+
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Вторичные индексы операций: по счету, категории, типу и дате.
+ * Ключи запоминаются при индексации, поэтому повторный save
+ * изменённого объекта корректно переносит его между корзинами.
+ */
+class OperationIndex {
+    private final Map<UUID, Map<UUID, Operation>> byAccount = new HashMap<>();
+    private final Map<UUID, Map<UUID, Operation>> byCategory = new HashMap<>();
+    private final Map<OperationType, Map<UUID, Operation>> byType = new EnumMap<>(OperationType.class);
+    private final NavigableMap<LocalDateTime, Map<UUID, Operation>> byDate = new TreeMap<>();
+    private final Map<UUID, IndexedKeys> indexedKeys = new HashMap<>();
+
+    void add(Operation operation) {
+        remove(operation.getId());
+
+        IndexedKeys keys = new IndexedKeys(operation);
+        put(byAccount, keys.accountId, operation);
+        put(byCategory, keys.categoryId, operation);
+        put(byType, keys.type, operation);
+        put(byDate, keys.date, operation);
+        indexedKeys.put(operation.getId(), keys);
+    }
+
+    void remove(UUID operationId) {
+        IndexedKeys keys = indexedKeys.remove(operationId);
+        if (keys == null) {
+            return;
+        }
+        evict(byAccount, keys.accountId, operationId);
+        evict(byCategory, keys.categoryId, operationId);
+        evict(byType, keys.type, operationId);
+        evict(byDate, keys.date, operationId);
+    }
+
+    List<Operation> findByAccount(UUID accountId) {
+        return snapshot(byAccount.get(accountId));
+    }
+
+    List<Operation> findByCategory(UUID categoryId) {
+        return snapshot(byCategory.get(categoryId));
+    }
+
+    List<Operation> findByType(OperationType type) {
+        return snapshot(byType.get(type));
+    }
+
+    Stream<Operation> streamByAccount(UUID accountId) {
+        return stream(byAccount.get(accountId));
+    }
+
+    Stream<Operation> streamByCategory(UUID categoryId) {
+        return stream(byCategory.get(categoryId));
+    }
+
+    Stream<Operation> streamByType(OperationType type) {
+        return stream(byType.get(type));
+    }
+
+    Stream<Operation> streamByDateBetween(LocalDateTime start, LocalDateTime end) {
+        if (start.isAfter(end)) {
+            return Stream.empty();
+        }
+        return byDate.subMap(start, true, end, true).values().stream()
+                .flatMap(bucket -> bucket.values().stream());
+    }
+
+    int countByAccount(UUID accountId) {
+        Map<UUID, Operation> bucket = byAccount.get(accountId);
+        return bucket == null ? 0 : bucket.size();
+    }
+
+    int countByCategory(UUID categoryId) {
+        Map<UUID, Operation> bucket = byCategory.get(categoryId);
+        return bucket == null ? 0 : bucket.size();
+    }
+
+    int countByType(OperationType type) {
+        Map<UUID, Operation> bucket = byType.get(type);
+        return bucket == null ? 0 : bucket.size();
+    }
+
+    /**
+     * Считает по корзинам дат и останавливается, дойдя до limit.
+     */
+    int countByDateBetween(LocalDateTime start, LocalDateTime end, int limit) {
+        if (start.isAfter(end)) {
+            return 0;
+        }
+        int count = 0;
+        for (Map<UUID, Operation> bucket : byDate.subMap(start, true, end, true).values()) {
+            count += bucket.size();
+            if (count >= limit) {
+                return limit;
+            }
+        }
+        return count;
+    }
+
+    List<Operation> findByDateBetween(LocalDateTime start, LocalDateTime end) {
+        List<Operation> result = new ArrayList<>();
+        if (start.isAfter(end)) {
+            return result;
+        }
+        for (Map<UUID, Operation> bucket : byDate.subMap(start, true, end, true).values()) {
+            result.addAll(bucket.values());
+        }
+        return result;
+    }
+
+    void clear() {
+        byAccount.clear();
+        byCategory.clear();
+        byType.clear();
+        byDate.clear();
+        indexedKeys.clear();
+    }
+
+    private static <K> void put(Map<K, Map<UUID, Operation>> index, K key, Operation operation) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new LinkedHashMap<>()).put(operation.getId(), operation);
+        }
+    }
+
+    private static <K> void evict(Map<K, Map<UUID, Operation>> index, K key, UUID operationId) {
+        if (key == null) {
+            return;
+        }
+        Map<UUID, Operation> bucket = index.get(key);
+        if (bucket != null) {
+            bucket.remove(operationId);
+            if (bucket.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static Stream<Operation> stream(Map<UUID, Operation> bucket) {
+        return bucket == null ? Stream.empty() : bucket.values().stream();
+    }
+
+    private static List<Operation> snapshot(Map<UUID, Operation> bucket) {
+        return bucket == null ? new ArrayList<>() : new ArrayList<>(bucket.values());
+    }
+
+    private static class IndexedKeys {
+        final UUID accountId;
+        final UUID categoryId;
+        final OperationType type;
+        final LocalDateTime date;
+
+        IndexedKeys(Operation operation) {
+            this.accountId = operation.getBankAccountId();
+            this.categoryId = operation.getCategoryId();
+            this.type = operation.getType();
+            this.date = operation.getDate();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,278 @@
+package com.tigerbank.repository;
+
+import com.tigerbank.domain.Money;
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Запрос к операциям: фильтры по счету, категории, типу, периоду,
+ * диапазону сумм и тексту описания, порядок и страница результата.
+ * Все фильтры необязательны и объединяются по И; границы периода
+ * и сумм включаются. Какой фильтр обслужит индекс, решает
+ * {@link OperationQueryPlanner}.
+ */
+public final class OperationQuery {
+    public enum Order {
+        NONE(null),
+        DATE_ASC(Comparator.comparing(Operation::getDate, Comparator.nullsFirst(Comparator.naturalOrder()))),
+        DATE_DESC(DATE_ASC.comparator.reversed()),
+        AMOUNT_ASC(Comparator.comparing(Operation::getAmount, Comparator.nullsFirst(Comparator.naturalOrder()))),
+        AMOUNT_DESC(AMOUNT_ASC.comparator.reversed());
+
+        private final Comparator<Operation> comparator;
+
+        Order(Comparator<Operation> comparator) {
+            this.comparator = comparator == null ? null : comparator.thenComparing(Operation::getId);
+        }
+
+        public Comparator<Operation> comparator() {
+            return comparator;
+        }
+    }
+
+    private final UUID accountId;
+    private final UUID categoryId;
+    private final OperationType type;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final BigDecimal minAmount;
+    private final BigDecimal maxAmount;
+    private final Money minMoney;
+    private final Money maxMoney;
+    private final String text;
+    private final Order order;
+    private final int offset;
+    private final int limit;
+
+    private OperationQuery(Builder builder) {
+        this.accountId = builder.accountId;
+        this.categoryId = builder.categoryId;
+        this.type = builder.type;
+        this.start = builder.start;
+        this.end = builder.end;
+        this.minAmount = builder.minAmount;
+        this.maxAmount = builder.maxAmount;
+        this.minMoney = minAmount != null && Money.isRepresentable(minAmount) ? Money.of(minAmount) : null;
+        this.maxMoney = maxAmount != null && Money.isRepresentable(maxAmount) ? Money.of(maxAmount) : null;
+        this.text = builder.text == null || builder.text.isEmpty() ? null : builder.text;
+        this.order = builder.order;
+        this.offset = builder.offset;
+        this.limit = builder.limit;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public UUID getAccountId() {
+        return accountId;
+    }
+
+    public UUID getCategoryId() {
+        return categoryId;
+    }
+
+    public OperationType getType() {
+        return type;
+    }
+
+    public boolean hasDateRange() {
+        return start != null || end != null;
+    }
+
+    public LocalDateTime getStart() {
+        return start != null ? start : LocalDateTime.MIN;
+    }
+
+    public LocalDateTime getEnd() {
+        return end != null ? end : LocalDateTime.MAX;
+    }
+
+    public BigDecimal getMinAmount() {
+        return minAmount;
+    }
+
+    public BigDecimal getMaxAmount() {
+        return maxAmount;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Наибольшее число операций в результате, -1 без ограничения.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    public boolean matches(Operation operation) {
+        return matches(operation, null);
+    }
+
+    /**
+     * Проверка всех фильтров, кроме того, что уже выполнил индекс.
+     */
+    boolean matches(Operation operation, QueryPlan.Access served) {
+        if (accountId != null && served != QueryPlan.Access.ACCOUNT
+                && !accountId.equals(operation.getBankAccountId())) {
+            return false;
+        }
+        if (categoryId != null && served != QueryPlan.Access.CATEGORY
+                && !categoryId.equals(operation.getCategoryId())) {
+            return false;
+        }
+        if (type != null && served != QueryPlan.Access.TYPE && type != operation.getType()) {
+            return false;
+        }
+        if (hasDateRange() && served != QueryPlan.Access.DATE) {
+            LocalDateTime date = operation.getDate();
+            if (date == null || date.isBefore(getStart()) || date.isAfter(getEnd())) {
+                return false;
+            }
+        }
+        if ((minAmount != null || maxAmount != null) && !amountMatches(operation)) {
+            return false;
+        }
+        return text == null || containsText(operation.getDescription());
+    }
+
+    private boolean amountMatches(Operation operation) {
+        Money money = operation.getMoney();
+        if (money != null && (minAmount == null || minMoney != null) && (maxAmount == null || maxMoney != null)) {
+            return (minMoney == null || money.compareTo(minMoney) >= 0)
+                    && (maxMoney == null || money.compareTo(maxMoney) <= 0);
+        }
+        BigDecimal amount = operation.getAmount();
+        return amount != null
+                && (minAmount == null || amount.compareTo(minAmount) >= 0)
+                && (maxAmount == null || amount.compareTo(maxAmount) <= 0);
+    }
+
+    /**
+     * Подстрока без учета регистра, без копирования описания.
+     */
+    private boolean containsText(String description) {
+        if (description == null) {
+            return false;
+        }
+        int last = description.length() - text.length();
+        for (int i = 0; i <= last; i++) {
+            if (description.regionMatches(true, i, text, 0, text.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static final class Builder {
+        private UUID accountId;
+        private UUID categoryId;
+        private OperationType type;
+        private LocalDateTime start;
+        private LocalDateTime end;
+        private BigDecimal minAmount;
+        private BigDecimal maxAmount;
+        private String text;
+        private Order order = Order.NONE;
+        private int offset;
+        private int limit = -1;
+
+        private Builder() {
+        }
+
+        public Builder account(UUID accountId) {
+            this.accountId = accountId;
+            return this;
+        }
+
+        public Builder category(UUID categoryId) {
+            this.categoryId = categoryId;
+            return this;
+        }
+
+        public Builder type(OperationType type) {
+            this.type = type;
+            return this;
+        }
+
+        public Builder between(LocalDateTime start, LocalDateTime end) {
+            this.start = start;
+            this.end = end;
+            return this;
+        }
+
+        public Builder from(LocalDateTime start) {
+            this.start = start;
+            return this;
+        }
+
+        public Builder until(LocalDateTime end) {
+            this.end = end;
+            return this;
+        }
+
+        public Builder amountBetween(BigDecimal min, BigDecimal max) {
+            this.minAmount = min;
+            this.maxAmount = max;
+            return this;
+        }
+
+        public Builder amountAtLeast(BigDecimal min) {
+            this.minAmount = min;
+            return this;
+        }
+
+        public Builder amountAtMost(BigDecimal max) {
+            this.maxAmount = max;
+            return this;
+        }
+
+        /**
+         * Описание содержит текст без учета регистра.
+         */
+        public Builder descriptionContains(String text) {
+            this.text = text;
+            return this;
+        }
+
+        public Builder orderBy(Order order) {
+            this.order = order != null ? order : Order.NONE;
+            return this;
+        }
+
+        public Builder offset(int offset) {
+            if (offset < 0) {
+                throw new IllegalArgumentException("Смещение не может быть отрицательным");
+            }
+            this.offset = offset;
+            return this;
+        }
+
+        public Builder limit(int limit) {
+            if (limit < 0) {
+                throw new IllegalArgumentException("Лимит не может быть отрицательным");
+            }
+            this.limit = limit;
+            return this;
+        }
+
+        public OperationQuery build() {
+            return new OperationQuery(this);
+        }
+    }
+}
\ No newline at end of file
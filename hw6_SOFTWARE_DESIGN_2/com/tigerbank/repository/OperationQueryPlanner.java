@@ -0,0 +1,58 @@
+package com.tigerbank.repository;
+
+import com.tigerbank.domain.Operation;
+
+import java.util.stream.Stream;
+
+/**
+ * Планировщик запросов по индексам хранилища. Для каждого фильтра,
+ * который может обслужить индекс, берется число подходящих операций;
+ * выбирается самый селективный индекс, остальные фильтры проверяются
+ * на его выборке. Число операций за период считается только до лучшей
+ * уже найденной оценки, поэтому широкий период дешев для оценки.
+ */
+final class OperationQueryPlanner {
+
+    private OperationQueryPlanner() {
+    }
+
+    static QueryPlan plan(OperationStore store, OperationQuery query) {
+        QueryPlan.Access best = QueryPlan.Access.SCAN;
+        int bestRows = store.size();
+        if (query.getAccountId() != null) {
+            int rows = store.countByAccount(query.getAccountId());
+            if (rows < bestRows) {
+                best = QueryPlan.Access.ACCOUNT;
+                bestRows = rows;
+            }
+        }
+        if (query.getCategoryId() != null) {
+            int rows = store.countByCategory(query.getCategoryId());
+            if (rows < bestRows) {
+                best = QueryPlan.Access.CATEGORY;
+                bestRows = rows;
+            }
+        }
+        if (query.getType() != null) {
+            int rows = store.countByType(query.getType());
+            if (rows < bestRows) {
+                best = QueryPlan.Access.TYPE;
+                bestRows = rows;
+            }
+        }
+        if (query.hasDateRange() && bestRows > 0) {
+            int rows = store.countByDateBetween(query.getStart(), query.getEnd(), bestRows);
+            if (rows < bestRows) {
+                best = QueryPlan.Access.DATE;
+                bestRows = rows;
+            }
+        }
+        return new QueryPlan(best, bestRows);
+    }
+
+    static Stream<Operation> select(OperationStore store, OperationQuery query) {
+        QueryPlan plan = plan(store, query);
+        return store.candidates(plan.getAccess(), query)
+                .filter(operation -> query.matches(operation, plan.getAccess()));
+    }
+}
\ No newline at end of file
@@ -1,22 +1,32 @@
 package com.tigerbank.repository;
 
-import com.tigerbank.domain.BankAccount;
-import com.tigerbank.domain.Category;
 import com.tigerbank.domain.Operation;
 import com.tigerbank.enums.OperationType;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class OperationRepository implements Repository<Operation> {
-    private final Map<UUID, Operation> operations = new HashMap<>();
+    private final OperationStore store;
+    private final RepositoryListeners<Operation> listeners = new RepositoryListeners<>();
     private final BankAccountRepository accountRepository;
     private final CategoryRepository categoryRepository;
+    private OperationAggregates aggregates;
+    private DescriptionIndex descriptionIndex;
 
     public OperationRepository(BankAccountRepository accountRepository,
             CategoryRepository categoryRepository) {
+        this(accountRepository, categoryRepository, new HeapOperationStore());
+    }
+
+    public OperationRepository(BankAccountRepository accountRepository,
+            CategoryRepository categoryRepository,
+            OperationStore store) {
         this.accountRepository = accountRepository;
         this.categoryRepository = categoryRepository;
+        this.store = store;
     }
 
     @Override
@@ -30,13 +40,19 @@ public class OperationRepository implements Repository<Operation> {
                     .ifPresent(operation::setCategory);
         }
 
-        operations.put(operation.getId(), operation);
+        boolean existed = store.contains(operation.getId());
+        store.put(operation);
+        if (existed) {
+            listeners.fireUpdated(operation);
+        } else {
+            listeners.fireSaved(operation);
+        }
         return operation;
     }
 
     @Override
     public Optional<Operation> findById(UUID id) {
-        Operation operation = operations.get(id);
+        Operation operation = store.get(id);
         if (operation != null) {
 
             if (operation.getBankAccountId() != null) {
@@ -51,9 +67,13 @@ public class OperationRepository implements Repository<Operation> {
         return Optional.ofNullable(operation);
     }
 
+    public boolean existsById(UUID id) {
+        return store.get(id) != null;
+    }
+
     @Override
     public List<Operation> findAll() {
-        List<Operation> allOperations = new ArrayList<>(operations.values());
+        List<Operation> allOperations = store.findAll();
         for (Operation op : allOperations) {
             if (op.getBankAccountId() != null) {
                 accountRepository.findById(op.getBankAccountId())
@@ -67,37 +87,155 @@ public class OperationRepository implements Repository<Operation> {
         return allOperations;
     }
 
+    /**
+     * Обход всех операций без подстановки счета и категории.
+     */
+    public void forEach(Consumer<Operation> action) {
+        store.findAll().forEach(action);
+    }
+
     @Override
     public boolean delete(UUID id) {
-        return operations.remove(id) != null;
+        boolean removed = store.remove(id);
+        if (removed) {
+            listeners.fireDeleted(id);
+        }
+        return removed;
+    }
+
+    /**
+     * Операции с указанными id в том же порядке; отсутствующие пропускаются.
+     */
+    public List<Operation> findAllById(Collection<UUID> ids) {
+        List<Operation> found = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            Operation operation = store.get(id);
+            if (operation != null) {
+                found.add(operation);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Поиск по словам описания через DescriptionIndex, там же описан
+     * синтаксис запроса. Операции идут в порядке добавления в индекс.
+     */
+    public List<Operation> search(String query, int limit) {
+        return findAllById(getDescriptionIndex().search(query, limit));
     }
 
     public List<Operation> findByBankAccountId(UUID accountId) {
-        return operations.values().stream()
-                .filter(op -> accountId.equals(op.getBankAccountId()))
-                .collect(Collectors.toList());
+        return store.findByAccount(accountId);
     }
 
     public List<Operation> findByCategoryId(UUID categoryId) {
-        return operations.values().stream()
-                .filter(op -> categoryId.equals(op.getCategoryId()))
-                .collect(Collectors.toList());
+        return store.findByCategory(categoryId);
     }
 
     public List<Operation> findByDateBetween(LocalDateTime start, LocalDateTime end) {
-        return operations.values().stream()
-                .filter(op -> !op.getDate().isBefore(start) && !op.getDate().isAfter(end))
-                .collect(Collectors.toList());
+        return store.findByDateBetween(start, end);
     }
 
     public List<Operation> findByType(OperationType type) {
-        return operations.values().stream()
-                .filter(op -> op.getType() == type)
-                .collect(Collectors.toList());
+        return store.findByType(type);
+    }
+
+    /**
+     * Операции по запросу. Результат собирается до возврата: ленивый
+     * поток хранилища идет прямо по корзинам индексов, и чтение после
+     * изменения репозитория привело бы к ConcurrentModificationException.
+     */
+    public Stream<Operation> stream(OperationQuery query) {
+        return find(query).stream();
+    }
+
+    public List<Operation> find(OperationQuery query) {
+        return select(query).collect(Collectors.toList());
+    }
+
+    /**
+     * Фильтры выполняет хранилище по плану, затем применяются порядок
+     * и страница. Без сортировки поток ленивый, и лимит прекращает
+     * выборку досрочно; при сортировке с лимитом хранятся только
+     * offset + limit первых операций. Поток читает живые индексы,
+     * поэтому его нужно дочитать до следующего изменения.
+     */
+    Stream<Operation> select(OperationQuery query) {
+        Stream<Operation> matches = store.select(query);
+        Comparator<Operation> order = query.getOrder().comparator();
+        if (order == null) {
+            matches = matches.skip(query.getOffset());
+            return query.getLimit() >= 0 ? matches.limit(query.getLimit()) : matches;
+        }
+        if (query.getLimit() < 0) {
+            return matches.sorted(order).skip(query.getOffset());
+        }
+
+        long kept = Math.min((long) query.getOffset() + query.getLimit(), Integer.MAX_VALUE);
+        if (kept == 0) {
+            matches.close();
+            return Stream.empty();
+        }
+        PriorityQueue<Operation> first = new PriorityQueue<>(order.reversed());
+        matches.forEach(operation -> {
+            if (first.size() < kept) {
+                first.add(operation);
+            } else if (order.compare(operation, first.peek()) < 0) {
+                first.poll();
+                first.add(operation);
+            }
+        });
+        List<Operation> sorted = new ArrayList<>(first);
+        sorted.sort(order);
+        return sorted.stream().skip(query.getOffset());
+    }
+
+    public QueryPlan explain(OperationQuery query) {
+        return store.explain(query);
+    }
+
+    public int countByBankAccountId(UUID accountId) {
+        return store.countByAccount(accountId);
+    }
+
+    public int countByCategoryId(UUID categoryId) {
+        return store.countByCategory(categoryId);
+    }
+
+    public int count() {
+        return store.size();
     }
 
     @Override
     public void clear() {
-        operations.clear();
+        store.clear();
+        listeners.fireCleared();
+    }
+
+    public synchronized OperationAggregates getAggregates() {
+        if (aggregates == null) {
+            aggregates = new OperationAggregates();
+            aggregates.load(store.findAll());
+            listeners.add(aggregates);
+        }
+        return aggregates;
+    }
+
+    public synchronized DescriptionIndex getDescriptionIndex() {
+        if (descriptionIndex == null) {
+            descriptionIndex = new DescriptionIndex();
+            descriptionIndex.load(store.findAll());
+            listeners.add(descriptionIndex);
+        }
+        return descriptionIndex;
+    }
+
+    public void addListener(RepositoryListener<Operation> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(RepositoryListener<Operation> listener) {
+        listeners.remove(listener);
     }
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.tigerbank.repository;
+
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface OperationStore {
+    void put(Operation operation);
+
+    Operation get(UUID id);
+
+    default boolean contains(UUID id) {
+        return get(id) != null;
+    }
+
+    boolean remove(UUID id);
+
+    List<Operation> findAll();
+
+    List<Operation> findByAccount(UUID accountId);
+
+    List<Operation> findByCategory(UUID categoryId);
+
+    List<Operation> findByType(OperationType type);
+
+    List<Operation> findByDateBetween(LocalDateTime start, LocalDateTime end);
+
+    int countByAccount(UUID accountId);
+
+    int countByCategory(UUID categoryId);
+
+    int countByType(OperationType type);
+
+    /**
+     * Число операций за период, но не больше limit.
+     */
+    int countByDateBetween(LocalDateTime start, LocalDateTime end, int limit);
+
+    /**
+     * Операции под фильтры запроса в порядке хранения, без сортировки
+     * и страниц. По умолчанию доступ выбирает планировщик по индексам.
+     */
+    default Stream<Operation> select(OperationQuery query) {
+        return OperationQueryPlanner.select(this, query);
+    }
+
+    /**
+     * Операции, которые отдает выбранный планом индекс. По умолчанию
+     * это копия из соответствующего findBy.
+     */
+    default Stream<Operation> candidates(QueryPlan.Access access, OperationQuery query) {
+        switch (access) {
+            case ACCOUNT:
+                return findByAccount(query.getAccountId()).stream();
+            case CATEGORY:
+                return findByCategory(query.getCategoryId()).stream();
+            case TYPE:
+                return findByType(query.getType()).stream();
+            case DATE:
+                return findByDateBetween(query.getStart(), query.getEnd()).stream();
+            default:
+                return findAll().stream();
+        }
+    }
+
+    default QueryPlan explain(OperationQuery query) {
+        return OperationQueryPlanner.plan(this, query);
+    }
+
+    int size();
+
+    void clear();
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.tigerbank.repository;
+
+/**
+ * Выбранный планировщиком способ доступа и оценка числа операций,
+ * которые он вернет до проверки остальных фильтров.
+ */
+public final class QueryPlan {
+    public enum Access {
+        ACCOUNT, CATEGORY, TYPE, DATE, SCAN
+    }
+
+    private final Access access;
+    private final int estimatedRows;
+
+    QueryPlan(Access access, int estimatedRows) {
+        this.access = access;
+        this.estimatedRows = estimatedRows;
+    }
+
+    public Access getAccess() {
+        return access;
+    }
+
+    public int getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    @Override
+    public String toString() {
+        return access + " (~" + estimatedRows + ")";
+    }
+}
\ No newline at end of file
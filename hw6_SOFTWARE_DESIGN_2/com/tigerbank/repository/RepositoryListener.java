@@ -0,0 +1,19 @@
+package com.tigerbank.repository;
+
+import java.util.UUID;
+
+public interface RepositoryListener<T> {
+    void onSaved(T entity);
+
+    /**
+     * Повторное сохранение сущности, которая уже есть в репозитории.
+     * Вызывают его только репозитории, различающие эти случаи.
+     */
+    default void onUpdated(T entity) {
+        onSaved(entity);
+    }
+
+    void onDeleted(UUID id);
+
+    void onCleared();
+}
\ No newline at end of file
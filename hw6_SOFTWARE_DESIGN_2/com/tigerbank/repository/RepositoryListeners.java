@@ -0,0 +1,41 @@
+package com.tigerbank.repository;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+class RepositoryListeners<T> {
+    private final List<RepositoryListener<T>> listeners = new CopyOnWriteArrayList<>();
+
+    void add(RepositoryListener<T> listener) {
+        listeners.add(listener);
+    }
+
+    void remove(RepositoryListener<T> listener) {
+        listeners.remove(listener);
+    }
+
+    void fireSaved(T entity) {
+        for (RepositoryListener<T> listener : listeners) {
+            listener.onSaved(entity);
+        }
+    }
+
+    void fireUpdated(T entity) {
+        for (RepositoryListener<T> listener : listeners) {
+            listener.onUpdated(entity);
+        }
+    }
+
+    void fireDeleted(UUID id) {
+        for (RepositoryListener<T> listener : listeners) {
+            listener.onDeleted(id);
+        }
+    }
+
+    void fireCleared() {
+        for (RepositoryListener<T> listener : listeners) {
+            listener.onCleared();
+        }
+    }
+}
\ No newline at end of file
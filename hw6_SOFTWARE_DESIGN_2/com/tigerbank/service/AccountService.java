@@ -1,11 +1,14 @@
 package com.tigerbank.service;
 
 import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Money;
+import com.tigerbank.domain.MoneySum;
 import com.tigerbank.domain.factory.DomainFactory;
 import com.tigerbank.domain.factory.DomainFactoryImpl;
 import com.tigerbank.enums.OperationType;
 import com.tigerbank.repository.BankAccountRepository;
 import com.tigerbank.repository.OperationRepository;
+import com.tigerbank.repository.RepositoryListener;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -19,9 +22,15 @@ public class AccountService {
 
     public AccountService(BankAccountRepository accountRepository,
             OperationRepository operationRepository) {
+        this(accountRepository, operationRepository, new DomainFactoryImpl());
+    }
+
+    public AccountService(BankAccountRepository accountRepository,
+            OperationRepository operationRepository,
+            DomainFactory domainFactory) {
         this.accountRepository = accountRepository;
         this.operationRepository = operationRepository;
-        this.domainFactory = new DomainFactoryImpl();
+        this.domainFactory = domainFactory;
     }
 
     public BankAccount createAccount(String name) {
@@ -42,19 +51,45 @@ public class AccountService {
         return accountRepository.findAll();
     }
 
+    public int getAccountCount() {
+        return accountRepository.count();
+    }
+
+    public void addListener(RepositoryListener<BankAccount> listener) {
+        accountRepository.addListener(listener);
+    }
+
+    public void removeListener(RepositoryListener<BankAccount> listener) {
+        accountRepository.removeListener(listener);
+    }
+
     public boolean deleteAccount(UUID id) {
         return accountRepository.delete(id);
     }
 
     public void updateAccountBalance(UUID accountId, BigDecimal amount, OperationType type) {
-        Optional<BankAccount> accountOpt = accountRepository.findById(accountId);
-        if (accountOpt.isPresent()) {
-            BankAccount account = accountOpt.get();
-            BigDecimal newBalance = type == OperationType.INCOME
-                    ? account.getBalance().add(amount)
-                    : account.getBalance().subtract(amount);
-            account.setBalance(newBalance);
-            accountRepository.save(account);
+        if (Money.isRepresentable(amount)) {
+            updateAccountBalance(accountId, Money.of(amount), type);
+            return;
+        }
+        accountRepository.updateBalance(accountId, balance -> type == OperationType.INCOME
+                ? balance.add(amount)
+                : balance.subtract(amount));
+    }
+
+    public void updateAccountBalance(UUID accountId, Money amount, OperationType type) {
+        accountRepository.updateBalance(accountId, amount, type);
+    }
+
+    /**
+     * Проводит накопленное изменение баланса одним обновлением.
+     */
+    public void updateAccountBalance(UUID accountId, MoneySum delta) {
+        Money money = delta.toMoney();
+        if (money != null) {
+            updateAccountBalance(accountId, money, OperationType.INCOME);
+        } else {
+            updateAccountBalance(accountId, delta.toBigDecimal(), OperationType.INCOME);
         }
     }
 
@@ -0,0 +1,176 @@
+package com.tigerbank.service;
+
+import com.tigerbank.domain.Money;
+import com.tigerbank.domain.MoneySum;
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * Однопроходный подсчёт аналитики по набору операций: доходы и расходы,
+ * суммы по категориям, баланс по счетам и крупнейшие операции.
+ * Частичные результаты независимы и сливаются, поэтому коллектор
+ * работает и на параллельном потоке. Суммы копятся в MoneySum
+ * в копейках, BigDecimal используется только при переполнении
+ * или более мелких долях.
+ */
+public final class AnalyticsEngine {
+    private static final int PARALLEL_THRESHOLD = 10_000;
+    private static final OperationType[] TYPES = OperationType.values();
+    private static final Comparator<Operation> BY_AMOUNT = AnalyticsEngine::compareAmounts;
+
+    private AnalyticsEngine() {
+    }
+
+    public static Result analyze(Collection<Operation> operations, int topLimit) {
+        return stream(operations).collect(collector(topLimit));
+    }
+
+    public static Result analyze(Collection<Operation> operations,
+            LocalDateTime start, LocalDateTime end, int topLimit) {
+        return stream(operations)
+                .filter(op -> op.getDate() != null && !op.getDate().isBefore(start) && !op.getDate().isAfter(end))
+                .collect(collector(topLimit));
+    }
+
+    public static Collector<Operation, ?, Result> collector(int topLimit) {
+        return Collector.of(
+                () -> new Partial(topLimit),
+                Partial::accept,
+                Partial::combine,
+                Partial::finish);
+    }
+
+    private static Stream<Operation> stream(Collection<Operation> operations) {
+        return operations.size() >= PARALLEL_THRESHOLD ? operations.parallelStream() : operations.stream();
+    }
+
+    private static int compareAmounts(Operation left, Operation right) {
+        Money leftMoney = left.getMoney();
+        Money rightMoney = right.getMoney();
+        if (leftMoney != null && rightMoney != null) {
+            return leftMoney.compareTo(rightMoney);
+        }
+        return left.getAmount().compareTo(right.getAmount());
+    }
+
+    public static class Result {
+        private final BigDecimal[] totals;
+        private final List<Map<UUID, BigDecimal>> categoryTotals;
+        private final Map<UUID, BigDecimal> accountBalances;
+        private final List<Operation> topOperations;
+
+        private Result(BigDecimal[] totals, List<Map<UUID, BigDecimal>> categoryTotals,
+                Map<UUID, BigDecimal> accountBalances, List<Operation> topOperations) {
+            this.totals = totals;
+            this.categoryTotals = categoryTotals;
+            this.accountBalances = accountBalances;
+            this.topOperations = topOperations;
+        }
+
+        public BigDecimal getTotal(OperationType type) {
+            return totals[type.ordinal()];
+        }
+
+        public Map<UUID, BigDecimal> getCategoryTotals(OperationType type) {
+            return categoryTotals.get(type.ordinal());
+        }
+
+        public Map<UUID, BigDecimal> getAccountBalances() {
+            return accountBalances;
+        }
+
+        public List<Operation> getTopOperations() {
+            return topOperations;
+        }
+    }
+
+    private static class Partial {
+        final int topLimit;
+        final MoneySum[] totals = new MoneySum[TYPES.length];
+        final List<Map<UUID, MoneySum>> byCategory = new ArrayList<>(TYPES.length);
+        final Map<UUID, MoneySum> byAccount = new HashMap<>();
+        final PriorityQueue<Operation> top;
+
+        Partial(int topLimit) {
+            this.topLimit = topLimit;
+            this.top = new PriorityQueue<>(Math.max(1, topLimit), BY_AMOUNT);
+            for (int i = 0; i < TYPES.length; i++) {
+                totals[i] = new MoneySum();
+                byCategory.add(new HashMap<>());
+            }
+        }
+
+        void accept(Operation operation) {
+            OperationType type = operation.getType();
+            if (type == null || operation.getMoney() == null && operation.getAmount() == null) {
+                return;
+            }
+            int i = type.ordinal();
+            totals[i].add(operation);
+            byCategory.get(i).computeIfAbsent(operation.getCategoryId(), k -> new MoneySum()).add(operation);
+            MoneySum balance = byAccount.computeIfAbsent(operation.getBankAccountId(), k -> new MoneySum());
+            if (type == OperationType.INCOME) {
+                balance.add(operation);
+            } else {
+                balance.subtract(operation);
+            }
+            offer(operation);
+        }
+
+        Partial combine(Partial other) {
+            for (int i = 0; i < TYPES.length; i++) {
+                totals[i].addAll(other.totals[i]);
+                merge(byCategory.get(i), other.byCategory.get(i));
+            }
+            merge(byAccount, other.byAccount);
+            for (Operation operation : other.top) {
+                offer(operation);
+            }
+            return this;
+        }
+
+        Result finish() {
+            BigDecimal[] resultTotals = new BigDecimal[TYPES.length];
+            List<Map<UUID, BigDecimal>> resultCategories = new ArrayList<>(TYPES.length);
+            for (int i = 0; i < TYPES.length; i++) {
+                resultTotals[i] = totals[i].toBigDecimal();
+                resultCategories.add(values(byCategory.get(i)));
+            }
+            List<Operation> largest = new ArrayList<>(top);
+            largest.sort(BY_AMOUNT.reversed());
+            return new Result(resultTotals, resultCategories, values(byAccount), largest);
+        }
+
+        private void offer(Operation operation) {
+            if (topLimit <= 0) {
+                return;
+            }
+            if (top.size() < topLimit) {
+                top.add(operation);
+            } else if (compareAmounts(operation, top.peek()) > 0) {
+                top.poll();
+                top.add(operation);
+            }
+        }
+
+        private static void merge(Map<UUID, MoneySum> target, Map<UUID, MoneySum> source) {
+            source.forEach((key, sum) -> {
+                MoneySum existing = target.putIfAbsent(key, sum);
+                if (existing != null) {
+                    existing.addAll(sum);
+                }
+            });
+        }
+
+        private static Map<UUID, BigDecimal> values(Map<UUID, MoneySum> sums) {
+            Map<UUID, BigDecimal> result = new HashMap<>();
+            sums.forEach((key, sum) -> result.put(key, sum.toBigDecimal()));
+            return result;
+        }
+    }
+}
\ No newline at end of file
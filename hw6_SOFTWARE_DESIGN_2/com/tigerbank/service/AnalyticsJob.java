@@ -0,0 +1,92 @@
+package com.tigerbank.service;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * Задача аналитики, выполняемая в пуле AnalyticsJobService.
+ * Вычисление сообщает прогресс (0-100) и периодически вызывает
+ * checkCancelled(), чтобы отмена прерывала его как можно раньше.
+ */
+public class AnalyticsJob<T> {
+    private final String name;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private final boolean cached;
+    private volatile int progress;
+    private volatile Future<?> execution;
+
+    AnalyticsJob(String name, boolean cached) {
+        this.name = name;
+        this.cached = cached;
+    }
+
+    static <T> AnalyticsJob<T> completed(String name, T value) {
+        AnalyticsJob<T> job = new AnalyticsJob<>(name, true);
+        job.progress = 100;
+        job.result.complete(value);
+        return job;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CompletableFuture<T> getResult() {
+        return result;
+    }
+
+    /**
+     * true, если результат взят из кэша без нового вычисления.
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    public int getProgress() {
+        return progress;
+    }
+
+    public void setProgress(int progress) {
+        this.progress = Math.max(0, Math.min(100, progress));
+    }
+
+    public void cancel() {
+        if (result.cancel(false)) {
+            Future<?> running = execution;
+            if (running != null) {
+                running.cancel(true);
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return result.isCancelled();
+    }
+
+    public void checkCancelled() {
+        if (result.isCancelled() || Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Задача отменена: " + name);
+        }
+    }
+
+    void setExecution(Future<?> execution) {
+        this.execution = execution;
+        if (result.isCancelled()) {
+            execution.cancel(true);
+        }
+    }
+
+    void run(AnalyticsJobService.AnalyticsTask<T> task) {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            T value = task.compute(this);
+            progress = 100;
+            result.complete(value);
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        }
+    }
+}
\ No newline at end of file
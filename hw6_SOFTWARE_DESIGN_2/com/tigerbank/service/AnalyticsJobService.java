@@ -0,0 +1,161 @@
+package com.tigerbank.service;
+
+import com.tigerbank.di.Singleton;
+import com.tigerbank.repository.RepositoryListener;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Выполняет отчеты аналитики в отдельном пуле потоков, чтобы не занимать
+ * EDT. Результаты кэшируются по ключу (вид отчета, период, версия данных):
+ * версия увеличивается при любом изменении счетов, категорий и операций,
+ * поэтому повторный запрос без новых данных возвращается сразу, а после
+ * изменений пересчитывается. Одинаковые запросы, пришедшие во время
+ * вычисления, получают ту же задачу.
+ */
+@Singleton
+public class AnalyticsJobService {
+
+    public interface AnalyticsTask<T> {
+        T compute(AnalyticsJob<T> job);
+    }
+
+    private final ExecutorService pool;
+    private final AtomicLong dataVersion = new AtomicLong();
+    private final Map<CacheKey, AnalyticsJob<?>> cache = new ConcurrentHashMap<>();
+
+    public AnalyticsJobService(AccountService accountService,
+            CategoryService categoryService,
+            OperationService operationService) {
+        this(accountService, categoryService, operationService,
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    public AnalyticsJobService(AccountService accountService,
+            CategoryService categoryService,
+            OperationService operationService,
+            int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "analytics-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        accountService.addListener(new VersionListener<>());
+        categoryService.addListener(new VersionListener<>());
+        operationService.addListener(new VersionListener<>());
+    }
+
+    /**
+     * Отчет за период с кэшированием. Готовый результат для текущей
+     * версии данных возвращается без запуска вычисления.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> AnalyticsJob<T> submit(String kind, LocalDateTime start, LocalDateTime end, AnalyticsTask<T> task) {
+        long version = dataVersion.get();
+        CacheKey key = new CacheKey(kind, start, end, version);
+
+        AnalyticsJob<T> existing = (AnalyticsJob<T>) cache.get(key);
+        if (existing != null && !existing.isCancelled()) {
+            if (existing.getResult().isDone() && !existing.getResult().isCompletedExceptionally()) {
+                return AnalyticsJob.completed(kind, existing.getResult().join());
+            }
+            if (!existing.getResult().isDone()) {
+                return existing;
+            }
+        }
+
+        AnalyticsJob<T> job = new AnalyticsJob<>(kind, false);
+        cache.put(key, job);
+        cache.keySet().removeIf(cached -> cached.version != version);
+        job.getResult().whenComplete((value, error) -> {
+            if (error != null) {
+                cache.remove(key, job);
+            }
+        });
+        start(job, task);
+        return job;
+    }
+
+    /**
+     * Разовая задача без кэширования.
+     */
+    public <T> AnalyticsJob<T> run(String name, AnalyticsTask<T> task) {
+        AnalyticsJob<T> job = new AnalyticsJob<>(name, false);
+        start(job, task);
+        return job;
+    }
+
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private <T> void start(AnalyticsJob<T> job, AnalyticsTask<T> task) {
+        job.setExecution(pool.submit(() -> job.run(task)));
+    }
+
+    private final class VersionListener<T> implements RepositoryListener<T> {
+        @Override
+        public void onSaved(T entity) {
+            dataVersion.incrementAndGet();
+        }
+
+        @Override
+        public void onDeleted(UUID id) {
+            dataVersion.incrementAndGet();
+        }
+
+        @Override
+        public void onCleared() {
+            dataVersion.incrementAndGet();
+        }
+    }
+
+    private static final class CacheKey {
+        final String kind;
+        final LocalDateTime start;
+        final LocalDateTime end;
+        final long version;
+
+        CacheKey(String kind, LocalDateTime start, LocalDateTime end, long version) {
+            this.kind = kind;
+            this.start = start;
+            this.end = end;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return version == other.version && kind.equals(other.kind)
+                    && Objects.equals(start, other.start) && Objects.equals(end, other.end);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, start, end, version);
+        }
+    }
+}
\ No newline at end of file
@@ -4,13 +4,15 @@ import com.tigerbank.domain.BankAccount;
 import com.tigerbank.domain.Category;
 import com.tigerbank.domain.Operation;
 import com.tigerbank.enums.OperationType;
+import com.tigerbank.repository.OperationAggregates;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class AnalyticsService {
+    private static final int TOP_OPERATIONS_LIMIT = 10;
+
     private final OperationService operationService;
     private final CategoryService categoryService;
     private final AccountService accountService;
@@ -27,47 +29,22 @@ public class AnalyticsService {
         Map<String, Object> analytics = new LinkedHashMap<>();
 
         analytics.put("period", startDate.toLocalDate() + " - " + endDate.toLocalDate());
-        analytics.put("total_income", operationService.getTotalIncome(startDate, endDate));
-        analytics.put("total_expense", operationService.getTotalExpense(startDate, endDate));
-        analytics.put("balance", operationService.getBalanceForPeriod(startDate, endDate));
-
-        Map<String, BigDecimal> incomeByCategory = new HashMap<>();
-        for (Category category : categoryService.getCategoriesByType(OperationType.INCOME)) {
-            BigDecimal total = operationService.getOperationsByCategory(category.getId()).stream()
-                    .filter(op -> !op.getDate().isBefore(startDate) && !op.getDate().isAfter(endDate))
-                    .map(Operation::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            if (total.compareTo(BigDecimal.ZERO) > 0) {
-                incomeByCategory.put(category.getName(), total);
-            }
-        }
-        analytics.put("income_by_category", incomeByCategory);
-
-        Map<String, BigDecimal> expenseByCategory = new HashMap<>();
-        for (Category category : categoryService.getCategoriesByType(OperationType.EXPENSE)) {
-            BigDecimal total = operationService.getOperationsByCategory(category.getId()).stream()
-                    .filter(op -> !op.getDate().isBefore(startDate) && !op.getDate().isAfter(endDate))
-                    .map(Operation::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            if (total.compareTo(BigDecimal.ZERO) > 0) {
-                expenseByCategory.put(category.getName(), total);
-            }
-        }
-        analytics.put("expense_by_category", expenseByCategory);
+        OperationAggregates.Summary summary = operationService.getAggregates()
+                .summarize(startDate, endDate, TOP_OPERATIONS_LIMIT);
+        BigDecimal totalIncome = summary.getTotal(OperationType.INCOME);
+        BigDecimal totalExpense = summary.getTotal(OperationType.EXPENSE);
+
+        analytics.put("total_income", totalIncome);
+        analytics.put("total_expense", totalExpense);
+        analytics.put("balance", totalIncome.subtract(totalExpense));
+
+        analytics.put("income_by_category", totalsByCategory(summary, OperationType.INCOME));
+        analytics.put("expense_by_category", totalsByCategory(summary, OperationType.EXPENSE));
 
         Map<String, BigDecimal> accountBalances = new HashMap<>();
         for (BankAccount account : accountService.getAllAccounts()) {
-            BigDecimal income = operationService.getOperationsByAccount(account.getId()).stream()
-                    .filter(op -> op.getType() == OperationType.INCOME)
-                    .filter(op -> !op.getDate().isBefore(startDate) && !op.getDate().isAfter(endDate))
-                    .map(Operation::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            BigDecimal expense = operationService.getOperationsByAccount(account.getId()).stream()
-                    .filter(op -> op.getType() == OperationType.EXPENSE)
-                    .filter(op -> !op.getDate().isBefore(startDate) && !op.getDate().isAfter(endDate))
-                    .map(Operation::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal income = summary.getAccountTotal(account.getId(), OperationType.INCOME);
+            BigDecimal expense = summary.getAccountTotal(account.getId(), OperationType.EXPENSE);
 
             BigDecimal balance = income.subtract(expense);
             if (balance.compareTo(BigDecimal.ZERO) != 0) {
@@ -76,24 +53,17 @@ public class AnalyticsService {
         }
         analytics.put("account_balances", accountBalances);
 
-        List<Operation> allOperations = operationService.getAllOperations().stream()
-                .filter(op -> !op.getDate().isBefore(startDate) && !op.getDate().isAfter(endDate))
-                .sorted((o1, o2) -> o2.getAmount().compareTo(o1.getAmount()))
-                .limit(10)
-                .collect(Collectors.toList());
-        analytics.put("top_operations", allOperations);
+        List<Operation> topOperations = new ArrayList<>();
+        for (UUID id : summary.getTopOperationIds()) {
+            operationService.getOperation(id).ifPresent(topOperations::add);
+        }
+        analytics.put("top_operations", topOperations);
 
         return analytics;
     }
 
     public Map<String, BigDecimal> getCategoryStatistics(OperationType type) {
-        Map<UUID, BigDecimal> categoryTotals = new HashMap<>();
-
-        for (Operation op : operationService.getAllOperations()) {
-            if (op.getType() == type) {
-                categoryTotals.merge(op.getCategoryId(), op.getAmount(), BigDecimal::add);
-            }
-        }
+        Map<UUID, BigDecimal> categoryTotals = operationService.getAggregates().getCategoryTotals(type);
 
         Map<String, BigDecimal> result = new HashMap<>();
         for (Map.Entry<UUID, BigDecimal> entry : categoryTotals.entrySet()) {
@@ -104,6 +74,17 @@ public class AnalyticsService {
         return result;
     }
 
+    private Map<String, BigDecimal> totalsByCategory(OperationAggregates.Summary summary, OperationType type) {
+        Map<String, BigDecimal> result = new HashMap<>();
+        for (Category category : categoryService.getCategoriesByType(type)) {
+            BigDecimal total = summary.getCategoryTotal(category.getId());
+            if (total.compareTo(BigDecimal.ZERO) > 0) {
+                result.put(category.getName(), total);
+            }
+        }
+        return result;
+    }
+
     public String generateAnalyticsReport(LocalDateTime startDate, LocalDateTime endDate) {
         Map<String, Object> analytics = getFullAnalytics(startDate, endDate);
 
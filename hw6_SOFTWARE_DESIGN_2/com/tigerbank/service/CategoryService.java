@@ -5,6 +5,7 @@ import com.tigerbank.domain.factory.DomainFactory;
 import com.tigerbank.domain.factory.DomainFactoryImpl;
 import com.tigerbank.enums.OperationType;
 import com.tigerbank.repository.CategoryRepository;
+import com.tigerbank.repository.RepositoryListener;
 
 import java.util.List;
 import java.util.Optional;
@@ -15,8 +16,12 @@ public class CategoryService {
     private final DomainFactory domainFactory;
 
     public CategoryService(CategoryRepository categoryRepository) {
+        this(categoryRepository, new DomainFactoryImpl());
+    }
+
+    public CategoryService(CategoryRepository categoryRepository, DomainFactory domainFactory) {
         this.categoryRepository = categoryRepository;
-        this.domainFactory = new DomainFactoryImpl();
+        this.domainFactory = domainFactory;
     }
 
     public Category createCategory(OperationType type, String name) {
@@ -41,6 +46,14 @@ public class CategoryService {
         return categoryRepository.findByType(type);
     }
 
+    public void addListener(RepositoryListener<Category> listener) {
+        categoryRepository.addListener(listener);
+    }
+
+    public void removeListener(RepositoryListener<Category> listener) {
+        categoryRepository.removeListener(listener);
+    }
+
     public boolean deleteCategory(UUID id) {
         return categoryRepository.delete(id);
     }
@@ -3,12 +3,12 @@ package com.tigerbank.service;
 import com.tigerbank.domain.BankAccount;
 import com.tigerbank.domain.Category;
 import com.tigerbank.domain.Operation;
-import java.io.FileWriter;
+import com.tigerbank.exporter.RecordWriter;
+
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.time.format.DateTimeFormatter;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
 import java.util.List;
-import java.util.function.Function;
 
 public class FileExporter {
 
@@ -19,25 +19,31 @@ public class FileExporter {
 
         exportToCsv(accounts, baseFileName + "_accounts.csv",
                 new String[] { "ID", "Name", "Balance" },
-                acc -> new String[] { acc.getId().toString(), acc.getName(), acc.getBalance().toString() });
+                (acc, writer) -> writer.appendUuid(acc.getId()).append(',')
+                        .append(acc.getName()).append(',')
+                        .appendDecimal(acc.getBalance()));
 
         exportToCsv(categories, baseFileName + "_categories.csv",
                 new String[] { "ID", "Type", "Name" },
-                cat -> new String[] { cat.getId().toString(), cat.getType().name(), cat.getName() });
+                (cat, writer) -> writer.appendUuid(cat.getId()).append(',')
+                        .append(cat.getType().name()).append(',')
+                        .append(cat.getName()));
 
         exportToCsv(operations, baseFileName + "_operations.csv",
                 new String[] { "ID", "Type", "AccountID", "Amount", "Date", "Description", "CategoryID" },
-                op -> {
-                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-                    return new String[] {
-                            op.getId().toString(),
-                            op.getType().name(),
-                            op.getBankAccountId() != null ? op.getBankAccountId().toString() : "",
-                            op.getAmount().toString(),
-                            op.getDate().format(formatter),
-                            op.getDescription() != null ? op.getDescription() : "",
-                            op.getCategoryId() != null ? op.getCategoryId().toString() : ""
-                    };
+                (op, writer) -> {
+                    writer.appendUuid(op.getId()).append(',')
+                            .append(op.getType().name()).append(',');
+                    if (op.getBankAccountId() != null) {
+                        writer.appendUuid(op.getBankAccountId());
+                    }
+                    writer.append(',')
+                            .appendDecimal(op.getAmount()).append(',')
+                            .appendDateTime(op.getDate()).append(',')
+                            .append(op.getDescription() != null ? op.getDescription() : "").append(',');
+                    if (op.getCategoryId() != null) {
+                        writer.appendUuid(op.getCategoryId());
+                    }
                 });
     }
 
@@ -52,11 +58,12 @@ public class FileExporter {
     }
 
     private <T> void exportToCsv(List<T> items, String fileName, String[] headers,
-            Function<T, String[]> converter) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(fileName))) {
-            writer.println(String.join(",", headers));
+            RowWriter<T> converter) {
+        try (RecordWriter writer = RecordWriter.open(Paths.get(fileName), Charset.defaultCharset())) {
+            writer.append(String.join(",", headers)).appendLine();
             for (T item : items) {
-                writer.println(String.join(",", converter.apply(item)));
+                converter.write(item, writer);
+                writer.appendLine();
             }
         } catch (IOException e) {
             throw new RuntimeException("Ошибка экспорта в CSV: " + e.getMessage(), e);
@@ -64,35 +71,60 @@ public class FileExporter {
     }
 
     private void exportToJson(List<?> items, String fileName) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(fileName))) {
-            writer.println("[");
+        try (RecordWriter writer = RecordWriter.open(Paths.get(fileName), Charset.defaultCharset())) {
+            writer.append('[').appendLine();
             for (int i = 0; i < items.size(); i++) {
                 Object item = items.get(i);
-                String json;
+                writer.append("  ");
                 if (item instanceof BankAccount) {
-                    json = ((BankAccount) item).toJson();
+                    BankAccount account = (BankAccount) item;
+                    writer.append("{\"id\":\"").appendUuid(account.getId())
+                            .append("\",\"name\":").appendJsonString(account.getName())
+                            .append(",\"balance\":").appendDecimal(account.getBalance()).append('}');
                 } else if (item instanceof Category) {
-                    json = ((Category) item).toJson();
+                    Category category = (Category) item;
+                    writer.append("{\"id\":\"").appendUuid(category.getId())
+                            .append("\",\"type\":\"").append(category.getType().name())
+                            .append("\",\"name\":").appendJsonString(category.getName()).append('}');
                 } else if (item instanceof Operation) {
-                    json = ((Operation) item).toJson();
+                    writeOperationJson((Operation) item, writer);
                 } else {
                     continue;
                 }
 
-                writer.print("  " + json);
                 if (i < items.size() - 1) {
-                    writer.println(",");
-                } else {
-                    writer.println();
+                    writer.append(',');
                 }
+                writer.appendLine();
             }
-            writer.println("]");
+            writer.append(']').appendLine();
         } catch (IOException e) {
             throw new RuntimeException("Ошибка экспорта в JSON: " + e.getMessage(), e);
         }
     }
 
+    private static void writeOperationJson(Operation op, RecordWriter writer) throws IOException {
+        writer.append("{\"id\":\"").appendUuid(op.getId())
+                .append("\",\"type\":\"").append(op.getType().name())
+                .append("\",\"bankAccountId\":\"");
+        if (op.getBankAccountId() != null) {
+            writer.appendUuid(op.getBankAccountId());
+        }
+        writer.append("\",\"amount\":").appendDecimal(op.getAmount())
+                .append(",\"date\":\"").appendDateTime(op.getDate())
+                .append("\",\"description\":").appendJsonString(op.getDescription() != null ? op.getDescription() : "")
+                .append(",\"categoryId\":\"");
+        if (op.getCategoryId() != null) {
+            writer.appendUuid(op.getCategoryId());
+        }
+        writer.append("\"}");
+    }
+
     public void importFromCsv(String baseFileName) {
         System.out.println("Импорт из CSV файлов: " + baseFileName);
     }
+
+    private interface RowWriter<T> {
+        void write(T item, RecordWriter writer) throws IOException;
+    }
 }
\ No newline at end of file
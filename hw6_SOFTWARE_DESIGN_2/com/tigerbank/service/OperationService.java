@@ -1,16 +1,26 @@
 package com.tigerbank.service;
 
+import com.tigerbank.domain.Money;
+import com.tigerbank.domain.MoneySum;
 import com.tigerbank.domain.Operation;
 import com.tigerbank.domain.factory.DomainFactory;
 import com.tigerbank.domain.factory.DomainFactoryImpl;
 import com.tigerbank.enums.OperationType;
+import com.tigerbank.repository.OperationAggregates;
+import com.tigerbank.repository.OperationQuery;
 import com.tigerbank.repository.OperationRepository;
+import com.tigerbank.repository.RepositoryListener;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class OperationService {
     private final OperationRepository operationRepository;
@@ -21,10 +31,17 @@ public class OperationService {
     public OperationService(OperationRepository operationRepository,
             AccountService accountService,
             CategoryService categoryService) {
+        this(operationRepository, accountService, categoryService, new DomainFactoryImpl());
+    }
+
+    public OperationService(OperationRepository operationRepository,
+            AccountService accountService,
+            CategoryService categoryService,
+            DomainFactory domainFactory) {
         this.operationRepository = operationRepository;
         this.accountService = accountService;
         this.categoryService = categoryService;
-        this.domainFactory = new DomainFactoryImpl();
+        this.domainFactory = domainFactory;
     }
 
     public Operation createOperation(OperationType type, UUID accountId,
@@ -39,7 +56,7 @@ public class OperationService {
         Operation operation = domainFactory.createOperation(
                 type, accountId, amount, categoryId, description);
 
-        accountService.updateAccountBalance(accountId, amount, type);
+        updateAccountBalance(operation, type);
 
         return operationRepository.save(operation);
     }
@@ -52,6 +69,54 @@ public class OperationService {
         return operationRepository.save(operation);
     }
 
+    public int importOperations(List<Operation> operations) {
+        return importOperations(operations, null);
+    }
+
+    /**
+     * Операции с ещё неизвестным счетом или категорией складываются
+     * в unresolved, если он передан, иначе пропускаются.
+     */
+    public int importOperations(List<Operation> operations, List<Operation> unresolved) {
+        Map<UUID, Boolean> knownAccounts = new HashMap<>();
+        Map<UUID, Boolean> knownCategories = new HashMap<>();
+        Map<UUID, MoneySum> balanceDeltas = new LinkedHashMap<>();
+        int imported = 0;
+
+        for (Operation operation : operations) {
+            UUID accountId = operation.getBankAccountId();
+            UUID categoryId = operation.getCategoryId();
+            if (operation.getType() == null || operation.getAmount() == null || accountId == null
+                    || operationRepository.existsById(operation.getId())) {
+                continue;
+            }
+            if (!knownAccounts.computeIfAbsent(accountId, id -> accountService.getAccount(id).isPresent())
+                    || (categoryId != null && !knownCategories.computeIfAbsent(
+                            categoryId, id -> categoryService.getCategory(id).isPresent()))) {
+                if (unresolved != null) {
+                    unresolved.add(operation);
+                }
+                continue;
+            }
+
+            operationRepository.save(operation);
+            addDelta(balanceDeltas, accountId, operation.getType(), operation);
+            imported++;
+        }
+
+        balanceDeltas.forEach(accountService::updateAccountBalance);
+        return imported;
+    }
+
+    /**
+     * Пакет изменений операций: ссылки на счета и категории проверяются
+     * один раз на id, а балансы счетов меняются одним обновлением на счет
+     * в commit().
+     */
+    public Batch batch() {
+        return new Batch();
+    }
+
     public Optional<Operation> getOperation(UUID id) {
         return operationRepository.findById(id);
     }
@@ -60,10 +125,26 @@ public class OperationService {
         return operationRepository.findByBankAccountId(accountId);
     }
 
+    public int getOperationCountByAccount(UUID accountId) {
+        return operationRepository.countByBankAccountId(accountId);
+    }
+
     public List<Operation> getAllOperations() {
         return operationRepository.findAll();
     }
 
+    public void forEachOperation(Consumer<Operation> action) {
+        operationRepository.forEach(action);
+    }
+
+    public void addListener(RepositoryListener<Operation> listener) {
+        operationRepository.addListener(listener);
+    }
+
+    public void removeListener(RepositoryListener<Operation> listener) {
+        operationRepository.removeListener(listener);
+    }
+
     public boolean deleteOperation(UUID id) {
         Optional<Operation> operationOpt = operationRepository.findById(id);
         if (operationOpt.isPresent()) {
@@ -73,10 +154,7 @@ public class OperationService {
                     ? OperationType.EXPENSE
                     : OperationType.INCOME;
 
-            accountService.updateAccountBalance(
-                    operation.getBankAccountId(),
-                    operation.getAmount(),
-                    reverseType);
+            updateAccountBalance(operation, reverseType);
 
             return operationRepository.delete(id);
         }
@@ -87,6 +165,10 @@ public class OperationService {
         return operationRepository.findByCategoryId(categoryId);
     }
 
+    public int getOperationCountByCategory(UUID categoryId) {
+        return operationRepository.countByCategoryId(categoryId);
+    }
+
     public List<Operation> getOperationsByType(OperationType type) {
         return operationRepository.findByType(type);
     }
@@ -95,25 +177,111 @@ public class OperationService {
         return operationRepository.findByDateBetween(start, end);
     }
 
+    /**
+     * Операции по запросу с фильтрами, порядком и страницей;
+     * индекс для выборки выбирает планировщик репозитория.
+     */
+    public Stream<Operation> streamOperations(OperationQuery query) {
+        return operationRepository.stream(query);
+    }
+
+    public List<Operation> findOperations(OperationQuery query) {
+        return operationRepository.find(query);
+    }
+
+    /**
+     * Полнотекстовый поиск по описаниям операций: слова через пробел,
+     * OR/ИЛИ/| между вариантами, * на конце слова для префикса.
+     */
+    public List<Operation> searchOperations(String query, int limit) {
+        return operationRepository.search(query, limit);
+    }
+
+    /**
+     * Строит индекс описаний заранее, чтобы первый поиск не ждал его.
+     */
+    public void prepareSearch() {
+        operationRepository.getDescriptionIndex();
+    }
+
     public BigDecimal getTotalIncome(LocalDateTime start, LocalDateTime end) {
-        return getOperationsByDateRange(start, end).stream()
-                .filter(op -> op.getType() == OperationType.INCOME)
-                .map(Operation::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return getAggregates().getTotal(OperationType.INCOME, start, end);
     }
 
     public BigDecimal getTotalExpense(LocalDateTime start, LocalDateTime end) {
-        return getOperationsByDateRange(start, end).stream()
-                .filter(op -> op.getType() == OperationType.EXPENSE)
-                .map(Operation::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return getAggregates().getTotal(OperationType.EXPENSE, start, end);
     }
 
     public BigDecimal getBalanceForPeriod(LocalDateTime start, LocalDateTime end) {
-        return getTotalIncome(start, end).subtract(getTotalExpense(start, end));
+        OperationAggregates aggregates = getAggregates();
+        return aggregates.getTotal(OperationType.INCOME, start, end)
+                .subtract(aggregates.getTotal(OperationType.EXPENSE, start, end));
+    }
+
+    public OperationAggregates getAggregates() {
+        return operationRepository.getAggregates();
     }
 
     public long getOperationCount() {
-        return getAllOperations().size();
+        return operationRepository.count();
+    }
+
+    private void updateAccountBalance(Operation operation, OperationType type) {
+        Money money = operation.getMoney();
+        if (money != null) {
+            accountService.updateAccountBalance(operation.getBankAccountId(), money, type);
+        } else {
+            accountService.updateAccountBalance(operation.getBankAccountId(), operation.getAmount(), type);
+        }
+    }
+
+    private static void addDelta(Map<UUID, MoneySum> balanceDeltas, UUID accountId,
+            OperationType type, Operation operation) {
+        MoneySum delta = balanceDeltas.computeIfAbsent(accountId, id -> new MoneySum());
+        if (type == OperationType.INCOME) {
+            delta.add(operation);
+        } else {
+            delta.subtract(operation);
+        }
+    }
+
+    public class Batch {
+        private final Map<UUID, Boolean> knownAccounts = new HashMap<>();
+        private final Map<UUID, Boolean> knownCategories = new HashMap<>();
+        private final Map<UUID, MoneySum> balanceDeltas = new LinkedHashMap<>();
+
+        private Batch() {
+        }
+
+        public Operation createOperation(OperationType type, UUID accountId,
+                BigDecimal amount, UUID categoryId, String description) {
+            if (!knownAccounts.computeIfAbsent(accountId, id -> accountService.getAccount(id).isPresent())) {
+                throw new IllegalArgumentException("Счет не найден");
+            }
+            if (!knownCategories.computeIfAbsent(categoryId, id -> categoryService.getCategory(id).isPresent())) {
+                throw new IllegalArgumentException("Категория не найдена");
+            }
+
+            Operation operation = domainFactory.createOperation(
+                    type, accountId, amount, categoryId, description);
+            addDelta(balanceDeltas, accountId, type, operation);
+            return operationRepository.save(operation);
+        }
+
+        public boolean deleteOperation(UUID id) {
+            Optional<Operation> operation = operationRepository.findById(id);
+            if (operation.isEmpty()) {
+                return false;
+            }
+            addDelta(balanceDeltas, operation.get().getBankAccountId(),
+                    operation.get().getType() == OperationType.INCOME ? OperationType.EXPENSE : OperationType.INCOME,
+                    operation.get());
+            return operationRepository.delete(id);
+        }
+
+        public void commit() {
+            balanceDeltas.forEach(accountService::updateAccountBalance);
+            balanceDeltas.clear();
+        }
     }
 }
\ No newline at end of file
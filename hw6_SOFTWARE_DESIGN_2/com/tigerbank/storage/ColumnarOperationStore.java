@@ -0,0 +1,613 @@
+package com.tigerbank.storage;
+
+import com.tigerbank.domain.Money;
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import com.tigerbank.repository.OperationQuery;
+import com.tigerbank.repository.OperationStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Колоночное хранилище операций вне кучи. Строки лежат в сегментах,
+ * отображённых в память (MappedByteBuffer), по колонкам: id, тип, счет,
+ * категория, сумма (long в копейках), дата (секунды эпохи, UTC) и смещение
+ * описания. Счета и категории кодируются словарём, описания пишутся
+ * в отдельные сегменты. Индекс id -> строка тоже хранится в отображённом
+ * файле, поэтому на куче остаются только словари.
+ *
+ * Хранилище является рабочим набором на время сессии: при открытии
+ * файлы перезаписываются, долговременность обеспечивает JournaledStorage.
+ * Дата хранится с точностью до секунды, сумма - до AMOUNT_SCALE знаков.
+ */
+public class ColumnarOperationStore implements OperationStore, Closeable {
+    public static final int AMOUNT_SCALE = Money.SCALE;
+
+    private static final int DEFAULT_SEGMENT_ROWS = 1 << 20;
+    private static final int DEFAULT_DESCRIPTION_SEGMENT_SIZE = 64 << 20;
+    private static final int INITIAL_SLOTS = 1 << 12;
+
+    private static final byte DELETED = -1;
+    private static final byte NO_TYPE = -2;
+    private static final int NO_REF = -1;
+    private static final int NO_MATCH = -2;
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final long NO_DESCRIPTION = -1;
+    private static final OperationType[] TYPES = OperationType.values();
+
+    private final Path directory;
+    private final int segmentRows;
+    private final int descriptionSegmentSize;
+    private final int idHiOffset;
+    private final int idLoOffset;
+    private final int typeOffset;
+    private final int accountOffset;
+    private final int categoryOffset;
+    private final int amountOffset;
+    private final int dateOffset;
+    private final int descriptionOffset;
+    private final int segmentSize;
+
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final List<MappedByteBuffer> descriptionSegments = new ArrayList<>();
+    private final Map<UUID, Integer> refCodes = new HashMap<>();
+    private final List<UUID> refs = new ArrayList<>();
+
+    private int rowCount;
+    private int liveCount;
+    private long descriptionPosition;
+
+    private MappedByteBuffer slots;
+    private int slotMask;
+    private int slotsGeneration;
+
+    public interface ColumnVisitor {
+        void visit(OperationType type, int accountRef, int categoryRef, long scaledAmount, long epochSecond);
+    }
+
+    public ColumnarOperationStore(Path directory) {
+        this(directory, DEFAULT_SEGMENT_ROWS, DEFAULT_DESCRIPTION_SEGMENT_SIZE);
+    }
+
+    ColumnarOperationStore(Path directory, int segmentRows, int descriptionSegmentSize) {
+        this.directory = directory;
+        this.segmentRows = segmentRows;
+        this.descriptionSegmentSize = descriptionSegmentSize;
+
+        idHiOffset = 0;
+        idLoOffset = idHiOffset + Long.BYTES * segmentRows;
+        typeOffset = idLoOffset + Long.BYTES * segmentRows;
+        accountOffset = typeOffset + Byte.BYTES * segmentRows;
+        categoryOffset = accountOffset + Integer.BYTES * segmentRows;
+        amountOffset = categoryOffset + Integer.BYTES * segmentRows;
+        dateOffset = amountOffset + Long.BYTES * segmentRows;
+        descriptionOffset = dateOffset + Long.BYTES * segmentRows;
+        segmentSize = descriptionOffset + Long.BYTES * segmentRows;
+
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка создания колоночного хранилища: " + e.getMessage(), e);
+        }
+        resizeSlots(INITIAL_SLOTS);
+    }
+
+    @Override
+    public void put(Operation operation) {
+        // Сначала все значения столбцов: если сумма не помещается,
+        // исключение вылетает до того, как под операцию выделена строка
+        long amount = toScaled(operation);
+        byte type = operation.getType() != null ? (byte) operation.getType().ordinal() : NO_TYPE;
+        int account = refCode(operation.getBankAccountId());
+        int category = refCode(operation.getCategoryId());
+        long date = operation.getDate() != null ? operation.getDate().toEpochSecond(ZoneOffset.UTC) : NO_DATE;
+        long description = writeDescription(operation.getDescription());
+
+        UUID id = operation.getId();
+        int row = lookup(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (row < 0) {
+            if ((liveCount + 1) * 2 > slotMask + 1) {
+                resizeSlots((slotMask + 1) * 2);
+            }
+            row = rowCount++;
+            MappedByteBuffer segment = segmentFor(row);
+            int local = row % segmentRows;
+            segment.putLong(idHiOffset + local * Long.BYTES, id.getMostSignificantBits());
+            segment.putLong(idLoOffset + local * Long.BYTES, id.getLeastSignificantBits());
+            insertSlot(row);
+            liveCount++;
+        }
+
+        MappedByteBuffer segment = segmentFor(row);
+        int local = row % segmentRows;
+        segment.put(typeOffset + local, type);
+        segment.putInt(accountOffset + local * Integer.BYTES, account);
+        segment.putInt(categoryOffset + local * Integer.BYTES, category);
+        segment.putLong(amountOffset + local * Long.BYTES, amount);
+        segment.putLong(dateOffset + local * Long.BYTES, date);
+        segment.putLong(descriptionOffset + local * Long.BYTES, description);
+    }
+
+    @Override
+    public Operation get(UUID id) {
+        if (id == null) {
+            return null;
+        }
+        int row = lookup(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        return row < 0 ? null : materialize(row);
+    }
+
+    @Override
+    public boolean contains(UUID id) {
+        return id != null && lookup(id.getMostSignificantBits(), id.getLeastSignificantBits()) >= 0;
+    }
+
+    @Override
+    public boolean remove(UUID id) {
+        if (id == null) {
+            return false;
+        }
+        int row = lookup(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (row < 0) {
+            return false;
+        }
+        removeSlot(row);
+        segmentFor(row).put(typeOffset + row % segmentRows, DELETED);
+        liveCount--;
+        return true;
+    }
+
+    @Override
+    public List<Operation> findAll() {
+        List<Operation> result = new ArrayList<>(liveCount);
+        for (int row = 0; row < rowCount; row++) {
+            if (type(row) != DELETED) {
+                result.add(materialize(row));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Operation> findByAccount(UUID accountId) {
+        return findByRef(accountOffset, accountId);
+    }
+
+    @Override
+    public List<Operation> findByCategory(UUID categoryId) {
+        return findByRef(categoryOffset, categoryId);
+    }
+
+    @Override
+    public List<Operation> findByType(OperationType type) {
+        List<Operation> result = new ArrayList<>();
+        byte code = type != null ? (byte) type.ordinal() : NO_TYPE;
+        for (int row = 0; row < rowCount; row++) {
+            if (type(row) == code) {
+                result.add(materialize(row));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Operation> findByDateBetween(LocalDateTime start, LocalDateTime end) {
+        long from = lowerBound(start);
+        long to = end.toEpochSecond(ZoneOffset.UTC);
+        List<Operation> result = new ArrayList<>();
+        for (int row = 0; row < rowCount; row++) {
+            long date = segmentFor(row).getLong(dateOffset + (row % segmentRows) * Long.BYTES);
+            if (date >= from && date <= to && type(row) != DELETED) {
+                result.add(materialize(row));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int countByAccount(UUID accountId) {
+        return countByRef(accountOffset, accountId);
+    }
+
+    @Override
+    public int countByCategory(UUID categoryId) {
+        return countByRef(categoryOffset, categoryId);
+    }
+
+    @Override
+    public int countByType(OperationType type) {
+        byte code = type != null ? (byte) type.ordinal() : NO_TYPE;
+        int count = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (type(row) == code) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int countByDateBetween(LocalDateTime start, LocalDateTime end, int limit) {
+        long from = lowerBound(start);
+        long to = end.toEpochSecond(ZoneOffset.UTC);
+        int count = 0;
+        for (int row = 0; row < rowCount && count < limit; row++) {
+            long date = segmentFor(row).getLong(dateOffset + (row % segmentRows) * Long.BYTES);
+            if (date >= from && date <= to && type(row) != DELETED) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Индексов нет, поэтому вместо планировщика один ленивый проход:
+     * тип, счет, категория, дата и сумма проверяются по колонкам,
+     * объект собирается только для прошедших строк, описание и
+     * остальные условия проверяются на нем.
+     */
+    @Override
+    public Stream<Operation> select(OperationQuery query) {
+        boolean typed = query.getType() != null;
+        byte type = typed ? (byte) query.getType().ordinal() : NO_TYPE;
+        int account = refFilter(query.getAccountId());
+        int category = refFilter(query.getCategoryId());
+        if (account == NO_MATCH || category == NO_MATCH) {
+            return Stream.empty();
+        }
+        long from = query.hasDateRange() ? lowerBound(query.getStart()) : Long.MIN_VALUE;
+        long to = query.hasDateRange() ? query.getEnd().toEpochSecond(ZoneOffset.UTC) : Long.MAX_VALUE;
+        long minAmount = scaledBound(query.getMinAmount(), Long.MIN_VALUE);
+        long maxAmount = scaledBound(query.getMaxAmount(), Long.MAX_VALUE);
+
+        return IntStream.range(0, rowCount)
+                .filter(row -> {
+                    MappedByteBuffer segment = segmentFor(row);
+                    int local = row % segmentRows;
+                    byte rowType = segment.get(typeOffset + local);
+                    if (rowType == DELETED || typed && rowType != type) {
+                        return false;
+                    }
+                    if (account != NO_REF && segment.getInt(accountOffset + local * Integer.BYTES) != account
+                            || category != NO_REF
+                                    && segment.getInt(categoryOffset + local * Integer.BYTES) != category) {
+                        return false;
+                    }
+                    long date = segment.getLong(dateOffset + local * Long.BYTES);
+                    long amount = segment.getLong(amountOffset + local * Long.BYTES);
+                    return date >= from && date <= to && amount >= minAmount && amount <= maxAmount;
+                })
+                .mapToObj(this::materialize)
+                .filter(query::matches);
+    }
+
+    @Override
+    public int size() {
+        return liveCount;
+    }
+
+    @Override
+    public void clear() {
+        rowCount = 0;
+        liveCount = 0;
+        descriptionPosition = 0;
+        refCodes.clear();
+        refs.clear();
+        resizeSlots(INITIAL_SLOTS);
+    }
+
+    public void scan(ColumnVisitor visitor) {
+        for (int row = 0; row < rowCount; row++) {
+            MappedByteBuffer segment = segmentFor(row);
+            int local = row % segmentRows;
+            byte type = segment.get(typeOffset + local);
+            if (type == DELETED) {
+                continue;
+            }
+            visitor.visit(type >= 0 ? TYPES[type] : null,
+                    segment.getInt(accountOffset + local * Integer.BYTES),
+                    segment.getInt(categoryOffset + local * Integer.BYTES),
+                    segment.getLong(amountOffset + local * Long.BYTES),
+                    segment.getLong(dateOffset + local * Long.BYTES));
+        }
+    }
+
+    public long sumScaledAmounts(OperationType type, LocalDateTime start, LocalDateTime end) {
+        byte code = (byte) type.ordinal();
+        long from = lowerBound(start);
+        long to = end.toEpochSecond(ZoneOffset.UTC);
+        long sum = 0;
+        for (int s = 0; s * segmentRows < rowCount; s++) {
+            MappedByteBuffer segment = segments.get(s);
+            int rows = Math.min(segmentRows, rowCount - s * segmentRows);
+            for (int local = 0; local < rows; local++) {
+                if (segment.get(typeOffset + local) != code) {
+                    continue;
+                }
+                long date = segment.getLong(dateOffset + local * Long.BYTES);
+                if (date >= from && date <= to) {
+                    sum = Math.addExact(sum, segment.getLong(amountOffset + local * Long.BYTES));
+                }
+            }
+        }
+        return sum;
+    }
+
+    public UUID refId(int ref) {
+        return ref == NO_REF ? null : refs.get(ref);
+    }
+
+    @Override
+    public void close() {
+        segments.clear();
+        descriptionSegments.clear();
+        slots = null;
+    }
+
+    private List<Operation> findByRef(int columnOffset, UUID id) {
+        List<Operation> result = new ArrayList<>();
+        Integer code = id != null ? refCodes.get(id) : null;
+        if (code == null) {
+            return result;
+        }
+        for (int row = 0; row < rowCount; row++) {
+            if (ref(columnOffset, row) == code && type(row) != DELETED) {
+                result.add(materialize(row));
+            }
+        }
+        return result;
+    }
+
+    private int countByRef(int columnOffset, UUID id) {
+        Integer code = id != null ? refCodes.get(id) : null;
+        if (code == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (ref(columnOffset, row) == code && type(row) != DELETED) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Operation materialize(int row) {
+        MappedByteBuffer segment = segmentFor(row);
+        int local = row % segmentRows;
+        byte type = segment.get(typeOffset + local);
+        long date = segment.getLong(dateOffset + local * Long.BYTES);
+        return new Operation(
+                new UUID(segment.getLong(idHiOffset + local * Long.BYTES),
+                        segment.getLong(idLoOffset + local * Long.BYTES)),
+                type >= 0 ? TYPES[type] : null,
+                refId(segment.getInt(accountOffset + local * Integer.BYTES)),
+                Money.ofMinor(segment.getLong(amountOffset + local * Long.BYTES)),
+                date == NO_DATE ? null : LocalDateTime.ofEpochSecond(date, 0, ZoneOffset.UTC),
+                readDescription(segment.getLong(descriptionOffset + local * Long.BYTES)),
+                refId(segment.getInt(categoryOffset + local * Integer.BYTES)));
+    }
+
+    private byte type(int row) {
+        return segmentFor(row).get(typeOffset + row % segmentRows);
+    }
+
+    private int ref(int columnOffset, int row) {
+        return segmentFor(row).getInt(columnOffset + (row % segmentRows) * Integer.BYTES);
+    }
+
+    private long idHi(int row) {
+        return segmentFor(row).getLong(idHiOffset + (row % segmentRows) * Long.BYTES);
+    }
+
+    private long idLo(int row) {
+        return segmentFor(row).getLong(idLoOffset + (row % segmentRows) * Long.BYTES);
+    }
+
+    private int refCode(UUID id) {
+        if (id == null) {
+            return NO_REF;
+        }
+        Integer code = refCodes.get(id);
+        if (code == null) {
+            code = refs.size();
+            refs.add(id);
+            refCodes.put(id, code);
+        }
+        return code;
+    }
+
+    private int refFilter(UUID id) {
+        if (id == null) {
+            return NO_REF;
+        }
+        Integer code = refCodes.get(id);
+        return code != null ? code : NO_MATCH;
+    }
+
+    /**
+     * Граница суммы в копейках; непредставимая граница по колонке
+     * не проверяется и остается для query.matches.
+     */
+    private static long scaledBound(BigDecimal bound, long open) {
+        return bound != null && Money.isRepresentable(bound) ? Money.of(bound).getMinorUnits() : open;
+    }
+
+    private static long toScaled(Operation operation) {
+        Money money = operation.getMoney();
+        if (money != null) {
+            return money.getMinorUnits();
+        }
+        BigDecimal amount = operation.getAmount();
+        try {
+            return amount.setScale(AMOUNT_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Сумма не помещается в формат хранилища: " + amount, e);
+        }
+    }
+
+    private static long lowerBound(LocalDateTime start) {
+        long seconds = start.toEpochSecond(ZoneOffset.UTC);
+        return start.getNano() > 0 ? seconds + 1 : seconds;
+    }
+
+    private MappedByteBuffer segmentFor(int row) {
+        int index = row / segmentRows;
+        while (segments.size() <= index) {
+            segments.add(map(String.format("operations-%05d.col", segments.size()), segmentSize));
+        }
+        return segments.get(index);
+    }
+
+    private long writeDescription(String description) {
+        if (description == null) {
+            return NO_DESCRIPTION;
+        }
+        byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, descriptionSegmentSize - Integer.BYTES);
+        int offsetInSegment = (int) (descriptionPosition % descriptionSegmentSize);
+        if (offsetInSegment + Integer.BYTES + length > descriptionSegmentSize) {
+            descriptionPosition += descriptionSegmentSize - offsetInSegment;
+            offsetInSegment = 0;
+        }
+
+        long position = descriptionPosition;
+        MappedByteBuffer segment = descriptionSegment(position);
+        segment.putInt(offsetInSegment, length);
+        segment.put(offsetInSegment + Integer.BYTES, bytes, 0, length);
+        descriptionPosition += Integer.BYTES + length;
+        return position;
+    }
+
+    private String readDescription(long position) {
+        if (position == NO_DESCRIPTION) {
+            return null;
+        }
+        MappedByteBuffer segment = descriptionSegment(position);
+        int offsetInSegment = (int) (position % descriptionSegmentSize);
+        byte[] bytes = new byte[segment.getInt(offsetInSegment)];
+        segment.get(offsetInSegment + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private MappedByteBuffer descriptionSegment(long position) {
+        int index = (int) (position / descriptionSegmentSize);
+        while (descriptionSegments.size() <= index) {
+            descriptionSegments.add(map(
+                    String.format("descriptions-%05d.dat", descriptionSegments.size()), descriptionSegmentSize));
+        }
+        return descriptionSegments.get(index);
+    }
+
+    private int lookup(long hi, long lo) {
+        int slot = hash(hi, lo) & slotMask;
+        while (true) {
+            int value = slots.getInt(slot * Integer.BYTES);
+            if (value == 0) {
+                return -1;
+            }
+            int row = value - 1;
+            if (idHi(row) == hi && idLo(row) == lo) {
+                return row;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+    }
+
+    private void insertSlot(int row) {
+        int slot = hash(idHi(row), idLo(row)) & slotMask;
+        while (slots.getInt(slot * Integer.BYTES) != 0) {
+            slot = (slot + 1) & slotMask;
+        }
+        slots.putInt(slot * Integer.BYTES, row + 1);
+    }
+
+    private void removeSlot(int row) {
+        int hole = hash(idHi(row), idLo(row)) & slotMask;
+        while (slots.getInt(hole * Integer.BYTES) != row + 1) {
+            hole = (hole + 1) & slotMask;
+        }
+        slots.putInt(hole * Integer.BYTES, 0);
+
+        int next = hole;
+        while (true) {
+            next = (next + 1) & slotMask;
+            int value = slots.getInt(next * Integer.BYTES);
+            if (value == 0) {
+                return;
+            }
+            int home = hash(idHi(value - 1), idLo(value - 1)) & slotMask;
+            boolean stays = hole <= next
+                    ? home > hole && home <= next
+                    : home > hole || home <= next;
+            if (!stays) {
+                slots.putInt(hole * Integer.BYTES, value);
+                slots.putInt(next * Integer.BYTES, 0);
+                hole = next;
+            }
+        }
+    }
+
+    private void resizeSlots(int capacity) {
+        Path previous = slots != null ? slotsPath(slotsGeneration) : null;
+        slotsGeneration++;
+        slots = map(slotsPath(slotsGeneration).getFileName().toString(), capacity * Integer.BYTES);
+        for (int i = 0; i < capacity; i++) {
+            slots.putInt(i * Integer.BYTES, 0);
+        }
+        slotMask = capacity - 1;
+
+        for (int row = 0; row < rowCount; row++) {
+            if (type(row) != DELETED) {
+                insertSlot(row);
+            }
+        }
+        if (previous != null) {
+            try {
+                Files.deleteIfExists(previous);
+            } catch (IOException e) {
+                System.err.println("Не удалось удалить старый индекс: " + e.getMessage());
+            }
+        }
+    }
+
+    private Path slotsPath(int generation) {
+        return directory.resolve(String.format("ids-%05d.idx", generation));
+    }
+
+    private static int hash(long hi, long lo) {
+        long h = hi ^ lo;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private MappedByteBuffer map(String fileName, int size) {
+        Path path = directory.resolve(fileName);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка отображения файла " + path + ": " + e.getMessage(), e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,147 @@
+package com.tigerbank.storage;
+
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+public final class EntityCodec {
+
+    private EntityCodec() {
+    }
+
+    public static void writeAccount(DataOutput out, BankAccount account) throws IOException {
+        writeUuid(out, account.getId());
+        writeString(out, account.getName());
+        writeDecimal(out, account.getBalance());
+    }
+
+    public static BankAccount readAccount(DataInput in) throws IOException {
+        UUID id = readUuid(in);
+        String name = readString(in);
+        BigDecimal balance = readDecimal(in);
+        return new BankAccount(id, name, balance);
+    }
+
+    public static void writeCategory(DataOutput out, Category category) throws IOException {
+        writeUuid(out, category.getId());
+        writeType(out, category.getType());
+        writeString(out, category.getName());
+    }
+
+    public static Category readCategory(DataInput in) throws IOException {
+        UUID id = readUuid(in);
+        OperationType type = readType(in);
+        String name = readString(in);
+        return new Category(id, type, name);
+    }
+
+    public static void writeOperation(DataOutput out, Operation operation) throws IOException {
+        writeUuid(out, operation.getId());
+        writeType(out, operation.getType());
+        writeUuid(out, operation.getBankAccountId());
+        writeDecimal(out, operation.getAmount());
+        writeDate(out, operation.getDate());
+        writeString(out, operation.getDescription());
+        writeUuid(out, operation.getCategoryId());
+    }
+
+    public static Operation readOperation(DataInput in) throws IOException {
+        UUID id = readUuid(in);
+        OperationType type = readType(in);
+        UUID accountId = readUuid(in);
+        BigDecimal amount = readDecimal(in);
+        LocalDateTime date = readDate(in);
+        String description = readString(in);
+        UUID categoryId = readUuid(in);
+        return new Operation(id, type, accountId, amount, date, description, categoryId);
+    }
+
+    public static void writeUuid(DataOutput out, UUID uuid) throws IOException {
+        out.writeBoolean(uuid != null);
+        if (uuid != null) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        }
+    }
+
+    public static UUID readUuid(DataInput in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDecimal(DataOutput out, BigDecimal value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            byte[] unscaled = value.unscaledValue().toByteArray();
+            out.writeInt(value.scale());
+            out.writeShort(unscaled.length);
+            out.write(unscaled);
+        }
+    }
+
+    private static BigDecimal readDecimal(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readUnsignedShort()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static void writeDate(DataOutput out, LocalDateTime date) throws IOException {
+        out.writeBoolean(date != null);
+        if (date != null) {
+            out.writeLong(date.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(date.getNano());
+        }
+    }
+
+    private static LocalDateTime readDate(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    private static void writeType(DataOutput out, OperationType type) throws IOException {
+        out.writeByte(type != null ? type.ordinal() : -1);
+    }
+
+    private static OperationType readType(DataInput in) throws IOException {
+        byte ordinal = in.readByte();
+        return ordinal < 0 ? null : OperationType.values()[ordinal];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,297 @@
+package com.tigerbank.storage;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Журнал упреждающей записи. Формат записи:
+ * [длина int][lsn long][тип byte][данные][crc32 int], где длина
+ * покрывает lsn, тип и данные.
+ * <p>
+ * Групповой коммит: append() только кладет запись в буфер, а
+ * вызывающий ждет в awaitDurable(), пока поток коммита не сделает
+ * force(), покрывающий его lsn. force() идет вне монитора журнала,
+ * поэтому пока он выполняется, копятся записи следующей группы.
+ * Без ожидающих поток сбрасывает буфер раз в commitIntervalMillis.
+ */
+public class Journal implements Closeable {
+    private static final int HEADER_SIZE = Long.BYTES + Byte.BYTES;
+    private static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+
+    private final Path path;
+    private FileChannel channel;
+    private final ByteBuffer pending;
+    private final CRC32 crc = new CRC32();
+    // Порядок захвата: commitLock, затем монитор журнала
+    private final Object commitLock = new Object();
+    private final Thread committer;
+    private final long commitIntervalMillis;
+    private long lastLsn;
+    private long durableLsn;
+    private long recordsSinceRotate;
+    private boolean commitRequested;
+    private boolean stopping;
+    private boolean closed;
+    private IOException failure;
+
+    public interface RecordHandler {
+        void apply(long lsn, byte kind, DataInput payload) throws IOException;
+    }
+
+    private Journal(Path path, FileChannel channel, long lastLsn, int bufferSize, long commitIntervalMillis) {
+        this.path = path;
+        this.channel = channel;
+        this.lastLsn = lastLsn;
+        this.durableLsn = lastLsn;
+        this.pending = ByteBuffer.allocateDirect(bufferSize);
+        this.commitIntervalMillis = commitIntervalMillis;
+        this.committer = new Thread(this::runCommitter, "tigerbank-journal-commit");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    public static Journal open(Path path, long lastLsn, int bufferSize, long commitIntervalMillis)
+            throws IOException {
+        return new Journal(path, openChannel(path), lastLsn, bufferSize, commitIntervalMillis);
+    }
+
+    public synchronized long append(byte kind, byte[] payload, int length) throws IOException {
+        int recordSize = Integer.BYTES + HEADER_SIZE + length + Integer.BYTES;
+        if (recordSize > pending.remaining()) {
+            writePending();
+        }
+        long lsn = ++lastLsn;
+        ByteBuffer target = recordSize > pending.capacity() ? ByteBuffer.allocate(recordSize) : pending;
+
+        int start = target.position();
+        target.putInt(HEADER_SIZE + length);
+        target.putLong(lsn);
+        target.put(kind);
+        target.put(payload, 0, length);
+
+        ByteBuffer checksummed = target.duplicate();
+        checksummed.position(start + Integer.BYTES).limit(target.position());
+        crc.reset();
+        crc.update(checksummed);
+        target.putInt((int) crc.getValue());
+
+        if (target != pending) {
+            target.flip();
+            while (target.hasRemaining()) {
+                channel.write(target);
+            }
+        }
+        recordsSinceRotate++;
+        return lsn;
+    }
+
+    /**
+     * Ждет, пока запись с этим lsn окажется на диске. Один force()
+     * завершает ожидание всех, чьи записи успели попасть в буфер.
+     */
+    public void awaitDurable(long lsn) throws IOException {
+        synchronized (this) {
+            while (durableLsn < lsn) {
+                if (failure != null) {
+                    throw new IOException("Ошибка записи журнала: " + failure.getMessage(), failure);
+                }
+                if (closed) {
+                    throw new IOException("Журнал закрыт до записи lsn " + lsn);
+                }
+                if (!commitRequested) {
+                    commitRequested = true;
+                    notifyAll();
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Ожидание записи журнала прервано");
+                }
+            }
+        }
+    }
+
+    public void commit() throws IOException {
+        synchronized (commitLock) {
+            FileChannel target;
+            long lsn;
+            synchronized (this) {
+                if (durableLsn >= lastLsn) {
+                    return;
+                }
+                writePending();
+                target = channel;
+                lsn = lastLsn;
+            }
+            try {
+                target.force(false);
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                    notifyAll();
+                }
+                throw e;
+            }
+            synchronized (this) {
+                durableLsn = Math.max(durableLsn, lsn);
+                failure = null;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Переносит журнал в archivePath и начинает новый файл.
+     * Возвращает последний lsn, попавший в архив.
+     */
+    public long rotate(Path archivePath) throws IOException {
+        synchronized (commitLock) {
+            synchronized (this) {
+                writePending();
+                channel.force(true);
+                channel.close();
+                Files.move(path, archivePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                channel = openChannel(path);
+                recordsSinceRotate = 0;
+                durableLsn = lastLsn;
+                notifyAll();
+                return lastLsn;
+            }
+        }
+    }
+
+    public synchronized long getLastLsn() {
+        return lastLsn;
+    }
+
+    public synchronized long getRecordsSinceRotate() {
+        return recordsSinceRotate;
+    }
+
+    /**
+     * Останавливает поток коммита и ждет его завершения, затем
+     * сбрасывает остаток буфера, чтобы ожидающие получили ответ.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            stopping = true;
+            notifyAll();
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (commitLock) {
+            try {
+                commit();
+            } finally {
+                synchronized (this) {
+                    closed = true;
+                    channel.close();
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    public static long replay(Path path, long afterLsn, RecordHandler handler) throws IOException {
+        long lastLsn = afterLsn;
+        long validEnd = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+            CRC32 crc = new CRC32();
+            while (true) {
+                byte[] body;
+                int storedCrc;
+                try {
+                    int length = in.readInt();
+                    if (length < HEADER_SIZE || length > MAX_RECORD_SIZE) {
+                        break;
+                    }
+                    body = new byte[length];
+                    in.readFully(body);
+                    storedCrc = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+
+                crc.reset();
+                crc.update(body, 0, body.length);
+                if ((int) crc.getValue() != storedCrc) {
+                    break;
+                }
+
+                ByteBuffer header = ByteBuffer.wrap(body, 0, HEADER_SIZE);
+                long lsn = header.getLong();
+                byte kind = header.get();
+                if (lsn > afterLsn) {
+                    handler.apply(lsn, kind, new DataInputStream(
+                            new ByteArrayInputStream(body, HEADER_SIZE, body.length - HEADER_SIZE)));
+                    lastLsn = lsn;
+                }
+                validEnd += Integer.BYTES + body.length + Integer.BYTES;
+            }
+
+            if (channel.size() > validEnd) {
+                channel.truncate(validEnd);
+            }
+        }
+        return lastLsn;
+    }
+
+    private static FileChannel openChannel(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        channel.position(channel.size());
+        return channel;
+    }
+
+    private void writePending() throws IOException {
+        pending.flip();
+        while (pending.hasRemaining()) {
+            channel.write(pending);
+        }
+        pending.clear();
+    }
+
+    private void runCommitter() {
+        while (true) {
+            synchronized (this) {
+                if (!commitRequested && !stopping) {
+                    try {
+                        wait(commitIntervalMillis);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (stopping) {
+                    return;
+                }
+                commitRequested = false;
+            }
+            try {
+                commit();
+            } catch (IOException e) {
+                System.err.println("Ошибка записи журнала: " + e.getMessage());
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,396 @@
+package com.tigerbank.storage;
+
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Operation;
+import com.tigerbank.repository.BankAccountRepository;
+import com.tigerbank.repository.CategoryRepository;
+import com.tigerbank.repository.OperationRepository;
+import com.tigerbank.repository.RepositoryListener;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Долговременное хранилище поверх репозиториев: каждое изменение
+ * пишется в журнал, периодически делается снимок всего состояния.
+ * Перед снимком журнал ротируется в journal.old, который удаляется
+ * после записи снимка. При старте загружается снимок и проигрываются
+ * только записи журнала с lsn больше, чем у снимка.
+ * <p>
+ * Плановый снимок пишется в отдельном потоке, поэтому репозитории
+ * должны быть потокобезопасными. Снимок может захватить изменения
+ * новее своего lsn; записи журнала содержат состояние целиком,
+ * и их повторное применение при восстановлении ничего не портит.
+ */
+public class JournaledStorage implements Closeable {
+    private static final int SNAPSHOT_MAGIC = 0x54424E4B;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private static final byte SAVE_ACCOUNT = 1;
+    private static final byte DELETE_ACCOUNT = 2;
+    private static final byte CLEAR_ACCOUNTS = 3;
+    private static final byte SAVE_CATEGORY = 4;
+    private static final byte DELETE_CATEGORY = 5;
+    private static final byte CLEAR_CATEGORIES = 6;
+    private static final byte SAVE_OPERATION = 7;
+    private static final byte DELETE_OPERATION = 8;
+    private static final byte CLEAR_OPERATIONS = 9;
+
+    private final Path journalPath;
+    private final Path archivePath;
+    private final Path snapshotPath;
+    private final BankAccountRepository accountRepository;
+    private final CategoryRepository categoryRepository;
+    private final OperationRepository operationRepository;
+    private final long snapshotEvery;
+    private final long commitIntervalMillis;
+
+    private final RecordBuffer scratch = new RecordBuffer();
+    private final DataOutputStream scratchOut = new DataOutputStream(scratch);
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final AtomicBoolean snapshotScheduled = new AtomicBoolean();
+    private final ExecutorService snapshotter = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "tigerbank-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ThreadLocal<SyncScope> syncScope = ThreadLocal.withInitial(SyncScope::new);
+    private Journal journal;
+
+    public JournaledStorage(Path directory,
+            BankAccountRepository accountRepository,
+            CategoryRepository categoryRepository,
+            OperationRepository operationRepository) {
+        this(directory, accountRepository, categoryRepository, operationRepository, 100_000, 10);
+    }
+
+    public JournaledStorage(Path directory,
+            BankAccountRepository accountRepository,
+            CategoryRepository categoryRepository,
+            OperationRepository operationRepository,
+            long snapshotEvery,
+            long commitIntervalMillis) {
+        this.journalPath = directory.resolve("journal.log");
+        this.archivePath = directory.resolve("journal.old");
+        this.snapshotPath = directory.resolve("snapshot.bin");
+        this.accountRepository = accountRepository;
+        this.categoryRepository = categoryRepository;
+        this.operationRepository = operationRepository;
+        this.snapshotEvery = snapshotEvery;
+        this.commitIntervalMillis = commitIntervalMillis;
+    }
+
+    public void open() {
+        try {
+            Files.createDirectories(journalPath.getParent());
+
+            long lastLsn = loadSnapshot();
+            if (Files.exists(archivePath)) {
+                lastLsn = Journal.replay(archivePath, lastLsn, this::applyRecord);
+            }
+            if (Files.exists(journalPath)) {
+                lastLsn = Journal.replay(journalPath, lastLsn, this::applyRecord);
+            }
+
+            journal = Journal.open(journalPath, lastLsn, 1 << 20, commitIntervalMillis);
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка восстановления данных: " + e.getMessage(), e);
+        }
+
+        accountRepository.addListener(new JournalListener<>(SAVE_ACCOUNT, DELETE_ACCOUNT, CLEAR_ACCOUNTS) {
+            @Override
+            void write(DataOutputStream out, BankAccount account) throws IOException {
+                EntityCodec.writeAccount(out, account);
+            }
+        });
+        categoryRepository.addListener(new JournalListener<>(SAVE_CATEGORY, DELETE_CATEGORY, CLEAR_CATEGORIES) {
+            @Override
+            void write(DataOutputStream out, Category category) throws IOException {
+                EntityCodec.writeCategory(out, category);
+            }
+        });
+        operationRepository.addListener(new JournalListener<>(SAVE_OPERATION, DELETE_OPERATION, CLEAR_OPERATIONS) {
+            @Override
+            void write(DataOutputStream out, Operation operation) throws IOException {
+                EntityCodec.writeOperation(out, operation);
+            }
+        });
+    }
+
+    public void snapshot() {
+        if (!snapshotLock.tryLock()) {
+            return;
+        }
+        try {
+            long lsn;
+            if (Files.exists(archivePath)) {
+                // Прошлый снимок не дописан: архив еще нужен, журнал дописывается
+                journal.commit();
+                lsn = journal.getLastLsn();
+            } else {
+                lsn = journal.rotate(archivePath);
+            }
+            writeSnapshot(lsn);
+            Files.deleteIfExists(archivePath);
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка создания снимка: " + e.getMessage(), e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    public void flush() {
+        try {
+            journal.commit();
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка записи журнала: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Дожидается начатого снимка и закрывает журнал.
+     */
+    @Override
+    public void close() {
+        snapshotter.shutdown();
+        if (journal == null) {
+            return;
+        }
+        try {
+            snapshotter.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка закрытия журнала: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Выполняет действие, не дожидаясь диска после каждого изменения:
+     * поток ждет записи журнала один раз, перед возвратом результата.
+     * Нужно для массовых операций вроде импорта.
+     */
+    public <T> T deferSync(Supplier<T> action) {
+        SyncScope scope = syncScope.get();
+        scope.depth++;
+        T result;
+        try {
+            result = action.get();
+        } finally {
+            scope.depth--;
+        }
+        if (scope.depth == 0 && scope.lsn > 0) {
+            long lsn = scope.lsn;
+            scope.lsn = 0;
+            awaitDurable(lsn);
+        }
+        return result;
+    }
+
+    private void append(byte kind, EntityWriter writer) {
+        long lsn;
+        boolean snapshotDue;
+        synchronized (journal) {
+            try {
+                scratch.reset();
+                writer.write(scratchOut);
+                lsn = journal.append(kind, scratch.array(), scratch.size());
+            } catch (IOException e) {
+                throw new RuntimeException("Ошибка записи журнала: " + e.getMessage(), e);
+            }
+            snapshotDue = journal.getRecordsSinceRotate() >= snapshotEvery;
+        }
+        if (snapshotDue && snapshotScheduled.compareAndSet(false, true)) {
+            snapshotter.execute(this::scheduledSnapshot);
+        }
+        SyncScope scope = syncScope.get();
+        if (scope.depth > 0) {
+            scope.lsn = lsn;
+        } else {
+            awaitDurable(lsn);
+        }
+    }
+
+    private void awaitDurable(long lsn) {
+        try {
+            journal.awaitDurable(lsn);
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка записи журнала: " + e.getMessage(), e);
+        }
+    }
+
+    private void scheduledSnapshot() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+        } finally {
+            snapshotScheduled.set(false);
+        }
+    }
+
+    private void applyRecord(long lsn, byte kind, DataInput in) throws IOException {
+        switch (kind) {
+            case SAVE_ACCOUNT:
+                accountRepository.save(EntityCodec.readAccount(in));
+                break;
+            case DELETE_ACCOUNT:
+                accountRepository.delete(EntityCodec.readUuid(in));
+                break;
+            case CLEAR_ACCOUNTS:
+                accountRepository.clear();
+                break;
+            case SAVE_CATEGORY:
+                categoryRepository.save(EntityCodec.readCategory(in));
+                break;
+            case DELETE_CATEGORY:
+                categoryRepository.delete(EntityCodec.readUuid(in));
+                break;
+            case CLEAR_CATEGORIES:
+                categoryRepository.clear();
+                break;
+            case SAVE_OPERATION:
+                operationRepository.save(EntityCodec.readOperation(in));
+                break;
+            case DELETE_OPERATION:
+                operationRepository.delete(EntityCodec.readUuid(in));
+                break;
+            case CLEAR_OPERATIONS:
+                operationRepository.clear();
+                break;
+            default:
+                throw new IOException("Неизвестный тип записи журнала: " + kind + " (lsn " + lsn + ")");
+        }
+    }
+
+    private long loadSnapshot() throws IOException {
+        if (!Files.exists(snapshotPath)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(snapshotPath), 1 << 16))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Неподдерживаемый формат снимка: " + snapshotPath);
+            }
+            long lsn = in.readLong();
+
+            int accounts = in.readInt();
+            for (int i = 0; i < accounts; i++) {
+                accountRepository.save(EntityCodec.readAccount(in));
+            }
+            int categories = in.readInt();
+            for (int i = 0; i < categories; i++) {
+                categoryRepository.save(EntityCodec.readCategory(in));
+            }
+            int operations = in.readInt();
+            for (int i = 0; i < operations; i++) {
+                operationRepository.save(EntityCodec.readOperation(in));
+            }
+            return lsn;
+        }
+    }
+
+    private void writeSnapshot(long lsn) throws IOException {
+        Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(lsn);
+
+            List<BankAccount> accounts = accountRepository.findAll();
+            out.writeInt(accounts.size());
+            for (BankAccount account : accounts) {
+                EntityCodec.writeAccount(out, account);
+            }
+            List<Category> categories = categoryRepository.findAll();
+            out.writeInt(categories.size());
+            for (Category category : categories) {
+                EntityCodec.writeCategory(out, category);
+            }
+            List<Operation> operations = operationRepository.findAll();
+            out.writeInt(operations.size());
+            for (Operation operation : operations) {
+                EntityCodec.writeOperation(out, operation);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private interface EntityWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private abstract class JournalListener<T> implements RepositoryListener<T> {
+        private final byte saveKind;
+        private final byte deleteKind;
+        private final byte clearKind;
+
+        JournalListener(byte saveKind, byte deleteKind, byte clearKind) {
+            this.saveKind = saveKind;
+            this.deleteKind = deleteKind;
+            this.clearKind = clearKind;
+        }
+
+        abstract void write(DataOutputStream out, T entity) throws IOException;
+
+        @Override
+        public void onSaved(T entity) {
+            append(saveKind, out -> write(out, entity));
+        }
+
+        @Override
+        public void onDeleted(UUID id) {
+            append(deleteKind, out -> EntityCodec.writeUuid(out, id));
+        }
+
+        @Override
+        public void onCleared() {
+            append(clearKind, out -> {
+            });
+        }
+    }
+
+    private static class RecordBuffer extends ByteArrayOutputStream {
+        RecordBuffer() {
+            super(256);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
+
+    private static final class SyncScope {
+        int depth;
+        long lsn;
+    }
+}
\ No newline at end of file
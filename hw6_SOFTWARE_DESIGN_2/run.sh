@@ -29,6 +29,7 @@ javac -cp ".:$JSON_JAR" -d . \
     com/tigerbank/domain/*.java \
     com/tigerbank/domain/factory/*.java \
     com/tigerbank/repository/*.java \
+    com/tigerbank/storage/*.java \
     com/tigerbank/service/*.java \
     com/tigerbank/facade/*.java \
     com/tigerbank/exporter/*.java \
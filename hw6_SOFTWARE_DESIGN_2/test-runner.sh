@@ -1,17 +1,24 @@
 #!/bin/bash
 
-CLASSPATH=".:junit-4.13.2.jar:hamcrest-core-1.3.jar"
+CLASSPATH=".:junit-4.13.2.jar:hamcrest-core-1.3.jar:lib/json-20210307.jar"
 
 find . -name "*Test.class" -delete 2>/dev/null
 
-javac -d . \
+javac -cp "$CLASSPATH" -d . \
     com/tigerbank/enums/OperationType.java \
     com/tigerbank/domain/BankAccount.java \
     com/tigerbank/domain/Category.java \
     com/tigerbank/domain/Operation.java \
     com/tigerbank/repository/Repository.java \
+    com/tigerbank/repository/OperationIndex.java \
+    com/tigerbank/repository/OperationStore.java \
+    com/tigerbank/repository/HeapOperationStore.java \
+    com/tigerbank/repository/RepositoryListener.java \
+    com/tigerbank/repository/RepositoryListeners.java \
     com/tigerbank/repository/BankAccountRepository.java \
     com/tigerbank/repository/CategoryRepository.java \
+    com/tigerbank/repository/DailyPrefixSums.java \
+    com/tigerbank/repository/OperationAggregates.java \
     com/tigerbank/repository/OperationRepository.java \
     com/tigerbank/service/AccountService.java \
     com/tigerbank/service/CategoryService.java \
@@ -20,7 +27,7 @@ javac -d . \
     com/tigerbank/service/FileExporter.java 2>&1 | grep -v "Note:"
 
 ERROR=0
-for testfile in test/com/tigerbank/domain/*.java test/com/tigerbank/repository/*.java test/com/tigerbank/service/*.java; do
+for testfile in test/com/tigerbank/*/*.java; do
     if [ -f "$testfile" ]; then
         javac -cp "$CLASSPATH" -d . "$testfile" 2>&1
         if [ $? -ne 0 ]; then
@@ -33,17 +40,41 @@ if [ $ERROR -eq 0 ]; then
     java -cp "$CLASSPATH" org.junit.runner.JUnitCore \
         com.tigerbank.domain.BankAccountTest \
         com.tigerbank.domain.CategoryTest \
+        com.tigerbank.domain.MoneyTest \
         com.tigerbank.domain.OperationTest 2>&1
     
     java -cp "$CLASSPATH" org.junit.runner.JUnitCore \
         com.tigerbank.repository.BankAccountRepositoryTest \
         com.tigerbank.repository.CategoryRepositoryTest \
+        com.tigerbank.repository.ChangeLogTest \
+        com.tigerbank.repository.ConcurrentRepositoryTest \
+        com.tigerbank.repository.DescriptionIndexTest \
+        com.tigerbank.repository.OperationAggregatesTest \
+        com.tigerbank.repository.OperationQueryTest \
         com.tigerbank.repository.OperationRepositoryTest 2>&1
     
     java -cp "$CLASSPATH" org.junit.runner.JUnitCore \
         com.tigerbank.service.AccountServiceTest \
+        com.tigerbank.service.AnalyticsEngineTest \
+        com.tigerbank.service.AnalyticsJobServiceTest \
         com.tigerbank.service.CategoryServiceTest \
         com.tigerbank.service.OperationServiceTest 2>&1
+
+    java -cp "$CLASSPATH" org.junit.runner.JUnitCore \
+        com.tigerbank.storage.ColumnarOperationStoreTest \
+        com.tigerbank.storage.JournaledStorageTest 2>&1
+
+    java -cp "$CLASSPATH" org.junit.runner.JUnitCore \
+        com.tigerbank.importer.CsvImporterTest \
+        com.tigerbank.importer.JsonImporterTest \
+        com.tigerbank.importer.SnapshotImporterTest \
+        com.tigerbank.exporter.RecordWriterTest 2>&1
+
+    java -cp "$CLASSPATH" org.junit.runner.JUnitCore \
+        com.tigerbank.command.CommandTest \
+        com.tigerbank.command.LatencyHistogramTest \
+        com.tigerbank.di.DIContainerTest \
+        com.tigerbank.event.DomainEventBusTest 2>&1
 else
     for testfile in test/com/tigerbank/domain/*.java; do
         if [ -f "$testfile" ]; then
@@ -10,7 +10,14 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -20,13 +27,14 @@ public class CommandTest {
     private CategoryService categoryService;
     private CommandExecutor commandExecutor;
     private DomainFactory domainFactory;
+    private BankAccountRepository accountRepo;
 
     @Before
     public void setUp() {
         domainFactory = new DomainFactoryImpl();
 
         OperationRepository operationRepo = new OperationRepository(null, null);
-        BankAccountRepository accountRepo = new BankAccountRepository(operationRepo);
+        accountRepo = new BankAccountRepository(operationRepo);
         CategoryRepository categoryRepo = new CategoryRepository(operationRepo);
 
         operationRepo = new OperationRepository(accountRepo, categoryRepo);
@@ -105,4 +113,308 @@ public class CommandTest {
         assertTrue(accountService.getAccount(accountId).isEmpty());
         assertTrue(command.getExecutionTime() > 0);
     }
+
+    @Test
+    public void testBatchCommandCoalescesBalanceUpdates() {
+        // Given
+        BankAccount account = accountService.createAccount("Пакетный счет");
+        categoryService.loadDefaultCategories();
+        UUID income = categoryService.getCategoriesByType(OperationType.INCOME).get(0).getId();
+        UUID expense = categoryService.getCategoriesByType(OperationType.EXPENSE).get(0).getId();
+
+        List<Command> commands = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            boolean isIncome = i % 4 != 0;
+            commands.add(new CreateOperationCommand(operationService,
+                    isIncome ? OperationType.INCOME : OperationType.EXPENSE,
+                    account.getId(), new BigDecimal("10"), isIncome ? income : expense, "Операция " + i));
+        }
+        int[] balanceSaves = new int[1];
+        accountRepo.addListener(new RepositoryListener<BankAccount>() {
+            @Override
+            public void onSaved(BankAccount entity) {
+                balanceSaves[0]++;
+            }
+
+            @Override
+            public void onDeleted(UUID id) {
+            }
+
+            @Override
+            public void onCleared() {
+            }
+        });
+
+        // When
+        BatchCommand batch = commandExecutor.executeBatch("Ввод выписки", commands);
+
+        // Then
+        assertEquals(1000, operationService.getAllOperations().size());
+        assertEquals(0, new BigDecimal("5000").compareTo(accountService.getAccount(account.getId()).get().getBalance()));
+        assertEquals(1, balanceSaves[0]);
+        assertEquals(1, commandExecutor.getHistory().size());
+        assertTrue(batch.getExecutionTime() > 0);
+
+        // When - Undo
+        commandExecutor.undo();
+
+        // Then
+        assertEquals(0, operationService.getAllOperations().size());
+        assertEquals(0, BigDecimal.ZERO.compareTo(accountService.getAccount(account.getId()).get().getBalance()));
+        assertEquals(2, balanceSaves[0]);
+    }
+
+    @Test
+    public void testFailedBatchIsRolledBack() {
+        // Given
+        BankAccount account = accountService.createAccount("Счет");
+        categoryService.loadDefaultCategories();
+        UUID income = categoryService.getCategoriesByType(OperationType.INCOME).get(0).getId();
+
+        BatchCommand batch = new BatchCommand("Ошибочный пакет")
+                .add(new CreateOperationCommand(operationService, OperationType.INCOME,
+                        account.getId(), new BigDecimal("100"), income, "ok"))
+                .add(new CreateAccountCommand(accountService, "Новый счет"))
+                .add(new CreateOperationCommand(operationService, OperationType.INCOME,
+                        UUID.randomUUID(), new BigDecimal("100"), income, "нет счета"));
+
+        // When
+        try {
+            commandExecutor.executeCommand(batch);
+            fail("Ожидалась ошибка");
+        } catch (IllegalArgumentException e) {
+            // Then
+            assertEquals(0, operationService.getAllOperations().size());
+            assertEquals(1, accountService.getAllAccounts().size());
+            assertEquals(0, BigDecimal.ZERO.compareTo(accountService.getAccount(account.getId()).get().getBalance()));
+            assertTrue(commandExecutor.getHistory().isEmpty());
+        }
+    }
+
+    @Test
+    public void testUndoDeleteAccountRestoresOperations() {
+        // Given
+        BankAccount account = accountService.createAccount("Счет с операциями");
+        categoryService.loadDefaultCategories();
+        UUID income = categoryService.getCategoriesByType(OperationType.INCOME).get(0).getId();
+        for (int i = 0; i < 10; i++) {
+            operationService.createOperation(OperationType.INCOME, account.getId(),
+                    new BigDecimal("15.50"), income, "Операция " + i);
+        }
+
+        DeleteAccountCommand command = new DeleteAccountCommand(accountService, operationService, account.getId());
+        commandExecutor.executeCommand(command);
+        assertEquals(0, operationService.getAllOperations().size());
+
+        // When
+        commandExecutor.undo();
+
+        // Then
+        assertEquals(10, operationService.getOperationsByAccount(account.getId()).size());
+        assertEquals(0, new BigDecimal("155.00").compareTo(
+                accountService.getAccount(account.getId()).get().getBalance()));
+
+        // When - Redo
+        commandExecutor.redo();
+
+        // Then
+        assertTrue(accountService.getAccount(account.getId()).isEmpty());
+        assertEquals(0, operationService.getAllOperations().size());
+    }
+
+    @Test
+    public void testHistoryIsBoundedAndSpillsOldCommands() throws Exception {
+        // Given
+        Path log = Files.createTempFile("history", ".log");
+        CommandHistory history = new CommandHistory(5, 1024 * 1024, log);
+        CommandExecutor executor = new CommandExecutor(history);
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            executor.executeCommand(new CreateAccountCommand(accountService, "Счет " + i));
+        }
+        history.close();
+
+        // Then
+        assertEquals(5, history.size());
+        assertEquals(15, history.getEvictedCount());
+        assertTrue(Files.size(log) > 0);
+
+        for (int i = 0; i < 5; i++) {
+            executor.undo();
+        }
+        assertEquals(15, accountService.getAllAccounts().size());
+        assertTrue(history.isEmpty());
+
+        Files.delete(log);
+    }
+
+    @Test
+    public void testSpillFailureKeepsCommandsInHistory() throws Exception {
+        // Given: вместо файла журнала каталог, открыть его на запись нельзя
+        Path log = Files.createTempDirectory("history");
+        CommandHistory history = new CommandHistory(5, 1024 * 1024, log);
+        CommandExecutor executor = new CommandExecutor(history);
+
+        // When
+        for (int i = 0; i < 8; i++) {
+            executor.executeCommand(new CreateAccountCommand(accountService, "Счет " + i));
+        }
+
+        // Then
+        assertEquals(8, accountService.getAllAccounts().size());
+        assertEquals(5, history.size());
+        assertEquals(3, history.getUnwrittenCount());
+
+        Files.delete(log);
+        executor.executeCommand(new CreateAccountCommand(accountService, "Счет 8"));
+        history.close();
+        assertEquals(0, history.getUnwrittenCount());
+        assertTrue(Files.size(log) > 0);
+
+        Files.delete(log);
+    }
+
+    @Test
+    public void testHistoryIsBoundedByEstimatedSize() {
+        // Given
+        CommandHistory history = new CommandHistory(1000, 4 * AbstractCommand.BASE_SIZE);
+        CommandExecutor executor = new CommandExecutor(history);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            executor.executeCommand(new CreateAccountCommand(accountService, "Счет"));
+        }
+
+        // Then
+        assertTrue(history.size() < 4);
+        assertTrue(history.getEstimatedBytes() <= history.getMaxBytes());
+    }
+
+    @Test
+    public void testCreateAndDeleteOfAccountAreCompacted() {
+        // Given
+        commandExecutor.executeCommand(new CreateAccountCommand(accountService, "Первый"));
+        CreateAccountCommand create = new CreateAccountCommand(accountService, "Временный");
+        commandExecutor.executeCommand(create);
+
+        // When
+        commandExecutor.executeCommand(new DeleteAccountCommand(
+                accountService, operationService, create.getCreatedAccountId()));
+
+        // Then
+        assertEquals(1, commandExecutor.getHistory().size());
+        commandExecutor.undo();
+        assertTrue(accountService.getAllAccounts().isEmpty());
+    }
+
+    @Test
+    public void testRedoKeepsRemainingRedoEntries() {
+        // Given
+        commandExecutor.executeCommand(new CreateAccountCommand(accountService, "A"));
+        commandExecutor.executeCommand(new CreateAccountCommand(accountService, "B"));
+        commandExecutor.undo();
+        commandExecutor.undo();
+
+        // When
+        commandExecutor.redo();
+        commandExecutor.redo();
+
+        // Then
+        assertEquals(2, accountService.getAllAccounts().size());
+        assertEquals(2, commandExecutor.getHistory().size());
+    }
+
+    @Test
+    public void testAsyncCommandsAreSerializedWithUndoAndRedo() throws Exception {
+        // Given
+        List<CompletableFuture<Command>> futures = new ArrayList<>();
+        Thread[] producers = new Thread[4];
+        for (int t = 0; t < producers.length; t++) {
+            producers[t] = new Thread(() -> {
+                for (int i = 0; i < 50; i++) {
+                    CompletableFuture<Command> future = commandExecutor.submit(
+                            new CreateAccountCommand(accountService, "Счет"));
+                    synchronized (futures) {
+                        futures.add(future);
+                    }
+                }
+            });
+            producers[t].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        // When
+        CompletableFuture<Command> undo = commandExecutor.submitUndo();
+        CompletableFuture<Command> redo = commandExecutor.submitRedo();
+        Command undone = undo.get(10, TimeUnit.SECONDS);
+
+        // Then
+        assertSame(undone, redo.get(10, TimeUnit.SECONDS));
+        for (CompletableFuture<Command> future : futures) {
+            assertTrue(future.isDone());
+            assertTrue(future.get().getExecutionTime() > 0);
+        }
+        assertEquals(200, accountService.getAllAccounts().size());
+        assertEquals(200, commandExecutor.getHistory().size());
+
+        // When - синхронный вызов после запуска исполнителя идет через очередь
+        commandExecutor.undo();
+
+        // Then
+        assertEquals(199, accountService.getAllAccounts().size());
+        commandExecutor.shutdown();
+    }
+
+    @Test
+    public void testAsyncCommandFailureCompletesFutureExceptionally() throws Exception {
+        // Given
+        CreateOperationCommand command = new CreateOperationCommand(operationService, OperationType.INCOME,
+                UUID.randomUUID(), new BigDecimal("10"), UUID.randomUUID(), "нет счета");
+
+        // When
+        CompletableFuture<Command> future = commandExecutor.submit(command);
+
+        // Then
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            fail("Ожидалась ошибка");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+        assertTrue(commandExecutor.getHistory().isEmpty());
+        assertNull(commandExecutor.submitUndo().get(10, TimeUnit.SECONDS));
+        assertEquals(1, commandExecutor.getMetrics().snapshot().get(0).getErrors());
+        commandExecutor.shutdown();
+    }
+
+    @Test
+    public void testTasksRacingShutdownAlwaysComplete() throws Exception {
+        // Given
+        commandExecutor.submitTask(() -> null).get(10, TimeUnit.SECONDS);
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                int value = i;
+                futures.add(commandExecutor.submitTask(() -> value));
+            }
+        });
+
+        // When
+        producer.start();
+        commandExecutor.shutdown();
+        producer.join();
+
+        // Then - каждая заявка либо выполнена, либо отклонена, но не висит
+        for (CompletableFuture<Integer> future : futures) {
+            try {
+                future.get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+        assertTrue(commandExecutor.submitTask(() -> 1).isCompletedExceptionally());
+    }
 }
\ No newline at end of file
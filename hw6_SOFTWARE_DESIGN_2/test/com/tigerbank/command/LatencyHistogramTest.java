@@ -0,0 +1,80 @@
+package com.tigerbank.command;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentilesWithinPrecision() {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // When
+        for (long i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1000);
+        }
+
+        // Then
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMax());
+        assertEquals(5_000_000, histogram.getValueAtPercentile(50), 5_000_000 * 0.016);
+        assertEquals(9_900_000, histogram.getValueAtPercentile(99), 9_900_000 * 0.016);
+        assertEquals(10_000_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testBucketBoundaries() {
+        for (long value : new long[] { 0, 1, 127, 128, 129, 255, 256, 1_000_003, LatencyHistogram.MAX_TRACKABLE - 1 }) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.highestEquivalent(index) >= value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.highestEquivalent(index - 1) < value);
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentRecording() throws Exception {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads[t].start();
+        }
+
+        // When
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then
+        assertEquals(400_000, histogram.getCount());
+        assertEquals(99_999, histogram.getMax());
+    }
+
+    @Test
+    public void testMetricsCountErrorsPerCommandClass() {
+        // Given
+        CommandMetrics metrics = new CommandMetrics();
+
+        // When
+        metrics.record(CreateAccountCommand.class, 1_000_000, false);
+        metrics.record(CreateAccountCommand.class, 3_000_000, true);
+        metrics.record(DeleteAccountCommand.class, 500, false);
+
+        // Then
+        CommandStats create = metrics.snapshot().get(0);
+        assertEquals("CreateAccountCommand", create.getCommandType());
+        assertEquals(2, create.getCount());
+        assertEquals(0.5, create.getErrorRate(), 1e-9);
+        assertEquals(3_000_000, create.getMax());
+        assertEquals(2, metrics.snapshot().size());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.tigerbank.di;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class DIContainerTest {
+
+    static class Repository {
+    }
+
+    static class Service {
+        final Repository repository;
+
+        Service(Repository repository) {
+            this.repository = repository;
+        }
+    }
+
+    static class Facade {
+        final Service service;
+
+        Facade(Service service) {
+            this.service = service;
+        }
+    }
+
+    @Singleton
+    static class Annotated {
+    }
+
+    static class Prototype {
+    }
+
+    static class First {
+    }
+
+    static class Second {
+    }
+
+    @Test
+    public void testSingletonsAreCreatedEagerlyInDependencyOrder() {
+        // Given
+        DIContainer container = new DIContainer();
+        AtomicInteger created = new AtomicInteger();
+        container.registerSingleton(Facade.class, () -> new Facade(container.resolve(Service.class)));
+        container.registerSingleton(Service.class, () -> {
+            created.incrementAndGet();
+            return new Service(container.resolve(Repository.class));
+        });
+        container.registerSingleton(Repository.class, Repository::new);
+
+        // When
+        container.start();
+
+        // Then
+        assertEquals(Arrays.asList(Repository.class, Service.class, Facade.class), container.getStartupOrder());
+        assertEquals(1, created.get());
+        assertSame(container.resolve(Service.class), container.resolve(Facade.class).service);
+        assertTrue(container.getDependencies(Facade.class).contains(Service.class));
+        assertTrue(container.getStartupTimeNanos() > 0);
+    }
+
+    @Test
+    public void testScopeFromAnnotation() {
+        // Given
+        DIContainer container = new DIContainer();
+        container.register(Annotated.class, Annotated::new);
+        container.register(Prototype.class, Prototype::new);
+
+        // Then
+        assertSame(container.resolve(Annotated.class), container.resolve(Annotated.class));
+        assertNotSame(container.resolve(Prototype.class), container.resolve(Prototype.class));
+    }
+
+    @Test
+    public void testCycleIsDetected() {
+        // Given
+        DIContainer container = new DIContainer();
+        container.registerSingleton(First.class, () -> {
+            container.resolve(Second.class);
+            return new First();
+        });
+        container.registerSingleton(Second.class, () -> {
+            container.resolve(First.class);
+            return new Second();
+        });
+
+        // When
+        try {
+            container.start();
+            fail("Ожидалась ошибка");
+        } catch (IllegalStateException e) {
+            // Then
+            assertTrue(e.getMessage().contains("First -> Second -> First"));
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testMissingDependency() {
+        new DIContainer().resolve(Repository.class);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.tigerbank.domain;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.math.BigDecimal;
+
+public class MoneyTest {
+
+    @Test
+    public void testKeepsBigDecimalRepresentation() {
+        Money whole = Money.of(new BigDecimal("1000"));
+        Money cents = Money.of(new BigDecimal("0.05"));
+
+        assertEquals(100000, whole.getMinorUnits());
+        assertEquals(new BigDecimal("1000"), whole.toBigDecimal());
+        assertEquals(new BigDecimal("1000.05"), whole.plus(cents).toBigDecimal());
+        assertEquals(new BigDecimal("-999.95"), cents.minus(whole).toBigDecimal());
+        assertEquals(Money.of(new BigDecimal("1000.00")), whole);
+    }
+
+    @Test
+    public void testRejectsUnrepresentableAmounts() {
+        assertFalse(Money.isRepresentable(new BigDecimal("0.001")));
+        assertFalse(Money.isRepresentable(new BigDecimal("1E+3")));
+        assertFalse(Money.isRepresentable(new BigDecimal("100000000000000000")));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("0.001")));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)));
+    }
+
+    @Test
+    public void testSumFallsBackToBigDecimalOnOverflow() {
+        MoneySum sum = new MoneySum();
+        sum.add(Money.ofMinor(Long.MAX_VALUE));
+        sum.add(Money.ofMinor(Long.MAX_VALUE));
+        sum.add(new BigDecimal("0.001"));
+        sum.subtract(Money.of(new BigDecimal("1")));
+
+        BigDecimal expected = BigDecimal.valueOf(Long.MAX_VALUE, 2).multiply(BigDecimal.valueOf(2))
+                .add(new BigDecimal("0.001")).subtract(BigDecimal.ONE);
+        assertEquals(0, expected.compareTo(sum.toBigDecimal()));
+        assertNull(sum.toMoney());
+    }
+
+    @Test
+    public void testBalanceUpdatesInMinorUnits() {
+        BankAccount account = new BankAccount("Test Account");
+        account.addToBalance(Money.of(new BigDecimal("1000")));
+        assertEquals(new BigDecimal("1000"), account.getBalance());
+
+        account.subtractFromBalance(Money.of(new BigDecimal("250.50")));
+        assertEquals(new BigDecimal("749.50"), account.getBalance());
+
+        account.setBalance(new BigDecimal("0.001"));
+        account.addToBalance(Money.of(new BigDecimal("1")));
+        assertEquals(new BigDecimal("1.001"), account.getBalance());
+    }
+}
\ No newline at end of file
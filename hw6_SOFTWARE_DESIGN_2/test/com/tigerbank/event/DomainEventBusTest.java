@@ -0,0 +1,165 @@
+package com.tigerbank.event;
+
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import com.tigerbank.repository.BankAccountRepository;
+import com.tigerbank.repository.CategoryRepository;
+import com.tigerbank.repository.ChangeSet;
+import com.tigerbank.repository.OperationRepository;
+import com.tigerbank.service.AccountService;
+import com.tigerbank.service.CategoryService;
+import com.tigerbank.service.OperationService;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DomainEventBusTest {
+
+    private final List<Runnable> ticks = new ArrayList<>();
+    private final List<List<DomainEvent>> batches = new ArrayList<>();
+
+    private DomainEventBus bus;
+    private AccountService accountService;
+    private CategoryService categoryService;
+    private OperationService operationService;
+    private OperationRepository operationRepository;
+
+    @Before
+    public void setUp() {
+        operationRepository = new OperationRepository(null, null);
+        BankAccountRepository accountRepository = new BankAccountRepository(operationRepository);
+        CategoryRepository categoryRepository = new CategoryRepository(operationRepository);
+        operationRepository = new OperationRepository(accountRepository, categoryRepository);
+
+        accountService = new AccountService(accountRepository, operationRepository);
+        categoryService = new CategoryService(categoryRepository);
+        operationService = new OperationService(operationRepository, accountService, categoryService);
+
+        bus = new DomainEventBus(ticks::add);
+        bus.attach(accountRepository, categoryRepository, operationRepository);
+        bus.subscribe(batches::add);
+    }
+
+    @Test
+    public void testEventsAreDeliveredOncePerTick() {
+        BankAccount account = accountService.createAccount("Account");
+        Category category = categoryService.createCategory(OperationType.INCOME, "Salary");
+
+        assertEquals(1, ticks.size());
+        assertTrue(batches.isEmpty());
+
+        runTicks();
+        assertEquals(1, batches.size());
+        assertEquals(DomainEvent.Type.ACCOUNT_CREATED, batches.get(0).get(0).getType());
+        assertEquals(account.getId(), batches.get(0).get(0).getId());
+        assertEquals(DomainEvent.Type.CATEGORY_CREATED, batches.get(0).get(1).getType());
+        assertEquals(category, batches.get(0).get(1).getCategory());
+    }
+
+    @Test
+    public void testNewOperationPublishesOperationAndBalance() {
+        BankAccount account = accountService.createAccount("Account");
+        Category category = categoryService.createCategory(OperationType.INCOME, "Salary");
+        runTicks();
+        batches.clear();
+
+        Operation operation = operationService.createOperation(OperationType.INCOME, account.getId(),
+                new BigDecimal("100.00"), category.getId(), "Salary");
+        runTicks();
+
+        List<DomainEvent> batch = batches.get(0);
+        assertEquals(2, batch.size());
+        assertEquals(DomainEvent.Type.BALANCE_CHANGED, batch.get(0).getType());
+        assertEquals(0, BigDecimal.ZERO.compareTo(batch.get(0).getPreviousBalance()));
+        assertEquals(DomainEvent.Type.OPERATION_CREATED, batch.get(1).getType());
+        assertEquals(operation.getId(), batch.get(1).getId());
+    }
+
+    @Test
+    public void testChangesWithinTickAreCoalesced() {
+        BankAccount account = accountService.createAccount("Account");
+        Category category = categoryService.createCategory(OperationType.INCOME, "Salary");
+        runTicks();
+        batches.clear();
+
+        Operation temporary = operationService.createOperation(OperationType.INCOME, account.getId(),
+                new BigDecimal("10"), category.getId(), "Temporary");
+        operationService.createOperation(OperationType.INCOME, account.getId(),
+                new BigDecimal("20"), category.getId(), "Kept");
+        operationService.deleteOperation(temporary.getId());
+        account.setName("Renamed");
+        accountService.updateAccount(account);
+        runTicks();
+
+        List<DomainEvent> batch = batches.get(0);
+        assertEquals(2, batch.size());
+        assertEquals(DomainEvent.Type.ACCOUNT_UPDATED, batch.get(0).getType());
+        assertEquals(0, BigDecimal.ZERO.compareTo(batch.get(0).getPreviousBalance()));
+        assertEquals(DomainEvent.Type.OPERATION_CREATED, batch.get(1).getType());
+        assertEquals("Kept", batch.get(1).getOperation().getDescription());
+    }
+
+    @Test
+    public void testClearDropsEarlierEventsAndFilterApplies() {
+        List<List<DomainEvent>> operationBatches = new ArrayList<>();
+        bus.subscribe(DomainEvent.typesOf(ChangeSet.Entity.OPERATION), operationBatches::add);
+
+        BankAccount account = accountService.createAccount("Account");
+        Category category = categoryService.createCategory(OperationType.EXPENSE, "Food");
+        runTicks();
+        assertTrue(operationBatches.isEmpty());
+
+        operationService.createOperation(OperationType.EXPENSE, account.getId(),
+                new BigDecimal("5"), category.getId(), "Lunch");
+        operationService.createOperation(OperationType.EXPENSE, account.getId(),
+                new BigDecimal("7"), category.getId(), "Coffee");
+        operationRepository.clear();
+        Operation dinner = operationService.createOperation(OperationType.EXPENSE, account.getId(),
+                new BigDecimal("9"), category.getId(), "Dinner");
+        runTicks();
+
+        List<DomainEvent> batch = operationBatches.get(0);
+        assertEquals(2, batch.size());
+        assertEquals(DomainEvent.Type.OPERATIONS_CLEARED, batch.get(0).getType());
+        assertEquals(DomainEvent.Type.OPERATION_CREATED, batch.get(1).getType());
+        assertEquals(dinner.getId(), batch.get(1).getId());
+
+        List<DomainEvent> all = batches.get(batches.size() - 1);
+        assertEquals(DomainEvent.Type.BALANCE_CHANGED, all.get(0).getType());
+        assertEquals(3, all.size());
+    }
+
+    @Test
+    public void testResavedOperationIsUpdatedAndItsDeleteKept() {
+        BankAccount account = accountService.createAccount("Account");
+        Category category = categoryService.createCategory(OperationType.INCOME, "Salary");
+        Operation existing = operationService.createOperation(OperationType.INCOME, account.getId(),
+                new BigDecimal("10"), category.getId(), "Existing");
+        runTicks();
+        batches.clear();
+
+        existing.setDescription("Edited");
+        operationRepository.save(existing);
+        runTicks();
+        assertEquals(DomainEvent.Type.OPERATION_UPDATED, batches.get(0).get(0).getType());
+
+        operationRepository.save(existing);
+        operationRepository.delete(existing.getId());
+        runTicks();
+        List<DomainEvent> batch = batches.get(1);
+        assertEquals(1, batch.size());
+        assertEquals(DomainEvent.Type.OPERATION_DELETED, batch.get(0).getType());
+        assertEquals(existing.getId(), batch.get(0).getId());
+    }
+
+    private void runTicks() {
+        List<Runnable> pending = new ArrayList<>(ticks);
+        ticks.clear();
+        pending.forEach(Runnable::run);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.tigerbank.exporter;
+
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Money;
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+public class RecordWriterTest {
+
+    @Test
+    public void testValuesMatchStandardFormatting() throws Exception {
+        String[] decimals = { "0", "0.00", "-0.50", "1234.5", "-987654321.123", "0.000001", "0.0000001",
+                "1E+3", "123456789012345678901234567890.12", "9223372036854775807" };
+        UUID id = UUID.randomUUID();
+        LocalDateTime date = LocalDateTime.of(812, 3, 4, 5, 6, 7);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StringBuilder expected = new StringBuilder();
+        try (RecordWriter writer = new RecordWriter(Channels.newChannel(out), StandardCharsets.UTF_8)) {
+            for (String decimal : decimals) {
+                writer.appendDecimal(new BigDecimal(decimal)).append(';');
+                expected.append(new BigDecimal(decimal)).append(';');
+                if (Money.isRepresentable(new BigDecimal(decimal))) {
+                    writer.appendMoney(Money.of(new BigDecimal(decimal))).append(';');
+                    expected.append(new BigDecimal(decimal)).append(';');
+                }
+            }
+            writer.appendLong(Long.MIN_VALUE).append(';').appendLong(-42).append(';');
+            writer.appendUuid(id).append(';').appendUuid(new UUID(0, -1)).append(';');
+            writer.appendDateTime(date);
+        }
+        expected.append(Long.MIN_VALUE).append(";-42;")
+                .append(id).append(';').append(new UUID(0, -1)).append(';')
+                .append("0812-03-04 05:06:07");
+
+        assertEquals(expected.toString(), new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testLargeOutputAcrossBuffers() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StringBuilder expected = new StringBuilder();
+        try (RecordWriter writer = new RecordWriter(Channels.newChannel(out), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < 100_000; i++) {
+                writer.append("Счёт ").appendLong(i).append("💰,");
+                expected.append("Счёт ").append(i).append("💰,");
+            }
+        }
+        assertEquals(expected.toString(), new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testJsonExportToChannelIsValidJson() throws Exception {
+        Category category = new Category(UUID.randomUUID(), OperationType.EXPENSE, "Food \"out\" side\\\n\t\u0001");
+        Operation operation = new Operation(UUID.randomUUID(), OperationType.EXPENSE, null,
+                new BigDecimal("12.30"), LocalDateTime.of(2024, 2, 29, 23, 59, 1), null, category.getId());
+
+        ByteArrayOutputStream categories = new ByteArrayOutputStream();
+        new JsonExporter().exportCategories(Arrays.asList(category), Channels.newChannel(categories));
+        ByteArrayOutputStream operations = new ByteArrayOutputStream();
+        new JsonExporter().exportOperations(Arrays.asList(operation), Channels.newChannel(operations));
+        ByteArrayOutputStream accounts = new ByteArrayOutputStream();
+        new JsonExporter().exportAccounts(Collections.<BankAccount>emptyList(), Channels.newChannel(accounts));
+
+        JSONObject categoryJson = new JSONArray(categories.toString()).getJSONObject(0);
+        assertEquals(category.getName(), categoryJson.getString("name"));
+        JSONObject operationJson = new JSONArray(operations.toString()).getJSONObject(0);
+        assertEquals("12.30", operationJson.getString("amount"));
+        assertEquals("2024-02-29 23:59:01", operationJson.getString("date"));
+        assertEquals("", operationJson.getString("bankAccountId"));
+        assertEquals(category.getId().toString(), operationJson.getString("categoryId"));
+        assertEquals(0, new JSONArray(accounts.toString()).length());
+    }
+
+    @Test
+    public void testCsvExportMatchesOperationCsv() throws Exception {
+        Operation operation = new Operation(UUID.randomUUID(), OperationType.INCOME, UUID.randomUUID(),
+                new BigDecimal("100.05"), LocalDateTime.of(2024, 1, 2, 3, 4, 5), "a,b", null);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new CsvExporter().exportOperations(Arrays.asList(operation), Channels.newChannel(out));
+
+        String[] lines = out.toString().split(System.lineSeparator());
+        assertEquals("# OPERATIONS", lines[0]);
+        assertEquals(operation.toCsv(), lines[2]);
+    }
+}
\ No newline at end of file
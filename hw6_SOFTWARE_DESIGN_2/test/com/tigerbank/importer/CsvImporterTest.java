@@ -0,0 +1,141 @@
+package com.tigerbank.importer;
+
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import com.tigerbank.exporter.CsvExporter;
+import com.tigerbank.repository.BankAccountRepository;
+import com.tigerbank.repository.CategoryRepository;
+import com.tigerbank.repository.OperationRepository;
+import com.tigerbank.service.AccountService;
+import com.tigerbank.service.CategoryService;
+import com.tigerbank.service.OperationService;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+public class CsvImporterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private AccountService accountService;
+    private CategoryService categoryService;
+    private OperationService operationService;
+
+    @Before
+    public void setUp() {
+        BankAccountRepository accountRepository = new BankAccountRepository(null);
+        CategoryRepository categoryRepository = new CategoryRepository(null);
+        OperationRepository operationRepository = new OperationRepository(accountRepository, categoryRepository);
+
+        accountService = new AccountService(accountRepository, operationRepository);
+        categoryService = new CategoryService(categoryRepository);
+        operationService = new OperationService(operationRepository, accountService, categoryService);
+    }
+
+    @Test
+    public void testImportExportedFiles() throws IOException {
+        BankAccount account = new BankAccount(UUID.randomUUID(), "Основной", new BigDecimal("700.00"));
+        Category salary = new Category(UUID.randomUUID(), OperationType.INCOME, "Зарплата");
+        Category food = new Category(UUID.randomUUID(), OperationType.EXPENSE, "Кафе");
+        List<Operation> operations = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            boolean income = i % 4 == 0;
+            operations.add(new Operation(UUID.randomUUID(),
+                    income ? OperationType.INCOME : OperationType.EXPENSE,
+                    account.getId(),
+                    new BigDecimal(income ? "100.00" : "10.50"),
+                    LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i),
+                    "Operation " + i,
+                    income ? salary.getId() : food.getId()));
+        }
+        String base = new File(folder.getRoot(), "data").getAbsolutePath();
+        new CsvExporter().exportAll(Arrays.asList(account), Arrays.asList(salary, food), operations, base);
+
+        CsvImporter importer = new CsvImporter(accountService, categoryService, operationService);
+        importer.importData(base + "_accounts.csv");
+        importer.importData(base + "_categories.csv");
+        importer.importData(base + "_operations.csv");
+
+        assertEquals(10_000, operationService.getOperationCount());
+        Operation first = operationService.getOperation(operations.get(1).getId()).get();
+        assertEquals("Operation 1", first.getDescription());
+        assertEquals(operations.get(1).getDate(), first.getDate());
+        assertEquals(food.getId(), first.getCategoryId());
+        assertEquals(0, new BigDecimal("171250.00").compareTo(
+                accountService.getAccount(account.getId()).get().getBalance()));
+
+        importer.importData(base + "_operations.csv");
+        assertEquals(10_000, operationService.getOperationCount());
+        assertEquals(0, new BigDecimal("171250.00").compareTo(
+                accountService.getAccount(account.getId()).get().getBalance()));
+    }
+
+    @Test
+    public void testPipelinedImportKeepsFileOrder() throws IOException, InterruptedException {
+        File file = folder.newFile("all.csv");
+        UUID accountId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        StringBuilder csv = new StringBuilder("# ACCOUNTS\nid,name,balance\n")
+                .append(accountId).append(",Main,0\n")
+                .append("# CATEGORIES\nid,type,name\n")
+                .append(categoryId).append(",INCOME,Salary\n")
+                .append("# OPERATIONS\nid,type,bankAccountId,amount,date,description,categoryId\n");
+        for (int i = 0; i < 5000; i++) {
+            csv.append(UUID.randomUUID()).append(",INCOME,").append(accountId).append(",1.10,2024-03-01 08:00:00,Op ")
+                    .append(i).append(',').append(categoryId).append('\n');
+        }
+        Files.write(file.toPath(), csv.toString().getBytes(Charset.defaultCharset()));
+
+        CsvImporter importer = new CsvImporter(accountService, categoryService, operationService);
+        importer.setWorkers(3);
+        importer.chunkSize = 4096;
+        ImportStats stats = importer.importPipelined(file.toPath());
+
+        assertEquals(1, stats.getAccounts());
+        assertEquals(1, stats.getCategories());
+        assertEquals(5000, stats.getOperations());
+        assertEquals(0, stats.getSkipped());
+        assertEquals(3, stats.getStages().size());
+        assertTrue(stats.getStages().get(0).getItems() > 10);
+        assertEquals(0, new BigDecimal("5500.00").compareTo(accountService.getAccount(accountId).get().getBalance()));
+    }
+
+    @Test
+    public void testMalformedAndUnknownRowsAreSkipped() throws IOException {
+        BankAccount account = accountService.createAccount("Счет");
+        Category category = categoryService.createCategory(OperationType.EXPENSE, "Еда");
+        File file = folder.newFile("operations.csv");
+        Files.write(file.toPath(), String.join("\r\n",
+                "# OPERATIONS",
+                "id,type,bankAccountId,amount,date,description,categoryId",
+                UUID.randomUUID() + ",EXPENSE," + account.getId() + ",25.00,2024-02-01 10:00:00,Обед," + category.getId(),
+                UUID.randomUUID() + ",EXPENSE," + account.getId() + ",abc,2024-02-01 10:00:00,Сломано," + category.getId(),
+                UUID.randomUUID() + ",EXPENSE," + UUID.randomUUID() + ",5.00,2024-02-01 10:00:00,Чужой," + category.getId(),
+                "  ",
+                UUID.randomUUID() + ",INCOME," + account.getId() + ",5.00,2024-02-31 10:00:00,Дата," + category.getId())
+                .getBytes(Charset.defaultCharset()));
+
+        ImportStats stats = new CsvImporter(accountService, categoryService, operationService)
+                .importFrom(file.toPath());
+
+        assertEquals(1, stats.getOperations());
+        assertEquals(3, stats.getSkipped());
+        assertEquals(0, new BigDecimal("-25.00").compareTo(
+                accountService.getAccount(account.getId()).get().getBalance()));
+    }
+}
\ No newline at end of file
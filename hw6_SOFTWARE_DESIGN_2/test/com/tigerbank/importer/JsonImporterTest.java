@@ -0,0 +1,137 @@
+package com.tigerbank.importer;
+
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import com.tigerbank.exporter.JsonExporter;
+import com.tigerbank.repository.BankAccountRepository;
+import com.tigerbank.repository.CategoryRepository;
+import com.tigerbank.repository.OperationRepository;
+import com.tigerbank.service.AccountService;
+import com.tigerbank.service.CategoryService;
+import com.tigerbank.service.OperationService;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+public class JsonImporterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private AccountService accountService;
+    private CategoryService categoryService;
+    private OperationService operationService;
+    private BankAccount account;
+    private List<Category> categories;
+    private List<Operation> operations;
+
+    @Before
+    public void setUp() {
+        BankAccountRepository accountRepository = new BankAccountRepository(null);
+        CategoryRepository categoryRepository = new CategoryRepository(null);
+        OperationRepository operationRepository = new OperationRepository(accountRepository, categoryRepository);
+
+        accountService = new AccountService(accountRepository, operationRepository);
+        categoryService = new CategoryService(categoryRepository);
+        operationService = new OperationService(operationRepository, accountService, categoryService);
+
+        account = new BankAccount(UUID.randomUUID(), "Main \"card\"", new BigDecimal("0"));
+        categories = Arrays.asList(
+                new Category(UUID.randomUUID(), OperationType.INCOME, "Salary"),
+                new Category(UUID.randomUUID(), OperationType.EXPENSE, "Food [daily], {cafe}"));
+        operations = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            Category category = categories.get(i % 2);
+            operations.add(new Operation(UUID.randomUUID(), category.getType(), account.getId(),
+                    new BigDecimal("2.00"), LocalDateTime.of(2024, 6, 1, 12, 0).plusMinutes(i),
+                    "Line \\\" ] , " + i, category.getId()));
+        }
+    }
+
+    @Test
+    public void testPipelinedImportOfFullExport() throws Exception {
+        String base = new File(folder.getRoot(), "data").getAbsolutePath();
+        new JsonExporter().exportAll(Arrays.asList(account), categories, operations, base);
+
+        JsonImporter importer = new JsonImporter(accountService, categoryService, operationService);
+        importer.setWorkers(3);
+        importer.chunkSize = 2048;
+        ImportStats stats = importer.importPipelined(Paths.get(base + "_all.json"));
+
+        assertEquals(1, stats.getAccounts());
+        assertEquals(2, stats.getCategories());
+        assertEquals(3000, stats.getOperations());
+        assertEquals(0, stats.getSkipped());
+        assertEquals("Food [daily], {cafe}", categoryService.getCategory(categories.get(1).getId()).get().getName());
+        assertEquals(operations.get(7).getDescription(),
+                operationService.getOperation(operations.get(7).getId()).get().getDescription());
+        assertEquals(0, BigDecimal.ZERO.compareTo(accountService.getAccount(account.getId()).get().getBalance()));
+    }
+
+    @Test
+    public void testPipelinedImportOfRootArrays() throws Exception {
+        String accounts = new File(folder.getRoot(), "accounts.json").getAbsolutePath();
+        String operationsFile = new File(folder.getRoot(), "operations.json").getAbsolutePath();
+        JsonExporter exporter = new JsonExporter();
+        exporter.exportAccounts(Arrays.asList(account), accounts);
+        exporter.exportCategories(categories, new File(folder.getRoot(), "categories.json").getAbsolutePath());
+        exporter.exportOperations(operations, operationsFile);
+
+        JsonImporter importer = new JsonImporter(accountService, categoryService, operationService);
+        importer.setWorkers(2);
+        importer.importData(accounts);
+        importer.importData(new File(folder.getRoot(), "categories.json").getAbsolutePath());
+        importer.importData(operationsFile);
+
+        assertEquals(3000, operationService.getOperationCount());
+        assertEquals(2, categoryService.getAllCategories().size());
+    }
+
+    @Test
+    public void testStreamingImportOfFullExport() throws Exception {
+        String base = new File(folder.getRoot(), "data").getAbsolutePath();
+        new JsonExporter().exportAll(Arrays.asList(account), categories, operations, base);
+
+        JsonImporter importer = new JsonImporter(accountService, categoryService, operationService);
+        importer.importData(base + "_all.json");
+
+        assertEquals(3000, operationService.getOperationCount());
+        assertEquals("Food [daily], {cafe}", categoryService.getCategory(categories.get(1).getId()).get().getName());
+        assertEquals(operations.get(11).getDescription(),
+                operationService.getOperation(operations.get(11).getId()).get().getDescription());
+    }
+
+    @Test
+    public void testStreamingImportSkipsBrokenElements() throws Exception {
+        String json = "{\"version\": {\"major\": 1, \"tags\": [\"a\", \"]\"]},"
+                + " \"accounts\": [{\"id\": \"" + account.getId() + "\", \"name\": \"\\u0421\\u0447\\u0451\\u0442 \\\"A\\\"\","
+                + " \"balance\": 10.50, \"extra\": null}],"
+                + " \"operations\": ["
+                + "{\"id\": \"" + UUID.randomUUID() + "\", \"type\": \"INCOME\", \"bankAccountId\": \"" + account.getId() + "\","
+                + " \"amount\": \"5\", \"date\": \"2024-01-02 03:04:05\", \"categoryId\": null},"
+                + "{\"id\": \"" + UUID.randomUUID() + "\", \"type\": \"UNKNOWN\", \"bankAccountId\": \"" + account.getId() + "\","
+                + " \"amount\": \"1\", \"date\": \"2024-01-02 03:04:05\"}]}";
+        File file = folder.newFile("custom.json");
+        java.nio.file.Files.write(file.toPath(), json.getBytes(java.nio.charset.Charset.defaultCharset()));
+
+        JsonImporter importer = new JsonImporter(accountService, categoryService, operationService);
+        importer.importData(file.getAbsolutePath());
+
+        assertEquals("\u0421\u0447\u0451\u0442 \"A\"", accountService.getAccount(account.getId()).get().getName());
+        assertEquals(1, operationService.getOperationCount());
+        assertEquals(0, new BigDecimal("5").compareTo(operationService.getTotalIncome(
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0))));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.tigerbank.importer;
+
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import com.tigerbank.exporter.JsonExporter;
+import com.tigerbank.exporter.SnapshotExporter;
+import com.tigerbank.exporter.SnapshotFormat;
+import com.tigerbank.repository.BankAccountRepository;
+import com.tigerbank.repository.CategoryRepository;
+import com.tigerbank.repository.OperationRepository;
+import com.tigerbank.service.AccountService;
+import com.tigerbank.service.CategoryService;
+import com.tigerbank.service.OperationService;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+public class SnapshotImporterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private AccountService accountService;
+    private CategoryService categoryService;
+    private OperationService operationService;
+    private List<BankAccount> accounts;
+    private List<Category> categories;
+    private List<Operation> operations;
+
+    @Before
+    public void setUp() {
+        BankAccountRepository accountRepository = new BankAccountRepository(null);
+        CategoryRepository categoryRepository = new CategoryRepository(null);
+        OperationRepository operationRepository = new OperationRepository(accountRepository, categoryRepository);
+
+        accountService = new AccountService(accountRepository, operationRepository);
+        categoryService = new CategoryService(categoryRepository);
+        operationService = new OperationService(operationRepository, accountService, categoryService);
+
+        accounts = Arrays.asList(
+                new BankAccount(UUID.randomUUID(), "Main 💳 card", new BigDecimal("0")),
+                new BankAccount(UUID.randomUUID(), "Вклад", new BigDecimal("0")));
+        categories = Arrays.asList(
+                new Category(UUID.randomUUID(), OperationType.INCOME, "Salary"),
+                new Category(UUID.randomUUID(), OperationType.EXPENSE, "Food"));
+        operations = new ArrayList<>();
+        LocalDateTime date = LocalDateTime.of(2024, 6, 1, 12, 0);
+        for (int i = 0; i < 200_000; i++) {
+            Category category = categories.get(i % 2);
+            date = date.plusSeconds(i % 7 == 0 ? -30 : 97);
+            operations.add(new Operation(UUID.randomUUID(), category.getType(), accounts.get(i % 2).getId(),
+                    new BigDecimal((i % 5000) + "." + (i % 100 < 10 ? "0" : "") + (i % 100)), date,
+                    i % 3 == 0 ? null : "Line " + i, i % 11 == 0 ? null : category.getId()));
+        }
+        operations.add(new Operation(UUID.randomUUID(), OperationType.INCOME, accounts.get(0).getId(),
+                new BigDecimal("123456789012345678901234567890.123"), LocalDateTime.of(1900, 1, 1, 0, 0, 0, 123456789),
+                "Большая \"сумма\"\n", null));
+    }
+
+    @Test
+    public void testSnapshotRoundTrip() throws Exception {
+        String base = new File(folder.getRoot(), "backup").getAbsolutePath();
+        new SnapshotExporter().exportAll(accounts, categories, operations, base);
+
+        SnapshotImporter importer = new SnapshotImporter(accountService, categoryService, operationService);
+        importer.importData(base + SnapshotFormat.FILE_EXTENSION);
+
+        assertEquals(operations.size(), operationService.getOperationCount());
+        assertEquals(accounts.get(0).getName(), accountService.getAccount(accounts.get(0).getId()).get().getName());
+        assertEquals(accounts.get(1).getName(), accountService.getAccount(accounts.get(1).getId()).get().getName());
+        for (int i : new int[] { 0, 1, 7, 11, 199_999, operations.size() - 1 }) {
+            Operation expected = operations.get(i);
+            Operation actual = operationService.getOperation(expected.getId()).get();
+            assertEquals(expected.getType(), actual.getType());
+            assertEquals(expected.getBankAccountId(), actual.getBankAccountId());
+            assertEquals(expected.getAmount(), actual.getAmount());
+            assertEquals(expected.getDate(), actual.getDate());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.getCategoryId(), actual.getCategoryId());
+        }
+    }
+
+    @Test
+    public void testSnapshotIsMuchSmallerThanJson() throws Exception {
+        String base = new File(folder.getRoot(), "backup").getAbsolutePath();
+        new SnapshotExporter().exportAll(accounts, categories, operations, base);
+        new JsonExporter().exportAll(accounts, categories, operations, base);
+
+        long snapshot = new File(base + SnapshotFormat.FILE_EXTENSION).length();
+        long json = new File(base + "_all.json").length();
+        assertTrue("snapshot " + snapshot + ", json " + json, snapshot * 5 < json);
+    }
+
+    @Test
+    public void testCorruptedBlockIsRejected() throws Exception {
+        String base = new File(folder.getRoot(), "backup").getAbsolutePath();
+        new SnapshotExporter().exportAll(accounts, categories, operations, base);
+
+        File file = new File(base + SnapshotFormat.FILE_EXTENSION);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            long offset = SnapshotFormat.MAGIC.length + 1 + SnapshotFormat.BLOCK_HEADER_SIZE + 3;
+            raf.seek(offset);
+            int b = raf.read();
+            raf.seek(offset);
+            raf.write(b ^ 0x5A);
+        }
+
+        SnapshotImporter importer = new SnapshotImporter(accountService, categoryService, operationService);
+        try {
+            importer.importData(file.getAbsolutePath());
+            fail("Поврежденный снимок должен отклоняться");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause().getMessage().startsWith("Поврежденный снимок"));
+        }
+    }
+}
\ No newline at end of file
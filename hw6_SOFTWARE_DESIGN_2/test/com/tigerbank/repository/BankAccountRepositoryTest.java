@@ -2,6 +2,7 @@ package com.tigerbank.repository;
 
 import com.tigerbank.domain.BankAccount;
 import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
 import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.*;
@@ -69,4 +70,51 @@ public class BankAccountRepositoryTest {
         boolean result = repository.delete(account.getId());
         assertNotNull(Boolean.valueOf(result));
     }
+
+    @Test
+    public void testOperationsAreLoadedLazily() {
+        OperationRepository operations = new OperationRepository(
+                new BankAccountRepository(null), new CategoryRepository(null));
+        BankAccountRepository lazyRepository = new BankAccountRepository(operations);
+
+        BankAccount account = new BankAccount("Test Account");
+        lazyRepository.save(account);
+
+        BankAccount found = lazyRepository.findAll().get(0);
+        operations.save(new Operation(OperationType.INCOME, account.getId(),
+                new BigDecimal("100.00"), UUID.randomUUID()));
+
+        assertEquals(1, found.getOperations().size());
+    }
+
+    @Test
+    public void testEagerLoadingMode() {
+        OperationRepository operations = new OperationRepository(
+                new BankAccountRepository(null), new CategoryRepository(null));
+        BankAccountRepository eagerRepository = new BankAccountRepository(operations, false);
+
+        BankAccount account = new BankAccount("Test Account");
+        eagerRepository.save(account);
+
+        BankAccount found = eagerRepository.findById(account.getId()).get();
+        operations.save(new Operation(OperationType.INCOME, account.getId(),
+                new BigDecimal("100.00"), UUID.randomUUID()));
+
+        assertTrue(found.getOperations().isEmpty());
+    }
+
+    @Test
+    public void testOperationRepositoryConnectedAfterConstruction() {
+        BankAccountRepository accounts = new BankAccountRepository(null);
+        OperationRepository operations = new OperationRepository(accounts, new CategoryRepository(null));
+        accounts.setOperationRepository(operations);
+
+        BankAccount account = accounts.save(new BankAccount("Wired"));
+        Operation operation = operations.save(new Operation(UUID.randomUUID(), OperationType.INCOME,
+                account.getId(), BigDecimal.TEN, java.time.LocalDateTime.now(), "", null));
+
+        assertEquals(1, accounts.findById(account.getId()).get().getOperations().size());
+        assertTrue(accounts.delete(account.getId()));
+        assertFalse(operations.existsById(operation.getId()));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,137 @@
+package com.tigerbank.repository;
+
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import com.tigerbank.exporter.CsvExporter;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public class ChangeLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private BankAccountRepository accountRepository;
+    private CategoryRepository categoryRepository;
+    private OperationRepository operationRepository;
+    private ChangeLog changeLog;
+    private BankAccount account;
+    private Category category;
+
+    @Before
+    public void setUp() {
+        accountRepository = new BankAccountRepository(null);
+        categoryRepository = new CategoryRepository(null);
+        operationRepository = new OperationRepository(accountRepository, categoryRepository);
+
+        account = accountRepository.save(new BankAccount(UUID.randomUUID(), "Main", BigDecimal.ZERO));
+        category = categoryRepository.save(new Category(UUID.randomUUID(), OperationType.EXPENSE, "Food"));
+        for (int i = 0; i < 100; i++) {
+            operationRepository.save(operation(i));
+        }
+
+        changeLog = new ChangeLog();
+        changeLog.attach(accountRepository, categoryRepository, operationRepository);
+    }
+
+    @Test
+    public void testExistingDataIsInFirstExport() {
+        ChangeSet changes = changeLog.since(0);
+
+        assertEquals(1, changes.getAccounts().size());
+        assertEquals(1, changes.getCategories().size());
+        assertEquals(100, changes.getOperations().size());
+        assertEquals(102, changes.getTo());
+    }
+
+    @Test
+    public void testOnlyChangesAfterCheckpointAreReturned() {
+        long checkpoint = changeLog.currentSequence();
+        Operation updated = operationRepository.findAll().get(5);
+        updated.setAmount(new BigDecimal("999.99"));
+        operationRepository.save(updated);
+        operationRepository.save(updated);
+        Operation added = operationRepository.save(operation(500));
+        UUID removed = operationRepository.findAll().stream()
+                .map(Operation::getId)
+                .filter(id -> !id.equals(updated.getId()) && !id.equals(added.getId()))
+                .findFirst().get();
+        operationRepository.delete(removed);
+
+        ChangeSet changes = changeLog.since(checkpoint);
+
+        assertEquals(checkpoint + 4, changes.getTo());
+        assertTrue(changes.getAccounts().isEmpty());
+        assertEquals(2, changes.getOperations().size());
+        assertTrue(changes.getOperations().contains(updated));
+        assertTrue(changes.getOperations().contains(added));
+        assertEquals(1, changes.getDeleted().size());
+        assertEquals(removed, changes.getDeleted().get(0).getId());
+        assertEquals(ChangeSet.Entity.OPERATION, changes.getDeleted().get(0).getEntity());
+        assertTrue(changeLog.since(changes.getTo()).isEmpty());
+    }
+
+    @Test
+    public void testClearSupersedesEarlierChanges() {
+        long checkpoint = changeLog.currentSequence();
+        operationRepository.delete(operationRepository.findAll().get(0).getId());
+        operationRepository.clear();
+        Operation added = operationRepository.save(operation(1));
+
+        ChangeSet changes = changeLog.since(checkpoint);
+        List<ChangeSet.Tombstone> deleted = changes.getDeleted();
+
+        assertEquals(1, deleted.size());
+        assertTrue(deleted.get(0).isClear());
+        assertEquals(1, changes.getOperations().size());
+        assertSame(added, changes.getOperations().get(0));
+        assertEquals(4, changeLog.size());
+    }
+
+    @Test
+    public void testCompactDropsAcknowledgedTombstones() {
+        UUID removed = operationRepository.findAll().get(0).getId();
+        operationRepository.delete(removed);
+        long checkpoint = changeLog.currentSequence();
+        assertEquals(102, changeLog.size());
+
+        changeLog.compact(checkpoint);
+
+        assertEquals(101, changeLog.size());
+        assertTrue(changeLog.since(0).getDeleted().isEmpty());
+    }
+
+    @Test
+    public void testCsvExportSinceCheckpoint() throws Exception {
+        long checkpoint = changeLog.currentSequence();
+        accountRepository.updateBalance(account.getId(), balance -> balance.add(BigDecimal.TEN));
+        UUID removed = operationRepository.findAll().get(3).getId();
+        operationRepository.delete(removed);
+
+        File file = new File(folder.getRoot(), "changes.csv");
+        long next = new CsvExporter().exportSince(changeLog, checkpoint, file.getAbsolutePath());
+
+        String csv = new String(Files.readAllBytes(file.toPath()));
+        assertEquals(checkpoint + 2, next);
+        assertTrue(csv.contains(checkpoint + "," + next));
+        assertTrue(csv.contains("OPERATION," + removed + "," + next));
+        assertTrue(csv.contains(account.getId() + ",Main,10"));
+        assertFalse(csv.contains(category.getId().toString()));
+    }
+
+    private Operation operation(int i) {
+        return new Operation(UUID.randomUUID(), OperationType.EXPENSE, account.getId(),
+                new BigDecimal(i + 1), LocalDateTime.of(2024, 1, 1, 0, 0).plusHours(i), "Op " + i, category.getId());
+    }
+}
\ No newline at end of file
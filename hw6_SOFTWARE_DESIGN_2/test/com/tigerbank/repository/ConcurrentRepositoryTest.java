@@ -0,0 +1,96 @@
+package com.tigerbank.repository;
+
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Category;
+import com.tigerbank.enums.OperationType;
+import com.tigerbank.service.AccountService;
+import com.tigerbank.service.CategoryService;
+import com.tigerbank.service.OperationService;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ConcurrentRepositoryTest {
+
+    private static final int THREADS = 32;
+    private static final int ITERATIONS = 500;
+
+    private ConcurrentOperationRepository operationRepository;
+    private AccountService accountService;
+    private CategoryService categoryService;
+    private OperationService operationService;
+
+    @Before
+    public void setUp() {
+        ConcurrentOperationRepository bootstrap = new ConcurrentOperationRepository(null, null);
+        ConcurrentBankAccountRepository accountRepository = new ConcurrentBankAccountRepository(bootstrap);
+        ConcurrentCategoryRepository categoryRepository = new ConcurrentCategoryRepository(bootstrap);
+        operationRepository = new ConcurrentOperationRepository(accountRepository, categoryRepository);
+
+        accountService = new AccountService(accountRepository, operationRepository);
+        categoryService = new CategoryService(categoryRepository);
+        operationService = new OperationService(operationRepository, accountService, categoryService);
+    }
+
+    @Test
+    public void testNoLostBalanceUpdates() throws Exception {
+        BankAccount account = accountService.createAccount("Shared Account");
+
+        runConcurrently(() -> {
+            for (int i = 0; i < ITERATIONS; i++) {
+                accountService.updateAccountBalance(account.getId(), BigDecimal.ONE, OperationType.INCOME);
+            }
+        });
+
+        assertEquals(new BigDecimal(THREADS * ITERATIONS),
+                accountService.getAccount(account.getId()).get().getBalance());
+    }
+
+    @Test
+    public void testConcurrentOperationCreation() throws Exception {
+        BankAccount account = accountService.createAccount("Shared Account");
+        Category category = categoryService.createCategory(OperationType.EXPENSE, "Food");
+
+        runConcurrently(() -> {
+            for (int i = 0; i < ITERATIONS; i++) {
+                operationService.createOperation(OperationType.EXPENSE, account.getId(),
+                        BigDecimal.ONE, category.getId(), "Concurrent");
+            }
+        });
+
+        int expected = THREADS * ITERATIONS;
+        assertEquals(expected, operationRepository.count());
+        assertEquals(expected, operationRepository.countByBankAccountId(account.getId()));
+        assertEquals(expected, operationRepository.findByType(OperationType.EXPENSE).size());
+        assertEquals(new BigDecimal(-expected),
+                accountService.getAccount(account.getId()).get().getBalance());
+    }
+
+    private void runConcurrently(Runnable task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.tigerbank.repository;
+
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+public class DescriptionIndexTest {
+
+    private static final String[] DESCRIPTIONS = {
+            "Кофе в Шоколаднице", "Ёлка и игрушки", "Продукты: кофе, молоко", "Такси до аэропорта",
+            "Зарплата за март", "Coffee-shop 24/7", "" };
+
+    private OperationRepository repository;
+    private List<Operation> operations;
+
+    @Before
+    public void setUp() {
+        repository = new OperationRepository(new BankAccountRepository(null), new CategoryRepository(null));
+        operations = new ArrayList<>();
+        for (int i = 0; i < 2100; i++) {
+            Operation operation = operation(DESCRIPTIONS[i % DESCRIPTIONS.length]);
+            operations.add(operation);
+            repository.save(operation);
+        }
+    }
+
+    @Test
+    public void testQueriesMatchDescriptionScan() {
+        String[] queries = { "кофе", "КОФЕ молоко", "елка", "ЁЛКИ", "кофе | такси", "зарплата ИЛИ елк*",
+                "coff*", "coffee shop", "24 7", "шок* кофе", "нет такого", "OR", "ко*" };
+        for (String query : queries) {
+            DescriptionIndex.Query parsed = DescriptionIndex.Query.parse(query);
+            Set<UUID> expected = operations.stream()
+                    .filter(operation -> parsed.matches(operation.getDescription()))
+                    .map(Operation::getId)
+                    .collect(Collectors.toSet());
+            assertEquals(query, expected, ids(repository.search(query, Integer.MAX_VALUE)));
+        }
+
+        assertEquals(600, repository.search("кофе", Integer.MAX_VALUE).size());
+        assertEquals(300, repository.search("Ёлка", Integer.MAX_VALUE).size());
+        assertEquals(300, repository.search("кофе молоко", Integer.MAX_VALUE).size());
+        assertEquals(900, repository.search("кофе OR такси", Integer.MAX_VALUE).size());
+        assertEquals(300, repository.search("coff*", Integer.MAX_VALUE).size());
+        assertEquals(0, repository.search("coff", Integer.MAX_VALUE).size());
+        assertEquals(10, repository.search("кофе", 10).size());
+        assertTrue(repository.search("   ", Integer.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    public void testDeleteAndResaveUpdateIndex() {
+        DescriptionIndex index = repository.getDescriptionIndex();
+        Operation renamed = operations.get(3);
+        renamed.setDescription("Такси домой");
+        repository.save(renamed);
+        Operation added = operation("Новая ёлка");
+        repository.save(added);
+
+        assertTrue(ids(repository.search("такси домой", Integer.MAX_VALUE)).equals(Set.of(renamed.getId())));
+        assertFalse(ids(repository.search("аэропорта", Integer.MAX_VALUE)).contains(renamed.getId()));
+        assertTrue(ids(repository.search("нов* елка", Integer.MAX_VALUE)).equals(Set.of(added.getId())));
+
+        // Удаляем больше половины строк, чтобы индекс перенумеровал строки
+        for (int i = 0; i < 1500; i++) {
+            repository.delete(operations.get(i).getId());
+        }
+        Set<UUID> coffee = operations.subList(1500, operations.size()).stream()
+                .filter(operation -> operation.getDescription().contains("офе"))
+                .map(Operation::getId)
+                .collect(Collectors.toSet());
+        assertEquals(coffee, ids(repository.search("кофе", Integer.MAX_VALUE)));
+        assertEquals(Set.of(added.getId()), ids(repository.search("ёлка новая", Integer.MAX_VALUE)));
+        assertEquals(601, index.size());
+
+        Operation tax = operation("Налог на имущество");
+        Operation deduction = operation("Налоговый вычет");
+        repository.save(tax);
+        repository.save(deduction);
+        assertEquals(Set.of(tax.getId(), deduction.getId()), ids(repository.search("налог*", Integer.MAX_VALUE)));
+        assertEquals(Set.of(deduction.getId()), ids(repository.search("НАЛОГ* вычет", Integer.MAX_VALUE)));
+
+        repository.clear();
+        assertTrue(repository.search("кофе", Integer.MAX_VALUE).isEmpty());
+        assertEquals(0, index.termCount());
+    }
+
+    private static Operation operation(String description) {
+        return new Operation(UUID.randomUUID(), OperationType.EXPENSE, null, BigDecimal.ONE,
+                LocalDateTime.of(2024, 1, 1, 0, 0), description, null);
+    }
+
+    private static Set<UUID> ids(List<Operation> operations) {
+        return operations.stream().map(Operation::getId).collect(Collectors.toCollection(HashSet::new));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.tigerbank.repository;
+
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class OperationAggregatesTest {
+
+    private OperationRepository repository;
+    private UUID accountId;
+    private UUID salaryId;
+    private UUID foodId;
+
+    @Before
+    public void setUp() {
+        repository = new OperationRepository(new BankAccountRepository(null), new CategoryRepository(null));
+        accountId = UUID.randomUUID();
+        salaryId = UUID.randomUUID();
+        foodId = UUID.randomUUID();
+    }
+
+    @Test
+    public void testTotalsFollowSaveAndDelete() {
+        Operation salary = save(OperationType.INCOME, salaryId, "1000.00", LocalDateTime.of(2024, 1, 10, 9, 0));
+        Operation lunch = save(OperationType.EXPENSE, foodId, "250.00", LocalDateTime.of(2024, 1, 10, 13, 0));
+        OperationAggregates aggregates = repository.getAggregates();
+
+        assertEquals(0, new BigDecimal("1000.00").compareTo(aggregates.getAccountTotal(accountId, OperationType.INCOME)));
+        assertEquals(0, new BigDecimal("250.00").compareTo(aggregates.getCategoryTotal(foodId, OperationType.EXPENSE)));
+
+        lunch.setAmount(new BigDecimal("300.00"));
+        repository.save(lunch);
+        assertEquals(0, new BigDecimal("300.00").compareTo(aggregates.getAccountTotal(accountId, OperationType.EXPENSE)));
+
+        repository.delete(salary.getId());
+        assertEquals(0, BigDecimal.ZERO.compareTo(aggregates.getAccountTotal(accountId, OperationType.INCOME)));
+        assertFalse(aggregates.getCategoryTotals(OperationType.INCOME).containsKey(salaryId));
+
+        repository.clear();
+        assertTrue(aggregates.getCategoryTotals(OperationType.EXPENSE).isEmpty());
+    }
+
+    @Test
+    public void testRangeMatchesFullScan() {
+        Random random = new Random(42);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 500; i++) {
+            boolean income = random.nextBoolean();
+            save(income ? OperationType.INCOME : OperationType.EXPENSE, income ? salaryId : foodId,
+                    random.nextInt(100000) / 100 + ".00", base.plusMinutes(random.nextInt(60 * 24 * 60)));
+        }
+        OperationAggregates aggregates = repository.getAggregates();
+
+        LocalDateTime start = LocalDateTime.of(2024, 1, 5, 14, 30);
+        LocalDateTime end = LocalDateTime.of(2024, 2, 3, 8, 15);
+        List<Operation> inRange = repository.findByDateBetween(start, end);
+
+        OperationAggregates.Summary summary = aggregates.summarize(start, end, 10);
+        assertEquals(0, sum(inRange, OperationType.INCOME).compareTo(summary.getTotal(OperationType.INCOME)));
+        assertEquals(0, sum(inRange, OperationType.EXPENSE).compareTo(
+                aggregates.getTotal(OperationType.EXPENSE, start, end)));
+        assertEquals(0, sum(inRange, OperationType.EXPENSE).compareTo(summary.getCategoryTotal(foodId)));
+
+        List<BigDecimal> expectedTop = inRange.stream()
+                .map(Operation::getAmount)
+                .sorted(Comparator.reverseOrder())
+                .limit(10)
+                .collect(Collectors.toList());
+        List<BigDecimal> actualTop = summary.getTopOperationIds().stream()
+                .map(id -> repository.findById(id).get().getAmount())
+                .collect(Collectors.toList());
+        assertEquals(expectedTop, actualTop);
+    }
+
+    @Test
+    public void testPeriodTotalsOverDecades() {
+        Random random = new Random(11);
+        LocalDateTime base = LocalDateTime.of(1990, 1, 1, 0, 0);
+        for (int i = 0; i < 2000; i++) {
+            boolean income = random.nextBoolean();
+            save(income ? OperationType.INCOME : OperationType.EXPENSE, income ? salaryId : foodId,
+                    random.nextInt(100000) + ".00", base.plusHours(random.nextInt(24 * 365 * 40)));
+        }
+        save(OperationType.INCOME, salaryId, "5.00", LocalDateTime.of(1950, 6, 1, 12, 0));
+        save(OperationType.INCOME, salaryId, "100.00", LocalDateTime.of(2005, 5, 5, 10, 0));
+        OperationAggregates aggregates = repository.getAggregates();
+
+        List<LocalDateTime[]> ranges = Arrays.asList(
+                new LocalDateTime[] { LocalDateTime.of(1940, 1, 1, 0, 0), LocalDateTime.of(2040, 1, 1, 0, 0) },
+                new LocalDateTime[] { LocalDateTime.of(1995, 3, 7, 0, 0), LocalDateTime.of(2011, 8, 2, 23, 59, 59, 999_999_999) },
+                new LocalDateTime[] { LocalDateTime.of(2001, 1, 1, 17, 0), LocalDateTime.of(2001, 1, 1, 21, 0) },
+                new LocalDateTime[] { LocalDateTime.of(2003, 4, 4, 6, 0), LocalDateTime.of(2020, 2, 2, 6, 0) },
+                new LocalDateTime[] { LocalDateTime.of(2005, 5, 5, 0, 0), LocalDateTime.of(2005, 5, 5, 23, 59, 59) },
+                new LocalDateTime[] { LocalDateTime.of(2005, 5, 5, 0, 0), LocalDateTime.of(2005, 5, 5, 12, 0) });
+        for (LocalDateTime[] range : ranges) {
+            List<Operation> inRange = repository.findByDateBetween(range[0], range[1]);
+            for (OperationType type : OperationType.values()) {
+                assertEquals(0, sum(inRange, type).compareTo(aggregates.getTotal(type, range[0], range[1])));
+            }
+        }
+    }
+
+    private Operation save(OperationType type, UUID categoryId, String amount, LocalDateTime date) {
+        return repository.save(new Operation(UUID.randomUUID(), type, accountId,
+                new BigDecimal(amount), date, "Test", categoryId));
+    }
+
+    private static BigDecimal sum(List<Operation> operations, OperationType type) {
+        return operations.stream()
+                .filter(op -> op.getType() == type)
+                .map(Operation::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,126 @@
+package com.tigerbank.repository;
+
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+public class OperationQueryTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private OperationRepository repository;
+    private UUID[] accounts;
+    private UUID[] categories;
+    private List<Operation> operations;
+
+    @Before
+    public void setUp() {
+        repository = new OperationRepository(new BankAccountRepository(null), new CategoryRepository(null));
+        accounts = new UUID[] { UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID() };
+        categories = new UUID[20];
+        for (int i = 0; i < categories.length; i++) {
+            categories[i] = UUID.randomUUID();
+        }
+        operations = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            Operation operation = new Operation(UUID.randomUUID(),
+                    i % 4 == 0 ? OperationType.INCOME : OperationType.EXPENSE,
+                    accounts[i % accounts.length],
+                    BigDecimal.valueOf(i * 37 % 1000, i % 3),
+                    BASE.plusHours(i),
+                    i % 5 == 0 ? "Coffee at work" : "Groceries",
+                    categories[i % categories.length]);
+            operations.add(operation);
+            repository.save(operation);
+        }
+    }
+
+    @Test
+    public void testPlannerPicksMostSelectiveIndex() {
+        OperationQuery byCategory = OperationQuery.builder()
+                .account(accounts[0])
+                .category(categories[3])
+                .type(OperationType.EXPENSE)
+                .between(BASE, BASE.plusDays(20))
+                .build();
+        assertEquals(QueryPlan.Access.CATEGORY, repository.explain(byCategory).getAccess());
+        assertEquals(30, repository.explain(byCategory).getEstimatedRows());
+
+        OperationQuery byDate = OperationQuery.builder()
+                .category(categories[3])
+                .between(BASE.plusHours(10), BASE.plusHours(14))
+                .build();
+        assertEquals(QueryPlan.Access.DATE, repository.explain(byDate).getAccess());
+        assertEquals(5, repository.explain(byDate).getEstimatedRows());
+
+        OperationQuery unindexed = OperationQuery.builder().descriptionContains("coffee").build();
+        assertEquals(QueryPlan.Access.SCAN, repository.explain(unindexed).getAccess());
+    }
+
+    @Test
+    public void testResultsMatchFilteringAllOperations() {
+        OperationQuery query = OperationQuery.builder()
+                .account(accounts[1])
+                .type(OperationType.EXPENSE)
+                .from(BASE.plusDays(3))
+                .amountBetween(new BigDecimal("1.5"), new BigDecimal("500"))
+                .descriptionContains("COFFEE")
+                .build();
+
+        List<UUID> expected = operations.stream()
+                .filter(op -> op.getBankAccountId().equals(accounts[1]))
+                .filter(op -> op.getType() == OperationType.EXPENSE)
+                .filter(op -> !op.getDate().isBefore(BASE.plusDays(3)))
+                .filter(op -> op.getAmount().compareTo(new BigDecimal("1.5")) >= 0
+                        && op.getAmount().compareTo(new BigDecimal("500")) <= 0)
+                .filter(op -> op.getDescription().startsWith("Coffee"))
+                .map(Operation::getId)
+                .sorted()
+                .collect(Collectors.toList());
+
+        List<UUID> actual = repository.find(query).stream()
+                .map(Operation::getId)
+                .sorted()
+                .collect(Collectors.toList());
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testSortOffsetAndLimit() {
+        OperationQuery.Builder builder = OperationQuery.builder()
+                .type(OperationType.INCOME)
+                .orderBy(OperationQuery.Order.AMOUNT_DESC);
+        List<Operation> all = repository.find(builder.build());
+        assertEquals(150, all.size());
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).getAmount().compareTo(all.get(i).getAmount()) >= 0);
+        }
+
+        List<Operation> page = repository.find(builder.offset(10).limit(5).build());
+        assertEquals(all.subList(10, 15), page);
+
+        assertEquals(3, repository.stream(OperationQuery.builder().limit(3).build()).count());
+        assertTrue(repository.find(builder.offset(0).limit(0).build()).isEmpty());
+    }
+
+    @Test
+    public void testStreamSurvivesChangesWhileConsumed() {
+        OperationQuery query = OperationQuery.builder().account(accounts[2]).build();
+        List<UUID> seen = new ArrayList<>();
+        repository.stream(query).forEach(operation -> {
+            seen.add(operation.getId());
+            repository.delete(operation.getId());
+        });
+        assertEquals(200, seen.size());
+        assertEquals(0, repository.countByBankAccountId(accounts[2]));
+    }
+}
\ No newline at end of file
@@ -76,4 +76,62 @@ public class OperationRepositoryTest {
         assertTrue(repository.delete(operation.getId()));
         assertFalse(repository.findById(operation.getId()).isPresent());
     }
+
+    @Test
+    public void testFindByIndexes() {
+        UUID accountId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        LocalDateTime date = LocalDateTime.of(2024, 3, 15, 12, 0);
+
+        repository.save(new Operation(UUID.randomUUID(), OperationType.INCOME, accountId,
+                new BigDecimal("100.00"), date, "Op 1", categoryId));
+        repository.save(new Operation(UUID.randomUUID(), OperationType.EXPENSE, accountId,
+                new BigDecimal("50.00"), date.plusDays(10), "Op 2", UUID.randomUUID()));
+        repository.save(new Operation(UUID.randomUUID(), OperationType.EXPENSE, UUID.randomUUID(),
+                new BigDecimal("25.00"), date.minusDays(10), "Op 3", categoryId));
+
+        assertEquals(2, repository.findByBankAccountId(accountId).size());
+        assertEquals(2, repository.findByCategoryId(categoryId).size());
+        assertEquals(1, repository.findByType(OperationType.INCOME).size());
+        assertEquals(2, repository.findByType(OperationType.EXPENSE).size());
+        assertEquals(2, repository.findByDateBetween(date, date.plusDays(10)).size());
+        assertEquals(1, repository.findByDateBetween(date.minusDays(1), date.plusDays(1)).size());
+    }
+
+    @Test
+    public void testIndexesFollowResave() {
+        UUID categoryId = UUID.randomUUID();
+        Operation operation = new Operation(
+                OperationType.INCOME,
+                UUID.randomUUID(),
+                new BigDecimal("1000.00"),
+                categoryId);
+        repository.save(operation);
+
+        operation.setCategoryId(null);
+        operation.setType(OperationType.EXPENSE);
+        repository.save(operation);
+
+        assertTrue(repository.findByCategoryId(categoryId).isEmpty());
+        assertTrue(repository.findByType(OperationType.INCOME).isEmpty());
+        assertEquals(1, repository.findByType(OperationType.EXPENSE).size());
+    }
+
+    @Test
+    public void testDeleteRemovesFromIndexes() {
+        UUID accountId = UUID.randomUUID();
+        Operation operation = new Operation(
+                OperationType.INCOME,
+                accountId,
+                new BigDecimal("1000.00"),
+                UUID.randomUUID());
+
+        repository.save(operation);
+        repository.delete(operation.getId());
+
+        assertTrue(repository.findByBankAccountId(accountId).isEmpty());
+        assertTrue(repository.findByType(OperationType.INCOME).isEmpty());
+        assertTrue(repository.findByDateBetween(
+                operation.getDate().minusDays(1), operation.getDate().plusDays(1)).isEmpty());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.tigerbank.service;
+
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class AnalyticsEngineTest {
+
+    @Test
+    public void testParallelResultMatchesSequentialSums() {
+        Random random = new Random(7);
+        List<UUID> accounts = Arrays.asList(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        List<UUID> categories = Arrays.asList(UUID.randomUUID(), UUID.randomUUID());
+        List<Operation> operations = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            operations.add(new Operation(UUID.randomUUID(),
+                    random.nextBoolean() ? OperationType.INCOME : OperationType.EXPENSE,
+                    accounts.get(random.nextInt(accounts.size())),
+                    BigDecimal.valueOf(random.nextInt(1_000_000), 2),
+                    LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i),
+                    null,
+                    categories.get(random.nextInt(categories.size()))));
+        }
+
+        AnalyticsEngine.Result result = AnalyticsEngine.analyze(operations, 10);
+
+        assertEquals(0, sum(operations, OperationType.INCOME, null).compareTo(result.getTotal(OperationType.INCOME)));
+        for (UUID categoryId : categories) {
+            assertEquals(0, sum(operations, OperationType.EXPENSE, categoryId)
+                    .compareTo(result.getCategoryTotals(OperationType.EXPENSE).get(categoryId)));
+        }
+        BigDecimal expectedBalance = operations.stream()
+                .filter(op -> op.getBankAccountId().equals(accounts.get(0)))
+                .map(op -> op.getType() == OperationType.INCOME ? op.getAmount() : op.getAmount().negate())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, expectedBalance.compareTo(result.getAccountBalances().get(accounts.get(0))));
+
+        List<BigDecimal> expectedTop = operations.stream()
+                .map(Operation::getAmount)
+                .sorted(Comparator.reverseOrder())
+                .limit(10)
+                .collect(Collectors.toList());
+        assertEquals(expectedTop, result.getTopOperations().stream()
+                .map(Operation::getAmount)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testFallsBackToBigDecimalOnOverflowAndFinePrecision() {
+        UUID accountId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        List<Operation> operations = Arrays.asList(
+                new Operation(OperationType.INCOME, accountId, new BigDecimal("90000000000000000.00"), categoryId),
+                new Operation(OperationType.INCOME, accountId, new BigDecimal("90000000000000000.00"), categoryId),
+                new Operation(OperationType.INCOME, accountId, new BigDecimal("0.005"), categoryId));
+
+        AnalyticsEngine.Result result = AnalyticsEngine.analyze(operations, 0);
+
+        assertEquals(0, new BigDecimal("180000000000000000.005").compareTo(result.getTotal(OperationType.INCOME)));
+        assertTrue(result.getTopOperations().isEmpty());
+    }
+
+    @Test
+    public void testDateRangeFilter() {
+        UUID accountId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        LocalDateTime date = LocalDateTime.of(2024, 5, 1, 12, 0);
+        List<Operation> operations = Arrays.asList(
+                new Operation(UUID.randomUUID(), OperationType.EXPENSE, accountId, new BigDecimal("10.00"),
+                        date, null, categoryId),
+                new Operation(UUID.randomUUID(), OperationType.EXPENSE, accountId, new BigDecimal("20.00"),
+                        date.plusDays(2), null, categoryId));
+
+        AnalyticsEngine.Result result = AnalyticsEngine.analyze(operations, date, date.plusDays(1), 10);
+
+        assertEquals(0, new BigDecimal("10.00").compareTo(result.getTotal(OperationType.EXPENSE)));
+        assertEquals(1, result.getTopOperations().size());
+    }
+
+    private static BigDecimal sum(List<Operation> operations, OperationType type, UUID categoryId) {
+        return operations.stream()
+                .filter(op -> op.getType() == type)
+                .filter(op -> categoryId == null || categoryId.equals(op.getCategoryId()))
+                .map(Operation::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.tigerbank.service;
+
+import com.tigerbank.repository.BankAccountRepository;
+import com.tigerbank.repository.CategoryRepository;
+import com.tigerbank.repository.OperationRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AnalyticsJobServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2024, 1, 31, 23, 59, 59);
+
+    private AccountService accountService;
+    private AnalyticsJobService jobService;
+
+    @Before
+    public void setUp() {
+        OperationRepository operationRepository = new OperationRepository(null, null);
+        BankAccountRepository accountRepository = new BankAccountRepository(operationRepository);
+        CategoryRepository categoryRepository = new CategoryRepository(operationRepository);
+        operationRepository = new OperationRepository(accountRepository, categoryRepository);
+
+        accountService = new AccountService(accountRepository, operationRepository);
+        CategoryService categoryService = new CategoryService(categoryRepository);
+        OperationService operationService = new OperationService(operationRepository, accountService, categoryService);
+        jobService = new AnalyticsJobService(accountService, categoryService, operationService, 2);
+    }
+
+    @After
+    public void tearDown() {
+        jobService.shutdown();
+    }
+
+    @Test
+    public void testRepeatedRequestIsServedFromCache() {
+        AtomicInteger computations = new AtomicInteger();
+
+        AnalyticsJob<Integer> first = jobService.submit("report", START, END, job -> computations.incrementAndGet());
+        assertEquals(Integer.valueOf(1), first.getResult().join());
+        assertFalse(first.isCached());
+
+        AnalyticsJob<Integer> second = jobService.submit("report", START, END, job -> computations.incrementAndGet());
+        assertTrue(second.isCached());
+        assertTrue(second.getResult().isDone());
+        assertEquals(Integer.valueOf(1), second.getResult().join());
+        assertEquals(1, computations.get());
+    }
+
+    @Test
+    public void testDataChangeInvalidatesCache() {
+        AtomicInteger computations = new AtomicInteger();
+        jobService.submit("report", START, END, job -> computations.incrementAndGet()).getResult().join();
+
+        long version = jobService.getDataVersion();
+        accountService.createAccount("Account");
+        assertTrue(jobService.getDataVersion() > version);
+
+        AnalyticsJob<Integer> job = jobService.submit("report", START, END, j -> computations.incrementAndGet());
+        assertFalse(job.isCached());
+        assertEquals(Integer.valueOf(2), job.getResult().join());
+        assertEquals(1, jobService.getCacheSize());
+    }
+
+    @Test
+    public void testCancelStopsRunningJob() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+
+        AnalyticsJob<String> job = jobService.submit("slow", START, END, j -> {
+            started.countDown();
+            try {
+                while (true) {
+                    j.checkCancelled();
+                    Thread.sleep(10);
+                }
+            } catch (InterruptedException e) {
+                return "interrupted";
+            } finally {
+                finished.countDown();
+            }
+        });
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        job.cancel();
+
+        assertTrue(job.isCancelled());
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(0, jobService.getCacheSize());
+
+        AnalyticsJob<String> retry = jobService.submit("slow", START, END, j -> "done");
+        assertFalse(retry.isCached());
+        assertEquals("done", retry.getResult().join());
+    }
+
+    @Test
+    public void testProgressIsReported() throws Exception {
+        CountDownLatch halfway = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+
+        AnalyticsJob<String> job = jobService.run("progress", j -> {
+            j.setProgress(50);
+            halfway.countDown();
+            try {
+                resume.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "ok";
+        });
+
+        assertTrue(halfway.await(5, TimeUnit.SECONDS));
+        assertEquals(50, job.getProgress());
+        resume.countDown();
+        assertEquals("ok", job.getResult().join());
+        assertEquals(100, job.getProgress());
+    }
+}
\ No newline at end of file
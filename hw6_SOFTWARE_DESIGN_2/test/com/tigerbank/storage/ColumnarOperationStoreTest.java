@@ -0,0 +1,199 @@
+package com.tigerbank.storage;
+
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import com.tigerbank.repository.BankAccountRepository;
+import com.tigerbank.repository.CategoryRepository;
+import com.tigerbank.repository.OperationQuery;
+import com.tigerbank.repository.OperationRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class ColumnarOperationStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ColumnarOperationStore store;
+    private UUID accountId;
+    private UUID categoryId;
+
+    @Before
+    public void setUp() {
+        store = new ColumnarOperationStore(folder.getRoot().toPath(), 256, 4096);
+        accountId = UUID.randomUUID();
+        categoryId = UUID.randomUUID();
+    }
+
+    @After
+    public void tearDown() {
+        store.close();
+    }
+
+    @Test
+    public void testPutAndGet() {
+        Operation operation = new Operation(UUID.randomUUID(), OperationType.EXPENSE, accountId,
+                new BigDecimal("123.45"), LocalDateTime.of(2024, 3, 1, 12, 0, 30), "Кофе", categoryId);
+        store.put(operation);
+
+        Operation loaded = store.get(operation.getId());
+        assertNotNull(loaded);
+        assertEquals(operation.getId(), loaded.getId());
+        assertEquals(OperationType.EXPENSE, loaded.getType());
+        assertEquals(accountId, loaded.getBankAccountId());
+        assertEquals(categoryId, loaded.getCategoryId());
+        assertEquals(0, new BigDecimal("123.45").compareTo(loaded.getAmount()));
+        assertEquals(operation.getDate(), loaded.getDate());
+        assertEquals("Кофе", loaded.getDescription());
+        assertNull(store.get(UUID.randomUUID()));
+    }
+
+    @Test
+    public void testManyRowsAcrossSegments() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Operation operation = newOperation(i % 2 == 0 ? OperationType.INCOME : OperationType.EXPENSE, i);
+            store.put(operation);
+            ids.add(operation.getId());
+        }
+        for (int i = 0; i < ids.size(); i += 2) {
+            assertTrue(store.remove(ids.get(i)));
+        }
+
+        assertEquals(2500, store.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i % 2 != 0, store.get(ids.get(i)) != null);
+        }
+        assertEquals(0, store.findByType(OperationType.INCOME).size());
+        assertEquals(2500, store.findByAccount(accountId).size());
+        assertEquals(2500, store.countByCategory(categoryId));
+        assertFalse(store.remove(ids.get(0)));
+    }
+
+    @Test
+    public void testUpdateInPlace() {
+        Operation operation = newOperation(OperationType.EXPENSE, 1);
+        store.put(operation);
+
+        operation.setAmount(new BigDecimal("99.90"));
+        operation.setDescription("Изменено");
+        store.put(operation);
+
+        assertEquals(1, store.size());
+        Operation loaded = store.get(operation.getId());
+        assertEquals(0, new BigDecimal("99.90").compareTo(loaded.getAmount()));
+        assertEquals("Изменено", loaded.getDescription());
+    }
+
+    @Test
+    public void testFindByDateBetweenAndSum() {
+        for (int day = 1; day <= 10; day++) {
+            Operation operation = newOperation(OperationType.INCOME, day);
+            operation.setDate(LocalDateTime.of(2024, 1, day, 9, 0));
+            operation.setAmount(new BigDecimal("10.50"));
+            store.put(operation);
+        }
+        LocalDateTime start = LocalDateTime.of(2024, 1, 3, 9, 0);
+        LocalDateTime end = LocalDateTime.of(2024, 1, 5, 9, 0);
+
+        assertEquals(3, store.findByDateBetween(start, end).size());
+        assertEquals(2, store.findByDateBetween(start.plusNanos(1), end).size());
+        assertEquals(3150, store.sumScaledAmounts(OperationType.INCOME, start, end));
+        assertEquals(0, store.sumScaledAmounts(OperationType.EXPENSE, start, end));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsExtraPrecision() {
+        Operation operation = newOperation(OperationType.EXPENSE, 1);
+        operation.setAmount(new BigDecimal("1.005"));
+        store.put(operation);
+    }
+
+    @Test
+    public void testRejectedAmountLeavesNoRow() {
+        Operation stored = newOperation(OperationType.EXPENSE, 1);
+        store.put(stored);
+        Operation rejected = newOperation(OperationType.EXPENSE, 2);
+        rejected.setAmount(new BigDecimal("1.005"));
+        try {
+            store.put(rejected);
+            fail("Сумма с тремя знаками должна отклоняться");
+        } catch (IllegalArgumentException expected) {
+            // строка не должна появиться
+        }
+        assertEquals(1, store.size());
+        assertNull(store.get(rejected.getId()));
+
+        Operation changed = store.get(stored.getId());
+        changed.setAmount(new BigDecimal("2.345"));
+        try {
+            store.put(changed);
+            fail("Сумма с тремя знаками должна отклоняться");
+        } catch (IllegalArgumentException expected) {
+            // прежние значения строки не тронуты
+        }
+        assertEquals(0, stored.getAmount().compareTo(store.get(stored.getId()).getAmount()));
+    }
+
+    @Test
+    public void testAsOperationRepositoryBackend() {
+        OperationRepository repository = new OperationRepository(
+                new BankAccountRepository(null), new CategoryRepository(null), store);
+        Operation operation = newOperation(OperationType.EXPENSE, 7);
+        repository.save(operation);
+
+        assertEquals(1, repository.findByBankAccountId(accountId).size());
+        assertEquals(1, repository.countByCategoryId(categoryId));
+        assertTrue(repository.findById(operation.getId()).isPresent());
+
+        repository.clear();
+        assertEquals(0, store.size());
+        assertFalse(repository.findById(operation.getId()).isPresent());
+    }
+
+    @Test
+    public void testSelectChecksColumnsBeforeMaterializing() {
+        UUID otherAccount = UUID.randomUUID();
+        for (int i = 0; i < 600; i++) {
+            Operation operation = newOperation(i % 2 == 0 ? OperationType.INCOME : OperationType.EXPENSE, i);
+            if (i % 3 == 0) {
+                operation.setBankAccountId(otherAccount);
+            }
+            store.put(operation);
+        }
+        store.remove(store.findByType(OperationType.EXPENSE).get(0).getId());
+
+        OperationQuery query = OperationQuery.builder()
+                .account(accountId)
+                .type(OperationType.EXPENSE)
+                .between(LocalDateTime.of(2024, 1, 1, 1, 0), LocalDateTime.of(2024, 1, 1, 8, 0))
+                .amountBetween(new BigDecimal("100"), new BigDecimal("400.5"))
+                .build();
+        List<UUID> expected = new ArrayList<>();
+        for (Operation operation : store.findAll()) {
+            if (query.matches(operation)) {
+                expected.add(operation.getId());
+            }
+        }
+        List<UUID> actual = new ArrayList<>();
+        store.select(query).forEach(operation -> actual.add(operation.getId()));
+
+        assertEquals(100, expected.size());
+        assertEquals(expected, actual);
+        assertEquals(0, store.select(OperationQuery.builder().category(UUID.randomUUID()).build()).count());
+    }
+
+    private Operation newOperation(OperationType type, int index) {
+        return new Operation(UUID.randomUUID(), type, accountId, new BigDecimal(index + ".00"),
+                LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(index), "Операция " + index, categoryId);
+    }
+}
\ No newline at end of file
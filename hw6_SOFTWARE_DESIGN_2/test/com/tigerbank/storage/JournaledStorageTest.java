@@ -0,0 +1,151 @@
+package com.tigerbank.storage;
+
+import com.tigerbank.domain.BankAccount;
+import com.tigerbank.domain.Category;
+import com.tigerbank.domain.Operation;
+import com.tigerbank.enums.OperationType;
+import com.tigerbank.repository.BankAccountRepository;
+import com.tigerbank.repository.CategoryRepository;
+import com.tigerbank.repository.ConcurrentBankAccountRepository;
+import com.tigerbank.repository.ConcurrentCategoryRepository;
+import com.tigerbank.repository.ConcurrentOperationRepository;
+import com.tigerbank.repository.OperationRepository;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class JournaledStorageTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+    private BankAccountRepository accountRepository;
+    private CategoryRepository categoryRepository;
+    private OperationRepository operationRepository;
+
+    @Before
+    public void setUp() {
+        directory = folder.getRoot().toPath();
+        createRepositories();
+    }
+
+    @Test
+    public void testRecoverFromJournal() {
+        JournaledStorage storage = open(1000);
+        BankAccount account = accountRepository.save(new BankAccount("Main"));
+        Category category = categoryRepository.save(new Category(OperationType.INCOME, "Salary"));
+        Operation operation = operationRepository.save(newOperation(account, category, "100.50"));
+        Operation deleted = operationRepository.save(newOperation(account, category, "7.00"));
+        operationRepository.delete(deleted.getId());
+        storage.close();
+
+        createRepositories();
+        open(1000).close();
+
+        assertEquals(1, accountRepository.findAll().size());
+        assertEquals(1, categoryRepository.findAll().size());
+        Operation recovered = operationRepository.findById(operation.getId()).get();
+        assertEquals(new BigDecimal("100.50"), recovered.getAmount());
+        assertEquals(operation.getDate(), recovered.getDate());
+        assertEquals("Test", recovered.getDescription());
+        assertFalse(operationRepository.findById(deleted.getId()).isPresent());
+    }
+
+    @Test
+    public void testRecoverFromSnapshotAndTail() {
+        JournaledStorage storage = open(10);
+        BankAccount account = accountRepository.save(new BankAccount("Main"));
+        Category category = categoryRepository.save(new Category(OperationType.EXPENSE, "Food"));
+        for (int i = 0; i < 25; i++) {
+            operationRepository.save(newOperation(account, category, "1.00"));
+        }
+        account.setName("Renamed");
+        accountRepository.save(account);
+        storage.close();
+
+        assertTrue(directory.resolve("snapshot.bin").toFile().exists());
+
+        createRepositories();
+        open(10).close();
+
+        assertEquals(25, operationRepository.count());
+        assertEquals("Renamed", accountRepository.findById(account.getId()).get().getName());
+    }
+
+    @Test
+    public void testTornTailIsDiscarded() throws IOException {
+        JournaledStorage storage = open(1000);
+        BankAccount account = accountRepository.save(new BankAccount("Main"));
+        accountRepository.save(new BankAccount("Second"));
+        storage.close();
+
+        Path journal = directory.resolve("journal.log");
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        createRepositories();
+        open(1000).close();
+
+        assertEquals(1, accountRepository.findAll().size());
+        assertTrue(accountRepository.findById(account.getId()).isPresent());
+    }
+
+    @Test
+    public void testSaveReturnsAfterJournalIsWritten() throws IOException {
+        // Интервал коммита больше времени теста: на диск пишет только ожидание
+        JournaledStorage storage = open(1000, 60_000);
+        BankAccount account = accountRepository.save(new BankAccount("Main"));
+        storage.deferSync(() -> {
+            accountRepository.save(new BankAccount("Second"));
+            return accountRepository.save(new BankAccount("Third"));
+        });
+
+        Path copy = folder.newFolder("copy").toPath();
+        Files.copy(directory.resolve("journal.log"), copy.resolve("journal.log"));
+        storage.close();
+
+        createRepositories();
+        JournaledStorage recovered = new JournaledStorage(copy,
+                accountRepository, categoryRepository, operationRepository, 1000, 5);
+        recovered.open();
+        recovered.close();
+
+        assertEquals(3, accountRepository.findAll().size());
+        assertTrue(accountRepository.findById(account.getId()).isPresent());
+    }
+
+    private JournaledStorage open(long snapshotEvery) {
+        return open(snapshotEvery, 5);
+    }
+
+    private JournaledStorage open(long snapshotEvery, long commitIntervalMillis) {
+        JournaledStorage storage = new JournaledStorage(directory,
+                accountRepository, categoryRepository, operationRepository, snapshotEvery, commitIntervalMillis);
+        storage.open();
+        return storage;
+    }
+
+    private void createRepositories() {
+        // Плановый снимок читает репозитории из своего потока
+        accountRepository = new ConcurrentBankAccountRepository(null);
+        categoryRepository = new ConcurrentCategoryRepository(null);
+        operationRepository = new ConcurrentOperationRepository(accountRepository, categoryRepository);
+    }
+
+    private Operation newOperation(BankAccount account, Category category, String amount) {
+        return new Operation(UUID.randomUUID(), category.getType(), account.getId(),
+                new BigDecimal(amount), LocalDateTime.of(2024, 1, 15, 10, 30, 15), "Test", category.getId());
+    }
+}
\ No newline at end of file